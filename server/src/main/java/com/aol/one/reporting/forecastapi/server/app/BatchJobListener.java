@@ -0,0 +1,49 @@
+/********************************************************************************
+ * Copyright 2018, Oath Inc.
+ * Licensed under the terms of the Apache Version 2.0 license.
+ * See LICENSE file in project root directory for terms.
+ ********************************************************************************/
+package com.aol.one.reporting.forecastapi.server.app;
+
+import com.aol.one.reporting.forecastapi.server.service.BatchJobService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.servlet.ServletContextEvent;
+import javax.servlet.ServletContextListener;
+import javax.servlet.annotation.WebListener;
+import java.io.IOException;
+
+
+/**
+ * Servlet context listener that starts the batch forecast job service when the application starts,
+ * resuming the jobs left unfinished, and stops it when the application stops. The jobs directory and
+ * the batch executor are configured in forecast-api.properties.
+ */
+@WebListener("Servlet Context Listener that manages the batch forecast jobs")
+public class BatchJobListener implements ServletContextListener {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BatchJobListener.class);
+
+    private static final long SHUTDOWN_TIMEOUT = 30000;
+
+    /* (non-Javadoc)
+     * @see javax.servlet.ServletContextListener#contextDestroyed(javax.servlet.ServletContextEvent)
+     */
+    @Override
+    public void contextDestroyed(ServletContextEvent event) {
+        BatchJobService.shutdown(SHUTDOWN_TIMEOUT);
+    }
+
+    /* (non-Javadoc)
+     * @see javax.servlet.ServletContextListener#contextInitialized(javax.servlet.ServletContextEvent)
+     */
+    @Override
+    public void contextInitialized(ServletContextEvent event) {
+        try {
+            BatchJobService.start();
+        } catch (IOException e) {
+            LOG.error("Failed to start batch forecast jobs", e);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/********************************************************************************
+ * Copyright 2018, Oath Inc.
+ * Licensed under the terms of the Apache Version 2.0 license.
+ * See LICENSE file in project root directory for terms.
+ ********************************************************************************/
+package com.aol.one.reporting.forecastapi.server.app;
+
+import com.aol.one.reporting.forecastapi.server.metrics.MetricsContextListener;
+import com.aol.one.reporting.forecastapi.server.models.cs.IFSCannedSetCompetition;
+import com.aol.one.reporting.forecastapi.server.models.cs.IFSCompetitionCache;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.servlet.ServletContextEvent;
+import javax.servlet.ServletContextListener;
+import javax.servlet.annotation.WebListener;
+
+
+/**
+ * Servlet context listener that creates the cache of canned set competition results when the
+ * application starts. The cache is bounded by the size and time to live set in
+ * forecast-api.properties (a size of 0 disables the cache) and its hits, misses, evictions, and
+ * size are exposed as gauges in the metrics registry.
+ */
+@WebListener("Servlet Context Listener that manages the canned set competition cache")
+public class CompetitionCacheListener implements ServletContextListener {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CompetitionCacheListener.class);
+
+    private static final String SIZE_PROPERTY_NAME = "ifs.competition.cache.size";
+    private static final String TTL_PROPERTY_NAME = "ifs.competition.cache.ttl";
+    private static final int DEFAULT_SIZE = 10000;
+    private static final int DEFAULT_TTL = 600000;
+
+    private static final String[] GAUGE_NAMES = new String[]{"cache.hits", "cache.misses", "cache.evictions",
+            "cache.size"};
+
+    /* (non-Javadoc)
+     * @see javax.servlet.ServletContextListener#contextDestroyed(javax.servlet.ServletContextEvent)
+     */
+    @Override
+    public void contextDestroyed(ServletContextEvent event) {
+        MetricRegistry metrics = MetricsContextListener.getMetrics();
+        for (String gaugeName : GAUGE_NAMES) {
+            metrics.remove(MetricRegistry.name(IFSCannedSetCompetition.class, gaugeName));
+        }
+
+        IFSCannedSetCompetition.setCache(null);
+    }
+
+    /* (non-Javadoc)
+     * @see javax.servlet.ServletContextListener#contextInitialized(javax.servlet.ServletContextEvent)
+     */
+    @Override
+    public void contextInitialized(ServletContextEvent event) {
+        int size = IfsConfig.getIntProperty(SIZE_PROPERTY_NAME, DEFAULT_SIZE, 0);
+        int ttl = IfsConfig.getIntProperty(TTL_PROPERTY_NAME, DEFAULT_TTL, 1);
+
+        if (size == 0) {
+            LOG.debug("Competition cache disabled");
+            return;
+        }
+
+        final IFSCompetitionCache cache = new IFSCompetitionCache(size, ttl);
+        LOG.debug("Competition cache size : " + size + " ttl : " + ttl + " milliseconds");
+
+        MetricRegistry metrics = MetricsContextListener.getMetrics();
+        metrics.register(MetricRegistry.name(IFSCannedSetCompetition.class, "cache.hits"), new Gauge<Long>() {
+            @Override
+            public Long getValue() {
+                return cache.getNumHits();
+            }
+        });
+        metrics.register(MetricRegistry.name(IFSCannedSetCompetition.class, "cache.misses"), new Gauge<Long>() {
+            @Override
+            public Long getValue() {
+                return cache.getNumMisses();
+            }
+        });
+        metrics.register(MetricRegistry.name(IFSCannedSetCompetition.class, "cache.evictions"), new Gauge<Long>() {
+            @Override
+            public Long getValue() {
+                return cache.getNumEvictions();
+            }
+        });
+        metrics.register(MetricRegistry.name(IFSCannedSetCompetition.class, "cache.size"), new Gauge<Integer>() {
+            @Override
+            public Integer getValue() {
+                return cache.getSize();
+            }
+        });
+
+        IFSCannedSetCompetition.setCache(cache);
+    }
+}
@@ -0,0 +1,106 @@
+/********************************************************************************
+ * Copyright 2018, Oath Inc.
+ * Licensed under the terms of the Apache Version 2.0 license.
+ * See LICENSE file in project root directory for terms.
+ ********************************************************************************/
+package com.aol.one.reporting.forecastapi.server.app;
+
+import com.aol.one.reporting.forecastapi.server.metrics.MetricsContextListener;
+import com.aol.one.reporting.forecastapi.server.models.cs.IFSCannedSetCompetition;
+import com.aol.one.reporting.forecastapi.server.models.cs.IFSCompetitionExecutor;
+import com.aol.one.reporting.forecastapi.server.service.BulkForecastService;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.servlet.ServletContextEvent;
+import javax.servlet.ServletContextListener;
+import javax.servlet.annotation.WebListener;
+
+
+/**
+ * Servlet context listener that creates the executor canned set competitions run on when the
+ * application starts and shuts it down when the application stops. The executor is sized from
+ * forecast-api.properties and its state is exposed as gauges in the metrics registry. The bulk forecast threads
+ * feeding the executor are shut down first.
+ */
+@WebListener("Servlet Context Listener that manages the canned set competition executor")
+public class CompetitionExecutorListener implements ServletContextListener {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CompetitionExecutorListener.class);
+
+    private static final String POOL_SIZE_PROPERTY_NAME = "ifs.competition.pool.size";
+    private static final String MAX_ACTIVE_PROPERTY_NAME = "ifs.competition.max.active";
+    private static final String QUEUE_SIZE_PROPERTY_NAME = "ifs.competition.queue.size";
+    private static final String MAX_PARALLELISM_PROPERTY_NAME = "ifs.competition.max.parallelism";
+    private static final long SHUTDOWN_TIMEOUT = 30000;
+
+    private static final String[] GAUGE_NAMES = new String[]{"active", "queued", "steals", "rejected"};
+
+    private IFSCompetitionExecutor executor;
+
+    /* (non-Javadoc)
+     * @see javax.servlet.ServletContextListener#contextDestroyed(javax.servlet.ServletContextEvent)
+     */
+    @Override
+    public void contextDestroyed(ServletContextEvent event) {
+        MetricRegistry metrics = MetricsContextListener.getMetrics();
+        for (String gaugeName : GAUGE_NAMES) {
+            metrics.remove(MetricRegistry.name(IFSCannedSetCompetition.class, gaugeName));
+        }
+
+        BulkForecastService.shutdown(SHUTDOWN_TIMEOUT);
+        IFSCannedSetCompetition.setExecutor(null);
+        if (executor != null) {
+            executor.shutdown(SHUTDOWN_TIMEOUT);
+            executor = null;
+        }
+    }
+
+    /* (non-Javadoc)
+     * @see javax.servlet.ServletContextListener#contextInitialized(javax.servlet.ServletContextEvent)
+     */
+    @Override
+    public void contextInitialized(ServletContextEvent event) {
+        int processors = Runtime.getRuntime().availableProcessors();
+        int poolSize = IfsConfig.getIntProperty(POOL_SIZE_PROPERTY_NAME, processors, 1);
+        int maxActive = IfsConfig.getIntProperty(MAX_ACTIVE_PROPERTY_NAME, poolSize, 1);
+        int queueSize = IfsConfig.getIntProperty(QUEUE_SIZE_PROPERTY_NAME, 100, 0);
+        int maxParallelism = IfsConfig.getIntProperty(MAX_PARALLELISM_PROPERTY_NAME, poolSize, 1);
+
+        final IFSCompetitionExecutor competitionExecutor = new IFSCompetitionExecutor(poolSize, maxActive, queueSize,
+                maxParallelism);
+        LOG.debug("Competition executor pool size : " + poolSize + " max active : " + maxActive
+                + " queue size : " + queueSize + " max parallelism : " + maxParallelism);
+
+        MetricRegistry metrics = MetricsContextListener.getMetrics();
+        metrics.register(MetricRegistry.name(IFSCannedSetCompetition.class, "active"), new Gauge<Integer>() {
+            @Override
+            public Integer getValue() {
+                return competitionExecutor.getNumActive();
+            }
+        });
+        metrics.register(MetricRegistry.name(IFSCannedSetCompetition.class, "queued"), new Gauge<Long>() {
+            @Override
+            public Long getValue() {
+                return competitionExecutor.getNumQueued();
+            }
+        });
+        metrics.register(MetricRegistry.name(IFSCannedSetCompetition.class, "steals"), new Gauge<Long>() {
+            @Override
+            public Long getValue() {
+                return competitionExecutor.getNumSteals();
+            }
+        });
+        metrics.register(MetricRegistry.name(IFSCannedSetCompetition.class, "rejected"), new Gauge<Long>() {
+            @Override
+            public Long getValue() {
+                return competitionExecutor.getNumRejected();
+            }
+        });
+
+        executor = competitionExecutor;
+        IFSCannedSetCompetition.setExecutor(competitionExecutor);
+    }
+}
@@ -7,11 +7,13 @@
 package com.aol.one.reporting.forecastapi.server.app;
 
 import com.aol.one.reporting.forecastapi.server.metrics.MetricsContextListener;
+import com.aol.one.reporting.forecastapi.server.resource.BulkForecastResource;
 import com.aol.one.reporting.forecastapi.server.resource.CannedSetResource;
 import com.aol.one.reporting.forecastapi.server.resource.CollectionListResource;
 import com.aol.one.reporting.forecastapi.server.resource.EasyForecastResource;
 import com.aol.one.reporting.forecastapi.server.resource.HealthResource;
 import com.aol.one.reporting.forecastapi.server.resource.ImpressionForecastResource;
+import com.aol.one.reporting.forecastapi.server.resource.JobResource;
 import com.aol.one.reporting.forecastapi.server.resource.SelectionForecastResource;
 import com.aol.one.reporting.forecastapi.server.resource.SimpleForecastResource;
 import com.aol.one.reporting.forecastapi.server.resource.WelcomeResource;
@@ -103,6 +105,8 @@ public class IfsApplication extends ResourceConfig {
         register(new WelcomeResource());
         register(new HealthResource());
         register(new SimpleForecastResource());
+        register(new BulkForecastResource());
+        register(JobResource.class);
 
         // register Swagger resources
         packages("com.wordnik.swagger.jersey.listing");
@@ -61,6 +61,39 @@ public class IfsConfig {
         cache = new IfsCache();
     }
 
+    /**
+     * Read an integer property falling back to a default value when the property is not set or invalid.
+     *
+     * @param name property name
+     * @param defaultValue value to use when the property is not set or invalid
+     * @param minimumValue smallest valid value
+     * @return the property value
+     */
+    public static int getIntProperty(String name, int defaultValue, int minimumValue) {
+        String value = null;
+        try {
+            Properties properties = config();
+            value = properties.getProperty(name);
+        } catch (IOException ie) {
+            LOG.error("Failed read property '" + name + "'", ie);
+        }
+
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+
+        try {
+            int intValue = Integer.parseInt(value.trim());
+            if (intValue >= minimumValue) {
+                return intValue;
+            }
+        } catch (NumberFormatException nfe) {
+            LOG.error("Property '" + name + "' is not an integer", nfe);
+        }
+        LOG.error("Invalid property '" + name + "' using default " + defaultValue);
+        return defaultValue;
+    }
+
     private Properties properties() {
         return this.properties;
     }
@@ -7,20 +7,51 @@
 package com.aol.one.reporting.forecastapi.server.jpe.gw;
 
 import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * Implements a grid walk algorithm (GW) for optimization purposes. To use, the
  * GW is instantiated with an object that implements the GWInterface.
  * 
+ * Each iteration rates the weights one step up and one step down from the
+ * current optimum for every weight. These ratings are independent of one
+ * another, so given an executor and an object implementing the
+ * GWParallelInterface they are rated concurrently on copies of the object.
+ * The optimum is then taken in the same order as when rating in turn, so the
+ * walk finds the same optimal weights either way.
+ * 
+ * A step up often undoes a step down taken an iteration earlier (and vice
+ * versa), and a step beyond a bound is clipped back to the current weights.
+ * Such weights were rated already, so the walk keeps a memo of the ratings
+ * of its recent iterations (see GWMemo) and only rates weights it does not
+ * find there. The optimal weights are always rated once more at the end so
+ * objects keeping state from rating are left in the state of the optimum.
+ * 
  * @author Copyright &copy; 2012 John Eldreth All rights reserved.
  */
 public final class GW {
     private GWInterface         GWIObject = null;
     private boolean				IsTrace = false;
+    private int					NumEvaluations = 0;
+    private int					NumEvaluationsSaved = 0;
     private int					NumIterations = 0;
     private double				OptRating = 0.0;
     private double[]			OptWeights = null;
     private PrintStream			TraceOut = null;
+    private double[]			StartWeights = null;
+    private int					StartLevel = 0;
+    private long				Deadline = 0;
+    private Executor			RatingExecutor = null;
+    private GWInterface[]		Raters = null;
+    private GWMemo				Memo = null;
+
+    private static final int	MemoIterations = 4;
 
     /**
      * Instantiate a GW with the a GWInterface object. Once the GW object
@@ -60,6 +91,153 @@ public final class GW {
         init(gwi_object, is_trace, trace_out);
     }
 
+    /**
+     * Instantiate a GW with the a GWInterface object and a starting point.
+     * The walk starts from the given weights at the given accuracy level
+     * rather than from the middle of the weight bounds at the coarsest
+     * level. This is used to refine a previously found optimum.
+     *
+     * @param gwi_object Object implementing the GWInterface.
+     * @param start_weights Weights to start the walk from. Values are
+     *    clipped to the weight bounds.
+     * @param start_level Accuracy level (0-based) to start the walk at.
+     * @param is_trace Whether walk is to be traced (true) or not (false).
+     * @param trace_out Where to print trace info if trace is enabled.
+     *
+     * @throws GWException If there are problems with the parameter values.
+     */
+    public GW(
+        GWInterface gwi_object,
+        double[]	start_weights,
+        int			start_level,
+        boolean		is_trace,
+        PrintStream	trace_out
+    ) throws GWException {
+        if (gwi_object == null)
+            throw new GWException("The GW interface object cannot be null.");
+        if (start_weights == null
+        || start_weights.length != gwi_object.getNumWeights())
+            throw new GWException("The GW start weights must match the "
+            + "number of weights.");
+        if (start_level < 0 || start_level >= gwi_object.getNumLevels())
+            throw new GWException("The GW start level is out of range.");
+
+        StartWeights = start_weights;
+        StartLevel = start_level;
+        init(gwi_object, is_trace, trace_out);
+    }
+
+    /**
+     * Instantiate a GW with the a GWInterface object, an optional starting
+     * point, and a deadline. The walk is abandoned once the deadline has
+     * passed, which is checked at the start of every iteration.
+     *
+     * @param gwi_object Object implementing the GWInterface.
+     * @param start_weights Weights to start the walk from or null to start
+     *    from the middle of the weight bounds. Values are clipped to the
+     *    weight bounds.
+     * @param start_level Accuracy level (0-based) to start the walk at.
+     * @param deadline Time (System.currentTimeMillis()) by which the walk
+     *    must be done. 0 means there is no deadline.
+     * @param is_trace Whether walk is to be traced (true) or not (false).
+     * @param trace_out Where to print trace info if trace is enabled.
+     *
+     * @throws GWException If there are problems with the parameter values
+     *    or the deadline passed before the walk was done.
+     */
+    public GW(
+        GWInterface gwi_object,
+        double[]	start_weights,
+        int			start_level,
+        long		deadline,
+        boolean		is_trace,
+        PrintStream	trace_out
+    ) throws GWException {
+        if (gwi_object == null)
+            throw new GWException("The GW interface object cannot be null.");
+        if (start_weights != null
+        && start_weights.length != gwi_object.getNumWeights())
+            throw new GWException("The GW start weights must match the "
+            + "number of weights.");
+        if (start_level < 0 || start_level >= gwi_object.getNumLevels())
+            throw new GWException("The GW start level is out of range.");
+
+        StartWeights = start_weights;
+        StartLevel = start_level;
+        Deadline = deadline;
+        init(gwi_object, is_trace, trace_out);
+    }
+
+    /**
+     * Instantiate a GW with the a GWInterface object, an optional starting
+     * point, a deadline, and an executor to rate the weights of an iteration
+     * in parallel on. The executor is only used if the object implements the
+     * GWParallelInterface. The calling thread rates one set of weights itself
+     * and then any the executor has not started yet, so the walk does not
+     * wait on a busy executor.
+     *
+     * @param gwi_object Object implementing the GWInterface.
+     * @param start_weights Weights to start the walk from or null to start
+     *    from the middle of the weight bounds. Values are clipped to the
+     *    weight bounds.
+     * @param start_level Accuracy level (0-based) to start the walk at.
+     * @param deadline Time (System.currentTimeMillis()) by which the walk
+     *    must be done. 0 means there is no deadline.
+     * @param executor Executor to rate weights on or null to rate them in
+     *    the calling thread.
+     * @param is_trace Whether walk is to be traced (true) or not (false).
+     * @param trace_out Where to print trace info if trace is enabled.
+     *
+     * @throws GWException If there are problems with the parameter values,
+     *    the deadline passed before the walk was done, or the walk was
+     *    interrupted while waiting for ratings.
+     */
+    public GW(
+        GWInterface gwi_object,
+        double[]	start_weights,
+        int			start_level,
+        long		deadline,
+        Executor	executor,
+        boolean		is_trace,
+        PrintStream	trace_out
+    ) throws GWException {
+        if (gwi_object == null)
+            throw new GWException("The GW interface object cannot be null.");
+        if (start_weights != null
+        && start_weights.length != gwi_object.getNumWeights())
+            throw new GWException("The GW start weights must match the "
+            + "number of weights.");
+        if (start_level < 0 || start_level >= gwi_object.getNumLevels())
+            throw new GWException("The GW start level is out of range.");
+
+        StartWeights = start_weights;
+        StartLevel = start_level;
+        Deadline = deadline;
+        if (gwi_object instanceof GWParallelInterface)
+            RatingExecutor = executor;
+        init(gwi_object, is_trace, trace_out);
+    }
+
+    /**
+     * Fetch the number of weight ratings evaluated to find the optimal set
+     * of weights.
+     * 
+     * @return Number of rating evaluations.
+     */
+    public int getNumEvaluations() {
+        return NumEvaluations;
+    }
+
+    /**
+     * Fetch the number of weight ratings taken from the memo of rated
+     * weights rather than evaluated.
+     * 
+     * @return Number of rating evaluations saved.
+     */
+    public int getNumEvaluationsSaved() {
+        return NumEvaluationsSaved;
+    }
+
     /**
      * Fetch the number of iterations actually executed to find
      * the optimal set of weights.
@@ -98,6 +276,21 @@ public final class GW {
     @SuppressWarnings("unused")
 	private GW() {}
 
+    /**
+     * Create the objects rating the weights of an iteration. The GW object
+     * rates the first set of weights and copies of it rate the others.
+     *
+     * @param num_ratings Number of ratings per iteration.
+     */
+    private void createRaters(
+        int			num_ratings
+    ) {
+        Raters = new GWInterface[num_ratings];
+        Raters[0] = GWIObject;
+        for (int j = 1; j < num_ratings; j++)
+            Raters[j] = ((GWParallelInterface)GWIObject).copy();
+    }
+
     /**
      * Initialize the GW object. Then compute the optimal weights.
      *
@@ -123,57 +316,183 @@ public final class GW {
         
         OptWeights = new double[num_weights];
         for (int i = 0; i < num_weights; i++)
-        	OptWeights[i] = (GWIObject.getWeightUpperBound(i)
-        		+GWIObject.getWeightLowerBound(i))/2.0;
+        	if (StartWeights == null)
+        		OptWeights[i] = (GWIObject.getWeightUpperBound(i)
+        			+GWIObject.getWeightLowerBound(i))/2.0;
+        	else
+        		OptWeights[i] = Math.max(GWIObject.getWeightLowerBound(i),
+        			Math.min(GWIObject.getWeightUpperBound(i),
+        			StartWeights[i]));
         OptRating = GWIObject.getRating(OptWeights);
+        NumEvaluations++;
         if (IsTrace)
         	GWIObject.printTrace(TraceOut, NumIterations, 0, -1,
         		OptWeights, OptRating);
 		
-		double[]	weights_n_p = new double[num_weights];	
-		double[]	weights_t = new double[num_weights];
+		int			num_ratings = 2*num_weights;
+		double[][]	weights_t = new double[num_ratings][num_weights];
+		double[]	ratings = new double[num_ratings];
+		boolean[]	is_rated = new boolean[num_ratings];
+		double[]	precision = new double[num_weights];
 		boolean		is_done = true;
 		int			levels = GWIObject.getNumLevels();
 		double		step = 0.0;
 		double		min_bound = 0.0;
 		double		max_bound = 0.0;
-		double		rating = 0.0;
 		
-		for (int level = 0; level < levels; level++) {
+		if (RatingExecutor != null && num_ratings > 1)
+			createRaters(num_ratings);
+		for (int i = 0; i < num_weights; i++)
+			precision[i] = GWIObject.getStepSize(levels-1, i);
+		Memo = new GWMemo(OptWeights, precision,
+			MemoIterations*num_ratings+1);
+		Memo.put(OptWeights, OptRating);
+		
+		for (int level = StartLevel; level < levels; level++) {
 			is_done = false;
 			while (!is_done) {
+				if (Deadline > 0 && System.currentTimeMillis() >= Deadline)
+					throw new GWException("The GW deadline passed.");
 				is_done = true;
 				NumIterations++;
-				System.arraycopy(OptWeights, 0, weights_n_p, 0, num_weights);
 				for (int i = 0; i < num_weights; i++) {
 					step = GWIObject.getStepSize(level, i);
 					min_bound = GWIObject.getWeightLowerBound(i);
 					max_bound = GWIObject.getWeightUpperBound(i);
-					System.arraycopy(weights_n_p, 0, weights_t, 0, num_weights);
-					weights_t[i] = Math.min(max_bound, weights_t[i]+step);
-			        rating = GWIObject.getRating(weights_t);
-					if (IsTrace)
-						GWIObject.printTrace(TraceOut, NumIterations,
-							level, i, weights_t, rating);
-					if (rating < OptRating) {
-						System.arraycopy(weights_t, 0, OptWeights, 0, num_weights);
-						OptRating = rating;
-						is_done = false;
+					System.arraycopy(OptWeights, 0, weights_t[2*i], 0,
+						num_weights);
+					weights_t[2*i][i] = Math.min(max_bound,
+						weights_t[2*i][i]+step);
+					System.arraycopy(OptWeights, 0, weights_t[2*i+1], 0,
+						num_weights);
+					weights_t[2*i+1][i] = Math.max(min_bound,
+						weights_t[2*i+1][i]-step);
+				}
+				for (int j = 0; j < num_ratings; j++) {
+					GWMemo.Rated	rated = Memo.get(weights_t[j]);
+					
+					is_rated[j] = (rated != null);
+					if (is_rated[j]) {
+						ratings[j] = rated.Rating;
+						NumEvaluationsSaved++;
 					}
-					System.arraycopy(weights_n_p, 0, weights_t, 0, num_weights);
-					weights_t[i] = Math.max(min_bound, weights_t[i]-step);
-			        rating = GWIObject.getRating(weights_t);
+				}
+				if (Raters == null) {
+					for (int j = 0; j < num_ratings; j++)
+						if (!is_rated[j]) {
+							ratings[j] = GWIObject.getRating(weights_t[j]);
+							NumEvaluations++;
+						}
+				} else
+					rateParallel(weights_t, ratings, is_rated);
+				for (int j = 0; j < num_ratings; j++) {
+					if (!is_rated[j])
+						Memo.put(weights_t[j], ratings[j]);
 					if (IsTrace)
 						GWIObject.printTrace(TraceOut, NumIterations,
-							level, i, weights_t, rating);
-					if (rating < OptRating) {
-						System.arraycopy(weights_t, 0, OptWeights, 0, num_weights);
-						OptRating = rating;
+							level, j/2, weights_t[j], ratings[j]);
+					if (ratings[j] < OptRating) {
+						System.arraycopy(weights_t[j], 0, OptWeights, 0,
+							num_weights);
+						OptRating = ratings[j];
 						is_done = false;
 					}
 				}
 			}
 		}
         OptRating = GWIObject.getRating(OptWeights);
+        NumEvaluations++;
+    }
+
+    /**
+     * Rate the weights of an iteration in parallel. The first set not rated
+     * yet is rated by the GW object in the calling thread and the others by
+     * copies on the executor. Ratings the executor has not started by the
+     * time they are needed are run in the calling thread.
+     *
+     * @param weights Weights to rate.
+     * @param ratings Where to put the ratings.
+     * @param is_rated Which weights are rated already (from the memo).
+     *
+     * @throws GWException If the walk was interrupted while waiting for
+     *    ratings.
+     */
+    private void rateParallel(
+        double[][]	weights,
+        double[]	ratings,
+        boolean[]	is_rated
+    ) throws GWException {
+        List<FutureTask<Double>>	tasks
+            = new ArrayList<FutureTask<Double>>(weights.length);
+        int							first = -1;
+
+        for (int j = 0; j < weights.length; j++) {
+            tasks.add(null);
+            if (is_rated[j])
+                continue;
+            NumEvaluations++;
+            if (first < 0) {
+                first = j;
+                continue;
+            }
+            tasks.set(j, new FutureTask<Double>(new Rating(Raters[j],
+                weights[j])));
+            try {
+            RatingExecutor.execute(tasks.get(j));
+            } catch (RejectedExecutionException ex) {
+                // Rated in the calling thread below.
+            }
+        }
+        if (first >= 0)
+            ratings[first] = GWIObject.getRating(weights[first]);
+        for (int j = 0; j < weights.length; j++) {
+            FutureTask<Double>	task = tasks.get(j);
+
+            if (task == null)
+                continue;
+            task.run();
+            try {
+            ratings[j] = task.get();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new GWException("The GW was interrupted.");
+            } catch (ExecutionException ex) {
+                if (ex.getCause() instanceof RuntimeException)
+                    throw (RuntimeException)ex.getCause();
+                if (ex.getCause() instanceof Error)
+                    throw (Error)ex.getCause();
+                throw new GWException(ex.getCause().getMessage());
+            }
+        }
+    }
+
+/*******************/
+/* Private Classes */
+/*******************/
+
+    /**
+     * Rating of a set of weights by one of the rating objects.
+     */
+    private static final class Rating implements Callable<Double> {
+        private final GWInterface	Rater;
+        private final double[]		Weights;
+
+        /**
+         * Fully specified constructor.
+         *
+         * @param rater Object rating the weights.
+         * @param weights Weights to rate.
+         */
+        public Rating(
+            GWInterface	rater,
+            double[]	weights
+        ) {
+            Rater = rater;
+            Weights = weights;
+        }
+
+        public Double call() {
+            return Rater.getRating(Weights);
+        }
     }
 }
@@ -0,0 +1,195 @@
+/********************************************************************************
+ * Copyright 2018, Oath Inc.
+ * Licensed under the terms of the Apache Version 2.0 license.
+ * See LICENSE file in project root directory for terms.
+ ********************************************************************************/
+
+package com.aol.one.reporting.forecastapi.server.jpe.gw;
+
+import java.util.concurrent.Executor;
+
+/**
+ * GWOptimizer running a coordinate search with a Brent line search (golden
+ * section search accelerated by parabolic interpolation) along each weight.
+ * Each sweep minimizes along every weight in turn within a window around the
+ * current weight. A window starts at twice the initial step and then tracks
+ * how far the weight last moved. Sweeps repeat until no weight moves by its
+ * precision or more.
+ */
+public final class GWCoordinateBrent implements GWOptimizer {
+    public static final String		Name = "brent";
+
+    private static final double		Golden = 0.3819660112501051;
+    private static final double		RelativeTolerance = 1.0e-8;
+    private static final int		MaxLineIterations = 50;
+    private static final int		MaxSweeps = 100;
+
+    public String getName() {
+        return Name;
+    }
+
+    public GWOptimum optimize(
+        GWInterface	gwi_object,
+        double[]	start_weights,
+        int			start_level,
+        long		deadline,
+        Executor	executor
+    ) throws GWException {
+        GWSearch	search = new GWSearch(gwi_object, start_weights,
+            start_level, deadline);
+        int			n = search.getNumWeights();
+        double[]	weights = search.getStartWeights();
+        double[]	windows = new double[n];
+
+        if (n == 0)
+            return search.finish(weights);
+
+        double		rating = search.rate(weights);
+
+        for (int i = 0; i < n; i++)
+            windows[i] = 2.0*search.getInitialStep(i);
+        for (int sweep = 0; sweep < MaxSweeps; sweep++) {
+            boolean		is_moved = false;
+
+            search.beginIteration();
+            for (int i = 0; i < n; i++) {
+                double		weight = weights[i];
+                double		precision = search.getPrecision(i);
+                double		line_rating = minimize(search, weights, i,
+                    Math.max(search.getLowerBound(i), weight-windows[i]),
+                    Math.min(search.getUpperBound(i), weight+windows[i]),
+                    rating, precision);
+
+                if (line_rating < rating) {
+                    double		moved = Math.abs(weights[i]-weight);
+
+                    rating = line_rating;
+                    if (moved >= precision)
+                        is_moved = true;
+                    windows[i] = Math.max(2.0*moved, 10.0*precision);
+                } else {
+                    weights[i] = weight;
+                    windows[i] = Math.max(windows[i]/2.0, 10.0*precision);
+                }
+            }
+            if (!is_moved)
+                break;
+        }
+
+        return search.finish(weights);
+    }
+
+/*******************/
+/* Private Methods */
+/*******************/
+
+    /**
+     * Minimize the rating along one weight with Brent's method. The search
+     * starts from the current weight whose rating is known.
+     *
+     * @param search Search state.
+     * @param weights Weights. On return the weight holds the best value
+     *    found, which is the current value if nothing better was found.
+     * @param weight_idx Index of the weight to vary.
+     * @param lower Lower end of the search interval.
+     * @param upper Upper end of the search interval.
+     * @param rating Rating of the current weights.
+     * @param precision Absolute precision of the weight.
+     *
+     * @return Rating of the best value found.
+     */
+    private static double minimize(
+        GWSearch	search,
+        double[]	weights,
+        int			weight_idx,
+        double		lower,
+        double		upper,
+        double		rating,
+        double		precision
+    ) {
+        double		a = lower;
+        double		b = upper;
+        double		x = weights[weight_idx];
+        double		w = x;
+        double		v = x;
+        double		fx = rating;
+        double		fw = rating;
+        double		fv = rating;
+        double		d = 0.0;
+        double		e = 0.0;
+
+        for (int iter = 0; iter < MaxLineIterations; iter++) {
+            double		xm = 0.5*(a+b);
+            double		tol1 = RelativeTolerance*Math.abs(x)+precision/3.0;
+            double		tol2 = 2.0*tol1;
+
+            if (Math.abs(x-xm) <= tol2-0.5*(b-a))
+                break;
+
+            boolean		is_golden = true;
+
+            if (Math.abs(e) > tol1) {
+
+                // Try a parabolic fit through x, w, and v.
+
+                double		r = (x-w)*(fx-fv);
+                double		q = (x-v)*(fx-fw);
+                double		p = (x-v)*q-(x-w)*r;
+                double		e_prev = e;
+
+                q = 2.0*(q-r);
+                if (q > 0.0)
+                    p = -p;
+                q = Math.abs(q);
+                if (Math.abs(p) < Math.abs(0.5*q*e_prev)
+                && p > q*(a-x) && p < q*(b-x)) {
+                    e = d;
+                    d = p/q;
+                    if ((x+d)-a < tol2 || b-(x+d) < tol2)
+                        d = (xm >= x) ? tol1 : -tol1;
+                    is_golden = false;
+                }
+            }
+            if (is_golden) {
+                e = (x >= xm) ? a-x : b-x;
+                d = Golden*e;
+            }
+
+            double		u = search.clip(weight_idx, (Math.abs(d) >= tol1)
+                ? x+d : x+((d >= 0.0) ? tol1 : -tol1));
+            double		fu = 0.0;
+
+            weights[weight_idx] = u;
+            fu = search.rate(weights);
+            if (fu <= fx) {
+                if (u >= x)
+                    a = x;
+                else
+                    b = x;
+                v = w;
+                fv = fw;
+                w = x;
+                fw = fx;
+                x = u;
+                fx = fu;
+            } else {
+                if (u < x)
+                    a = u;
+                else
+                    b = u;
+                if (fu <= fw || w == x) {
+                    v = w;
+                    fv = fw;
+                    w = u;
+                    fw = fu;
+                } else if (fu <= fv || v == x || v == w) {
+                    v = u;
+                    fv = fu;
+                }
+            }
+        }
+
+        weights[weight_idx] = x;
+        return fx;
+    }
+}
@@ -0,0 +1,32 @@
+/********************************************************************************
+ * Copyright 2018, Oath Inc.
+ * Licensed under the terms of the Apache Version 2.0 license.
+ * See LICENSE file in project root directory for terms.
+ ********************************************************************************/
+
+package com.aol.one.reporting.forecastapi.server.jpe.gw;
+
+/**
+ * A GWInterface object that can compute the gradient of its rating with
+ * respect to the weights. Gradient based optimizers use it in place of
+ * finite differences, which cost two ratings per weight.
+ */
+public interface GWGradientInterface extends GWInterface {
+
+    /**
+     * Rate weights and compute the rating gradient in the same evaluation.
+     * The rating must be the one getRating() returns for the weights. The
+     * state left by getRating() need not be updated, so the object must
+     * still be rated by getRating() on the optimal weights last.
+     *
+     * @param weights Weights to rate.
+     * @param gradient Where to put the partial derivative of the rating
+     *    with respect to each weight.
+     *
+     * @return Weight rating.
+     */
+    public double getRatingGradient(
+        double[]	weights,
+        double[]	gradient
+    );
+}
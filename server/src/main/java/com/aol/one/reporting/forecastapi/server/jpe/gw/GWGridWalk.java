@@ -0,0 +1,38 @@
+/********************************************************************************
+ * Copyright 2018, Oath Inc.
+ * Licensed under the terms of the Apache Version 2.0 license.
+ * See LICENSE file in project root directory for terms.
+ ********************************************************************************/
+
+package com.aol.one.reporting.forecastapi.server.jpe.gw;
+
+import java.util.concurrent.Executor;
+
+/**
+ * GWOptimizer running the grid walk (GW). At each accuracy level the walk
+ * steps each weight up and down by the level step size until no step
+ * improves the rating. The steps of an iteration are rated in parallel
+ * when given an executor (see GW).
+ */
+public final class GWGridWalk implements GWOptimizer {
+    public static final String	Name = "gw";
+
+    public String getName() {
+        return Name;
+    }
+
+    public GWOptimum optimize(
+        GWInterface	gwi_object,
+        double[]	start_weights,
+        int			start_level,
+        long		deadline,
+        Executor	executor
+    ) throws GWException {
+        GW			gw = new GW(gwi_object, start_weights, start_level,
+            deadline, executor, false, System.out);
+
+        return new GWOptimum(gw.getOptWeights(), gw.getOptRating(),
+            gw.getNumEvaluations(), gw.getNumEvaluationsSaved(),
+            gw.getNumIterations());
+    }
+}
@@ -0,0 +1,171 @@
+/********************************************************************************
+ * Copyright 2018, Oath Inc.
+ * Licensed under the terms of the Apache Version 2.0 license.
+ * See LICENSE file in project root directory for terms.
+ ********************************************************************************/
+
+package com.aol.one.reporting.forecastapi.server.jpe.gw;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Memo of the most recently rated weights of a walk. Weights are looked up
+ * by their cell on the grid of the finest step sizes laid out from the walk
+ * origin, so weights reached by stepping up and back down again are found
+ * even if rounding left them a few ulps off. A cell only matches weights
+ * within a tiny fraction of a step of the weights rated, so weights clipped
+ * to a bound off the grid are never confused with a neighbouring grid point.
+ * The least recently used weights are dropped once the memo is full.
+ */
+final class GWMemo {
+    private static final double		Tolerance = 1.0e-6;
+
+    private final double[]			Origin;
+    private final double[]			Precision;
+    private final Map<Cell, Rated>	Entries;
+
+    /**
+     * Fully specified constructor.
+     *
+     * @param origin Weights the grid is laid out from.
+     * @param precision Finest step size of each weight.
+     * @param capacity Maximum number of weights remembered.
+     */
+    GWMemo(
+        double[]		origin,
+        double[]		precision,
+        final int		capacity
+    ) {
+        Origin = origin.clone();
+        Precision = precision;
+        Entries = new LinkedHashMap<Cell, Rated>(2*capacity, 0.75f, true) {
+            private static final long	serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(
+                Map.Entry<Cell, Rated>	eldest
+            ) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Look up the rating of weights.
+     *
+     * @param weights Weights to look up.
+     *
+     * @return Rated weights or null if they were not rated
+     *    recently.
+     */
+    Rated get(
+        double[]	weights
+    ) {
+        Rated		rated = Entries.get(getCell(weights));
+
+        if (rated == null)
+            return null;
+        for (int i = 0; i < weights.length; i++)
+            if (Math.abs(rated.Weights[i]-weights[i])
+            > Tolerance*Precision[i])
+                return null;
+
+        return rated;
+    }
+
+    /**
+     * Remember the rating of weights.
+     *
+     * @param weights Weights rated (copied).
+     * @param rating Weight rating.
+     */
+    void put(
+        double[]	weights,
+        double		rating
+    ) {
+        Entries.put(getCell(weights), new Rated(weights.clone(), rating));
+    }
+
+/*******************/
+/* Private Methods */
+/*******************/
+
+    /**
+     * Fetch the grid cell of weights.
+     *
+     * @param weights Weights.
+     *
+     * @return Grid cell.
+     */
+    private Cell getCell(
+        double[]	weights
+    ) {
+        long[]		coords = new long[weights.length];
+
+        for (int i = 0; i < weights.length; i++)
+            coords[i] = Math.round((weights[i]-Origin[i])/Precision[i]);
+
+        return new Cell(coords);
+    }
+
+/*******************/
+/* Private Classes */
+/*******************/
+
+    /**
+     * Grid cell of weights.
+     */
+    private static final class Cell {
+        private final long[]	Coords;
+        private final int		Hash;
+
+        /**
+         * Fully specified constructor.
+         *
+         * @param coords Grid coordinates.
+         */
+        public Cell(
+            long[]		coords
+        ) {
+            Coords = coords;
+            Hash = Arrays.hashCode(coords);
+        }
+
+        @Override
+        public boolean equals(
+            Object		object
+        ) {
+            return object instanceof Cell
+                && Arrays.equals(Coords, ((Cell)object).Coords);
+        }
+
+        @Override
+        public int hashCode() {
+            return Hash;
+        }
+    }
+
+    /**
+     * Rated weights.
+     */
+    static final class Rated {
+        final double[]	Weights;
+        final double	Rating;
+
+        /**
+         * Fully specified constructor.
+         *
+         * @param weights Weights rated.
+         * @param rating Weight rating.
+         */
+        Rated(
+            double[]	weights,
+            double		rating
+        ) {
+            Weights = weights;
+            Rating = rating;
+        }
+    }
+}
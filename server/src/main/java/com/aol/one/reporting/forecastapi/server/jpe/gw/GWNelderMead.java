@@ -0,0 +1,206 @@
+/********************************************************************************
+ * Copyright 2018, Oath Inc.
+ * Licensed under the terms of the Apache Version 2.0 license.
+ * See LICENSE file in project root directory for terms.
+ ********************************************************************************/
+
+package com.aol.one.reporting.forecastapi.server.jpe.gw;
+
+import java.util.concurrent.Executor;
+
+/**
+ * GWOptimizer running a bounded Nelder-Mead simplex search. The simplex
+ * starts at the start weights with one vertex an initial step away along
+ * each weight. Trial points are clipped to the weight bounds. The search
+ * stops once every vertex is within the weight precision of the best one.
+ */
+public final class GWNelderMead implements GWOptimizer {
+    public static final String		Name = "neldermead";
+
+    private static final double		Reflection = 1.0;
+    private static final double		Expansion = 2.0;
+    private static final double		Contraction = 0.5;
+    private static final double		Shrinkage = 0.5;
+    private static final int		MaxEvaluationsPerWeight = 200;
+
+    public String getName() {
+        return Name;
+    }
+
+    public GWOptimum optimize(
+        GWInterface	gwi_object,
+        double[]	start_weights,
+        int			start_level,
+        long		deadline,
+        Executor	executor
+    ) throws GWException {
+        GWSearch	search = new GWSearch(gwi_object, start_weights,
+            start_level, deadline);
+        int			n = search.getNumWeights();
+        double[][]	simplex = new double[n+1][];
+        double[]	ratings = new double[n+1];
+
+        simplex[0] = search.getStartWeights();
+        if (n == 0)
+            return search.finish(simplex[0]);
+        ratings[0] = search.rate(simplex[0]);
+        for (int j = 1; j <= n; j++) {
+            int			i = j-1;
+            double		step = search.getInitialStep(i);
+
+            simplex[j] = simplex[0].clone();
+            simplex[j][i] = (simplex[0][i]+step <= search.getUpperBound(i))
+                ? simplex[0][i]+step : simplex[0][i]-step;
+            simplex[j][i] = search.clip(i, simplex[j][i]);
+            ratings[j] = search.rate(simplex[j]);
+        }
+
+        double[]	centroid = new double[n];
+        double[]	reflected = new double[n];
+        double[]	trial = new double[n];
+        int			max_evaluations = MaxEvaluationsPerWeight*n;
+
+        while (true) {
+            search.beginIteration();
+            sort(simplex, ratings);
+            if (isConverged(search, simplex)
+            || search.getNumEvaluations() >= max_evaluations)
+                break;
+
+            // Centroid of all but the worst vertex.
+
+            for (int i = 0; i < n; i++) {
+                centroid[i] = 0.0;
+                for (int j = 0; j < n; j++)
+                    centroid[i] += simplex[j][i];
+                centroid[i] /= n;
+            }
+
+            double		rating_r = move(search, centroid, simplex[n],
+                -Reflection, reflected);
+
+            if (rating_r < ratings[0]) {
+                double		rating_e = move(search, centroid, simplex[n],
+                    -Expansion, trial);
+
+                if (rating_e < rating_r)
+                    replace(simplex, ratings, n, trial, rating_e);
+                else
+                    replace(simplex, ratings, n, reflected, rating_r);
+            } else if (rating_r < ratings[n-1])
+                replace(simplex, ratings, n, reflected, rating_r);
+            else {
+                boolean		is_outside = rating_r < ratings[n];
+                double		rating_c = is_outside
+                    ? move(search, centroid, reflected, Contraction, trial)
+                    : move(search, centroid, simplex[n], Contraction, trial);
+
+                if (is_outside ? rating_c <= rating_r : rating_c < ratings[n])
+                    replace(simplex, ratings, n, trial, rating_c);
+                else {
+                    for (int j = 1; j <= n; j++) {
+                        for (int i = 0; i < n; i++)
+                            simplex[j][i] = search.clip(i, simplex[0][i]
+                                +Shrinkage*(simplex[j][i]-simplex[0][i]));
+                        ratings[j] = search.rate(simplex[j]);
+                    }
+                }
+            }
+        }
+
+        return search.finish(simplex[0]);
+    }
+
+/*******************/
+/* Private Methods */
+/*******************/
+
+    /**
+     * Are all vertices within the weight precision of the best vertex?
+     *
+     * @param search Search state.
+     * @param simplex Simplex vertices, best first.
+     *
+     * @return True if the simplex has collapsed.
+     */
+    private static boolean isConverged(
+        GWSearch	search,
+        double[][]	simplex
+    ) {
+        for (int j = 1; j < simplex.length; j++)
+            for (int i = 0; i < simplex[j].length; i++)
+                if (Math.abs(simplex[j][i]-simplex[0][i])
+                > search.getPrecision(i))
+                    return false;
+        return true;
+    }
+
+    /**
+     * Rate a point on the line through the centroid and a vertex.
+     *
+     * @param search Search state.
+     * @param centroid Simplex centroid.
+     * @param vertex Vertex.
+     * @param factor Position of the point relative to the centroid in units
+     *    of the vertex distance from the centroid.
+     * @param point Where to put the point (clipped to the weight bounds).
+     *
+     * @return Point rating.
+     */
+    private static double move(
+        GWSearch	search,
+        double[]	centroid,
+        double[]	vertex,
+        double		factor,
+        double[]	point
+    ) {
+        for (int i = 0; i < point.length; i++)
+            point[i] = search.clip(i,
+                centroid[i]+factor*(vertex[i]-centroid[i]));
+        return search.rate(point);
+    }
+
+    /**
+     * Replace a vertex.
+     *
+     * @param simplex Simplex vertices.
+     * @param ratings Vertex ratings.
+     * @param j Index of the vertex to replace.
+     * @param point Replacement vertex (copied).
+     * @param rating Replacement vertex rating.
+     */
+    private static void replace(
+        double[][]	simplex,
+        double[]	ratings,
+        int			j,
+        double[]	point,
+        double		rating
+    ) {
+        System.arraycopy(point, 0, simplex[j], 0, point.length);
+        ratings[j] = rating;
+    }
+
+    /**
+     * Sort the vertices by rating, best first. Ties keep their order.
+     *
+     * @param simplex Simplex vertices.
+     * @param ratings Vertex ratings.
+     */
+    private static void sort(
+        double[][]	simplex,
+        double[]	ratings
+    ) {
+        for (int j = 1; j < ratings.length; j++) {
+            double[]	vertex = simplex[j];
+            double		rating = ratings[j];
+            int			k = j-1;
+
+            for (; k >= 0 && ratings[k] > rating; k--) {
+                simplex[k+1] = simplex[k];
+                ratings[k+1] = ratings[k];
+            }
+            simplex[k+1] = vertex;
+            ratings[k+1] = rating;
+        }
+    }
+}
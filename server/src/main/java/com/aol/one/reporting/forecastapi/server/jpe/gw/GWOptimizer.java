@@ -0,0 +1,55 @@
+/********************************************************************************
+ * Copyright 2018, Oath Inc.
+ * Licensed under the terms of the Apache Version 2.0 license.
+ * See LICENSE file in project root directory for terms.
+ ********************************************************************************/
+
+package com.aol.one.reporting.forecastapi.server.jpe.gw;
+
+import java.util.concurrent.Executor;
+
+/**
+ * A search for the weights of a GWInterface object with the smallest rating.
+ * The grid walk (GW) is one such search. Implementations rely only on the
+ * GWInterface methods, so any object that can be walked can be optimized by
+ * any implementation. The step size of the finest accuracy level serves as
+ * the precision to which weights are sought.
+ *
+ * Implementations are stateless and can be shared between threads. The last
+ * weights an implementation rates are the optimal weights, so objects that
+ * keep state from rating are left in the state of the optimum.
+ */
+public interface GWOptimizer {
+
+    /**
+     * Fetch the optimizer name.
+     *
+     * @return Optimizer name.
+     */
+    public String getName();
+
+    /**
+     * Search for the optimal weights.
+     *
+     * @param gwi_object Object implementing the GWInterface.
+     * @param start_weights Weights to start the search from or null to start
+     *    from the middle of the weight bounds. Values are clipped to the
+     *    weight bounds.
+     * @param start_level Accuracy level (0-based) to start the search at.
+     *    Starting at a finer level refines the start weights.
+     * @param deadline Time (System.currentTimeMillis()) by which the search
+     *    must be done. 0 means there is no deadline.
+     * @param executor Executor to rate independent weights on in parallel or
+     *    null to rate in the calling thread. Only used for objects
+     *    implementing the GWParallelInterface and ignored by optimizers that
+     *    rate one set of weights at a time.
+     *
+     * @return Optimal weights and their rating.
+     *
+     * @throws GWException If there are problems with the parameter values
+     *    or the deadline passed before the search was done.
+     */
+    public GWOptimum optimize(GWInterface gwi_object, double[] start_weights,
+                              int start_level, long deadline, Executor executor)
+        throws GWException;
+}
@@ -0,0 +1,85 @@
+/********************************************************************************
+ * Copyright 2018, Oath Inc.
+ * Licensed under the terms of the Apache Version 2.0 license.
+ * See LICENSE file in project root directory for terms.
+ ********************************************************************************/
+
+package com.aol.one.reporting.forecastapi.server.jpe.gw;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Registry of the available GWOptimizer implementations by name. The grid
+ * walk (GW) is the default.
+ */
+public final class GWOptimizers {
+    private static final Map<String, GWOptimizer>	Optimizers;
+
+    static {
+        Map<String, GWOptimizer>	optimizers
+            = new LinkedHashMap<String, GWOptimizer>();
+
+        register(optimizers, new GWGridWalk());
+        register(optimizers, new GWNelderMead());
+        register(optimizers, new GWCoordinateBrent());
+        register(optimizers, new GWPatternSearch());
+        register(optimizers, new GWQuasiNewton());
+        Optimizers = Collections.unmodifiableMap(optimizers);
+    }
+
+    /**
+     * Fetch the default optimizer.
+     *
+     * @return Grid walk optimizer.
+     */
+    public static GWOptimizer getDefault() {
+        return Optimizers.get(GWGridWalk.Name);
+    }
+
+    /**
+     * Fetch the names of the available optimizers.
+     *
+     * @return Optimizer names, the default first.
+     */
+    public static Set<String> getNames() {
+        return Optimizers.keySet();
+    }
+
+    /**
+     * Fetch an optimizer by name.
+     *
+     * @param name Optimizer name.
+     *
+     * @return Optimizer or null if there is no optimizer with that name.
+     */
+    public static GWOptimizer getOptimizer(
+        String		name
+    ) {
+        return Optimizers.get(name);
+    }
+
+/*******************/
+/* Private Methods */
+/*******************/
+
+    /**
+     * Default constructor not allowed.
+     */
+    private GWOptimizers() {}
+
+    /**
+     * Register an optimizer under its name.
+     *
+     * @param optimizers Where to register.
+     * @param optimizer Optimizer to register.
+     */
+    private static void register(
+        Map<String, GWOptimizer>	optimizers,
+        GWOptimizer					optimizer
+    ) {
+        optimizers.put(optimizer.getName(), optimizer);
+    }
+}
@@ -0,0 +1,88 @@
+/********************************************************************************
+ * Copyright 2018, Oath Inc.
+ * Licensed under the terms of the Apache Version 2.0 license.
+ * See LICENSE file in project root directory for terms.
+ ********************************************************************************/
+
+package com.aol.one.reporting.forecastapi.server.jpe.gw;
+
+/**
+ * Result of a search by a GWOptimizer.
+ */
+public final class GWOptimum {
+    private final double[]		Weights;
+    private final double		Rating;
+    private final int			NumEvaluations;
+    private final int			NumEvaluationsSaved;
+    private final int			NumIterations;
+
+    /**
+     * Fully specified constructor.
+     *
+     * @param weights Optimal weights.
+     * @param rating Optimal weight rating.
+     * @param num_evaluations Number of ratings evaluated by the search.
+     * @param num_evaluations_saved Number of ratings the search looked up
+     *    rather than evaluated.
+     * @param num_iterations Number of search iterations.
+     */
+    public GWOptimum(
+        double[]	weights,
+        double		rating,
+        int			num_evaluations,
+        int			num_evaluations_saved,
+        int			num_iterations
+    ) {
+        Weights = weights;
+        Rating = rating;
+        NumEvaluations = num_evaluations;
+        NumEvaluationsSaved = num_evaluations_saved;
+        NumIterations = num_iterations;
+    }
+
+    /**
+     * Fetch the number of ratings evaluated by the search.
+     *
+     * @return Number of rating evaluations.
+     */
+    public int getNumEvaluations() {
+        return NumEvaluations;
+    }
+
+    /**
+     * Fetch the number of ratings the search looked up rather than
+     * evaluated.
+     *
+     * @return Number of rating evaluations saved.
+     */
+    public int getNumEvaluationsSaved() {
+        return NumEvaluationsSaved;
+    }
+
+    /**
+     * Fetch the number of search iterations.
+     *
+     * @return Number of iterations.
+     */
+    public int getNumIterations() {
+        return NumIterations;
+    }
+
+    /**
+     * Fetch optimal weight rating.
+     *
+     * @return Optimal weight rating.
+     */
+    public double getRating() {
+        return Rating;
+    }
+
+    /**
+     * Fetch optimal weight values.
+     *
+     * @return Optimal weight values.
+     */
+    public double[] getWeights() {
+        return Weights;
+    }
+}
@@ -0,0 +1,27 @@
+/********************************************************************************
+ * Copyright 2018, Oath Inc.
+ * Licensed under the terms of the Apache Version 2.0 license.
+ * See LICENSE file in project root directory for terms.
+ ********************************************************************************/
+
+package com.aol.one.reporting.forecastapi.server.jpe.gw;
+
+/**
+ * A GWInterface object whose ratings can be evaluated in parallel. Rating
+ * usually updates state kept by the object, so the GW rates neighbouring
+ * weights concurrently on copies, each copy confined to one thread at a
+ * time. The object itself is only rated by the thread running the GW, so
+ * it is left in the state of the optimal weights as usual.
+ */
+public interface GWParallelInterface extends GWInterface {
+
+    /**
+     * Create a copy of this object for rating weights in another thread.
+     * The copy must rate any weights the same as this object and must not
+     * modify state shared with this object. Read-only state such as the
+     * series rated against can be shared.
+     *
+     * @return Copy of this object.
+     */
+    public GWInterface copy();
+}
@@ -0,0 +1,109 @@
+/********************************************************************************
+ * Copyright 2018, Oath Inc.
+ * Licensed under the terms of the Apache Version 2.0 license.
+ * See LICENSE file in project root directory for terms.
+ ********************************************************************************/
+
+package com.aol.one.reporting.forecastapi.server.jpe.gw;
+
+import java.util.concurrent.Executor;
+
+/**
+ * GWOptimizer running an adaptive step pattern search (Hooke-Jeeves). Like
+ * the grid walk, each weight is stepped up and down, but every weight has
+ * its own step which doubles when a step improves the rating and halves
+ * when neither does. After a sweep that improved the rating, the move made
+ * by the sweep is tried again as a whole (the pattern move). The search
+ * stops once every step is below the weight precision.
+ */
+public final class GWPatternSearch implements GWOptimizer {
+    public static final String		Name = "pattern";
+
+    public String getName() {
+        return Name;
+    }
+
+    public GWOptimum optimize(
+        GWInterface	gwi_object,
+        double[]	start_weights,
+        int			start_level,
+        long		deadline,
+        Executor	executor
+    ) throws GWException {
+        GWSearch	search = new GWSearch(gwi_object, start_weights,
+            start_level, deadline);
+        int			n = search.getNumWeights();
+        double[]	weights = search.getStartWeights();
+        double[]	steps = new double[n];
+        double[]	max_steps = new double[n];
+        double[]	trial = new double[n];
+        double[]	pattern = new double[n];
+
+        if (n == 0)
+            return search.finish(weights);
+
+        double		rating = search.rate(weights);
+
+        for (int i = 0; i < n; i++) {
+            steps[i] = gwi_object.getStepSize(start_level, i);
+            max_steps[i] = (search.getUpperBound(i)-search.getLowerBound(i))
+                /2.0;
+        }
+        while (true) {
+            search.beginIteration();
+
+            // Exploratory sweep.
+
+            double		trial_rating = rating;
+
+            System.arraycopy(weights, 0, trial, 0, n);
+            for (int i = 0; i < n; i++) {
+                double		weight = trial[i];
+                double		step_rating = 0.0;
+
+                trial[i] = search.clip(i, weight+steps[i]);
+                step_rating = (trial[i] != weight)
+                    ? search.rate(trial) : Double.POSITIVE_INFINITY;
+                if (step_rating >= trial_rating) {
+                    trial[i] = search.clip(i, weight-steps[i]);
+                    step_rating = (trial[i] != weight)
+                        ? search.rate(trial) : Double.POSITIVE_INFINITY;
+                }
+                if (step_rating < trial_rating) {
+                    trial_rating = step_rating;
+                    steps[i] = Math.min(2.0*steps[i], max_steps[i]);
+                } else {
+                    trial[i] = weight;
+                    steps[i] /= 2.0;
+                }
+            }
+
+            if (trial_rating < rating) {
+
+                // Pattern move along the sweep's move.
+
+                for (int i = 0; i < n; i++)
+                    pattern[i] = search.clip(i, 2.0*trial[i]-weights[i]);
+                System.arraycopy(trial, 0, weights, 0, n);
+                rating = trial_rating;
+
+                double		pattern_rating = search.rate(pattern);
+
+                if (pattern_rating < rating) {
+                    System.arraycopy(pattern, 0, weights, 0, n);
+                    rating = pattern_rating;
+                }
+            } else {
+                boolean		is_done = true;
+
+                for (int i = 0; i < n; i++)
+                    if (steps[i] >= search.getPrecision(i))
+                        is_done = false;
+                if (is_done)
+                    break;
+            }
+        }
+
+        return search.finish(weights);
+    }
+}
@@ -0,0 +1,380 @@
+/********************************************************************************
+ * Copyright 2018, Oath Inc.
+ * Licensed under the terms of the Apache Version 2.0 license.
+ * See LICENSE file in project root directory for terms.
+ ********************************************************************************/
+
+package com.aol.one.reporting.forecastapi.server.jpe.gw;
+
+import java.util.concurrent.Executor;
+
+/**
+ * GWOptimizer running a bounded quasi-Newton search (projected BFGS). The
+ * rating and its gradient are evaluated together, in one pass for a
+ * GWGradientInterface object and by finite differences otherwise. Weights
+ * are searched scaled to their bounds. Each iteration moves along the BFGS
+ * direction over the weights not held at a bound by the gradient, projects
+ * the move back onto the bounds, and backtracks until the rating decreases
+ * enough (Armijo rule). A descent stops once a move is below a tenth of the
+ * weight precision, even along steepest descent, or barely improves the
+ * rating.
+ *
+ * Ratings are often multimodal, which the grid walk copes with by walking
+ * in coarse steps first. So unless refining (start level above 0), the
+ * corners of the box spanning a tenth to nine tenths of every weight range
+ * are rated and the search descends from the start weights and from the
+ * best rated corners, keeping the best descent.
+ */
+public final class GWQuasiNewton implements GWOptimizer {
+    public static final String		Name = "quasinewton";
+
+    private static final int		MaxIterations = 100;
+    private static final int		MaxScreenedWeights = 4;
+    private static final int		NumCornerStarts = 2;
+    private static final double		CornerOffset = 0.1;
+    private static final double		Tolerance = 0.1;
+    private static final double		MinRelDecrease = 1.0e-10;
+    private static final double		SufficientDecrease = 1.0e-4;
+    private static final double		Backtrack = 0.5;
+
+    public String getName() {
+        return Name;
+    }
+
+    public GWOptimum optimize(
+        GWInterface	gwi_object,
+        double[]	start_weights,
+        int			start_level,
+        long		deadline,
+        Executor	executor
+    ) throws GWException {
+        GWSearch	search = new GWSearch(gwi_object, start_weights,
+            start_level, deadline);
+        int			n = search.getNumWeights();
+        double[]	weights = search.getStartWeights();
+
+        if (n == 0)
+            return search.finish(weights);
+
+        Scaling		scaling = new Scaling(search);
+        double[]	x = new double[n];
+        double[]	best_x = new double[n];
+        double		best_rating = Double.POSITIVE_INFINITY;
+
+        for (int i = 0; i < n; i++)
+            x[i] = (weights[i]-scaling.Lower[i])/scaling.Range[i];
+        best_rating = descend(search, scaling, x);
+        System.arraycopy(x, 0, best_x, 0, n);
+
+        if (start_level == 0 && n <= MaxScreenedWeights)
+            for (double[] corner : screenCorners(search, scaling)) {
+                double		rating = descend(search, scaling, corner);
+
+                if (rating < best_rating) {
+                    best_rating = rating;
+                    System.arraycopy(corner, 0, best_x, 0, n);
+                }
+            }
+
+        return search.finish(scaling.unscale(search, best_x, weights));
+    }
+
+/*******************/
+/* Private Methods */
+/*******************/
+
+    /**
+     * Descend from scaled weights to a local optimum.
+     *
+     * @param search Search state.
+     * @param scaling Weight scaling.
+     * @param x Scaled weights to start from. Replaced by the optimal scaled
+     *    weights.
+     *
+     * @return Optimal weight rating.
+     *
+     * @throws GWException if the deadline passed.
+     */
+    private static double descend(
+        GWSearch	search,
+        Scaling		scaling,
+        double[]	x
+    ) throws GWException {
+        int			n = x.length;
+        double[]	g = new double[n];
+        double[]	x_t = new double[n];
+        double[]	g_t = new double[n];
+        double[]	w_t = new double[n];
+        double[]	d = new double[n];
+        double[]	s = new double[n];
+        double[]	y = new double[n];
+        double[]	hy = new double[n];
+        double[][]	h = new double[n][n];
+        boolean[]	is_free = new boolean[n];
+        boolean		is_h_scaled = false;
+        double		max_step = 0.0;
+        double		rating = rateScaled(search, scaling, x, w_t, g);
+
+        for (int i = 0; i < n; i++)
+            max_step = Math.max(max_step,
+                search.getInitialStep(i)/scaling.Range[i]);
+
+        for (int iter = 0; iter < MaxIterations; iter++) {
+            search.beginIteration();
+
+            // Weights at a bound the gradient pushes against stay there.
+
+            boolean		is_any_free = false;
+            double		max_g = 0.0;
+
+            for (int i = 0; i < n; i++) {
+                is_free[i] = !((x[i] <= 0.0 && g[i] > 0.0)
+                    || (x[i] >= 1.0 && g[i] < 0.0));
+                if (is_free[i]) {
+                    is_any_free = true;
+                    max_g = Math.max(max_g, Math.abs(g[i]));
+                }
+            }
+            if (!is_any_free || max_g == 0.0 || Double.isInfinite(rating))
+                break;
+
+            // Search direction. Steepest descent is taken at first, with the
+            // largest move the initial step, and whenever the BFGS direction
+            // does not descend, with the largest move twice the last one.
+
+            double		slope = 0.0;
+
+            if (is_h_scaled) {
+                for (int i = 0; i < n; i++) {
+                    d[i] = 0.0;
+                    if (is_free[i])
+                        for (int j = 0; j < n; j++)
+                            if (is_free[j])
+                                d[i] -= h[i][j]*g[j];
+                    slope += d[i]*g[i];
+                }
+                if (!(slope < 0.0))
+                    is_h_scaled = false;
+            }
+            if (!is_h_scaled)
+                for (int i = 0; i < n; i++)
+                    d[i] = is_free[i] ? -max_step*g[i]/max_g : 0.0;
+
+            // Projected backtracking line search.
+
+            double		t = 1.0;
+            double		rating_t = Double.POSITIVE_INFINITY;
+            double		max_move = 0.0;
+            boolean		is_moved = false;
+
+            while (true) {
+                double		decrease = 0.0;
+
+                is_moved = false;
+                max_move = 0.0;
+                for (int i = 0; i < n; i++) {
+                    x_t[i] = Math.max(0.0, Math.min(1.0, x[i]+t*d[i]));
+                    s[i] = x_t[i]-x[i];
+                    decrease += g[i]*s[i];
+                    max_move = Math.max(max_move, Math.abs(s[i]));
+                    if (Math.abs(s[i]) >= Tolerance*scaling.Precision[i])
+                        is_moved = true;
+                }
+                if (!is_moved)
+                    break;
+                rating_t = rateScaled(search, scaling, x_t, w_t, g_t);
+                if (rating_t <= rating+SufficientDecrease*decrease)
+                    break;
+                t *= Backtrack;
+            }
+            if (!is_moved && is_h_scaled) {
+                is_h_scaled = false;
+                continue;
+            } else if (!is_moved)
+                break;
+            max_step = Math.min(max_step, 2.0*max_move);
+
+            // BFGS update of the inverse Hessian approximation, which starts
+            // out as the identity scaled to the curvature seen along the
+            // first move.
+
+            double		sy = 0.0;
+            double		yy = 0.0;
+            double		yhy = 0.0;
+
+            for (int i = 0; i < n; i++) {
+                y[i] = g_t[i]-g[i];
+                sy += s[i]*y[i];
+                yy += y[i]*y[i];
+            }
+            if (sy > 1.0e-12*Math.sqrt(yy)) {
+                if (!is_h_scaled) {
+                    for (int i = 0; i < n; i++)
+                        for (int j = 0; j < n; j++)
+                            h[i][j] = (i == j) ? sy/yy : 0.0;
+                    is_h_scaled = true;
+                }
+                for (int i = 0; i < n; i++) {
+                    hy[i] = 0.0;
+                    for (int j = 0; j < n; j++)
+                        hy[i] += h[i][j]*y[j];
+                    yhy += y[i]*hy[i];
+                }
+                for (int i = 0; i < n; i++)
+                    for (int j = 0; j < n; j++)
+                        h[i][j] += ((sy+yhy)*s[i]*s[j]/sy
+                            -hy[i]*s[j]-s[i]*hy[j])/sy;
+            }
+
+            System.arraycopy(x_t, 0, x, 0, n);
+            System.arraycopy(g_t, 0, g, 0, n);
+
+            boolean		is_flat = (rating-rating_t
+                <= MinRelDecrease*Math.abs(rating));
+
+            rating = rating_t;
+            if (is_flat)
+                break;
+        }
+
+        return rating;
+    }
+
+    /**
+     * Rate scaled weights and compute the gradient with respect to them.
+     *
+     * @param search Search state.
+     * @param scaling Weight scaling.
+     * @param x Weights scaled to their bounds.
+     * @param weights Where to put the unscaled weights.
+     * @param gradient Where to put the rating gradient.
+     *
+     * @return Weight rating.
+     */
+    private static double rateScaled(
+        GWSearch	search,
+        Scaling		scaling,
+        double[]	x,
+        double[]	weights,
+        double[]	gradient
+    ) {
+        double		rating = search.rateGradient(
+            scaling.unscale(search, x, weights), gradient);
+
+        for (int i = 0; i < x.length; i++)
+            gradient[i] *= scaling.Range[i];
+
+        return rating;
+    }
+
+    /**
+     * Rate the corners of the box spanning CornerOffset to 1-CornerOffset of
+     * every scaled weight range and pick the best rated as start weights.
+     *
+     * @param search Search state.
+     * @param scaling Weight scaling.
+     *
+     * @return Scaled start weights, the best rated first.
+     */
+    private static double[][] screenCorners(
+        GWSearch	search,
+        Scaling		scaling
+    ) {
+        int			n = search.getNumWeights();
+        int			num_corners = 1 << n;
+        int			num_starts = Math.min(NumCornerStarts, num_corners);
+        double[][]	starts = new double[num_starts][];
+        double[]	start_ratings = new double[num_starts];
+        double[]	weights = new double[n];
+        int			num_rated = 0;
+
+        for (int k = 0; k < num_starts; k++)
+            start_ratings[k] = Double.POSITIVE_INFINITY;
+        for (int c = 0; c < num_corners; c++) {
+            double[]	corner = new double[n];
+
+            for (int i = 0; i < n; i++)
+                corner[i] = ((c & (1 << i)) == 0)
+                    ? CornerOffset : 1.0-CornerOffset;
+
+            double		rating = search.rate(
+                scaling.unscale(search, corner, weights));
+
+            // Insert into the best rated corners so far.
+
+            for (int k = 0; k < num_starts; k++)
+                if (rating < start_ratings[k]) {
+                    for (int m = num_starts-1; m > k; m--) {
+                        starts[m] = starts[m-1];
+                        start_ratings[m] = start_ratings[m-1];
+                    }
+                    starts[k] = corner;
+                    start_ratings[k] = rating;
+                    break;
+                }
+        }
+        while (num_rated < num_starts && starts[num_rated] != null)
+            num_rated++;
+
+        double[][]	rated = new double[num_rated][];
+
+        System.arraycopy(starts, 0, rated, 0, num_rated);
+
+        return rated;
+    }
+
+/*******************/
+/* Private Classes */
+/*******************/
+
+    /**
+     * Scaling of the weights to their bounds.
+     */
+    private static final class Scaling {
+        final double[]	Lower;
+        final double[]	Range;
+        final double[]	Precision;
+
+        /**
+         * Fully specified constructor.
+         *
+         * @param search Search state.
+         */
+        Scaling(
+            GWSearch	search
+        ) {
+            int			n = search.getNumWeights();
+
+            Lower = new double[n];
+            Range = new double[n];
+            Precision = new double[n];
+            for (int i = 0; i < n; i++) {
+                Lower[i] = search.getLowerBound(i);
+                Range[i] = search.getUpperBound(i)-Lower[i];
+                if (Range[i] <= 0.0)
+                    Range[i] = 1.0;
+                Precision[i] = search.getPrecision(i)/Range[i];
+            }
+        }
+
+        /**
+         * Unscale weights.
+         *
+         * @param search Search state.
+         * @param x Scaled weights.
+         * @param weights Where to put the weights.
+         *
+         * @return Weights.
+         */
+        double[] unscale(
+            GWSearch	search,
+            double[]	x,
+            double[]	weights
+        ) {
+            for (int i = 0; i < x.length; i++)
+                weights[i] = search.clip(i, Lower[i]+x[i]*Range[i]);
+
+            return weights;
+        }
+    }
+}
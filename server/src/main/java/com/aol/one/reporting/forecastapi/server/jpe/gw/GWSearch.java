@@ -0,0 +1,258 @@
+/********************************************************************************
+ * Copyright 2018, Oath Inc.
+ * Licensed under the terms of the Apache Version 2.0 license.
+ * See LICENSE file in project root directory for terms.
+ ********************************************************************************/
+
+package com.aol.one.reporting.forecastapi.server.jpe.gw;
+
+/**
+ * State of one search by a GWOptimizer other than the grid walk. It validates
+ * the search parameters the same way the GW does, rates weights counting the
+ * evaluations, and checks the deadline.
+ */
+final class GWSearch {
+    private static final double	DifferenceStep = 0.1;
+
+    private final GWInterface	GWIObject;
+    private final int			StartLevel;
+    private final long			Deadline;
+    private final double[]		StartWeights;
+    private int					NumEvaluations = 0;
+    private int					NumIterations = 0;
+
+    /**
+     * Fully specified constructor.
+     *
+     * @see GWOptimizer#optimize(GWInterface, double[], int, long,
+     *    java.util.concurrent.Executor)
+     */
+    GWSearch(
+        GWInterface	gwi_object,
+        double[]	start_weights,
+        int			start_level,
+        long		deadline
+    ) throws GWException {
+        if (gwi_object == null)
+            throw new GWException("The GW interface object cannot be null.");
+        if (start_weights != null
+        && start_weights.length != gwi_object.getNumWeights())
+            throw new GWException("The GW start weights must match the "
+            + "number of weights.");
+        if (start_level < 0 || start_level >= gwi_object.getNumLevels())
+            throw new GWException("The GW start level is out of range.");
+
+        GWIObject = gwi_object;
+        StartLevel = start_level;
+        Deadline = deadline;
+
+        int			num_weights = gwi_object.getNumWeights();
+
+        StartWeights = new double[num_weights];
+        for (int i = 0; i < num_weights; i++)
+            if (start_weights == null)
+                StartWeights[i] = (getUpperBound(i)+getLowerBound(i))/2.0;
+            else
+                StartWeights[i] = clip(i, start_weights[i]);
+    }
+
+    /**
+     * Start a search iteration. The deadline is checked first.
+     *
+     * @throws GWException if the deadline passed.
+     */
+    void beginIteration() throws GWException {
+        if (Deadline > 0 && System.currentTimeMillis() >= Deadline)
+            throw new GWException("The GW deadline passed.");
+        NumIterations++;
+    }
+
+    /**
+     * Clip a weight value to its bounds.
+     *
+     * @param weight_idx Weight index.
+     * @param value Weight value.
+     *
+     * @return Clipped weight value.
+     */
+    double clip(
+        int			weight_idx,
+        double		value
+    ) {
+        return Math.max(getLowerBound(weight_idx),
+            Math.min(getUpperBound(weight_idx), value));
+    }
+
+    /**
+     * Finish the search by rating the optimal weights last.
+     *
+     * @param weights Optimal weights.
+     *
+     * @return Search result.
+     */
+    GWOptimum finish(
+        double[]	weights
+    ) {
+        double		rating = rate(weights);
+
+        return new GWOptimum(weights, rating, NumEvaluations, 0,
+            NumIterations);
+    }
+
+    /**
+     * Fetch the initial step for a weight. This is ten steps of the start
+     * accuracy level but at most a quarter of the weight range.
+     *
+     * @param weight_idx Weight index.
+     *
+     * @return Initial step.
+     */
+    double getInitialStep(
+        int			weight_idx
+    ) {
+        return Math.min(10.0*GWIObject.getStepSize(StartLevel, weight_idx),
+            (getUpperBound(weight_idx)-getLowerBound(weight_idx))/4.0);
+    }
+
+    /**
+     * Fetch the weight lower bound.
+     *
+     * @param weight_idx Weight index.
+     *
+     * @return Weight lower bound.
+     */
+    double getLowerBound(
+        int			weight_idx
+    ) {
+        return GWIObject.getWeightLowerBound(weight_idx);
+    }
+
+    /**
+     * Fetch the number of ratings evaluated so far.
+     *
+     * @return Number of rating evaluations.
+     */
+    int getNumEvaluations() {
+        return NumEvaluations;
+    }
+
+    /**
+     * Fetch the number of weights.
+     *
+     * @return Number of weights.
+     */
+    int getNumWeights() {
+        return StartWeights.length;
+    }
+
+    /**
+     * Fetch the precision of a weight, which is the step of the finest
+     * accuracy level.
+     *
+     * @param weight_idx Weight index.
+     *
+     * @return Weight precision.
+     */
+    double getPrecision(
+        int			weight_idx
+    ) {
+        return GWIObject.getStepSize(GWIObject.getNumLevels()-1, weight_idx);
+    }
+
+    /**
+     * Fetch the weights to start from.
+     *
+     * @return Start weights (a copy).
+     */
+    double[] getStartWeights() {
+        return StartWeights.clone();
+    }
+
+    /**
+     * Fetch the weight upper bound.
+     *
+     * @param weight_idx Weight index.
+     *
+     * @return Weight upper bound.
+     */
+    double getUpperBound(
+        int			weight_idx
+    ) {
+        return GWIObject.getWeightUpperBound(weight_idx);
+    }
+
+    /**
+     * Rate weights. A rating that is not a number is taken as infinity so
+     * such weights are never preferred.
+     *
+     * @param weights Weights to rate.
+     *
+     * @return Weight rating.
+     */
+    double rate(
+        double[]	weights
+    ) {
+        double		rating = GWIObject.getRating(weights);
+
+        NumEvaluations++;
+        return Double.isNaN(rating) ? Double.POSITIVE_INFINITY : rating;
+    }
+
+    /**
+     * Rate weights and compute the rating gradient. The gradient comes from
+     * the object in the same evaluation if it is a GWGradientInterface.
+     * Otherwise, or if that gradient is not finite, it is estimated by
+     * central differences a tenth of the weight precision wide, each costing
+     * two more evaluations. A rating that is not a number is taken as
+     * infinity.
+     *
+     * @param weights Weights to rate.
+     * @param gradient Where to put the rating gradient.
+     *
+     * @return Weight rating.
+     */
+    double rateGradient(
+        double[]	weights,
+        double[]	gradient
+    ) {
+        double		rating = 0.0;
+        boolean		is_finite = false;
+
+        if (GWIObject instanceof GWGradientInterface) {
+            rating = ((GWGradientInterface)GWIObject).getRatingGradient(
+                weights, gradient);
+            NumEvaluations++;
+            if (Double.isNaN(rating))
+                return Double.POSITIVE_INFINITY;
+            is_finite = true;
+            for (int i = 0; i < gradient.length; i++)
+                if (Double.isNaN(gradient[i]) || Double.isInfinite(gradient[i]))
+                    is_finite = false;
+            if (is_finite)
+                return rating;
+        } else
+            rating = rate(weights);
+
+        if (Double.isInfinite(rating))
+            return rating;
+
+        double[]	shifted = weights.clone();
+
+        for (int i = 0; i < gradient.length; i++) {
+            double		h = DifferenceStep*getPrecision(i);
+            double		lower = clip(i, weights[i]-h);
+            double		upper = clip(i, weights[i]+h);
+
+            shifted[i] = upper;
+            gradient[i] = rate(shifted);
+            shifted[i] = lower;
+            gradient[i] -= rate(shifted);
+            gradient[i] /= upper-lower;
+            if (Double.isNaN(gradient[i]) || Double.isInfinite(gradient[i]))
+                gradient[i] = 0.0;
+            shifted[i] = weights[i];
+        }
+
+        return rating;
+    }
+}
@@ -156,25 +156,52 @@ public final class SpikeSmooth {
 	}
 	
 	/**
-	 * Smooth the spikes in a time series. This implements two passes over
-	 * the time series, forward and reverse.
+	 * Smooth the spikes in a time series.
 	 * 
 	 * @param series Time series to smooth.
 	 * @param clipping_window How long a spike can persist before considering
 	 *    it a change in the moving average.
 	 * 
-	 * @return Series with smoothed spikes.
+	 * @return New series with smoothed spikes. The input series is never
+	 *    returned.
+	 */
+	public static double[] smoothSpike(
+		double[]	series,
+		int			clipping_window
+	) {
+		if (series == null)
+			return null;
+		return smoothSpike(series, 0, series.length, clipping_window);
+	}
+	
+	/**
+	 * Smooth the spikes in a range of a time series. This implements two
+	 * passes over the range, forward and reverse. The reverse pass indexes
+	 * the range from its end rather than reversing a copy of it.
+	 * 
+	 * @param series Time series holding the range to smooth.
+	 * @param offset Index of the first value of the range.
+	 * @param length Number of values in the range.
+	 * @param clipping_window How long a spike can persist before considering
+	 *    it a change in the moving average.
+	 * 
+	 * @return New series of the range values with smoothed spikes. The range
+	 *    values are copied as is if the range is too short to smooth.
 	 */
 	public static double[] smoothSpike(
 		double[]	series,
+		int			offset,
+		int			length,
 		int			clipping_window
 	) {
 		double[]	new_series = null;
 		
-		new_series = smoothSpikeReal(series, clipping_window);
-		new_series = revSeries(new_series);
-		new_series = smoothSpikeReal(new_series, clipping_window);
-		new_series = revSeries(new_series);
+		new_series = smoothSpikeReal(series, offset, length, clipping_window,
+			false);
+		if (new_series == null)
+			return null;
+		new_series = smoothSpikeReal(new_series, 0, length, clipping_window,
+			true);
 		return new_series;
 	}
 	
@@ -212,17 +239,21 @@ public final class SpikeSmooth {
      * positions in a linked list.
      * 
      * @param series Series for which to compute mean and standard deviation.
+     * @param offset Index of the first series value.
+     * @param length Number of series values.
      * @param pos  Series entries to use to compute mean and standard deviation.
-     * @param mean Resulting mean.
-     * @param sd Resulting standard deviation.
+     * @param is_reverse Are the positions counted from the series end?
      * 
      * @return Mean and standard deviation container object.
      */
     private static MeanAndStdDev getMeanAndStdDev(
     	double[]			series,
-    	LinkedList<Integer>	pos
+    	int					offset,
+    	int					length,
+    	LinkedList<Integer>	pos,
+    	boolean				is_reverse
     ) {
-		if (series == null || series.length < 2
+		if (series == null || length < 2
 		|| pos == null || pos.size() < 2)
 			return null;
 		
@@ -232,11 +263,14 @@ public final class SpikeSmooth {
     	double		n = (double)pos.size();
     	
 		for (Integer idx : pos)
-			mean += series[idx];
+			mean += getValue(series, offset, length, idx, is_reverse);
 		mean /= n;
 		
-		for (Integer idx : pos)
-			sum_diff += (series[idx]-mean)*(series[idx]-mean);
+		for (Integer idx : pos) {
+			double	value = getValue(series, offset, length, idx, is_reverse);
+			
+			sum_diff += (value-mean)*(value-mean);
+		}
 		sum_diff /= (n-1);
 		sd = (double)Math.sqrt(sum_diff);
 		
@@ -244,43 +278,56 @@ public final class SpikeSmooth {
     }
    
     /**
-     * Reverse a time series.
+     * Fetch a series value by position.
      * 
-     * @param series Time series to reverse.
+     * @param series Series to fetch from.
+     * @param offset Index of the first series value.
+     * @param length Number of series values.
+     * @param idx Position of the value.
+     * @param is_reverse Is the position counted from the series end?
      * 
-     * @return Reversed series.
+     * @return Series value.
      */
-    private static double[] revSeries(
-    	double[]	series
+    private static double getValue(
+    	double[]	series,
+    	int			offset,
+    	int			length,
+    	int			idx,
+    	boolean		is_reverse
     ) {
-    	if (series == null)
-    		return null;
-    	
-    	double[]	rev_series = new double[series.length];
-    	
-    	for (int i = 0; i < series.length; i++)
-    		rev_series[i] = series[series.length-i-1];
-    	return rev_series;
+    	return series[offset+(is_reverse ? length-idx-1 : idx)];
     }
 	
 	/**
 	 * Smooth the spikes in a time series. This method does the bulk of the
 	 * work.
 	 * 
-	 * @param series Time series to smooth.
+	 * @param series Time series holding the range to smooth.
+	 * @param offset Index of the first value of the range.
+	 * @param length Number of values in the range.
 	 * @param clipping_window How long a spike can persist before considering
 	 *    it a change in the moving average.
+	 * @param is_reverse Smooth the range from its end to its start?
 	 * 
-	 * @return Series with smoothed spikes.
+	 * @return New series of the range values with smoothed spikes (in the
+	 *    original order).
 	 */
 	private static double[] smoothSpikeReal(
 		double[]	series,
-		int			clipping_window
+		int			offset,
+		int			length,
+		int			clipping_window,
+		boolean		is_reverse
 	) {
+		if (series == null)
+			return null;
+		
+		double[]			smooth_series = new double[length];
+		
+		System.arraycopy(series, offset, smooth_series, 0, length);
 		if (clipping_window < ClippingWindow
-		|| series == null
-		|| series.length <= (clipping_window+1))
-			return series;
+		|| length <= (clipping_window+1))
+			return smooth_series;
 		
 		LinkedList<Integer>	cur_window = new LinkedList<Integer>();
 		MeanAndStdDev		cur_u_s = null;
@@ -290,7 +337,8 @@ public final class SpikeSmooth {
 		
 		for(int i = 0; i < (clipping_window+1); i++)
 			cur_window.add(i);
-		cur_u_s = getMeanAndStdDev(series, cur_window);
+		cur_u_s = getMeanAndStdDev(series, offset, length,
+			cur_window, is_reverse);
 		cur_u = cur_u_s.getMean();
 		cur_s = cur_u_s.getStdDev();
 		
@@ -298,18 +346,19 @@ public final class SpikeSmooth {
 		int					cur_state = 0;
 		int					input = -1;
 		int					action = -1;
-		double[]			smooth_series = new double[series.length];
 		
-		System.arraycopy(series, 0, smooth_series, 0, series.length);
 		while (cur_state >= 0) {
-			if (i >= series.length)
+			double	value = (i >= length) ? 0.0
+				: getValue(series, offset, length, i, is_reverse);
+			
+			if (i >= length)
 				input = 3;
-			else if (((series[i] > cur_u+DevBoundary*cur_s)
-			| (series[i] < cur_u-DevBoundary*cur_s))
+			else if (((value > cur_u+DevBoundary*cur_s)
+			| (value < cur_u-DevBoundary*cur_s))
 			&& (clip_window.size() < clipping_window))
 				input = 0;
-			else if (((series[i] > cur_u+DevBoundary*cur_s)
-			| (series[i] < cur_u-DevBoundary*cur_s))
+			else if (((value > cur_u+DevBoundary*cur_s)
+			| (value < cur_u-DevBoundary*cur_s))
 			&& (clip_window.size() >= clipping_window))
 				input = 1;
 			else
@@ -322,14 +371,15 @@ public final class SpikeSmooth {
 				break;
 			case 3:
 				for (int j : clip_window)
-					smooth_series[j] = cur_u;
+					smooth_series[is_reverse ? length-j-1 : j] = cur_u;
 				clip_window.clear();
 				break;
 			case 4:
 				cur_window.add(i);
 				if (cur_window.size() > ClipFactor*clipping_window)
 					cur_window.remove();
-				cur_u_s = getMeanAndStdDev(series, cur_window);
+				cur_u_s = getMeanAndStdDev(series, offset, length,
+					cur_window, is_reverse);
 				cur_u = cur_u_s.getMean();
 				cur_s = cur_u_s.getStdDev();
 				break;
@@ -337,7 +387,8 @@ public final class SpikeSmooth {
 				cur_window.clear();
 				for (int j = i-clipping_window; j <= i; j++)
 					cur_window.add(j);
-				cur_u_s = getMeanAndStdDev(series, cur_window);
+				cur_u_s = getMeanAndStdDev(series, offset, length,
+					cur_window, is_reverse);
 				cur_u = cur_u_s.getMean();
 				cur_s = cur_u_s.getStdDev();
 				clip_window.clear();
@@ -346,10 +397,11 @@ public final class SpikeSmooth {
 				return null;
 			case 7:
 				for (int j : clip_window)
-					smooth_series[j] = cur_u;
+					smooth_series[is_reverse ? length-j-1 : j] = cur_u;
 				clip_window.clear();
 				cur_window.add(i);
-				cur_u_s = getMeanAndStdDev(series, cur_window);
+				cur_u_s = getMeanAndStdDev(series, offset, length,
+					cur_window, is_reverse);
 				cur_u = cur_u_s.getMean();
 				cur_s = cur_u_s.getStdDev();
 				break;
@@ -39,6 +39,9 @@ public class EasyForecastRequest {
     @ApiModelProperty(value = "Indicating whether forecasts are to be rounded to integer and negative values to be set 0", required = false)
     private Boolean massageForecast;
 
+    @ApiModelProperty(value = "Number of best canned sets whose forecasts are averaged weighted by inverse hold back RMSE. The default is 1.", required = false)
+    private Integer ensembleSize;
+
     public EasyForecastRequest(
             @JsonProperty("timeSeries") double[] timeSeries,
             @JsonProperty("spikeFilterWindow") Integer spikeFilterWindow,
@@ -93,6 +96,14 @@ public class EasyForecastRequest {
         this.massageForecast = massageForecast;
     }
 
+    public Integer getEnsembleSize() {
+        return ensembleSize == null ? 1 : ensembleSize;
+    }
+
+    public void setEnsembleSize(Integer ensembleSize) {
+        this.ensembleSize = ensembleSize;
+    }
+
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
@@ -111,6 +122,7 @@ public class EasyForecastRequest {
         sb.append("CannedSetCollectionName : ").append(getCannedSetCollectionName());
         sb.append(String.format("Number of Forecasts : %4d ", numberForecasts));
         sb.append(" MassageForecast : ").append(getMassageForecast());
+        sb.append(" EnsembleSize : ").append(getEnsembleSize());
         return sb.toString();
     }
 
@@ -126,6 +138,8 @@ public class EasyForecastRequest {
             return false;
         if (massageForecast != null ? !massageForecast.equals(that.massageForecast) : that.massageForecast != null)
             return false;
+        if (ensembleSize != null ? !ensembleSize.equals(that.ensembleSize) : that.ensembleSize != null)
+            return false;
         if (spikeFilterWindow != null ? !spikeFilterWindow.equals(that.spikeFilterWindow) : that.spikeFilterWindow != null)
             return false;
         if (!Arrays.equals(timeSeries, that.timeSeries)) return false;
@@ -140,6 +154,7 @@ public class EasyForecastRequest {
         result = 31 * result + (cannedSetCollectionName != null ? cannedSetCollectionName.hashCode() : 0);
         result = 31 * result + numberForecasts;
         result = 31 * result + (massageForecast != null ? massageForecast.hashCode() : 0);
+        result = 31 * result + (ensembleSize != null ? ensembleSize.hashCode() : 0);
         return result;
     }
 }
@@ -30,10 +30,16 @@ public class ImpressionForecastRequest {
             * One or more canned set names to use. If more than one canned set name is specified, a competition is performed.
         - NumberHoldBack: (optional)
             * Maximum number of historical values to hold back used to determine a canned set winner. The default is 30.
+        - NumberFolds: (optional)
+            * Number of rolling origins the canned sets are evaluated over. The default is 1. Every origin needs at least NumberHoldBack calibration values, which limits the number a time series supports.
+        - TimeLimit: (optional)
+            * Milliseconds the canned set competition may take. The best canned set evaluated within the limit is used. The default is the server default; 0 means no limit.
         - NumberForecasts:
             * Number of forecasts to produce
         - MassageForecasts: (optional)
             * Boolean indicating whether forecasts are to be rounded to integer values and negative values are to be set to 0. The default is true.
+        - EnsembleSize: (optional)
+            * Number of best canned sets whose forecasts are averaged weighted by inverse hold back RMSE. The default is 1.
 */
 
 
@@ -53,6 +59,12 @@ public class ImpressionForecastRequest {
     @ApiModelProperty(value = "Maximum number of historical values to hold back used to determine a canned set winner.", required = false)
     private Integer numberHoldBack;
 
+    @ApiModelProperty(value = "Number of rolling origins over which canned sets are evaluated. The default is 1.", required = false)
+    private Integer numberFolds;
+
+    @ApiModelProperty(value = "Milliseconds the canned set competition may take. 0: no limit. The default is the server default.", required = false)
+    private Integer timeLimit;
+
     @ApiModelProperty(value = "Number of forecasts to produce", required = true)
     @NotNull
     private int numberForecasts;
@@ -60,6 +72,9 @@ public class ImpressionForecastRequest {
     @ApiModelProperty(value = "Indicating whether forecasts are to be rounded to integer and negative values to be set 0", required = false)
     private Boolean massageForecast;
 
+    @ApiModelProperty(value = "Number of best canned sets whose forecasts are averaged weighted by inverse hold back RMSE. The default is 1.", required = false)
+    private Integer ensembleSize;
+
     public ImpressionForecastRequest(
             @JsonProperty("timeSeries") double[] timeSeries,
             @JsonProperty("spikeFilterWindow") Integer spikeFilterWindow,
@@ -106,6 +121,22 @@ public class ImpressionForecastRequest {
         this.numberHoldBack = numberHoldBack;
     }
 
+    public Integer getNumberFolds() {
+        return numberFolds == null ? 1 : numberFolds;
+    }
+
+    public void setNumberFolds(Integer numberFolds) {
+        this.numberFolds = numberFolds;
+    }
+
+    public Integer getTimeLimit() {
+        return timeLimit;
+    }
+
+    public void setTimeLimit(Integer timeLimit) {
+        this.timeLimit = timeLimit;
+    }
+
     public int getNumberForecasts() {
         return numberForecasts;
     }
@@ -122,6 +153,14 @@ public class ImpressionForecastRequest {
         this.massageForecast = massageForecast;
     }
 
+    public Integer getEnsembleSize() {
+        return ensembleSize == null ? 1 : ensembleSize;
+    }
+
+    public void setEnsembleSize(Integer ensembleSize) {
+        this.ensembleSize = ensembleSize;
+    }
+
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
@@ -149,8 +188,11 @@ public class ImpressionForecastRequest {
         }
         sb.append("]");
         sb.append("numberHoldBack : ").append(getNumberHoldBack());
+        sb.append(" numberFolds : ").append(getNumberFolds());
+        sb.append(" timeLimit : ").append(timeLimit);
         sb.append(String.format("Number of Forecasts : %4d ", numberForecasts));
         sb.append(" MassageForecast : ").append(getMassageForecast());
+        sb.append(" EnsembleSize : ").append(getEnsembleSize());
         return sb.toString();
     }
 
@@ -165,8 +207,14 @@ public class ImpressionForecastRequest {
         if (!Arrays.equals(cannedSets, that.cannedSets)) return false;
         if (massageForecast != null ? !massageForecast.equals(that.massageForecast) : that.massageForecast != null)
             return false;
+        if (ensembleSize != null ? !ensembleSize.equals(that.ensembleSize) : that.ensembleSize != null)
+            return false;
         if (numberHoldBack != null ? !numberHoldBack.equals(that.numberHoldBack) : that.numberHoldBack != null)
             return false;
+        if (numberFolds != null ? !numberFolds.equals(that.numberFolds) : that.numberFolds != null)
+            return false;
+        if (timeLimit != null ? !timeLimit.equals(that.timeLimit) : that.timeLimit != null)
+            return false;
         if (spikeFilterWindow != null ? !spikeFilterWindow.equals(that.spikeFilterWindow) : that.spikeFilterWindow != null)
             return false;
         if (!Arrays.equals(timeSeries, that.timeSeries)) return false;
@@ -180,8 +228,11 @@ public class ImpressionForecastRequest {
         result = 31 * result + (spikeFilterWindow != null ? spikeFilterWindow.hashCode() : 0);
         result = 31 * result + Arrays.hashCode(cannedSets);
         result = 31 * result + (numberHoldBack != null ? numberHoldBack.hashCode() : 0);
+        result = 31 * result + (numberFolds != null ? numberFolds.hashCode() : 0);
+        result = 31 * result + (timeLimit != null ? timeLimit.hashCode() : 0);
         result = 31 * result + numberForecasts;
         result = 31 * result + (massageForecast != null ? massageForecast.hashCode() : 0);
+        result = 31 * result + (ensembleSize != null ? ensembleSize.hashCode() : 0);
         return result;
     }
 }
@@ -0,0 +1,60 @@
+/********************************************************************************
+ * Copyright 2018, Oath Inc.
+ * Licensed under the terms of the Apache Version 2.0 license.
+ * See LICENSE file in project root directory for terms.
+ ********************************************************************************/
+
+package com.aol.one.reporting.forecastapi.server.model.request;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.wordnik.swagger.annotations.ApiModel;
+import com.wordnik.swagger.annotations.ApiModelProperty;
+
+import javax.validation.constraints.NotNull;
+
+@ApiModel(value = "Batch Forecast Job Request")
+public class JobRequest {
+/*
+        - Path:
+            * Path of a file of newline delimited impression forecast requests, one series per line, relative to the
+              jobs input directory (ifs.jobs.input.dir). Paths leading outside the input directory are rejected.
+*/
+
+    @ApiModelProperty(value = "Path of a file of newline delimited impression forecast requests relative to the jobs input directory", required = true)
+    @NotNull
+    private String path;
+
+    public JobRequest(
+            @JsonProperty("path") String path
+    ) {
+        this.path = path;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public void setPath(String path) {
+        this.path = path;
+    }
+
+    @Override
+    public String toString() {
+        return "Path : " + path;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        JobRequest that = (JobRequest) o;
+
+        return path != null ? path.equals(that.path) : that.path == null;
+    }
+
+    @Override
+    public int hashCode() {
+        return path != null ? path.hashCode() : 0;
+    }
+}
@@ -37,6 +37,8 @@ public class SelectionForecastRequest {
             * Number of forecasts to produce
         - MassageForecasts: (optional)
             * Boolean indicating whether forecasts are to be rounded to integer values and negative values are to be set to 0. The default is true.
+        - EnsembleSize: (optional)
+            * Number of best canned sets whose forecasts are averaged weighted by inverse hold back RMSE. The default is 1.
   */
 
     private static final Logger LOG = LoggerFactory.getLogger(SelectionForecastRequest.class);
@@ -81,6 +83,11 @@ public class SelectionForecastRequest {
             required = false)
     private Boolean massageForecast;
 
+    @ApiModelProperty(
+            value = "Number of best canned sets whose forecasts are averaged weighted by inverse hold back RMSE. The default is 1.",
+            required = false)
+    private Integer ensembleSize;
+
     public SelectionForecastRequest(
             @JsonProperty("timeSeries") double[] timeSeries,
             @JsonProperty("spikeFilterWindow") Integer spikeFilterWindow,
@@ -164,6 +171,14 @@ public class SelectionForecastRequest {
         this.massageForecast = massageForecast;
     }
 
+    public Integer getEnsembleSize() {
+        return ensembleSize == null ? 1 : ensembleSize;
+    }
+
+    public void setEnsembleSize(Integer ensembleSize) {
+        this.ensembleSize = ensembleSize;
+    }
+
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
@@ -185,6 +200,7 @@ public class SelectionForecastRequest {
         cannedSets(nonSeasonalCannedSetList,sb);
         sb.append(String.format("Number of Forecasts : %4d ",numberForecasts));
         sb.append(" MassageForecast : ").append(getMassageForecast());
+        sb.append(" EnsembleSize : ").append(getEnsembleSize());
         return sb.toString();
     }
 
@@ -219,6 +235,8 @@ public class SelectionForecastRequest {
             return false;
         if (massageForecast != null ? !massageForecast.equals(that.massageForecast) : that.massageForecast != null)
             return false;
+        if (ensembleSize != null ? !ensembleSize.equals(that.ensembleSize) : that.ensembleSize != null)
+            return false;
         if (!Arrays.equals(nonSeasonalCannedSetList, that.nonSeasonalCannedSetList)) return false;
         if (!Arrays.equals(seasonalCannedSetList, that.seasonalCannedSetList)) return false;
         if (spikeFilterWindow != null ? !spikeFilterWindow.equals(that.spikeFilterWindow) : that.spikeFilterWindow != null)
@@ -239,6 +257,7 @@ public class SelectionForecastRequest {
         result = 31 * result + (nonSeasonalCannedSetList != null ? Arrays.hashCode(nonSeasonalCannedSetList) : 0);
         result = 31 * result + numberForecasts;
         result = 31 * result + (massageForecast != null ? massageForecast.hashCode() : 0);
+        result = 31 * result + (ensembleSize != null ? ensembleSize.hashCode() : 0);
         return result;
     }
 }
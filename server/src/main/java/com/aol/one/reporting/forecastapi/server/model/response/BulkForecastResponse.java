@@ -0,0 +1,97 @@
+/********************************************************************************
+ * Copyright 2018, Oath Inc.
+ * Licensed under the terms of the Apache Version 2.0 license.
+ * See LICENSE file in project root directory for terms.
+ ********************************************************************************/
+package com.aol.one.reporting.forecastapi.server.model.response;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.wordnik.swagger.annotations.ApiModel;
+import com.wordnik.swagger.annotations.ApiModelProperty;
+
+@ApiModel(value = "Bulk forecast response line holding the forecast or the error of one request line")
+public class BulkForecastResponse {
+
+    @ApiModelProperty(value = "Zero based index of the request line among the non-empty request lines", required = true)
+    private long index;
+
+    @ApiModelProperty(value = "Forecast response or null if the request failed")
+    private ForecastResponse response;
+
+    @ApiModelProperty(value = "Error message or null if the request succeeded")
+    private String error;
+
+    public BulkForecastResponse() {
+
+    }
+
+    public BulkForecastResponse(
+            @JsonProperty("index") long index,
+            @JsonProperty("response") ForecastResponse response,
+            @JsonProperty("error") String error
+    ) {
+        this.index = index;
+        this.response = response;
+        this.error = error;
+    }
+
+    public long getIndex() {
+        return index;
+    }
+
+    public void setIndex(long index) {
+        this.index = index;
+    }
+
+    public ForecastResponse getResponse() {
+        return response;
+    }
+
+    public void setResponse(ForecastResponse response) {
+        this.response = response;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Index : ").append(index);
+        if (error != null) {
+            sb.append(", Error : ").append(error);
+        } else {
+            sb.append(", Response : ").append(response);
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        BulkForecastResponse that = (BulkForecastResponse) o;
+
+        if (index != that.index) return false;
+        if (response != null ? !response.equals(that.response) : that.response != null)
+            return false;
+        if (error != null ? !error.equals(that.error) : that.error != null)
+            return false;
+
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = (int) (index ^ (index >>> 32));
+        result = 31 * result + (response != null ? response.hashCode() : 0);
+        result = 31 * result + (error != null ? error.hashCode() : 0);
+        return result;
+    }
+}
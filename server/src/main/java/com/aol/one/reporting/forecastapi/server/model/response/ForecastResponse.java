@@ -23,6 +23,12 @@ public class ForecastResponse {
     @ApiModelProperty(value = "Number of milliseconds to to produce forecast", required = true)
     private long time;
 
+    @ApiModelProperty(value = "Number of canned sets evaluated in the competition")
+    private int candidatesEvaluated;
+
+    @ApiModelProperty(value = "Names of the canned sets whose forecasts were averaged, best first")
+    private String[] ensembleCannedSets;
+
     public ForecastResponse() {
 
     }
@@ -55,6 +61,22 @@ public class ForecastResponse {
         this.selectedCannedSet = selectedCannedSet;
     }
 
+    public int getCandidatesEvaluated() {
+        return candidatesEvaluated;
+    }
+
+    public void setCandidatesEvaluated(int candidatesEvaluated) {
+        this.candidatesEvaluated = candidatesEvaluated;
+    }
+
+    public String[] getEnsembleCannedSets() {
+        return ensembleCannedSets;
+    }
+
+    public void setEnsembleCannedSets(String[] ensembleCannedSets) {
+        this.ensembleCannedSets = ensembleCannedSets;
+    }
+
     public long getTime() {
         return time;
     }
@@ -78,6 +100,8 @@ public class ForecastResponse {
         }
         sb.append("], Selected Canned Set :")
                 .append(selectedCannedSet)
+                .append(", Candidates Evaluated : ").append(candidatesEvaluated)
+                .append(", Ensemble Canned Sets : ").append(Arrays.toString(ensembleCannedSets))
                 .append(String.format(", Elapsed Millis : %10d", time));
         return sb.toString();
     }
@@ -90,7 +114,9 @@ public class ForecastResponse {
         ForecastResponse that = (ForecastResponse) o;
 
         if (time != that.time) return false;
+        if (candidatesEvaluated != that.candidatesEvaluated) return false;
         if (!Arrays.equals(forecast, that.forecast)) return false;
+        if (!Arrays.equals(ensembleCannedSets, that.ensembleCannedSets)) return false;
         if (selectedCannedSet != null ? !selectedCannedSet.equals(that.selectedCannedSet) : that.selectedCannedSet != null)
             return false;
 
@@ -102,6 +128,8 @@ public class ForecastResponse {
         int result = forecast != null ? Arrays.hashCode(forecast) : 0;
         result = 31 * result + (selectedCannedSet != null ? selectedCannedSet.hashCode() : 0);
         result = 31 * result + (int) (time ^ (time >>> 32));
+        result = 31 * result + candidatesEvaluated;
+        result = 31 * result + Arrays.hashCode(ensembleCannedSets);
         return result;
     }
 }
@@ -0,0 +1,152 @@
+/********************************************************************************
+ * Copyright 2018, Oath Inc.
+ * Licensed under the terms of the Apache Version 2.0 license.
+ * See LICENSE file in project root directory for terms.
+ ********************************************************************************/
+package com.aol.one.reporting.forecastapi.server.model.response;
+
+import com.wordnik.swagger.annotations.ApiModel;
+import com.wordnik.swagger.annotations.ApiModelProperty;
+
+@ApiModel(value = "Batch forecast job status")
+public class JobResponse {
+
+    @ApiModelProperty(value = "Job id", required = true)
+    private String id;
+
+    @ApiModelProperty(value = "QUEUED, RUNNING, DONE or FAILED", required = true)
+    private String state;
+
+    @ApiModelProperty(value = "Milliseconds since the epoch the job was submitted at", required = true)
+    private long submitted;
+
+    @ApiModelProperty(value = "Number of series forecast so far", required = true)
+    private long processed;
+
+    @ApiModelProperty(value = "Number of series in the job or null if not yet counted")
+    private Long total;
+
+    @ApiModelProperty(value = "Series forecast per second since the job (re)started")
+    private double throughput;
+
+    @ApiModelProperty(value = "Reason the job failed or null")
+    private String error;
+
+    @ApiModelProperty(value = "Link to download the results (one forecast response per series line, in series order)")
+    private String results;
+
+    public JobResponse() {
+
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getState() {
+        return state;
+    }
+
+    public void setState(String state) {
+        this.state = state;
+    }
+
+    public long getSubmitted() {
+        return submitted;
+    }
+
+    public void setSubmitted(long submitted) {
+        this.submitted = submitted;
+    }
+
+    public long getProcessed() {
+        return processed;
+    }
+
+    public void setProcessed(long processed) {
+        this.processed = processed;
+    }
+
+    public Long getTotal() {
+        return total;
+    }
+
+    public void setTotal(Long total) {
+        this.total = total;
+    }
+
+    public double getThroughput() {
+        return throughput;
+    }
+
+    public void setThroughput(double throughput) {
+        this.throughput = throughput;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public String getResults() {
+        return results;
+    }
+
+    public void setResults(String results) {
+        this.results = results;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Job : ").append(id)
+                .append(", State : ").append(state)
+                .append(", Processed : ").append(processed)
+                .append(", Total : ").append(total)
+                .append(String.format(", Throughput : %.2f", throughput));
+        if (error != null) {
+            sb.append(", Error : ").append(error);
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        JobResponse that = (JobResponse) o;
+
+        if (submitted != that.submitted) return false;
+        if (processed != that.processed) return false;
+        if (Double.compare(that.throughput, throughput) != 0) return false;
+        if (id != null ? !id.equals(that.id) : that.id != null) return false;
+        if (state != null ? !state.equals(that.state) : that.state != null) return false;
+        if (total != null ? !total.equals(that.total) : that.total != null) return false;
+        if (error != null ? !error.equals(that.error) : that.error != null) return false;
+        if (results != null ? !results.equals(that.results) : that.results != null) return false;
+
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = id != null ? id.hashCode() : 0;
+        long temp = Double.doubleToLongBits(throughput);
+        result = 31 * result + (state != null ? state.hashCode() : 0);
+        result = 31 * result + (int) (submitted ^ (submitted >>> 32));
+        result = 31 * result + (int) (processed ^ (processed >>> 32));
+        result = 31 * result + (total != null ? total.hashCode() : 0);
+        result = 31 * result + (int) (temp ^ (temp >>> 32));
+        result = 31 * result + (error != null ? error.hashCode() : 0);
+        result = 31 * result + (results != null ? results.hashCode() : 0);
+        return result;
+    }
+}
@@ -8,21 +8,26 @@ package com.aol.one.reporting.forecastapi.server.models.alg;
 
 import java.io.PrintStream;
 import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
 
+import com.aol.one.reporting.forecastapi.server.models.model.IFSBackcast;
+import com.aol.one.reporting.forecastapi.server.models.model.IFSCalibration;
 import com.aol.one.reporting.forecastapi.server.models.model.IFSException;
 import com.aol.one.reporting.forecastapi.server.models.model.IFSMetrics;
 import com.aol.one.reporting.forecastapi.server.models.model.IFSModel;
-import com.aol.one.reporting.forecastapi.server.models.model.IFSModelFactory;
 import com.aol.one.reporting.forecastapi.server.models.model.IFSNormalizedOLSTrend;
 import com.aol.one.reporting.forecastapi.server.models.model.IFSParameterValue;
+import com.aol.one.reporting.forecastapi.server.models.model.IFSPreprocessCache;
 import com.aol.one.reporting.forecastapi.server.models.model.IFSStatistics;
 import com.aol.one.reporting.forecastapi.server.models.model.IFSUsageDescription;
-import com.aol.one.reporting.forecastapi.server.jpe.gw.GW;
 import com.aol.one.reporting.forecastapi.server.jpe.gw.GWException;
 import com.aol.one.reporting.forecastapi.server.jpe.gw.GWInterface;
+import com.aol.one.reporting.forecastapi.server.jpe.gw.GWParallelInterface;
+import com.aol.one.reporting.forecastapi.server.jpe.gw.GWOptimizer;
+import com.aol.one.reporting.forecastapi.server.jpe.gw.GWOptimizers;
+import com.aol.one.reporting.forecastapi.server.jpe.gw.GWOptimum;
 
 /**
  * Class implementing various ARIMA instances. The supported ARIMA instances
@@ -63,6 +68,12 @@ import com.aol.one.reporting.forecastapi.server.jpe.gw.GWInterface;
  *    <arima specification> -- One of the supported ARIMA specifications
  *       (e.g. (0,1,1)(0,1,1)s).
  * center -- Should the forecast be centered?
+ * optimizer=<optimizer name>
+ *    gw          -- Grid walk (default).
+ *    neldermead  -- Bounded Nelder-Mead simplex search.
+ *    brent       -- Coordinate search with Brent line searches.
+ *    pattern     -- Adaptive step pattern search.
+ *    quasinewton -- Bounded quasi-Newton search on numeric gradients.
  *
  */
 public final class IFSModelImplARIMA extends IFSModel {
@@ -121,6 +132,13 @@ public final class IFSModelImplARIMA extends IFSModel {
 + "center=<0|1> -- 0 indicates forecast is derived using previous forecasts.\n"
 + "                1 indicates the most recent history is recycled to derive\n"
 + "                forecasts. The default is 0.\n"
++ "\n"
++ "optimizer=<optimizer name>\n"
++ "   gw          -- Grid walk (default).\n"
++ "   neldermead  -- Bounded Nelder-Mead simplex search.\n"
++ "   brent       -- Coordinate search with Brent line searches.\n"
++ "   pattern     -- Adaptive step pattern search.\n"
++ "   quasinewton -- Bounded quasi-Newton search on numeric gradients.\n"
 	);
 	
 	private static final Map<String, ArimaData>	ArimaMap;
@@ -218,6 +236,8 @@ public final class IFSModelImplARIMA extends IFSModel {
 	
 	private String								ArimaSpec = "(0,1,1)";
 	private boolean								IsCenter = false;
+	private GWOptimizer							Optimizer
+		= GWOptimizers.getDefault();
 
 	/* (non-Javadoc)
 	 * @see com.aol.ifs.soa.common.IFSModel#execModel(double[], double[], int)
@@ -264,9 +284,32 @@ public final class IFSModelImplARIMA extends IFSModel {
 		
 		double[]		forecasts_t = new double[series.length+forecasts.length];
 		String			fcst_info = null;
+		IFSCalibration	warm_start = getWarmStart();
+		
+		// A warm start from the same variant reuses the initial value
+		// backcasts and only refines the coefficients.
 		
-		model.init(model, series, cycle, IsCenter);
-		model.calibrate();
+		model.init(model, series, cycle, IsCenter, getPreprocessCache(),
+			getDeadline());
+		try {
+		if (warm_start != null
+		&& warm_start.isApplicable(ModelName, arima_spec, cycle)
+		&& warm_start.getWeights() != null
+		&& warm_start.getWeights().length == model.getNumWeights()) {
+			if (warm_start.getInitialValues() != null)
+				model.setIV(warm_start.getInitialValues().clone());
+			model.calibrate(Optimizer, warm_start.getWeights(),
+				getDeadline(), getRatingExecutor());
+		} else
+			model.calibrate(Optimizer, null, getDeadline(),
+				getRatingExecutor());
+		} catch (GWException ex) {
+			throw new IFSException(79, getModelName());
+		}
+		if (model.getOptWeights() != null)
+			setCalibration(new IFSCalibration(ModelName, arima_spec, cycle,
+				model.getOptWeights(), model.getIV(), model.getOptRating(),
+				model.getNumEvaluations(), model.getNumEvaluationsSaved()));
 		fcst_info = model.forecast(forecasts_t);
         System.arraycopy(forecasts_t, series.length, forecasts, 0, forecasts.length);
 		
@@ -299,6 +342,7 @@ public final class IFSModelImplARIMA extends IFSModel {
 	) throws IFSException {
 		String	arima_spec = "(0,1,1)";
 		boolean is_center = false;
+		GWOptimizer	optimizer = GWOptimizers.getDefault();
 		
 		if (parameters != null && parameters.size() > 0) {
 			for (IFSParameterValue parameter : parameters) {
@@ -325,6 +369,12 @@ public final class IFSModelImplARIMA extends IFSModel {
 					} else {
 						throw new IFSException(17, getModelName(), "center");
 					}
+				} else if (parameter.getParameter().equals("optimizer")) {
+					optimizer = GWOptimizers.getOptimizer(parameter.getValue());
+					if (optimizer == null) {
+						throw new IFSException(22, getModelName(),
+							"optimizer", parameter.getValue());
+					}
 				} else {
 					throw new IFSException(23, getModelName(),
 						parameter.getParameter());
@@ -334,57 +384,13 @@ public final class IFSModelImplARIMA extends IFSModel {
 		
 		ArimaSpec = arima_spec;
 		IsCenter = is_center;
+		Optimizer = optimizer;
 	}
     
 /*******************/
 /* Private Methods */
 /*******************/
 	
-	/**
-	 * Backcast the given series.
-	 * 
-	 * @param series Time series to backcast.
-	 * @param cycle Seasonal cycle.
-	 * @param num_backcasts Number backcasts to produce.
-	 * 
-	 * @return Backcasts.
-	 */
-	private static double[] backcast(
-		double[]	series,
-		int			cycle,
-		int			num_backcasts
-	) {
-		double[]				rev_series = new double[series.length];
-		
-		for (int i = 0; i < series.length; i++) {
-			rev_series[i] = series[series.length-i-1];
-		}
-		
-        List<IFSParameterValue>	parameters = new LinkedList<IFSParameterValue>();
-        IFSModel				model = null;
-        double[]				backcasts = null;
-        
-        parameters.add(new IFSParameterValue("cycle", Integer.toString(cycle)));
-        parameters.add(new IFSParameterValue("ndays_back", "0"));
-        parameters.add(new IFSParameterValue("seasonality_type", "mult"));
-        parameters.add(new IFSParameterValue("spike_filter", "0"));
-        
-        try {
-        	
-        model = IFSModelFactory.create("model_expsm");
-        IFSModelFactory.setup(model, rev_series, parameters);
-        model.generateForecasts(num_backcasts);
-        backcasts = model.getForecasts();
-        
-        } catch (IFSException ex) {
-        	System.out.format("Could not create backcast model: %s\n",
-        		ex.getMessage());
-        	ex.printStackTrace(System.out);
-        	return null;
-        }
-		return backcasts;
-	}
-	
 	/**
 	 * Center forecasts based on recycling earliest values. Whether to center
 	 * or not depends on whether center flag is set and whether there is a
@@ -437,82 +443,6 @@ public final class IFSModelImplARIMA extends IFSModel {
 		
 		return slope;
 	}
-	
-	/**
-	 * Generate a missing value for a series for a given index.
-	 * 
-	 * @param idx Missing value index.
-	 * @param av Where to get missing values.
-	 * 
-	 * @return Missing value.
-	 */
-	private static double genMissValue(
-		int				idx,
-		ArimaVariant	av
-	) {
-		double[]	iv = av.getIV();
-				
-		if (iv == null) {
-			return av.getMean();
-		}
-		
-		return iv[idx];
-	}
-	
-    /**
-     * Fetch an error term.
-     *
-     * @param idx Value index.
-     * @param series Time series values.
-     * @param forecasts Forecast values. This vector is assumed to have
-     *    extra values beyond the time series to cover all value indices.
-     * @param av Where to get values for negative indices.
-     *
-     * @return Designated error term.
-     */
-    private static double et(
-        int         	idx,
-        double[]    	series,
-        double[]    	forecasts,
-        ArimaVariant	av
-    ) {
-    	if (idx < 0) {
-    		return yt(idx, series, forecasts, av)
-    			-yt(idx-1, series, forecasts, av);
-    	} else {
-    		return yt(idx, series, forecasts, av)-forecasts[idx];
-    	}
-    }
-	
-    /**
-     * Fetch time series value if index is in time series range. Otherwise,
-     * a previous forecast value is returned. Negative indices return missing
-     * values.
-     *
-     * @param idx Value index.
-     * @param series Time series values.
-     * @param forecasts Forecast values. This vector is assumed to have
-     *    extra values beyond the time series to cover all value indices.
-     * @param av Where to get values for negative indices.
-     *
-     * @return The time series value if the value index is in that range.
-     *    Values beyond that range are taken from the forecast vector.
-     *    Negative indices return missing values. 
-     */
-    private static double yt(
-        int         	idx,
-        double[]    	series,
-        double[]    	forecasts,
-        ArimaVariant	av
-    ) {
-    	if (idx < 0) {
-    		return genMissValue(Math.abs(idx)-1, av);
-    	} else if (0 <= idx && idx < series.length) {
-            return series[idx];
-    	} else {
-            return forecasts[idx];
-    	}
-    }
 
 /*******************/
 /* Private Classes */
@@ -562,9 +492,14 @@ private static final class ArimaData {
 }
 
 /**
- * Abstract class for implementing ARIMA variants.
+ * Abstract class for implementing ARIMA variants. Variants fit over an
+ * extended series holding the initial values (in reverse) followed by the
+ * series and then the forecasts, and an error term buffer aligned with it.
+ * Index Offset+i of either buffer holds the value for series index i, so
+ * terms reaching back before the series start are plain array accesses.
+ * The buffers and the fitted values are reused across ratings.
  */
-private static abstract class ArimaVariant implements GWInterface {
+private static abstract class ArimaVariant implements GWParallelInterface {
 	protected static final double	CoeffMin = -3.0;
 	protected static final double	CoeffMax = 3.0;
 	
@@ -576,6 +511,17 @@ private static abstract class ArimaVariant implements GWInterface {
 	protected GWInterface			Model;
 	protected double				Mean;
 	protected double[]				IV;
+	private IFSPreprocessCache		PreprocessCache;
+	private long					Deadline;
+	protected double[]				Ext;
+	protected double[]				Err;
+	protected int					Offset;
+	private double[]				ExtIV;
+	private double[]				Fitted;
+	private double[]				OptWeights;
+	private double					OptRating;
+	private int						NumEvaluations;
+	private int						NumEvaluationsSaved;
 	
 	/**
 	 * Default constructor.
@@ -584,19 +530,103 @@ private static abstract class ArimaVariant implements GWInterface {
 		reset();
 	}
 	
+	/**
+	 * Backcast the series for initial values. Backcasts are shared through
+	 * the preprocessing cache when there is one.
+	 * 
+	 * @param num_backcasts Number backcasts to produce.
+	 * 
+	 * @return Backcasts or null if they could not be produced.
+	 */
+	protected final double[] backcast(
+		int			num_backcasts
+	) {
+		try {
+		return (PreprocessCache == null)
+			? IFSBackcast.getBackcasts(Series, Cycle, num_backcasts, Deadline)
+			: PreprocessCache.getBackcasts(Series, Cycle, num_backcasts,
+			Deadline);
+		} catch (IFSException ex) {
+			// Past the deadline the calibration stops at its next
+			// iteration, so there is nothing to report.
+			if ("IFS079".equals(ex.getCode()))
+				return null;
+			System.out.format("Could not create backcast model: %s\n",
+				ex.getMessage());
+			ex.printStackTrace(System.out);
+			return null;
+		}
+	}
+	
     /**
-     * Fetch the number of coefficient significant digits.
+     * Calibrate the model. When start weights are given, the search starts
+     * from them and only refines at the finest accuracy level.
      * 
-     * @return The number of coefficient significant digits.
+     * @param optimizer Optimizer searching for the weights.
+     * @param start_weights Weights to start from or null to start from
+     *    the middle of the weight bounds.
+     * @param deadline Time (System.currentTimeMillis()) by which calibration
+     *    must be done. 0 means there is no deadline.
+     * @param executor Executor to rate weights on in parallel or null.
+     * 
+     * @throws GWException if the deadline passed.
      */
-	public final void calibrate() {
+	public final void calibrate(
+		GWOptimizer	optimizer,
+		double[]	start_weights,
+		long		deadline,
+		Executor	executor
+	) throws GWException {
 		try {
-		new GW(Model, false, System.out);
+		GWOptimum	optimum = optimizer.optimize(Model, start_weights,
+			(start_weights == null) ? 0 : getNumLevels()-1, deadline,
+			executor);
+		
+		OptWeights = optimum.getWeights();
+		OptRating = optimum.getRating();
+		NumEvaluations = optimum.getNumEvaluations();
+		NumEvaluationsSaved = optimum.getNumEvaluationsSaved();
 		} catch (GWException ex) {
+			if (deadline > 0 && System.currentTimeMillis() >= deadline)
+				throw ex;
 			ex.printStackTrace();
 		}
 	}
 	
+	/**
+	 * Create a copy of the variant for rating in another thread. The copy
+	 * shares the series and the initial values, which are not modified once
+	 * derived, but has fit buffers of its own.
+	 * 
+	 * @return Initialized copy of the variant.
+	 */
+	public final GWInterface copy() {
+		ArimaVariant	copy = newVariant();
+		
+		copy.init(copy, Series, Cycle, IsCenter, PreprocessCache, Deadline);
+		copy.IV = IV;
+		
+		return copy;
+	}
+	
+	/**
+	 * Create a new uninitialized instance of the variant.
+	 * 
+	 * @return New instance of the variant.
+	 */
+	protected abstract ArimaVariant newVariant();
+	
+	/**
+	 * Fit the series. Fitted values are put in the forecasts for series
+	 * indices and forecasts are put beyond them.
+	 * 
+	 * @param forecasts Where to put fitted values and forecasts. Array
+	 *    length determines how many values to generate.
+	 */
+	public abstract void fit(
+		double[]	forecasts
+	);
+	
 	/**
 	 * Generate forecasts and return string representing forecast parameter
 	 * info.
@@ -611,6 +641,17 @@ private static abstract class ArimaVariant implements GWInterface {
 		double[]	forecasts
 	);
 	
+	/**
+	 * Fetch the buffer for fitted values used to rate weights.
+	 * 
+	 * @return Fitted value buffer with one value per series value.
+	 */
+	protected final double[] getFitted() {
+		if (Fitted == null)
+			Fitted = new double[Series.length];
+		return Fitted;
+	}
+	
 	/**
 	 * Fetch initial values.
 	 * 
@@ -620,6 +661,43 @@ private static abstract class ArimaVariant implements GWInterface {
 		return IV;
 	}
 	
+	/**
+	 * Fetch the optimal weights found by calibration.
+	 * 
+	 * @return Optimal weights or null if calibration did not complete.
+	 */
+	public final double[] getOptWeights() {
+		return OptWeights;
+	}
+	
+	/**
+	 * Fetch the rating of the optimal weights found by calibration.
+	 * 
+	 * @return Optimal weight rating or NaN if calibration did not complete.
+	 */
+	public final double getOptRating() {
+		return OptRating;
+	}
+	
+	/**
+	 * Fetch the number of ratings evaluated by calibration.
+	 * 
+	 * @return Number of rating evaluations.
+	 */
+	public final int getNumEvaluations() {
+		return NumEvaluations;
+	}
+	
+	/**
+	 * Fetch the number of ratings calibration looked up rather than
+	 * evaluated.
+	 * 
+	 * @return Number of rating evaluations saved.
+	 */
+	public final int getNumEvaluationsSaved() {
+		return NumEvaluationsSaved;
+	}
+	
 	/**
 	 * Fetch series mean.
 	 * 
@@ -673,19 +751,86 @@ private static abstract class ArimaVariant implements GWInterface {
 	 * @param forecasts Where to put forecasts.
 	 * @param cycle Seasonal cycle.
 	 * @param is_center Center forecasts?
+	 * @param preprocess_cache Cache to share backcasts through or null.
+	 * @param deadline Deadline (System.currentTimeMillis()) for the backcast
+	 *    fit or 0 for no deadline.
 	 */
 	public final void init(
-		GWInterface	model,
-		double[]	series, 
-		int			cycle,
-		boolean		is_center
+		GWInterface			model,
+		double[]			series, 
+		int					cycle,
+		boolean				is_center,
+		IFSPreprocessCache	preprocess_cache,
+		long				deadline
 	) {
 		Model = model;
 		Series = series;
 		Cycle = cycle;
 		IsCenter = is_center;
+		PreprocessCache = preprocess_cache;
+		Deadline = deadline;
 		Mean = IFSStatistics.getMean(Series);
 		IV = null;
+		Ext = null;
+		Err = null;
+		Offset = 3*Cycle+4;
+		ExtIV = null;
+		Fitted = null;
+		OptWeights = null;
+		OptRating = Double.NaN;
+		NumEvaluations = 0;
+		NumEvaluationsSaved = 0;
+	}
+	
+	/**
+	 * Prepare the extended series and error term buffers for a fit. The
+	 * buffers are only reallocated when they are too short and the initial
+	 * values are only copied in when they changed. Offset covers the
+	 * deepest term of any variant, the error term at i-3*Cycle for i = 1.
+	 * Initial values are taken as the series mean if there are none.
+	 * 
+	 * @param num_values Number of values to fit (series plus forecasts).
+	 * 
+	 * @return Extended series buffer.
+	 */
+	protected final double[] prepareFit(
+		int		num_values
+	) {
+		boolean		is_new = false;
+		
+		if (Ext == null || Ext.length < Offset+num_values) {
+			Ext = new double[Offset+num_values];
+			Err = new double[Offset+num_values];
+			System.arraycopy(Series, 0, Ext, Offset, Series.length);
+			is_new = true;
+		}
+		if (is_new || ExtIV != IV) {
+			for (int j = 1; j <= Offset; j++)
+				Ext[Offset-j] = (IV == null || j > IV.length)
+					? Mean : IV[j-1];
+			for (int j = 1; j < Offset; j++)
+				Err[Offset-j] = Ext[Offset-j]-Ext[Offset-j-1];
+			ExtIV = IV;
+		}
+		return Ext;
+	}
+	
+	/**
+	 * Record a fitted value. Beyond the series the fitted value (a forecast)
+	 * extends the series.
+	 * 
+	 * @param idx Series index of the value.
+	 * @param value Fitted value.
+	 */
+	protected final void setFitted(
+		int		idx,
+		double	value
+	) {
+		int		t = Offset+idx;
+		
+		if (idx >= Series.length)
+			Ext[t] = value;
+		Err[t] = Ext[t]-value;
 	}
 
     /**
@@ -731,6 +876,29 @@ private static abstract class ArimaVariant implements GWInterface {
 		Series = null;
 		Mean = 0.0;
 		IV = null;
+		PreprocessCache = null;
+		Deadline = 0;
+		Ext = null;
+		Err = null;
+		Offset = 0;
+		ExtIV = null;
+		Fitted = null;
+		OptWeights = null;
+		OptRating = Double.NaN;
+		NumEvaluations = 0;
+		NumEvaluationsSaved = 0;
+    }
+    
+    /**
+     * Seed initial values. Variants derive their initial values by backcast
+     * only when none are set. Must be called after init.
+     * 
+     * @param iv Initial values.
+     */
+    public final void setIV(
+    	double[]	iv
+    ) {
+    	IV = iv;
     }
 	
 	/**
@@ -759,6 +927,10 @@ private static final class Arima_0_0_0 extends ArimaVariant {
 	@SuppressWarnings("unused")
 	public Arima_0_0_0() {}
 
+	protected ArimaVariant newVariant() {
+		return new Arima_0_0_0();
+	}
+
 	public int getNumWeights() {
 		return 0;
 	}
@@ -766,9 +938,9 @@ private static final class Arima_0_0_0 extends ArimaVariant {
 	public double getRating(
 		double[]	coefficients
 	) {
-        double[]	fitfcsts = new double[Series.length];
+        double[]	fitfcsts = getFitted();
 
-		forecast(fitfcsts);
+		fit(fitfcsts);
         try {
 		return AIC = IFSMetrics.getAdjAIC(getNumWeights(), Series, fitfcsts);
 		} catch (IFSException ex) {
@@ -777,7 +949,7 @@ private static final class Arima_0_0_0 extends ArimaVariant {
 		}
 	}
 
-	public String forecast(
+	public void fit(
 		double[]	forecasts
 	) {
 		double		u = getMean();
@@ -786,6 +958,14 @@ private static final class Arima_0_0_0 extends ArimaVariant {
         for (int i = 1; i < forecasts.length; i++) {
         	forecasts[i] = u;
         }
+	}
+
+	public String forecast(
+		double[]	forecasts
+	) {
+		double		u = getMean();
+		
+		fit(forecasts);
         
         double	slope = 0.0;
         boolean	iserror = false;
@@ -814,6 +994,10 @@ private static final class Arima_0_0_1 extends ArimaVariant {
 	@SuppressWarnings("unused")
 	public Arima_0_0_1() {}
 
+	protected ArimaVariant newVariant() {
+		return new Arima_0_0_1();
+	}
+
 	public int getNumWeights() {
 		return 1;
 	}
@@ -821,10 +1005,10 @@ private static final class Arima_0_0_1 extends ArimaVariant {
 	public double getRating(
 		double[]	coefficients
 	) {
-        double[]	fitfcsts = new double[Series.length];
+        double[]	fitfcsts = getFitted();
 
 		V1 = coefficients[0];
-		forecast(fitfcsts);
+		fit(fitfcsts);
         try {
 		return AIC = IFSMetrics.getAdjAIC(getNumWeights(), Series, fitfcsts);
 		} catch (IFSException ex) {
@@ -833,16 +1017,29 @@ private static final class Arima_0_0_1 extends ArimaVariant {
 		}
 	}
 
-	public String forecast(
+	public void fit(
 		double[]	forecasts
 	) {
 		double		u = getMean();
 		
+		prepareFit(forecasts.length);
+		double[]	e = Err;
+		
 		forecasts[0] = Series[0];
-        for (int i = 1; i < forecasts.length; i++) {
+		setFitted(0, forecasts[0]);
+        for (int i = 1, t = Offset+1; i < forecasts.length; i++, t++) {
         	forecasts[i] = u
-        		- V1*et(i-1, Series, forecasts, this);
+        		- V1*e[t-1];
+        	setFitted(i, forecasts[i]);
         }
+	}
+
+	public String forecast(
+		double[]	forecasts
+	) {
+		double		u = getMean();
+		
+		fit(forecasts);
         
         double	slope = 0.0;
         boolean	iserror = false;
@@ -872,6 +1069,10 @@ private static final class Arima_0_0_2 extends ArimaVariant {
 	@SuppressWarnings("unused")
 	public Arima_0_0_2() {}
 
+	protected ArimaVariant newVariant() {
+		return new Arima_0_0_2();
+	}
+
 	public int getNumWeights() {
 		return 2;
 	}
@@ -879,11 +1080,11 @@ private static final class Arima_0_0_2 extends ArimaVariant {
 	public double getRating(
 		double[]	coefficients
 	) {
-        double[]	fitfcsts = new double[Series.length];
+        double[]	fitfcsts = getFitted();
 
 		V1 = coefficients[0];
 		V2 = coefficients[1];
-		forecast(fitfcsts);
+		fit(fitfcsts);
         try {
 		return AIC = IFSMetrics.getAdjAIC(getNumWeights(), Series, fitfcsts);
 		} catch (IFSException ex) {
@@ -892,17 +1093,30 @@ private static final class Arima_0_0_2 extends ArimaVariant {
 		}
 	}
 
-	public String forecast(
+	public void fit(
 		double[]	forecasts
 	) {
 		double		u = getMean();
 		
+		prepareFit(forecasts.length);
+		double[]	e = Err;
+		
 		forecasts[0] = Series[0];
-        for (int i = 1; i < forecasts.length; i++) {
+		setFitted(0, forecasts[0]);
+        for (int i = 1, t = Offset+1; i < forecasts.length; i++, t++) {
         	forecasts[i] = u
-        		- V1*et(i-1, Series, forecasts, this)
-        		- V2*et(i-2, Series, forecasts, this);
+        		- V1*e[t-1]
+        		- V2*e[t-2];
+        	setFitted(i, forecasts[i]);
         }
+	}
+
+	public String forecast(
+		double[]	forecasts
+	) {
+		double		u = getMean();
+		
+		fit(forecasts);
         
         double	slope = 0.0;
         boolean	iserror = false;
@@ -933,6 +1147,10 @@ private static final class Arima_0_0_3 extends ArimaVariant {
 	@SuppressWarnings("unused")
 	public Arima_0_0_3() {}
 
+	protected ArimaVariant newVariant() {
+		return new Arima_0_0_3();
+	}
+
 	public int getNumWeights() {
 		return 3;
 	}
@@ -940,12 +1158,12 @@ private static final class Arima_0_0_3 extends ArimaVariant {
 	public double getRating(
 		double[]	coefficients
 	) {
-        double[]	fitfcsts = new double[Series.length];
+        double[]	fitfcsts = getFitted();
 
 		V1 = coefficients[0];
 		V2 = coefficients[1];
 		V3 = coefficients[2];
-		forecast(fitfcsts);
+		fit(fitfcsts);
         try {
 		return AIC = IFSMetrics.getAdjAIC(getNumWeights(), Series, fitfcsts);
 		} catch (IFSException ex) {
@@ -954,18 +1172,31 @@ private static final class Arima_0_0_3 extends ArimaVariant {
 		}
 	}
 
-	public String forecast(
+	public void fit(
 		double[]	forecasts
 	) {
 		double		u = getMean();
 		
+		prepareFit(forecasts.length);
+		double[]	e = Err;
+		
 		forecasts[0] = Series[0];
-        for (int i = 1; i < forecasts.length; i++) {
+		setFitted(0, forecasts[0]);
+        for (int i = 1, t = Offset+1; i < forecasts.length; i++, t++) {
         	forecasts[i] = u
-        		- V1*et(i-1, Series, forecasts, this)
-        		- V2*et(i-2, Series, forecasts, this)
-        		- V3*et(i-3, Series, forecasts, this);
+        		- V1*e[t-1]
+        		- V2*e[t-2]
+        		- V3*e[t-3];
+        	setFitted(i, forecasts[i]);
         }
+	}
+
+	public String forecast(
+		double[]	forecasts
+	) {
+		double		u = getMean();
+		
+		fit(forecasts);
         
         double	slope = 0.0;
         boolean	iserror = false;
@@ -995,6 +1226,10 @@ private static final class Arima_0_1_1 extends ArimaVariant {
 	@SuppressWarnings("unused")
 	public Arima_0_1_1() {}
 
+	protected ArimaVariant newVariant() {
+		return new Arima_0_1_1();
+	}
+
 	public int getNumWeights() {
 		return 1;
 	}
@@ -1002,13 +1237,13 @@ private static final class Arima_0_1_1 extends ArimaVariant {
 	public double getRating(
 		double[]	coefficients
 	) {
-        double[]	fitfcsts = new double[Series.length];
+        double[]	fitfcsts = getFitted();
 
 		V1 = coefficients[0];
 		if (IV == null) {
-			IV = backcast(Series, Cycle, NIV);
+			IV = backcast(NIV);
 		}
-		forecast(fitfcsts);
+		fit(fitfcsts);
         try {
 		return AIC = IFSMetrics.getAdjAIC(getNumWeights(), Series, fitfcsts);
 		} catch (IFSException ex) {
@@ -1017,14 +1252,25 @@ private static final class Arima_0_1_1 extends ArimaVariant {
 		}
 	}
 
-	public String forecast(
+	public void fit(
 		double[]	forecasts
 	) {
+		double[]	y = prepareFit(forecasts.length);
+		double[]	e = Err;
+		
 		forecasts[0] = Series[0];
-        for (int i = 1; i < forecasts.length; i++) {
-        	forecasts[i] = yt(i-1, Series, forecasts, this)
-                -V1*et(i-1, Series, forecasts, this);
+		setFitted(0, forecasts[0]);
+        for (int i = 1, t = Offset+1; i < forecasts.length; i++, t++) {
+        	forecasts[i] = y[t-1]
+                -V1*e[t-1];
+        	setFitted(i, forecasts[i]);
         }
+	}
+
+	public String forecast(
+		double[]	forecasts
+	) {
+		fit(forecasts);
         
         double	slope = 0.0;
         boolean	iserror = false;
@@ -1055,6 +1301,10 @@ private static final class Arima_0_1_2 extends ArimaVariant {
 	@SuppressWarnings("unused")
 	public Arima_0_1_2() {}
 
+	protected ArimaVariant newVariant() {
+		return new Arima_0_1_2();
+	}
+
 	public int getNumWeights() {
 		return 2;
 	}
@@ -1062,14 +1312,14 @@ private static final class Arima_0_1_2 extends ArimaVariant {
 	public double getRating(
 		double[]	coefficients
 	) {
-        double[]	fitfcsts = new double[Series.length];
+        double[]	fitfcsts = getFitted();
 
 		V1 = coefficients[0];
 		V2 = coefficients[1];
 		if (IV == null) {
-			IV = backcast(Series, Cycle, NIV);
+			IV = backcast(NIV);
 		}
-		forecast(fitfcsts);
+		fit(fitfcsts);
         try {
 		return AIC = IFSMetrics.getAdjAIC(getNumWeights(), Series, fitfcsts);
 		} catch (IFSException ex) {
@@ -1078,15 +1328,26 @@ private static final class Arima_0_1_2 extends ArimaVariant {
 		}
 	}
 
-	public String forecast(
+	public void fit(
 		double[]	forecasts
 	) {
+		double[]	y = prepareFit(forecasts.length);
+		double[]	e = Err;
+		
 		forecasts[0] = Series[0];
-        for (int i = 1; i < forecasts.length; i++) {
-        	forecasts[i] = yt(i-1, Series, forecasts, this)
-                -V1*et(i-1, Series, forecasts, this)
-                -V2*et(i-2, Series, forecasts, this);
+		setFitted(0, forecasts[0]);
+        for (int i = 1, t = Offset+1; i < forecasts.length; i++, t++) {
+        	forecasts[i] = y[t-1]
+                -V1*e[t-1]
+                -V2*e[t-2];
+        	setFitted(i, forecasts[i]);
         }
+	}
+
+	public String forecast(
+		double[]	forecasts
+	) {
+		fit(forecasts);
         
         double	slope = 0.0;
         boolean	iserror = false;
@@ -1117,6 +1378,10 @@ private static final class Arima_0_2_2 extends ArimaVariant {
 	@SuppressWarnings("unused")
 	public Arima_0_2_2() {}
 
+	protected ArimaVariant newVariant() {
+		return new Arima_0_2_2();
+	}
+
 	public int getNumWeights() {
 		return 2;
 	}
@@ -1124,14 +1389,14 @@ private static final class Arima_0_2_2 extends ArimaVariant {
 	public double getRating(
 		double[]	coefficients
 	) {
-        double[]	fitfcsts = new double[Series.length];
+        double[]	fitfcsts = getFitted();
 
 		V1 = coefficients[0];
 		V2 = coefficients[1];
 		if (IV == null) {
-			IV = backcast(Series, Cycle, NIV);
+			IV = backcast(NIV);
 		}
-		forecast(fitfcsts);
+		fit(fitfcsts);
         try {
         return AIC = IFSMetrics.getAdjAIC(getNumWeights(), Series, fitfcsts);
 		} catch (IFSException ex) {
@@ -1140,16 +1405,27 @@ private static final class Arima_0_2_2 extends ArimaVariant {
 		}
 	}
 
-	public String forecast(
+	public void fit(
 		double[]	forecasts
 	) {
+		double[]	y = prepareFit(forecasts.length);
+		double[]	e = Err;
+		
 		forecasts[0] = Series[0];
-        for (int i = 1; i < forecasts.length; i++) {
-        	forecasts[i] = 2.0*yt(i-1, Series, forecasts, this)
-        		-yt(i-2, Series, forecasts, this)
-                -V1*et(i-1, Series, forecasts, this)
-                -V2*et(i-2, Series, forecasts, this);
+		setFitted(0, forecasts[0]);
+        for (int i = 1, t = Offset+1; i < forecasts.length; i++, t++) {
+        	forecasts[i] = 2.0*y[t-1]
+        		-y[t-2]
+                -V1*e[t-1]
+                -V2*e[t-2];
+        	setFitted(i, forecasts[i]);
         }
+	}
+
+	public String forecast(
+		double[]	forecasts
+	) {
+		fit(forecasts);
         
         double	slope = 0.0;
         boolean	iserror = false;
@@ -1178,6 +1454,10 @@ private static final class Arima_1_0_0 extends ArimaVariant {
 	@SuppressWarnings("unused")
 	public Arima_1_0_0() {}
 
+	protected ArimaVariant newVariant() {
+		return new Arima_1_0_0();
+	}
+
 	public int getNumWeights() {
 		return 1;
 	}
@@ -1185,10 +1465,10 @@ private static final class Arima_1_0_0 extends ArimaVariant {
 	public double getRating(
 		double[]	coefficients
 	) {
-        double[]	fitfcsts = new double[Series.length];
+        double[]	fitfcsts = getFitted();
 
 		U1 = coefficients[0];
-		forecast(fitfcsts);
+		fit(fitfcsts);
         try {
 		return AIC = IFSMetrics.getAdjAIC(getNumWeights(), Series, fitfcsts);
 		} catch (IFSException ex) {
@@ -1197,16 +1477,28 @@ private static final class Arima_1_0_0 extends ArimaVariant {
 		}
 	}
 
-	public String forecast(
+	public void fit(
 		double[]	forecasts
 	) {
 		double		u = getMean();
 		
+		double[]	y = prepareFit(forecasts.length);
+		
 		forecasts[0] = Series[0];
-        for (int i = 1; i < forecasts.length; i++) {
+		setFitted(0, forecasts[0]);
+        for (int i = 1, t = Offset+1; i < forecasts.length; i++, t++) {
         	forecasts[i] = u
-        		+ U1*(yt(i-1, Series, forecasts, this)-u);
+        		+ U1*(y[t-1]-u);
+        	setFitted(i, forecasts[i]);
         }
+	}
+
+	public String forecast(
+		double[]	forecasts
+	) {
+		double		u = getMean();
+		
+		fit(forecasts);
         
         double	slope = 0.0;
         boolean	iserror = false;
@@ -1236,6 +1528,10 @@ private static final class Arima_1_0_1 extends ArimaVariant {
 	@SuppressWarnings("unused")
 	public Arima_1_0_1() {}
 
+	protected ArimaVariant newVariant() {
+		return new Arima_1_0_1();
+	}
+
 	public int getNumWeights() {
 		return 2;
 	}
@@ -1243,11 +1539,11 @@ private static final class Arima_1_0_1 extends ArimaVariant {
 	public double getRating(
 		double[]	coefficients
 	) {
-        double[]	fitfcsts = new double[Series.length];
+        double[]	fitfcsts = getFitted();
 
 		U1 = coefficients[0];
 		V1 = coefficients[1];
-		forecast(fitfcsts);
+		fit(fitfcsts);
         try {
 		return AIC = IFSMetrics.getAdjAIC(getNumWeights(), Series, fitfcsts);
 		} catch (IFSException ex) {
@@ -1256,17 +1552,30 @@ private static final class Arima_1_0_1 extends ArimaVariant {
 		}
 	}
 
-	public String forecast(
+	public void fit(
 		double[]	forecasts
 	) {
 		double		u = getMean();
 		
+		double[]	y = prepareFit(forecasts.length);
+		double[]	e = Err;
+		
 		forecasts[0] = Series[0];
-        for (int i = 1; i < forecasts.length; i++) {
+		setFitted(0, forecasts[0]);
+        for (int i = 1, t = Offset+1; i < forecasts.length; i++, t++) {
         	forecasts[i] = u
-            	+ U1*(yt(i-1, Series, forecasts, this)-u)
-            	- V1*et(i-1, Series, forecasts, this);
+            	+ U1*(y[t-1]-u)
+            	- V1*e[t-1];
+        	setFitted(i, forecasts[i]);
         }
+	}
+
+	public String forecast(
+		double[]	forecasts
+	) {
+		double		u = getMean();
+		
+		fit(forecasts);
         
         double	slope = 0.0;
         boolean	iserror = false;
@@ -1297,6 +1606,10 @@ private static final class Arima_1_1_1 extends ArimaVariant {
 	@SuppressWarnings("unused")
 	public Arima_1_1_1() {}
 
+	protected ArimaVariant newVariant() {
+		return new Arima_1_1_1();
+	}
+
 	public int getNumWeights() {
 		return 2;
 	}
@@ -1304,14 +1617,14 @@ private static final class Arima_1_1_1 extends ArimaVariant {
 	public double getRating(
 		double[]	coefficients
 	) {
-        double[]	fitfcsts = new double[Series.length];
+        double[]	fitfcsts = getFitted();
 
 		U1 = coefficients[0];
 		V1 = coefficients[1];
 		if (IV == null) {
-			IV = backcast(Series, Cycle, NIV);
+			IV = backcast(NIV);
 		}
-		forecast(fitfcsts);
+		fit(fitfcsts);
         try {
 		return AIC = IFSMetrics.getAdjAIC(getNumWeights(), Series, fitfcsts);
 		} catch (IFSException ex) {
@@ -1320,15 +1633,26 @@ private static final class Arima_1_1_1 extends ArimaVariant {
 		}
 	}
 
-	public String forecast(
+	public void fit(
 		double[]	forecasts
 	) {
+		double[]	y = prepareFit(forecasts.length);
+		double[]	e = Err;
+		
 		forecasts[0] = Series[0];
-        for (int i = 1; i < forecasts.length; i++) {
-        	forecasts[i] = yt(i-1, Series, forecasts, this)
-            	+ U1*(yt(i-1, Series, forecasts, this)-yt(i-2, Series, forecasts, this))
-            	- V1*et(i-1, Series, forecasts, this);
+		setFitted(0, forecasts[0]);
+        for (int i = 1, t = Offset+1; i < forecasts.length; i++, t++) {
+        	forecasts[i] = y[t-1]
+            	+ U1*(y[t-1]-y[t-2])
+            	- V1*e[t-1];
+        	setFitted(i, forecasts[i]);
         }
+	}
+
+	public String forecast(
+		double[]	forecasts
+	) {
+		fit(forecasts);
         
         double	slope = 0.0;
         boolean	iserror = false;
@@ -1358,6 +1682,10 @@ private static final class Arima_2_0_0 extends ArimaVariant {
 	@SuppressWarnings("unused")
 	public Arima_2_0_0() {}
 
+	protected ArimaVariant newVariant() {
+		return new Arima_2_0_0();
+	}
+
 	public int getNumWeights() {
 		return 2;
 	}
@@ -1365,11 +1693,11 @@ private static final class Arima_2_0_0 extends ArimaVariant {
 	public double getRating(
 		double[]	coefficients
 	) {
-        double[]	fitfcsts = new double[Series.length];
+        double[]	fitfcsts = getFitted();
 
 		U1 = coefficients[0];
 		U2 = coefficients[1];
-		forecast(fitfcsts);
+		fit(fitfcsts);
         try {
 		return AIC = IFSMetrics.getAdjAIC(getNumWeights(), Series, fitfcsts);
 		} catch (IFSException ex) {
@@ -1378,17 +1706,29 @@ private static final class Arima_2_0_0 extends ArimaVariant {
 		}
 	}
 
-	public String forecast(
+	public void fit(
 		double[]	forecasts
 	) {
 		double		u = getMean();
 		
+		double[]	y = prepareFit(forecasts.length);
+		
 		forecasts[0] = Series[0];
-        for (int i = 1; i < forecasts.length; i++) {
+		setFitted(0, forecasts[0]);
+        for (int i = 1, t = Offset+1; i < forecasts.length; i++, t++) {
         	forecasts[i] = u
-        		+ U1*(yt(i-1, Series, forecasts, this)-u)
-    			+ U2*(yt(i-2, Series, forecasts, this)-u);
+        		+ U1*(y[t-1]-u)
+    			+ U2*(y[t-2]-u);
+        	setFitted(i, forecasts[i]);
         }
+	}
+
+	public String forecast(
+		double[]	forecasts
+	) {
+		double		u = getMean();
+		
+		fit(forecasts);
         
         double	slope = 0.0;
         boolean	iserror = false;
@@ -1420,6 +1760,10 @@ private static final class Arima_2_0_2 extends ArimaVariant {
 	@SuppressWarnings("unused")
 	public Arima_2_0_2() {}
 
+	protected ArimaVariant newVariant() {
+		return new Arima_2_0_2();
+	}
+
 	public int getNumWeights() {
 		return 4;
 	}
@@ -1427,13 +1771,13 @@ private static final class Arima_2_0_2 extends ArimaVariant {
 	public double getRating(
 		double[]	coefficients
 	) {
-        double[]	fitfcsts = new double[Series.length];
+        double[]	fitfcsts = getFitted();
 
 		U1 = coefficients[0];
 		U2 = coefficients[1];
 		V1 = coefficients[2];
 		V2 = coefficients[3];
-		forecast(fitfcsts);
+		fit(fitfcsts);
         try {
 		return AIC = IFSMetrics.getAdjAIC(getNumWeights(), Series, fitfcsts);
 		} catch (IFSException ex) {
@@ -1442,19 +1786,32 @@ private static final class Arima_2_0_2 extends ArimaVariant {
 		}
 	}
 
-	public String forecast(
+	public void fit(
 		double[]	forecasts
 	) {
 		double		u = getMean();
 		
+		double[]	y = prepareFit(forecasts.length);
+		double[]	e = Err;
+		
 		forecasts[0] = Series[0];
-        for (int i = 1; i < forecasts.length; i++) {
+		setFitted(0, forecasts[0]);
+        for (int i = 1, t = Offset+1; i < forecasts.length; i++, t++) {
         	forecasts[i] = u
-        		+ U1*(yt(i-1, Series, forecasts, this)-u)
-        		+ U2*(yt(i-2, Series, forecasts, this)-u)
-                - V1*et(i-1, Series, forecasts, this)
-                - V2*et(i-2, Series, forecasts, this);
+        		+ U1*(y[t-1]-u)
+        		+ U2*(y[t-2]-u)
+                - V1*e[t-1]
+                - V2*e[t-2];
+        	setFitted(i, forecasts[i]);
         }
+	}
+
+	public String forecast(
+		double[]	forecasts
+	) {
+		double		u = getMean();
+		
+		fit(forecasts);
         
         double	slope = 0.0;
         boolean	iserror = false;
@@ -1485,6 +1842,10 @@ private static final class Arima_2_1_0 extends ArimaVariant {
 	@SuppressWarnings("unused")
 	public Arima_2_1_0() {}
 
+	protected ArimaVariant newVariant() {
+		return new Arima_2_1_0();
+	}
+
 	public int getNumWeights() {
 		return 2;
 	}
@@ -1492,14 +1853,14 @@ private static final class Arima_2_1_0 extends ArimaVariant {
 	public double getRating(
 		double[]	coefficients
 	) {
-        double[]	fitfcsts = new double[Series.length];
+        double[]	fitfcsts = getFitted();
 
 		U1 = coefficients[0];
 		U2 = coefficients[1];
 		if (IV == null) {
-			IV = backcast(Series, Cycle, NIV);
+			IV = backcast(NIV);
 		}
-		forecast(fitfcsts);
+		fit(fitfcsts);
         try {
 		return AIC = IFSMetrics.getAdjAIC(getNumWeights(), Series, fitfcsts);
 		} catch (IFSException ex) {
@@ -1508,15 +1869,25 @@ private static final class Arima_2_1_0 extends ArimaVariant {
 		}
 	}
 
-	public String forecast(
+	public void fit(
 		double[]	forecasts
 	) {
+		double[]	y = prepareFit(forecasts.length);
+		
 		forecasts[0] = Series[0];
-        for (int i = 1; i < forecasts.length; i++) {
-        	forecasts[i] = yt(i-1, Series, forecasts, this)
-        		+ U1*(yt(i-1, Series, forecasts, this)-yt(i-2, Series, forecasts, this))
-        		+ U2*(yt(i-2, Series, forecasts, this)-yt(i-3, Series, forecasts, this));
+		setFitted(0, forecasts[0]);
+        for (int i = 1, t = Offset+1; i < forecasts.length; i++, t++) {
+        	forecasts[i] = y[t-1]
+        		+ U1*(y[t-1]-y[t-2])
+        		+ U2*(y[t-2]-y[t-3]);
+        	setFitted(i, forecasts[i]);
         }
+	}
+
+	public String forecast(
+		double[]	forecasts
+	) {
+		fit(forecasts);
         
         double	slope = 0.0;
         boolean	iserror = false;
@@ -1549,6 +1920,10 @@ private static final class Arima_2_1_2 extends ArimaVariant {
 	@SuppressWarnings("unused")
 	public Arima_2_1_2() {}
 
+	protected ArimaVariant newVariant() {
+		return new Arima_2_1_2();
+	}
+
 	public int getNumWeights() {
 		return 4;
 	}
@@ -1556,16 +1931,16 @@ private static final class Arima_2_1_2 extends ArimaVariant {
 	public double getRating(
 		double[]	coefficients
 	) {
-        double[]	fitfcsts = new double[Series.length];
+        double[]	fitfcsts = getFitted();
 
 		U1 = coefficients[0];
 		U2 = coefficients[1];
 		V1 = coefficients[2];
 		V2 = coefficients[3];
 		if (IV == null) {
-			IV = backcast(Series, Cycle, NIV);
+			IV = backcast(NIV);
 		}
-		forecast(fitfcsts);
+		fit(fitfcsts);
         try {
 		return AIC = IFSMetrics.getAdjAIC(getNumWeights(), Series, fitfcsts);
 		} catch (IFSException ex) {
@@ -1574,17 +1949,28 @@ private static final class Arima_2_1_2 extends ArimaVariant {
 		}
 	}
 
-	public String forecast(
+	public void fit(
 		double[]	forecasts
 	) {
+		double[]	y = prepareFit(forecasts.length);
+		double[]	e = Err;
+		
 		forecasts[0] = Series[0];
-        for (int i = 1; i < forecasts.length; i++) {
-        	forecasts[i] = yt(i-1, Series, forecasts, this)
-        		+ U1*(yt(i-1, Series, forecasts, this)-yt(i-2, Series, forecasts, this))
-        		+ U2*(yt(i-2, Series, forecasts, this)-yt(i-3, Series, forecasts, this))
-                - V1*et(i-1, Series, forecasts, this)
-                - V2*et(i-2, Series, forecasts, this);
+		setFitted(0, forecasts[0]);
+        for (int i = 1, t = Offset+1; i < forecasts.length; i++, t++) {
+        	forecasts[i] = y[t-1]
+        		+ U1*(y[t-1]-y[t-2])
+        		+ U2*(y[t-2]-y[t-3])
+                - V1*e[t-1]
+                - V2*e[t-2];
+        	setFitted(i, forecasts[i]);
         }
+	}
+
+	public String forecast(
+		double[]	forecasts
+	) {
+		fit(forecasts);
         
         double	slope = 0.0;
         boolean	iserror = false;
@@ -1615,6 +2001,10 @@ private static final class Arima_3_0_0 extends ArimaVariant {
 	@SuppressWarnings("unused")
 	public Arima_3_0_0() {}
 
+	protected ArimaVariant newVariant() {
+		return new Arima_3_0_0();
+	}
+
 	public int getNumWeights() {
 		return 3;
 	}
@@ -1622,12 +2012,12 @@ private static final class Arima_3_0_0 extends ArimaVariant {
 	public double getRating(
 		double[]	coefficients
 	) {
-        double[]	fitfcsts = new double[Series.length];
+        double[]	fitfcsts = getFitted();
 
 		U1 = coefficients[0];
 		U2 = coefficients[1];
 		U3 = coefficients[2];
-		forecast(fitfcsts);
+		fit(fitfcsts);
         try {
 		return AIC = IFSMetrics.getAdjAIC(getNumWeights(), Series, fitfcsts);
 		} catch (IFSException ex) {
@@ -1636,18 +2026,30 @@ private static final class Arima_3_0_0 extends ArimaVariant {
 		}
 	}
 
-	public String forecast(
+	public void fit(
 		double[]	forecasts
 	) {
 		double		u = getMean();
 		
+		double[]	y = prepareFit(forecasts.length);
+		
 		forecasts[0] = Series[0];
-        for (int i = 1; i < forecasts.length; i++) {
+		setFitted(0, forecasts[0]);
+        for (int i = 1, t = Offset+1; i < forecasts.length; i++, t++) {
         	forecasts[i] = u
-        		+ U1*(yt(i-1, Series, forecasts, this)-u)
-    			+ U2*(yt(i-2, Series, forecasts, this)-u)
-				+ U3*(yt(i-3, Series, forecasts, this)-u);
+        		+ U1*(y[t-1]-u)
+    			+ U2*(y[t-2]-u)
+				+ U3*(y[t-3]-u);
+        	setFitted(i, forecasts[i]);
         }
+	}
+
+	public String forecast(
+		double[]	forecasts
+	) {
+		double		u = getMean();
+		
+		fit(forecasts);
         
         double	slope = 0.0;
         boolean	iserror = false;
@@ -1681,6 +2083,10 @@ private static final class Arima_3_0_3 extends ArimaVariant {
 	@SuppressWarnings("unused")
 	public Arima_3_0_3() {}
 
+	protected ArimaVariant newVariant() {
+		return new Arima_3_0_3();
+	}
+
 	public int getNumWeights() {
 		return 6;
 	}
@@ -1688,7 +2094,7 @@ private static final class Arima_3_0_3 extends ArimaVariant {
 	public double getRating(
 		double[]	coefficients
 	) {
-        double[]	fitfcsts = new double[Series.length];
+        double[]	fitfcsts = getFitted();
 
 		U1 = coefficients[0];
 		U2 = coefficients[1];
@@ -1696,7 +2102,7 @@ private static final class Arima_3_0_3 extends ArimaVariant {
 		V1 = coefficients[3];
 		V2 = coefficients[4];
 		V3 = coefficients[5];
-		forecast(fitfcsts);
+		fit(fitfcsts);
         try {
 		return AIC = IFSMetrics.getAdjAIC(getNumWeights(), Series, fitfcsts);
 		} catch (IFSException ex) {
@@ -1705,21 +2111,34 @@ private static final class Arima_3_0_3 extends ArimaVariant {
 		}
 	}
 
-	public String forecast(
+	public void fit(
 		double[]	forecasts
 	) {
 		double		u = getMean();
 		
+		double[]	y = prepareFit(forecasts.length);
+		double[]	e = Err;
+		
 		forecasts[0] = Series[0];
-        for (int i = 1; i < forecasts.length; i++) {
+		setFitted(0, forecasts[0]);
+        for (int i = 1, t = Offset+1; i < forecasts.length; i++, t++) {
         	forecasts[i] = u
-        		+ U1*(yt(i-1, Series, forecasts, this)-u)
-        		+ U2*(yt(i-2, Series, forecasts, this)-u)
-        		+ U3*(yt(i-3, Series, forecasts, this)-u)
-        		- V1*et(i-1, Series, forecasts, this)
-        		- V2*et(i-2, Series, forecasts, this)
-        		- V3*et(i-3, Series, forecasts, this);
+        		+ U1*(y[t-1]-u)
+        		+ U2*(y[t-2]-u)
+        		+ U3*(y[t-3]-u)
+        		- V1*e[t-1]
+        		- V2*e[t-2]
+        		- V3*e[t-3];
+        	setFitted(i, forecasts[i]);
         }
+	}
+
+	public String forecast(
+		double[]	forecasts
+	) {
+		double		u = getMean();
+		
+		fit(forecasts);
         
         double	slope = 0.0;
         boolean	iserror = false;
@@ -1751,6 +2170,10 @@ private static final class Arima_3_1_0 extends ArimaVariant {
 	@SuppressWarnings("unused")
 	public Arima_3_1_0() {}
 
+	protected ArimaVariant newVariant() {
+		return new Arima_3_1_0();
+	}
+
 	public int getNumWeights() {
 		return 3;
 	}
@@ -1758,15 +2181,15 @@ private static final class Arima_3_1_0 extends ArimaVariant {
 	public double getRating(
 		double[]	coefficients
 	) {
-        double[]	fitfcsts = new double[Series.length];
+        double[]	fitfcsts = getFitted();
 
 		U1 = coefficients[0];
 		U2 = coefficients[1];
 		U3 = coefficients[2];
 		if (IV == null) {
-			IV = backcast(Series, Cycle, NIV);
+			IV = backcast(NIV);
 		}
-		forecast(fitfcsts);
+		fit(fitfcsts);
         try {
 		return AIC = IFSMetrics.getAdjAIC(getNumWeights(), Series, fitfcsts);
 		} catch (IFSException ex) {
@@ -1775,16 +2198,26 @@ private static final class Arima_3_1_0 extends ArimaVariant {
 		}
 	}
 
-	public String forecast(
+	public void fit(
 		double[]	forecasts
 	) {
+		double[]	y = prepareFit(forecasts.length);
+		
 		forecasts[0] = Series[0];
-        for (int i = 1; i < forecasts.length; i++) {
-        	forecasts[i] = yt(i-1, Series, forecasts, this)
-        		+ U1*(yt(i-1, Series, forecasts, this)-yt(i-2, Series, forecasts, this))
-    			+ U2*(yt(i-2, Series, forecasts, this)-yt(i-3, Series, forecasts, this))
-				+ U3*(yt(i-3, Series, forecasts, this)-yt(i-4, Series, forecasts, this));
+		setFitted(0, forecasts[0]);
+        for (int i = 1, t = Offset+1; i < forecasts.length; i++, t++) {
+        	forecasts[i] = y[t-1]
+        		+ U1*(y[t-1]-y[t-2])
+    			+ U2*(y[t-2]-y[t-3])
+				+ U3*(y[t-3]-y[t-4]);
+        	setFitted(i, forecasts[i]);
         }
+	}
+
+	public String forecast(
+		double[]	forecasts
+	) {
+		fit(forecasts);
         
         double	slope = 0.0;
         boolean	iserror = false;
@@ -1813,6 +2246,10 @@ private static final class Arima_s_0_0_0__0_0_1 extends ArimaVariant {
 	@SuppressWarnings("unused")
 	public Arima_s_0_0_0__0_0_1() {}
 
+	protected ArimaVariant newVariant() {
+		return new Arima_s_0_0_0__0_0_1();
+	}
+
 	public int getNumWeights() {
 		return 1;
 	}
@@ -1820,10 +2257,10 @@ private static final class Arima_s_0_0_0__0_0_1 extends ArimaVariant {
 	public double getRating(
 		double[]	coefficients
 	) {
-        double[]	fitfcsts = new double[Series.length];
+        double[]	fitfcsts = getFitted();
 
 		X1 = coefficients[0];
-		forecast(fitfcsts);
+		fit(fitfcsts);
         try {
 		return AIC = IFSMetrics.getAdjAIC(getNumWeights(), Series, fitfcsts);
 		} catch (IFSException ex) {
@@ -1832,16 +2269,29 @@ private static final class Arima_s_0_0_0__0_0_1 extends ArimaVariant {
 		}
 	}
 
-	public String forecast(
+	public void fit(
 		double[]	forecasts
 	) {
 		double		u = getMean();
 		
+		prepareFit(forecasts.length);
+		double[]	e = Err;
+		
 		forecasts[0] = Series[0];
-        for (int i = 1; i < forecasts.length; i++) {
+		setFitted(0, forecasts[0]);
+        for (int i = 1, t = Offset+1; i < forecasts.length; i++, t++) {
         	forecasts[i] = u
-        		- X1*et(i-Cycle, Series, forecasts, this);
+        		- X1*e[t-Cycle];
+        	setFitted(i, forecasts[i]);
         }
+	}
+
+	public String forecast(
+		double[]	forecasts
+	) {
+		double		u = getMean();
+		
+		fit(forecasts);
         
         double	slope = 0.0;
         boolean	iserror = false;
@@ -1871,6 +2321,10 @@ private static final class Arima_s_0_0_0__0_0_2 extends ArimaVariant {
 	@SuppressWarnings("unused")
 	public Arima_s_0_0_0__0_0_2() {}
 
+	protected ArimaVariant newVariant() {
+		return new Arima_s_0_0_0__0_0_2();
+	}
+
 	public int getNumWeights() {
 		return 2;
 	}
@@ -1878,11 +2332,11 @@ private static final class Arima_s_0_0_0__0_0_2 extends ArimaVariant {
 	public double getRating(
 		double[]	coefficients
 	) {
-        double[]	fitfcsts = new double[Series.length];
+        double[]	fitfcsts = getFitted();
 
 		X1 = coefficients[0];
 		X2 = coefficients[1];
-		forecast(fitfcsts);
+		fit(fitfcsts);
         try {
 		return AIC = IFSMetrics.getAdjAIC(getNumWeights(), Series, fitfcsts);
 		} catch (IFSException ex) {
@@ -1891,17 +2345,30 @@ private static final class Arima_s_0_0_0__0_0_2 extends ArimaVariant {
 		}
 	}
 
-	public String forecast(
+	public void fit(
 		double[]	forecasts
 	) {
 		double		u = getMean();
 		
+		prepareFit(forecasts.length);
+		double[]	e = Err;
+		
 		forecasts[0] = Series[0];
-        for (int i = 1; i < forecasts.length; i++) {
+		setFitted(0, forecasts[0]);
+        for (int i = 1, t = Offset+1; i < forecasts.length; i++, t++) {
         	forecasts[i] = u
-        		- X1*et(i-Cycle, Series, forecasts, this)
-    			- X2*et(i-2*Cycle, Series, forecasts, this);
+        		- X1*e[t-Cycle]
+    			- X2*e[t-2*Cycle];
+        	setFitted(i, forecasts[i]);
         }
+	}
+
+	public String forecast(
+		double[]	forecasts
+	) {
+		double		u = getMean();
+		
+		fit(forecasts);
         
         double	slope = 0.0;
         boolean	iserror = false;
@@ -1932,6 +2399,10 @@ private static final class Arima_s_0_0_0__0_0_3 extends ArimaVariant {
 	@SuppressWarnings("unused")
 	public Arima_s_0_0_0__0_0_3() {}
 
+	protected ArimaVariant newVariant() {
+		return new Arima_s_0_0_0__0_0_3();
+	}
+
 	public int getNumWeights() {
 		return 3;
 	}
@@ -1939,12 +2410,12 @@ private static final class Arima_s_0_0_0__0_0_3 extends ArimaVariant {
 	public double getRating(
 		double[]	coefficients
 	) {
-        double[]	fitfcsts = new double[Series.length];
+        double[]	fitfcsts = getFitted();
 
 		X1 = coefficients[0];
 		X2 = coefficients[1];
 		X3 = coefficients[2];
-		forecast(fitfcsts);
+		fit(fitfcsts);
         try {
 		return AIC = IFSMetrics.getAdjAIC(getNumWeights(), Series, fitfcsts);
 		} catch (IFSException ex) {
@@ -1953,18 +2424,31 @@ private static final class Arima_s_0_0_0__0_0_3 extends ArimaVariant {
 		}
 	}
 
-	public String forecast(
+	public void fit(
 		double[]	forecasts
 	) {
 		double		u = getMean();
 		
+		prepareFit(forecasts.length);
+		double[]	e = Err;
+		
 		forecasts[0] = Series[0];
-        for (int i = 1; i < forecasts.length; i++) {
+		setFitted(0, forecasts[0]);
+        for (int i = 1, t = Offset+1; i < forecasts.length; i++, t++) {
         	forecasts[i] = u
-        		- X1*et(i-Cycle, Series, forecasts, this)
-    			- X2*et(i-2*Cycle, Series, forecasts, this)
-				- X3*et(i-3*Cycle, Series, forecasts, this);
+        		- X1*e[t-Cycle]
+    			- X2*e[t-2*Cycle]
+				- X3*e[t-3*Cycle];
+        	setFitted(i, forecasts[i]);
         }
+	}
+
+	public String forecast(
+		double[]	forecasts
+	) {
+		double		u = getMean();
+		
+		fit(forecasts);
         
         double	slope = 0.0;
         boolean	iserror = false;
@@ -1993,6 +2477,10 @@ private static final class Arima_s_0_0_0__1_0_0 extends ArimaVariant {
 	@SuppressWarnings("unused")
 	public Arima_s_0_0_0__1_0_0() {}
 
+	protected ArimaVariant newVariant() {
+		return new Arima_s_0_0_0__1_0_0();
+	}
+
 	public int getNumWeights() {
 		return 1;
 	}
@@ -2000,10 +2488,10 @@ private static final class Arima_s_0_0_0__1_0_0 extends ArimaVariant {
 	public double getRating(
 		double[]	coefficients
 	) {
-        double[]	fitfcsts = new double[Series.length];
+        double[]	fitfcsts = getFitted();
 
 		W1 = coefficients[0];
-		forecast(fitfcsts);
+		fit(fitfcsts);
         try {
 		return AIC = IFSMetrics.getAdjAIC(getNumWeights(), Series, fitfcsts);
 		} catch (IFSException ex) {
@@ -2012,16 +2500,28 @@ private static final class Arima_s_0_0_0__1_0_0 extends ArimaVariant {
 		}
 	}
 
+	public void fit(
+		double[]	forecasts
+	) {
+		double		u = getMean();
+		
+		double[]	y = prepareFit(forecasts.length);
+		
+		forecasts[0] = Series[0];
+		setFitted(0, forecasts[0]);
+        for (int i = 1, t = Offset+1; i < forecasts.length; i++, t++) {
+        	forecasts[i] = u
+        		+ W1*(y[t-Cycle]-u);
+        	setFitted(i, forecasts[i]);
+        }
+	}
+
 	public String forecast(
 		double[]	forecasts
 	) {
 		double		u = getMean();
 		
-		forecasts[0] = Series[0];
-        for (int i = 1; i < forecasts.length; i++) {
-        	forecasts[i] = u
-        		+ W1*(yt(i-Cycle, Series, forecasts, this)-u);
-        }
+		fit(forecasts);
         
         double	slope = 0.0;
         boolean	iserror = false;
@@ -2051,6 +2551,10 @@ private static final class Arima_s_0_0_0__2_0_0 extends ArimaVariant {
 	@SuppressWarnings("unused")
 	public Arima_s_0_0_0__2_0_0() {}
 
+	protected ArimaVariant newVariant() {
+		return new Arima_s_0_0_0__2_0_0();
+	}
+
 	public int getNumWeights() {
 		return 2;
 	}
@@ -2058,11 +2562,11 @@ private static final class Arima_s_0_0_0__2_0_0 extends ArimaVariant {
 	public double getRating(
 		double[]	coefficients
 	) {
-        double[]	fitfcsts = new double[Series.length];
+        double[]	fitfcsts = getFitted();
 
 		W1 = coefficients[0];
 		W2 = coefficients[1];
-		forecast(fitfcsts);
+		fit(fitfcsts);
         try {
 		return AIC = IFSMetrics.getAdjAIC(getNumWeights(), Series, fitfcsts);
 		} catch (IFSException ex) {
@@ -2071,17 +2575,29 @@ private static final class Arima_s_0_0_0__2_0_0 extends ArimaVariant {
 		}
 	}
 
-	public String forecast(
+	public void fit(
 		double[]	forecasts
 	) {
 		double		u = getMean();
 		
+		double[]	y = prepareFit(forecasts.length);
+		
 		forecasts[0] = Series[0];
-        for (int i = 1; i < forecasts.length; i++) {
+		setFitted(0, forecasts[0]);
+        for (int i = 1, t = Offset+1; i < forecasts.length; i++, t++) {
         	forecasts[i] = u
-        		+ W1*(yt(i-Cycle, Series, forecasts, this)-u)
-    			+ W2*(yt(i-2*Cycle, Series, forecasts, this)-u);
+        		+ W1*(y[t-Cycle]-u)
+    			+ W2*(y[t-2*Cycle]-u);
+        	setFitted(i, forecasts[i]);
         }
+	}
+
+	public String forecast(
+		double[]	forecasts
+	) {
+		double		u = getMean();
+		
+		fit(forecasts);
         
         double	slope = 0.0;
         boolean	iserror = false;
@@ -2112,6 +2628,10 @@ private static final class Arima_s_0_0_0__3_0_0 extends ArimaVariant {
 	@SuppressWarnings("unused")
 	public Arima_s_0_0_0__3_0_0() {}
 
+	protected ArimaVariant newVariant() {
+		return new Arima_s_0_0_0__3_0_0();
+	}
+
 	public int getNumWeights() {
 		return 3;
 	}
@@ -2119,12 +2639,12 @@ private static final class Arima_s_0_0_0__3_0_0 extends ArimaVariant {
 	public double getRating(
 		double[]	coefficients
 	) {
-        double[]	fitfcsts = new double[Series.length];
+        double[]	fitfcsts = getFitted();
 
 		W1 = coefficients[0];
 		W2 = coefficients[1];
 		W3 = coefficients[2];
-		forecast(fitfcsts);
+		fit(fitfcsts);
         try {
 		return AIC = IFSMetrics.getAdjAIC(getNumWeights(), Series, fitfcsts);
 		} catch (IFSException ex) {
@@ -2133,18 +2653,30 @@ private static final class Arima_s_0_0_0__3_0_0 extends ArimaVariant {
 		}
 	}
 
-	public String forecast(
+	public void fit(
 		double[]	forecasts
 	) {
 		double		u = getMean();
 		
+		double[]	y = prepareFit(forecasts.length);
+		
 		forecasts[0] = Series[0];
-        for (int i = 1; i < forecasts.length; i++) {
+		setFitted(0, forecasts[0]);
+        for (int i = 1, t = Offset+1; i < forecasts.length; i++, t++) {
         	forecasts[i] = u
-        		+ W1*(yt(i-Cycle, Series, forecasts, this)-u)
-    			+ W2*(yt(i-2*Cycle, Series, forecasts, this)-u)
-    			+ W3*(yt(i-3*Cycle, Series, forecasts, this)-u);
+        		+ W1*(y[t-Cycle]-u)
+    			+ W2*(y[t-2*Cycle]-u)
+    			+ W3*(y[t-3*Cycle]-u);
+        	setFitted(i, forecasts[i]);
         }
+	}
+
+	public String forecast(
+		double[]	forecasts
+	) {
+		double		u = getMean();
+		
+		fit(forecasts);
         
         double	slope = 0.0;
         boolean	iserror = false;
@@ -2174,6 +2706,10 @@ private static final class Arima_s_0_0_0__1_0_1 extends ArimaVariant {
 	@SuppressWarnings("unused")
 	public Arima_s_0_0_0__1_0_1() {}
 
+	protected ArimaVariant newVariant() {
+		return new Arima_s_0_0_0__1_0_1();
+	}
+
 	public int getNumWeights() {
 		return 2;
 	}
@@ -2181,11 +2717,11 @@ private static final class Arima_s_0_0_0__1_0_1 extends ArimaVariant {
 	public double getRating(
 		double[]	coefficients
 	) {
-        double[]	fitfcsts = new double[Series.length];
+        double[]	fitfcsts = getFitted();
 
 		W1 = coefficients[0];
 		X1 = coefficients[1];
-		forecast(fitfcsts);
+		fit(fitfcsts);
         try {
 		return AIC = IFSMetrics.getAdjAIC(getNumWeights(), Series, fitfcsts);
 		} catch (IFSException ex) {
@@ -2194,17 +2730,30 @@ private static final class Arima_s_0_0_0__1_0_1 extends ArimaVariant {
 		}
 	}
 
-	public String forecast(
+	public void fit(
 		double[]	forecasts
 	) {
 		double		u = getMean();
 		
+		double[]	y = prepareFit(forecasts.length);
+		double[]	e = Err;
+		
 		forecasts[0] = Series[0];
-        for (int i = 1; i < forecasts.length; i++) {
+		setFitted(0, forecasts[0]);
+        for (int i = 1, t = Offset+1; i < forecasts.length; i++, t++) {
         	forecasts[i] = u
-        		+ W1*(yt(i-Cycle, Series, forecasts, this)-u)
-        		- X1*et(i-Cycle, Series, forecasts, this);
+        		+ W1*(y[t-Cycle]-u)
+        		- X1*e[t-Cycle];
+        	setFitted(i, forecasts[i]);
         }
+	}
+
+	public String forecast(
+		double[]	forecasts
+	) {
+		double		u = getMean();
+		
+		fit(forecasts);
         
         double	slope = 0.0;
         boolean	iserror = false;
@@ -2236,6 +2785,10 @@ private static final class Arima_s_0_0_0__2_0_2 extends ArimaVariant {
 	@SuppressWarnings("unused")
 	public Arima_s_0_0_0__2_0_2() {}
 
+	protected ArimaVariant newVariant() {
+		return new Arima_s_0_0_0__2_0_2();
+	}
+
 	public int getNumWeights() {
 		return 4;
 	}
@@ -2243,13 +2796,13 @@ private static final class Arima_s_0_0_0__2_0_2 extends ArimaVariant {
 	public double getRating(
 		double[]	coefficients
 	) {
-        double[]	fitfcsts = new double[Series.length];
+        double[]	fitfcsts = getFitted();
 
 		W1 = coefficients[0];
 		W2 = coefficients[1];
 		X1 = coefficients[2];
 		X2 = coefficients[3];
-		forecast(fitfcsts);
+		fit(fitfcsts);
         try {
 		return AIC = IFSMetrics.getAdjAIC(getNumWeights(), Series, fitfcsts);
 		} catch (IFSException ex) {
@@ -2258,19 +2811,32 @@ private static final class Arima_s_0_0_0__2_0_2 extends ArimaVariant {
 		}
 	}
 
-	public String forecast(
+	public void fit(
 		double[]	forecasts
 	) {
 		double		u = getMean();
 		
+		double[]	y = prepareFit(forecasts.length);
+		double[]	e = Err;
+		
 		forecasts[0] = Series[0];
-        for (int i = 1; i < forecasts.length; i++) {
+		setFitted(0, forecasts[0]);
+        for (int i = 1, t = Offset+1; i < forecasts.length; i++, t++) {
         	forecasts[i] = u
-        		+ W1*(yt(i-Cycle, Series, forecasts, this)-u)
-        		+ W2*(yt(i-2*Cycle, Series, forecasts, this)-u)
-        		- X1*et(i-Cycle, Series, forecasts, this)
-    			- X2*et(i-2*Cycle, Series, forecasts, this);
+        		+ W1*(y[t-Cycle]-u)
+        		+ W2*(y[t-2*Cycle]-u)
+        		- X1*e[t-Cycle]
+    			- X2*e[t-2*Cycle];
+        	setFitted(i, forecasts[i]);
         }
+	}
+
+	public String forecast(
+		double[]	forecasts
+	) {
+		double		u = getMean();
+		
+		fit(forecasts);
         
         double	slope = 0.0;
         boolean	iserror = false;
@@ -2304,6 +2870,10 @@ private static final class Arima_s_0_0_0__3_0_3 extends ArimaVariant {
 	@SuppressWarnings("unused")
 	public Arima_s_0_0_0__3_0_3() {}
 
+	protected ArimaVariant newVariant() {
+		return new Arima_s_0_0_0__3_0_3();
+	}
+
 	public int getNumWeights() {
 		return 6;
 	}
@@ -2311,7 +2881,7 @@ private static final class Arima_s_0_0_0__3_0_3 extends ArimaVariant {
 	public double getRating(
 		double[]	coefficients
 	) {
-        double[]	fitfcsts = new double[Series.length];
+        double[]	fitfcsts = getFitted();
 
 		W1 = coefficients[0];
 		W2 = coefficients[1];
@@ -2319,7 +2889,7 @@ private static final class Arima_s_0_0_0__3_0_3 extends ArimaVariant {
 		X1 = coefficients[3];
 		X2 = coefficients[4];
 		X3 = coefficients[5];
-		forecast(fitfcsts);
+		fit(fitfcsts);
         try {
 		return AIC = IFSMetrics.getAdjAIC(getNumWeights(), Series, fitfcsts);
 		} catch (IFSException ex) {
@@ -2328,21 +2898,34 @@ private static final class Arima_s_0_0_0__3_0_3 extends ArimaVariant {
 		}
 	}
 
-	public String forecast(
+	public void fit(
 		double[]	forecasts
 	) {
 		double		u = getMean();
 		
+		double[]	y = prepareFit(forecasts.length);
+		double[]	e = Err;
+		
 		forecasts[0] = Series[0];
-        for (int i = 1; i < forecasts.length; i++) {
+		setFitted(0, forecasts[0]);
+        for (int i = 1, t = Offset+1; i < forecasts.length; i++, t++) {
         	forecasts[i] = u
-        		+ W1*(yt(i-Cycle, Series, forecasts, this)-u)
-        		+ W2*(yt(i-2*Cycle, Series, forecasts, this)-u)
-        		+ W3*(yt(i-3*Cycle, Series, forecasts, this)-u)
-        		- X1*et(i-Cycle, Series, forecasts, this)
-    			- X2*et(i-2*Cycle, Series, forecasts, this)
-    			- X3*et(i-3*Cycle, Series, forecasts, this);
+        		+ W1*(y[t-Cycle]-u)
+        		+ W2*(y[t-2*Cycle]-u)
+        		+ W3*(y[t-3*Cycle]-u)
+        		- X1*e[t-Cycle]
+    			- X2*e[t-2*Cycle]
+    			- X3*e[t-3*Cycle];
+        	setFitted(i, forecasts[i]);
         }
+	}
+
+	public String forecast(
+		double[]	forecasts
+	) {
+		double		u = getMean();
+		
+		fit(forecasts);
         
         double	slope = 0.0;
         boolean	iserror = false;
@@ -2372,6 +2955,10 @@ private static final class Arima_s_0_0_1__0_0_1 extends ArimaVariant {
 	@SuppressWarnings("unused")
 	public Arima_s_0_0_1__0_0_1() {}
 
+	protected ArimaVariant newVariant() {
+		return new Arima_s_0_0_1__0_0_1();
+	}
+
 	public int getNumWeights() {
 		return 2;
 	}
@@ -2379,11 +2966,11 @@ private static final class Arima_s_0_0_1__0_0_1 extends ArimaVariant {
 	public double getRating(
 		double[]	coefficients
 	) {
-        double[]	fitfcsts = new double[Series.length];
+        double[]	fitfcsts = getFitted();
 
 		V1 = coefficients[0];
 		X1 = coefficients[1];
-		forecast(fitfcsts);
+		fit(fitfcsts);
         try {
 		return AIC = IFSMetrics.getAdjAIC(getNumWeights(), Series, fitfcsts);
 		} catch (IFSException ex) {
@@ -2392,18 +2979,31 @@ private static final class Arima_s_0_0_1__0_0_1 extends ArimaVariant {
 		}
 	}
 
-	public String forecast(
+	public void fit(
 		double[]	forecasts
 	) {
 		double		u = getMean();
 		
+		prepareFit(forecasts.length);
+		double[]	e = Err;
+		
 		forecasts[0] = Series[0];
-        for (int i = 1; i < forecasts.length; i++) {
+		setFitted(0, forecasts[0]);
+        for (int i = 1, t = Offset+1; i < forecasts.length; i++, t++) {
         	forecasts[i] = u
-        		- V1*et(i-1, Series, forecasts, this)
-        		- X1*et(i-Cycle, Series, forecasts, this)
-        		+ V1*X1*et(i-Cycle-1, Series, forecasts, this);
+        		- V1*e[t-1]
+        		- X1*e[t-Cycle]
+        		+ V1*X1*e[t-Cycle-1];
+        	setFitted(i, forecasts[i]);
         }
+	}
+
+	public String forecast(
+		double[]	forecasts
+	) {
+		double		u = getMean();
+		
+		fit(forecasts);
         
         double	slope = 0.0;
         boolean	iserror = false;
@@ -2434,6 +3034,10 @@ private static final class Arima_s_0_0_2__0_0_1 extends ArimaVariant {
 	@SuppressWarnings("unused")
 	public Arima_s_0_0_2__0_0_1() {}
 
+	protected ArimaVariant newVariant() {
+		return new Arima_s_0_0_2__0_0_1();
+	}
+
 	public int getNumWeights() {
 		return 3;
 	}
@@ -2441,12 +3045,12 @@ private static final class Arima_s_0_0_2__0_0_1 extends ArimaVariant {
 	public double getRating(
 		double[]	coefficients
 	) {
-        double[]	fitfcsts = new double[Series.length];
+        double[]	fitfcsts = getFitted();
 
 		V1 = coefficients[0];
 		V2 = coefficients[1];
 		X1 = coefficients[2];
-		forecast(fitfcsts);
+		fit(fitfcsts);
         try {
 		return AIC = IFSMetrics.getAdjAIC(getNumWeights(), Series, fitfcsts);
 		} catch (IFSException ex) {
@@ -2455,20 +3059,33 @@ private static final class Arima_s_0_0_2__0_0_1 extends ArimaVariant {
 		}
 	}
 
-	public String forecast(
+	public void fit(
 		double[]	forecasts
 	) {
 		double		u = getMean();
 		
+		prepareFit(forecasts.length);
+		double[]	e = Err;
+		
 		forecasts[0] = Series[0];
-        for (int i = 1; i < forecasts.length; i++) {
+		setFitted(0, forecasts[0]);
+        for (int i = 1, t = Offset+1; i < forecasts.length; i++, t++) {
         	forecasts[i] = u
-        		- V1*et(i-1, Series, forecasts, this)
-        		- V2*et(i-2, Series, forecasts, this)
-        		- X1*et(i-Cycle, Series, forecasts, this)
-        		+ V1*X1*et(i-Cycle-1, Series, forecasts, this)
-        		+ V2*X1*et(i-Cycle-2, Series, forecasts, this);
+        		- V1*e[t-1]
+        		- V2*e[t-2]
+        		- X1*e[t-Cycle]
+        		+ V1*X1*e[t-Cycle-1]
+        		+ V2*X1*e[t-Cycle-2];
+        	setFitted(i, forecasts[i]);
         }
+	}
+
+	public String forecast(
+		double[]	forecasts
+	) {
+		double		u = getMean();
+		
+		fit(forecasts);
         
         double	slope = 0.0;
         boolean	iserror = false;
@@ -2500,6 +3117,10 @@ private static final class Arima_s_0_0_3__0_0_1 extends ArimaVariant {
 	@SuppressWarnings("unused")
 	public Arima_s_0_0_3__0_0_1() {}
 
+	protected ArimaVariant newVariant() {
+		return new Arima_s_0_0_3__0_0_1();
+	}
+
 	public int getNumWeights() {
 		return 4;
 	}
@@ -2507,13 +3128,13 @@ private static final class Arima_s_0_0_3__0_0_1 extends ArimaVariant {
 	public double getRating(
 		double[]	coefficients
 	) {
-        double[]	fitfcsts = new double[Series.length];
+        double[]	fitfcsts = getFitted();
 
 		V1 = coefficients[0];
 		V2 = coefficients[1];
 		V3 = coefficients[2];
 		X1 = coefficients[3];
-		forecast(fitfcsts);
+		fit(fitfcsts);
         try {
 		return AIC = IFSMetrics.getAdjAIC(getNumWeights(), Series, fitfcsts);
 		} catch (IFSException ex) {
@@ -2522,22 +3143,35 @@ private static final class Arima_s_0_0_3__0_0_1 extends ArimaVariant {
 		}
 	}
 
-	public String forecast(
+	public void fit(
 		double[]	forecasts
 	) {
 		double		u = getMean();
 		
+		prepareFit(forecasts.length);
+		double[]	e = Err;
+		
 		forecasts[0] = Series[0];
-        for (int i = 1; i < forecasts.length; i++) {
+		setFitted(0, forecasts[0]);
+        for (int i = 1, t = Offset+1; i < forecasts.length; i++, t++) {
         	forecasts[i] = u
-        		- V1*et(i-1, Series, forecasts, this)
-        		- V2*et(i-2, Series, forecasts, this)
-        		- V3*et(i-3, Series, forecasts, this)
-        		- X1*et(i-Cycle, Series, forecasts, this)
-        		+ V1*X1*et(i-Cycle-1, Series, forecasts, this)
-        		+ V2*X1*et(i-Cycle-2, Series, forecasts, this)
-        		+ V3*X1*et(i-Cycle-3, Series, forecasts, this);
+        		- V1*e[t-1]
+        		- V2*e[t-2]
+        		- V3*e[t-3]
+        		- X1*e[t-Cycle]
+        		+ V1*X1*e[t-Cycle-1]
+        		+ V2*X1*e[t-Cycle-2]
+        		+ V3*X1*e[t-Cycle-3];
+        	setFitted(i, forecasts[i]);
         }
+	}
+
+	public String forecast(
+		double[]	forecasts
+	) {
+		double		u = getMean();
+		
+		fit(forecasts);
         
         double	slope = 0.0;
         boolean	iserror = false;
@@ -2567,6 +3201,10 @@ private static final class Arima_s_0_1_1__0_1_1 extends ArimaVariant {
 	@SuppressWarnings("unused")
 	public Arima_s_0_1_1__0_1_1() {}
 
+	protected ArimaVariant newVariant() {
+		return new Arima_s_0_1_1__0_1_1();
+	}
+
 	public int getNumWeights() {
 		return 2;
 	}
@@ -2574,14 +3212,14 @@ private static final class Arima_s_0_1_1__0_1_1 extends ArimaVariant {
 	public double getRating(
 		double[]	coefficients
 	) {
-        double[]	fitfcsts = new double[Series.length];
+        double[]	fitfcsts = getFitted();
 
 		V1 = coefficients[0];
 		X1 = coefficients[1];
 		if (IV == null) {
-			IV = backcast(Series, Cycle, Cycle+2);
+			IV = backcast(Cycle+2);
 		}
-		forecast(fitfcsts);
+		fit(fitfcsts);
         try {
 		return AIC = IFSMetrics.getAdjAIC(getNumWeights(), Series, fitfcsts);
 		} catch (IFSException ex) {
@@ -2590,18 +3228,29 @@ private static final class Arima_s_0_1_1__0_1_1 extends ArimaVariant {
 		}
 	}
 
-	public String forecast(
+	public void fit(
 		double[]	forecasts
 	) {
+		double[]	y = prepareFit(forecasts.length);
+		double[]	e = Err;
+		
 		forecasts[0] = Series[0];
-        for (int i = 1; i < forecasts.length; i++) {
-        	forecasts[i] = yt(i-1, Series, forecasts, this)
-        		+ yt(i-Cycle, Series, forecasts, this)
-        		- yt(i-Cycle-1, Series, forecasts, this)
-                - V1*et(i-1, Series, forecasts, this)
-        		- X1*et(i-Cycle, Series, forecasts, this)
-        		+ V1*X1*et(i-Cycle-1, Series, forecasts, this);
+		setFitted(0, forecasts[0]);
+        for (int i = 1, t = Offset+1; i < forecasts.length; i++, t++) {
+        	forecasts[i] = y[t-1]
+        		+ y[t-Cycle]
+        		- y[t-Cycle-1]
+                - V1*e[t-1]
+        		- X1*e[t-Cycle]
+        		+ V1*X1*e[t-Cycle-1];
+        	setFitted(i, forecasts[i]);
         }
+	}
+
+	public String forecast(
+		double[]	forecasts
+	) {
+		fit(forecasts);
         
         double	slope = 0.0;
         boolean	iserror = false;
@@ -2632,6 +3281,10 @@ private static final class Arima_s_0_1_2__0_1_1 extends ArimaVariant {
 	@SuppressWarnings("unused")
 	public Arima_s_0_1_2__0_1_1() {}
 
+	protected ArimaVariant newVariant() {
+		return new Arima_s_0_1_2__0_1_1();
+	}
+
 	public int getNumWeights() {
 		return 3;
 	}
@@ -2639,15 +3292,15 @@ private static final class Arima_s_0_1_2__0_1_1 extends ArimaVariant {
 	public double getRating(
 		double[]	coefficients
 	) {
-        double[]	fitfcsts = new double[Series.length];
+        double[]	fitfcsts = getFitted();
 
 		V1 = coefficients[0];
 		V2 = coefficients[1];
 		X1 = coefficients[2];
 		if (IV == null) {
-			IV = backcast(Series, Cycle, Cycle+3);
+			IV = backcast(Cycle+3);
 		}
-		forecast(fitfcsts);
+		fit(fitfcsts);
         try {
 		return AIC = IFSMetrics.getAdjAIC(getNumWeights(), Series, fitfcsts);
 		} catch (IFSException ex) {
@@ -2656,20 +3309,31 @@ private static final class Arima_s_0_1_2__0_1_1 extends ArimaVariant {
 		}
 	}
 
-	public String forecast(
+	public void fit(
 		double[]	forecasts
 	) {
+		double[]	y = prepareFit(forecasts.length);
+		double[]	e = Err;
+		
 		forecasts[0] = Series[0];
-        for (int i = 1; i < forecasts.length; i++) {
-        	forecasts[i] = yt(i-1, Series, forecasts, this)
-        		+ yt(i-Cycle, Series, forecasts, this)
-        		- yt(i-Cycle-1, Series, forecasts, this)
-                - V1*et(i-1, Series, forecasts, this)
-                - V2*et(i-2, Series, forecasts, this)
-        		- X1*et(i-Cycle, Series, forecasts, this)
-        		+ V1*X1*et(i-Cycle-1, Series, forecasts, this)
-        		+ V2*X1*et(i-Cycle-2, Series, forecasts, this);
+		setFitted(0, forecasts[0]);
+        for (int i = 1, t = Offset+1; i < forecasts.length; i++, t++) {
+        	forecasts[i] = y[t-1]
+        		+ y[t-Cycle]
+        		- y[t-Cycle-1]
+                - V1*e[t-1]
+                - V2*e[t-2]
+        		- X1*e[t-Cycle]
+        		+ V1*X1*e[t-Cycle-1]
+        		+ V2*X1*e[t-Cycle-2];
+        	setFitted(i, forecasts[i]);
         }
+	}
+
+	public String forecast(
+		double[]	forecasts
+	) {
+		fit(forecasts);
         
         double	slope = 0.0;
         boolean	iserror = false;
@@ -2700,6 +3364,10 @@ private static final class Arima_s_0_2_2__0_1_1 extends ArimaVariant {
 	@SuppressWarnings("unused")
 	public Arima_s_0_2_2__0_1_1() {}
 
+	protected ArimaVariant newVariant() {
+		return new Arima_s_0_2_2__0_1_1();
+	}
+
 	public int getNumWeights() {
 		return 3;
 	}
@@ -2707,15 +3375,15 @@ private static final class Arima_s_0_2_2__0_1_1 extends ArimaVariant {
 	public double getRating(
 		double[]	coefficients
 	) {
-        double[]	fitfcsts = new double[Series.length];
+        double[]	fitfcsts = getFitted();
 
 		V1 = coefficients[0];
 		V2 = coefficients[1];
 		X1 = coefficients[2];
 		if (IV == null) {
-			IV = backcast(Series, Cycle, Cycle+3);
+			IV = backcast(Cycle+3);
 		}
-		forecast(fitfcsts);
+		fit(fitfcsts);
         try {
 		return AIC = IFSMetrics.getAdjAIC(getNumWeights(), Series, fitfcsts);
 		} catch (IFSException ex) {
@@ -2724,22 +3392,33 @@ private static final class Arima_s_0_2_2__0_1_1 extends ArimaVariant {
 		}
 	}
 
-	public String forecast(
+	public void fit(
 		double[]	forecasts
 	) {
+		double[]	y = prepareFit(forecasts.length);
+		double[]	e = Err;
+		
 		forecasts[0] = Series[0];
-        for (int i = 1; i < forecasts.length; i++) {
-        	forecasts[i] = 2.0*yt(i-1, Series, forecasts, this)
-        		- yt(i-2, Series, forecasts, this)
-        		+ yt(i-Cycle, Series, forecasts, this)
-        		- 2.0*yt(i-Cycle-1, Series, forecasts, this)
-        		+ yt(i-Cycle-2, Series, forecasts, this)
-                - V1*et(i-1, Series, forecasts, this)
-                - V2*et(i-2, Series, forecasts, this)
-        		- X1*et(i-Cycle, Series, forecasts, this)
-        		+ V1*X1*et(i-Cycle-1, Series, forecasts, this)
-        		+ V2*X1*et(i-Cycle-2, Series, forecasts, this);
+		setFitted(0, forecasts[0]);
+        for (int i = 1, t = Offset+1; i < forecasts.length; i++, t++) {
+        	forecasts[i] = 2.0*y[t-1]
+        		- y[t-2]
+        		+ y[t-Cycle]
+        		- 2.0*y[t-Cycle-1]
+        		+ y[t-Cycle-2]
+                - V1*e[t-1]
+                - V2*e[t-2]
+        		- X1*e[t-Cycle]
+        		+ V1*X1*e[t-Cycle-1]
+        		+ V2*X1*e[t-Cycle-2];
+        	setFitted(i, forecasts[i]);
         }
+	}
+
+	public String forecast(
+		double[]	forecasts
+	) {
+		fit(forecasts);
         
         double	slope = 0.0;
         boolean	iserror = false;
@@ -2769,6 +3448,10 @@ private static final class Arima_s_1_0_0__1_0_0 extends ArimaVariant {
 	@SuppressWarnings("unused")
 	public Arima_s_1_0_0__1_0_0() {}
 
+	protected ArimaVariant newVariant() {
+		return new Arima_s_1_0_0__1_0_0();
+	}
+
 	public int getNumWeights() {
 		return 2;
 	}
@@ -2776,11 +3459,11 @@ private static final class Arima_s_1_0_0__1_0_0 extends ArimaVariant {
 	public double getRating(
 		double[]	coefficients
 	) {
-        double[]	fitfcsts = new double[Series.length];
+        double[]	fitfcsts = getFitted();
 
 		U1 = coefficients[0];
 		W1 = coefficients[1];
-		forecast(fitfcsts);
+		fit(fitfcsts);
         try {
 		return AIC = IFSMetrics.getAdjAIC(getNumWeights(), Series, fitfcsts);
 		} catch (IFSException ex) {
@@ -2789,18 +3472,30 @@ private static final class Arima_s_1_0_0__1_0_0 extends ArimaVariant {
 		}
 	}
 
-	public String forecast(
+	public void fit(
 		double[]	forecasts
 	) {
 		double		u = getMean();
 		
+		double[]	y = prepareFit(forecasts.length);
+		
 		forecasts[0] = Series[0];
-        for (int i = 1; i < forecasts.length; i++) {
+		setFitted(0, forecasts[0]);
+        for (int i = 1, t = Offset+1; i < forecasts.length; i++, t++) {
         	forecasts[i] = u
-        		+ U1*(yt(i-1, Series, forecasts, this)-u)
-        		+ W1*(yt(i-Cycle, Series, forecasts, this)-u)
-        		- U1*W1*(yt(i-Cycle-1, Series, forecasts, this)-u);
+        		+ U1*(y[t-1]-u)
+        		+ W1*(y[t-Cycle]-u)
+        		- U1*W1*(y[t-Cycle-1]-u);
+        	setFitted(i, forecasts[i]);
         }
+	}
+
+	public String forecast(
+		double[]	forecasts
+	) {
+		double		u = getMean();
+		
+		fit(forecasts);
         
         double	slope = 0.0;
         boolean	iserror = false;
@@ -2831,6 +3526,10 @@ private static final class Arima_s_1_0_0__2_0_0 extends ArimaVariant {
 	@SuppressWarnings("unused")
 	public Arima_s_1_0_0__2_0_0() {}
 
+	protected ArimaVariant newVariant() {
+		return new Arima_s_1_0_0__2_0_0();
+	}
+
 	public int getNumWeights() {
 		return 3;
 	}
@@ -2838,12 +3537,12 @@ private static final class Arima_s_1_0_0__2_0_0 extends ArimaVariant {
 	public double getRating(
 		double[]	coefficients
 	) {
-        double[]	fitfcsts = new double[Series.length];
+        double[]	fitfcsts = getFitted();
 
 		U1 = coefficients[0];
 		W1 = coefficients[1];
 		W2 = coefficients[2];
-		forecast(fitfcsts);
+		fit(fitfcsts);
         try {
 		return AIC = IFSMetrics.getAdjAIC(getNumWeights(), Series, fitfcsts);
 		} catch (IFSException ex) {
@@ -2852,20 +3551,32 @@ private static final class Arima_s_1_0_0__2_0_0 extends ArimaVariant {
 		}
 	}
 
-	public String forecast(
+	public void fit(
 		double[]	forecasts
 	) {
 		double		u = getMean();
 		
+		double[]	y = prepareFit(forecasts.length);
+		
 		forecasts[0] = Series[0];
-        for (int i = 1; i < forecasts.length; i++) {
+		setFitted(0, forecasts[0]);
+        for (int i = 1, t = Offset+1; i < forecasts.length; i++, t++) {
         	forecasts[i] = u
-        		+ U1*(yt(i-1, Series, forecasts, this)-u)
-        		+ W1*(yt(i-Cycle, Series, forecasts, this)-u)
-        		- U1*W1*(yt(i-Cycle-1, Series, forecasts, this)-u)
-        		+ W2*(yt(i-2*Cycle, Series, forecasts, this)-u)
-        		- U1*W2*(yt(i-2*Cycle-1, Series, forecasts, this)-u);
+        		+ U1*(y[t-1]-u)
+        		+ W1*(y[t-Cycle]-u)
+        		- U1*W1*(y[t-Cycle-1]-u)
+        		+ W2*(y[t-2*Cycle]-u)
+        		- U1*W2*(y[t-2*Cycle-1]-u);
+        	setFitted(i, forecasts[i]);
         }
+	}
+
+	public String forecast(
+		double[]	forecasts
+	) {
+		double		u = getMean();
+		
+		fit(forecasts);
         
         double	slope = 0.0;
         boolean	iserror = false;
@@ -2897,6 +3608,10 @@ private static final class Arima_s_1_0_1__1_0_1 extends ArimaVariant {
 	@SuppressWarnings("unused")
 	public Arima_s_1_0_1__1_0_1() {}
 
+	protected ArimaVariant newVariant() {
+		return new Arima_s_1_0_1__1_0_1();
+	}
+
 	public int getNumWeights() {
 		return 4;
 	}
@@ -2904,13 +3619,13 @@ private static final class Arima_s_1_0_1__1_0_1 extends ArimaVariant {
 	public double getRating(
 		double[]	coefficients
 	) {
-        double[]	fitfcsts = new double[Series.length];
+        double[]	fitfcsts = getFitted();
 
 		U1 = coefficients[0];
 		V1 = coefficients[1];
 		W1 = coefficients[2];
 		X1 = coefficients[3];
-		forecast(fitfcsts);
+		fit(fitfcsts);
         try {
 		return AIC = IFSMetrics.getAdjAIC(getNumWeights(), Series, fitfcsts);
 		} catch (IFSException ex) {
@@ -2919,21 +3634,34 @@ private static final class Arima_s_1_0_1__1_0_1 extends ArimaVariant {
 		}
 	}
 
-	public String forecast(
+	public void fit(
 		double[]	forecasts
 	) {
 		double		u = getMean();
 		
+		double[]	y = prepareFit(forecasts.length);
+		double[]	e = Err;
+		
 		forecasts[0] = Series[0];
-        for (int i = 1; i < forecasts.length; i++) {
+		setFitted(0, forecasts[0]);
+        for (int i = 1, t = Offset+1; i < forecasts.length; i++, t++) {
         	forecasts[i] = u
-        		+ U1*(yt(i-1, Series, forecasts, this)-u)
-        		+ W1*(yt(i-Cycle, Series, forecasts, this)-u)
-        		- U1*W1*(yt(i-Cycle-1, Series, forecasts, this)-u)
-                - V1*et(i-1, Series, forecasts, this)
-            	- X1*et(i-Cycle, Series, forecasts, this)
-            	+ V1*X1*et(i-Cycle-1, Series, forecasts, this);
+        		+ U1*(y[t-1]-u)
+        		+ W1*(y[t-Cycle]-u)
+        		- U1*W1*(y[t-Cycle-1]-u)
+                - V1*e[t-1]
+            	- X1*e[t-Cycle]
+            	+ V1*X1*e[t-Cycle-1];
+        	setFitted(i, forecasts[i]);
         }
+	}
+
+	public String forecast(
+		double[]	forecasts
+	) {
+		double		u = getMean();
+		
+		fit(forecasts);
         
         double	slope = 0.0;
         boolean	iserror = false;
@@ -2965,6 +3693,10 @@ private static final class Arima_s_1_1_1__1_1_1 extends ArimaVariant {
 	@SuppressWarnings("unused")
 	public Arima_s_1_1_1__1_1_1() {}
 
+	protected ArimaVariant newVariant() {
+		return new Arima_s_1_1_1__1_1_1();
+	}
+
 	public int getNumWeights() {
 		return 4;
 	}
@@ -2972,16 +3704,16 @@ private static final class Arima_s_1_1_1__1_1_1 extends ArimaVariant {
 	public double getRating(
 		double[]	coefficients
 	) {
-        double[]	fitfcsts = new double[Series.length];
+        double[]	fitfcsts = getFitted();
 
 		U1 = coefficients[0];
 		V1 = coefficients[1];
 		W1 = coefficients[2];
 		X1 = coefficients[3];
 		if (IV == null) {
-			IV = backcast(Series, Cycle, 2*Cycle+2);
+			IV = backcast(2*Cycle+2);
 		}
-		forecast(fitfcsts);
+		fit(fitfcsts);
         try {
 		return AIC = IFSMetrics.getAdjAIC(getNumWeights(), Series, fitfcsts);
 		} catch (IFSException ex) {
@@ -2990,30 +3722,41 @@ private static final class Arima_s_1_1_1__1_1_1 extends ArimaVariant {
 		}
 	}
 
-	public String forecast(
+	public void fit(
 		double[]	forecasts
 	) {
+		double[]	y = prepareFit(forecasts.length);
+		double[]	e = Err;
+		
 		forecasts[0] = Series[0];
-        for (int i = 1; i < forecasts.length; i++) {
-        	forecasts[i] = yt(i-1, Series, forecasts, this)
-        		+ yt(i-Cycle, Series, forecasts, this)
-        		- yt(i-Cycle-1, Series, forecasts, this)
-        		+ U1*(yt(i-1, Series, forecasts, this)
-        			- yt(i-2, Series, forecasts, this)
-                	- yt(i-Cycle-1, Series, forecasts, this)
-                	+ yt(i-Cycle-2, Series, forecasts, this))
-        		+ W1*(yt(i-Cycle, Series, forecasts, this)
-            		- yt(i-Cycle-1, Series, forecasts, this)
-                    - yt(i-2*Cycle, Series, forecasts, this)
-                    + yt(i-2*Cycle-1, Series, forecasts, this))
-        		- U1*W1*(yt(i-Cycle-1, Series, forecasts, this)
-                	- yt(i-Cycle-2, Series, forecasts, this)
-                    - yt(i-2*Cycle-1, Series, forecasts, this)
-                    + yt(i-2*Cycle-2, Series, forecasts, this))
-                - V1*et(i-1, Series, forecasts, this)
-            	- X1*et(i-Cycle, Series, forecasts, this)
-            	+ V1*X1*et(i-Cycle-1, Series, forecasts, this);
+		setFitted(0, forecasts[0]);
+        for (int i = 1, t = Offset+1; i < forecasts.length; i++, t++) {
+        	forecasts[i] = y[t-1]
+        		+ y[t-Cycle]
+        		- y[t-Cycle-1]
+        		+ U1*(y[t-1]
+        			- y[t-2]
+                	- y[t-Cycle-1]
+                	+ y[t-Cycle-2])
+        		+ W1*(y[t-Cycle]
+            		- y[t-Cycle-1]
+                    - y[t-2*Cycle]
+                    + y[t-2*Cycle-1])
+        		- U1*W1*(y[t-Cycle-1]
+                	- y[t-Cycle-2]
+                    - y[t-2*Cycle-1]
+                    + y[t-2*Cycle-2])
+                - V1*e[t-1]
+            	- X1*e[t-Cycle]
+            	+ V1*X1*e[t-Cycle-1];
+        	setFitted(i, forecasts[i]);
         }
+	}
+
+	public String forecast(
+		double[]	forecasts
+	) {
+		fit(forecasts);
         
         double	slope = 0.0;
         boolean	iserror = false;
@@ -3044,6 +3787,10 @@ private static final class Arima_s_2_0_0__1_0_0 extends ArimaVariant {
 	@SuppressWarnings("unused")
 	public Arima_s_2_0_0__1_0_0() {}
 
+	protected ArimaVariant newVariant() {
+		return new Arima_s_2_0_0__1_0_0();
+	}
+
 	public int getNumWeights() {
 		return 3;
 	}
@@ -3051,12 +3798,12 @@ private static final class Arima_s_2_0_0__1_0_0 extends ArimaVariant {
 	public double getRating(
 		double[]	coefficients
 	) {
-        double[]	fitfcsts = new double[Series.length];
+        double[]	fitfcsts = getFitted();
 
 		U1 = coefficients[0];
 		U2 = coefficients[1];
 		W1 = coefficients[2];
-		forecast(fitfcsts);
+		fit(fitfcsts);
         try {
 		return AIC = IFSMetrics.getAdjAIC(getNumWeights(), Series, fitfcsts);
 		} catch (IFSException ex) {
@@ -3065,20 +3812,32 @@ private static final class Arima_s_2_0_0__1_0_0 extends ArimaVariant {
 		}
 	}
 
-	public String forecast(
+	public void fit(
 		double[]	forecasts
 	) {
 		double		u = getMean();
 		
+		double[]	y = prepareFit(forecasts.length);
+		
 		forecasts[0] = Series[0];
-        for (int i = 1; i < forecasts.length; i++) {
+		setFitted(0, forecasts[0]);
+        for (int i = 1, t = Offset+1; i < forecasts.length; i++, t++) {
         	forecasts[i] = u
-        		+ U1*(yt(i-1, Series, forecasts, this)-u)
-        		+ U2*(yt(i-2, Series, forecasts, this)-u)
-        		+ W1*(yt(i-Cycle, Series, forecasts, this)-u)
-        		- U1*W1*(yt(i-Cycle-1, Series, forecasts, this)-u)
-    			- U2*W1*(yt(i-Cycle-2, Series, forecasts, this)-u);
+        		+ U1*(y[t-1]-u)
+        		+ U2*(y[t-2]-u)
+        		+ W1*(y[t-Cycle]-u)
+        		- U1*W1*(y[t-Cycle-1]-u)
+    			- U2*W1*(y[t-Cycle-2]-u);
+        	setFitted(i, forecasts[i]);
         }
+	}
+
+	public String forecast(
+		double[]	forecasts
+	) {
+		double		u = getMean();
+		
+		fit(forecasts);
         
         double	slope = 0.0;
         boolean	iserror = false;
@@ -3112,6 +3871,10 @@ private static final class Arima_s_2_0_2__1_0_1 extends ArimaVariant {
 	@SuppressWarnings("unused")
 	public Arima_s_2_0_2__1_0_1() {}
 
+	protected ArimaVariant newVariant() {
+		return new Arima_s_2_0_2__1_0_1();
+	}
+
 	public int getNumWeights() {
 		return 6;
 	}
@@ -3119,7 +3882,7 @@ private static final class Arima_s_2_0_2__1_0_1 extends ArimaVariant {
 	public double getRating(
 		double[]	coefficients
 	) {
-        double[]	fitfcsts = new double[Series.length];
+        double[]	fitfcsts = getFitted();
 
 		U1 = coefficients[0];
 		U2 = coefficients[1];
@@ -3127,7 +3890,7 @@ private static final class Arima_s_2_0_2__1_0_1 extends ArimaVariant {
 		V2 = coefficients[3];
 		W1 = coefficients[4];
 		X1 = coefficients[5];
-		forecast(fitfcsts);
+		fit(fitfcsts);
         try {
 		return AIC = IFSMetrics.getAdjAIC(getNumWeights(), Series, fitfcsts);
 		} catch (IFSException ex) {
@@ -3136,25 +3899,38 @@ private static final class Arima_s_2_0_2__1_0_1 extends ArimaVariant {
 		}
 	}
 
-	public String forecast(
+	public void fit(
 		double[]	forecasts
 	) {
 		double		u = getMean();
 		
+		double[]	y = prepareFit(forecasts.length);
+		double[]	e = Err;
+		
 		forecasts[0] = Series[0];
-        for (int i = 1; i < forecasts.length; i++) {
+		setFitted(0, forecasts[0]);
+        for (int i = 1, t = Offset+1; i < forecasts.length; i++, t++) {
         	forecasts[i] = u
-        		+ U1*(yt(i-1, Series, forecasts, this)-u)
-        		+ U2*(yt(i-2, Series, forecasts, this)-u)
-        		+ W1*(yt(i-Cycle, Series, forecasts, this)-u)
-        		- U1*W1*(yt(i-Cycle-1, Series, forecasts, this)-u)
-        		- U2*W1*(yt(i-Cycle-2, Series, forecasts, this)-u)
-                - V1*et(i-1, Series, forecasts, this)
-                - V2*et(i-2, Series, forecasts, this)
-            	- X1*et(i-Cycle, Series, forecasts, this)
-            	+ V1*X1*et(i-Cycle-1, Series, forecasts, this)
-            	+ V2*X1*et(i-Cycle-2, Series, forecasts, this);
+        		+ U1*(y[t-1]-u)
+        		+ U2*(y[t-2]-u)
+        		+ W1*(y[t-Cycle]-u)
+        		- U1*W1*(y[t-Cycle-1]-u)
+        		- U2*W1*(y[t-Cycle-2]-u)
+                - V1*e[t-1]
+                - V2*e[t-2]
+            	- X1*e[t-Cycle]
+            	+ V1*X1*e[t-Cycle-1]
+            	+ V2*X1*e[t-Cycle-2];
+        	setFitted(i, forecasts[i]);
         }
+	}
+
+	public String forecast(
+		double[]	forecasts
+	) {
+		double		u = getMean();
+		
+		fit(forecasts);
         
         double	slope = 0.0;
         boolean	iserror = false;
@@ -3185,6 +3961,10 @@ private static final class Arima_s_2_1_0__0_1_1 extends ArimaVariant {
 	@SuppressWarnings("unused")
 	public Arima_s_2_1_0__0_1_1() {}
 
+	protected ArimaVariant newVariant() {
+		return new Arima_s_2_1_0__0_1_1();
+	}
+
 	public int getNumWeights() {
 		return 3;
 	}
@@ -3192,15 +3972,15 @@ private static final class Arima_s_2_1_0__0_1_1 extends ArimaVariant {
 	public double getRating(
 		double[]	coefficients
 	) {
-        double[]	fitfcsts = new double[Series.length];
+        double[]	fitfcsts = getFitted();
 
 		U1 = coefficients[0];
 		U2 = coefficients[1];
 		X1 = coefficients[2];
 		if (IV == null) {
-			IV = backcast(Series, Cycle, Cycle+3);
+			IV = backcast(Cycle+3);
 		}
-		forecast(fitfcsts);
+		fit(fitfcsts);
         try {
 		return AIC = IFSMetrics.getAdjAIC(getNumWeights(), Series, fitfcsts);
 		} catch (IFSException ex) {
@@ -3209,23 +3989,34 @@ private static final class Arima_s_2_1_0__0_1_1 extends ArimaVariant {
 		}
 	}
 
-	public String forecast(
+	public void fit(
 		double[]	forecasts
 	) {
+		double[]	y = prepareFit(forecasts.length);
+		double[]	e = Err;
+		
 		forecasts[0] = Series[0];
-        for (int i = 1; i < forecasts.length; i++) {
-        	forecasts[i] = yt(i-1, Series, forecasts, this)
-            	+ yt(i-Cycle, Series, forecasts, this)
-            	- yt(i-Cycle-1, Series, forecasts, this)
-        		+ U1*(yt(i-1, Series, forecasts, this)
-        			- yt(i-2, Series, forecasts, this)
-                    - yt(i-Cycle-1, Series, forecasts, this)
-                    + yt(i-Cycle-2, Series, forecasts, this))
-        		+ U2*(yt(i-2, Series, forecasts, this)
-            		- yt(i-3, Series, forecasts, this)
-                    - yt(i-Cycle-2, Series, forecasts, this))
-        		- X1*et(i-Cycle, Series, forecasts, this);
+		setFitted(0, forecasts[0]);
+        for (int i = 1, t = Offset+1; i < forecasts.length; i++, t++) {
+        	forecasts[i] = y[t-1]
+            	+ y[t-Cycle]
+            	- y[t-Cycle-1]
+        		+ U1*(y[t-1]
+        			- y[t-2]
+                    - y[t-Cycle-1]
+                    + y[t-Cycle-2])
+        		+ U2*(y[t-2]
+            		- y[t-3]
+                    - y[t-Cycle-2])
+        		- X1*e[t-Cycle];
+        	setFitted(i, forecasts[i]);
         }
+	}
+
+	public String forecast(
+		double[]	forecasts
+	) {
+		fit(forecasts);
         
         double	slope = 0.0;
         boolean	iserror = false;
@@ -3256,6 +4047,10 @@ private static final class Arima_s_2_1_0__1_0_0 extends ArimaVariant {
 	@SuppressWarnings("unused")
 	public Arima_s_2_1_0__1_0_0() {}
 
+	protected ArimaVariant newVariant() {
+		return new Arima_s_2_1_0__1_0_0();
+	}
+
 	public int getNumWeights() {
 		return 3;
 	}
@@ -3263,15 +4058,15 @@ private static final class Arima_s_2_1_0__1_0_0 extends ArimaVariant {
 	public double getRating(
 		double[]	coefficients
 	) {
-        double[]	fitfcsts = new double[Series.length];
+        double[]	fitfcsts = getFitted();
 
 		U1 = coefficients[0];
 		U2 = coefficients[1];
 		W1 = coefficients[2];
 		if (IV == null) {
-			IV = backcast(Series, Cycle, Cycle+3);
+			IV = backcast(Cycle+3);
 		}
-		forecast(fitfcsts);
+		fit(fitfcsts);
         try {
 		return AIC = IFSMetrics.getAdjAIC(getNumWeights(), Series, fitfcsts);
 		} catch (IFSException ex) {
@@ -3280,18 +4075,28 @@ private static final class Arima_s_2_1_0__1_0_0 extends ArimaVariant {
 		}
 	}
 
-	public String forecast(
+	public void fit(
 		double[]	forecasts
 	) {
+		double[]	y = prepareFit(forecasts.length);
+		
 		forecasts[0] = Series[0];
-        for (int i = 1; i < forecasts.length; i++) {
-        	forecasts[i] = yt(i-1, Series, forecasts, this)
-        		+ U1*(yt(i-1, Series, forecasts, this)-yt(i-2, Series, forecasts, this))
-        		+ U2*(yt(i-2, Series, forecasts, this)-yt(i-3, Series, forecasts, this))
-        		+ W1*(yt(i-Cycle, Series, forecasts, this)-yt(i-Cycle-1, Series, forecasts, this))
-        		- U1*W1*(yt(i-Cycle-1, Series, forecasts, this)-yt(i-Cycle-2, Series, forecasts, this))
-    			- U2*W1*(yt(i-Cycle-2, Series, forecasts, this)-yt(i-Cycle-3, Series, forecasts, this));
+		setFitted(0, forecasts[0]);
+        for (int i = 1, t = Offset+1; i < forecasts.length; i++, t++) {
+        	forecasts[i] = y[t-1]
+        		+ U1*(y[t-1]-y[t-2])
+        		+ U2*(y[t-2]-y[t-3])
+        		+ W1*(y[t-Cycle]-y[t-Cycle-1])
+        		- U1*W1*(y[t-Cycle-1]-y[t-Cycle-2])
+    			- U2*W1*(y[t-Cycle-2]-y[t-Cycle-3]);
+        	setFitted(i, forecasts[i]);
         }
+	}
+
+	public String forecast(
+		double[]	forecasts
+	) {
+		fit(forecasts);
         
         double	slope = 0.0;
         boolean	iserror = false;
@@ -3324,6 +4129,10 @@ private static final class Arima_s_2_1_2__0_1_1 extends ArimaVariant {
 	@SuppressWarnings("unused")
 	public Arima_s_2_1_2__0_1_1() {}
 
+	protected ArimaVariant newVariant() {
+		return new Arima_s_2_1_2__0_1_1();
+	}
+
 	public int getNumWeights() {
 		return 5;
 	}
@@ -3331,7 +4140,7 @@ private static final class Arima_s_2_1_2__0_1_1 extends ArimaVariant {
 	public double getRating(
 		double[]	coefficients
 	) {
-        double[]	fitfcsts = new double[Series.length];
+        double[]	fitfcsts = getFitted();
 
 		U1 = coefficients[0];
 		U2 = coefficients[1];
@@ -3339,9 +4148,9 @@ private static final class Arima_s_2_1_2__0_1_1 extends ArimaVariant {
 		V2 = coefficients[3];
 		X1 = coefficients[4];
 		if (IV == null) {
-			IV = backcast(Series, Cycle, Cycle+3);
+			IV = backcast(Cycle+3);
 		}
-		forecast(fitfcsts);
+		fit(fitfcsts);
         try {
 		return AIC = IFSMetrics.getAdjAIC(getNumWeights(), Series, fitfcsts);
 		} catch (IFSException ex) {
@@ -3350,28 +4159,39 @@ private static final class Arima_s_2_1_2__0_1_1 extends ArimaVariant {
 		}
 	}
 
-	public String forecast(
+	public void fit(
 		double[]	forecasts
 	) {
+		double[]	y = prepareFit(forecasts.length);
+		double[]	e = Err;
+		
 		forecasts[0] = Series[0];
-        for (int i = 1; i < forecasts.length; i++) {
-        	forecasts[i] = yt(i-1, Series, forecasts, this)
-            	+ yt(i-Cycle, Series, forecasts, this)
-            	- yt(i-Cycle-1, Series, forecasts, this)
-        		+ U1*(yt(i-1, Series, forecasts, this)
-        			- yt(i-2, Series, forecasts, this)
-                    - yt(i-Cycle-1, Series, forecasts, this)
-                    + yt(i-Cycle-2, Series, forecasts, this))
-        		+ U2*(yt(i-2, Series, forecasts, this)
-            		- yt(i-3, Series, forecasts, this)
-                    - yt(i-Cycle-2, Series, forecasts, this)
-                    + yt(i-Cycle-3, Series, forecasts, this))
-        		- V1*et(i-1, Series, forecasts, this)
-        		- V2*et(i-2, Series, forecasts, this)
-        		- X1*et(i-Cycle, Series, forecasts, this)
-        		+ V1*X1*et(i-Cycle-1, Series, forecasts, this)
-        		+ V2*X1*et(i-Cycle-2, Series, forecasts, this);
+		setFitted(0, forecasts[0]);
+        for (int i = 1, t = Offset+1; i < forecasts.length; i++, t++) {
+        	forecasts[i] = y[t-1]
+            	+ y[t-Cycle]
+            	- y[t-Cycle-1]
+        		+ U1*(y[t-1]
+        			- y[t-2]
+                    - y[t-Cycle-1]
+                    + y[t-Cycle-2])
+        		+ U2*(y[t-2]
+            		- y[t-3]
+                    - y[t-Cycle-2]
+                    + y[t-Cycle-3])
+        		- V1*e[t-1]
+        		- V2*e[t-2]
+        		- X1*e[t-Cycle]
+        		+ V1*X1*e[t-Cycle-1]
+        		+ V2*X1*e[t-Cycle-2];
+        	setFitted(i, forecasts[i]);
         }
+	}
+
+	public String forecast(
+		double[]	forecasts
+	) {
+		fit(forecasts);
         
         double	slope = 0.0;
         boolean	iserror = false;
@@ -3403,6 +4223,10 @@ private static final class Arima_s_3_0_0__1_0_0 extends ArimaVariant {
 	@SuppressWarnings("unused")
 	public Arima_s_3_0_0__1_0_0() {}
 
+	protected ArimaVariant newVariant() {
+		return new Arima_s_3_0_0__1_0_0();
+	}
+
 	public int getNumWeights() {
 		return 4;
 	}
@@ -3410,13 +4234,13 @@ private static final class Arima_s_3_0_0__1_0_0 extends ArimaVariant {
 	public double getRating(
 		double[]	coefficients
 	) {
-        double[]	fitfcsts = new double[Series.length];
+        double[]	fitfcsts = getFitted();
 
 		U1 = coefficients[0];
 		U2 = coefficients[1];
 		U3 = coefficients[2];
 		W1 = coefficients[3];
-		forecast(fitfcsts);
+		fit(fitfcsts);
         try {
 		return AIC = IFSMetrics.getAdjAIC(getNumWeights(), Series, fitfcsts);
 		} catch (IFSException ex) {
@@ -3425,22 +4249,34 @@ private static final class Arima_s_3_0_0__1_0_0 extends ArimaVariant {
 		}
 	}
 
-	public String forecast(
+	public void fit(
 		double[]	forecasts
 	) {
 		double		u = getMean();
 		
+		double[]	y = prepareFit(forecasts.length);
+		
 		forecasts[0] = Series[0];
-        for (int i = 1; i < forecasts.length; i++) {
+		setFitted(0, forecasts[0]);
+        for (int i = 1, t = Offset+1; i < forecasts.length; i++, t++) {
         	forecasts[i] = u
-        		+ U1*(yt(i-1, Series, forecasts, this)-u)
-        		+ U2*(yt(i-2, Series, forecasts, this)-u)
-        		+ U3*(yt(i-3, Series, forecasts, this)-u)
-        		+ W1*(yt(i-Cycle, Series, forecasts, this)-u)
-        		- U1*W1*(yt(i-Cycle-1, Series, forecasts, this)-u)
-    			- U2*W1*(yt(i-Cycle-2, Series, forecasts, this)-u)
-				- U3*W1*(yt(i-Cycle-3, Series, forecasts, this)-u);
+        		+ U1*(y[t-1]-u)
+        		+ U2*(y[t-2]-u)
+        		+ U3*(y[t-3]-u)
+        		+ W1*(y[t-Cycle]-u)
+        		- U1*W1*(y[t-Cycle-1]-u)
+    			- U2*W1*(y[t-Cycle-2]-u)
+				- U3*W1*(y[t-Cycle-3]-u);
+        	setFitted(i, forecasts[i]);
         }
+	}
+
+	public String forecast(
+		double[]	forecasts
+	) {
+		double		u = getMean();
+		
+		fit(forecasts);
         
         double	slope = 0.0;
         boolean	iserror = false;
@@ -3476,6 +4312,10 @@ private static final class Arima_s_3_0_3__1_0_1 extends ArimaVariant {
 	@SuppressWarnings("unused")
 	public Arima_s_3_0_3__1_0_1() {}
 
+	protected ArimaVariant newVariant() {
+		return new Arima_s_3_0_3__1_0_1();
+	}
+
 	public int getNumWeights() {
 		return 8;
 	}
@@ -3483,7 +4323,7 @@ private static final class Arima_s_3_0_3__1_0_1 extends ArimaVariant {
 	public double getRating(
 		double[]	coefficients
 	) {
-        double[]	fitfcsts = new double[Series.length];
+        double[]	fitfcsts = getFitted();
 
 		U1 = coefficients[0];
 		U2 = coefficients[1];
@@ -3493,7 +4333,7 @@ private static final class Arima_s_3_0_3__1_0_1 extends ArimaVariant {
 		V3 = coefficients[5];
 		W1 = coefficients[6];
 		X1 = coefficients[7];
-		forecast(fitfcsts);
+		fit(fitfcsts);
         try {
 		return AIC = IFSMetrics.getAdjAIC(getNumWeights(), Series, fitfcsts);
 		} catch (IFSException ex) {
@@ -3502,29 +4342,42 @@ private static final class Arima_s_3_0_3__1_0_1 extends ArimaVariant {
 		}
 	}
 
-	public String forecast(
+	public void fit(
 		double[]	forecasts
 	) {
 		double		u = getMean();
 		
+		double[]	y = prepareFit(forecasts.length);
+		double[]	e = Err;
+		
 		forecasts[0] = Series[0];
-        for (int i = 1; i < forecasts.length; i++) {
+		setFitted(0, forecasts[0]);
+        for (int i = 1, t = Offset+1; i < forecasts.length; i++, t++) {
         	forecasts[i] = u
-            	+ U1*(yt(i-1, Series, forecasts, this)-u)
-            	+ U2*(yt(i-2, Series, forecasts, this)-u)
-            	+ U3*(yt(i-3, Series, forecasts, this)-u)
-            	+ W1*(yt(i-Cycle, Series, forecasts, this)-u)
-            	- U1*W1*(yt(i-Cycle-1, Series, forecasts, this)-u)
-            	- U2*W1*(yt(i-Cycle-2, Series, forecasts, this)-u)
-            	- U3*W1*(yt(i-Cycle-3, Series, forecasts, this)-u)
-            	- V1*et(i-1, Series, forecasts, this)
-            	- V2*et(i-2, Series, forecasts, this)
-            	- V3*et(i-3, Series, forecasts, this)
-            	- X1*et(i-Cycle, Series, forecasts, this)
-            	+ V1*X1*et(i-Cycle-1, Series, forecasts, this)
-            	+ V2*X1*et(i-Cycle-2, Series, forecasts, this)
-            	+ V3*X1*et(i-Cycle-3, Series, forecasts, this);
+            	+ U1*(y[t-1]-u)
+            	+ U2*(y[t-2]-u)
+            	+ U3*(y[t-3]-u)
+            	+ W1*(y[t-Cycle]-u)
+            	- U1*W1*(y[t-Cycle-1]-u)
+            	- U2*W1*(y[t-Cycle-2]-u)
+            	- U3*W1*(y[t-Cycle-3]-u)
+            	- V1*e[t-1]
+            	- V2*e[t-2]
+            	- V3*e[t-3]
+            	- X1*e[t-Cycle]
+            	+ V1*X1*e[t-Cycle-1]
+            	+ V2*X1*e[t-Cycle-2]
+            	+ V3*X1*e[t-Cycle-3];
+        	setFitted(i, forecasts[i]);
         }
+	}
+
+	public String forecast(
+		double[]	forecasts
+	) {
+		double		u = getMean();
+		
+		fit(forecasts);
         
         double	slope = 0.0;
         boolean	iserror = false;
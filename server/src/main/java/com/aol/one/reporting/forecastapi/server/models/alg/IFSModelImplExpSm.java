@@ -8,15 +8,21 @@ package com.aol.one.reporting.forecastapi.server.models.alg;
 
 import java.io.PrintStream;
 import java.util.List;
+import java.util.concurrent.Executor;
 
+import com.aol.one.reporting.forecastapi.server.models.model.IFSCalibration;
 import com.aol.one.reporting.forecastapi.server.models.model.IFSException;
 import com.aol.one.reporting.forecastapi.server.models.model.IFSModel;
 import com.aol.one.reporting.forecastapi.server.models.model.IFSParameterValue;
 import com.aol.one.reporting.forecastapi.server.models.model.IFSStatistics;
 import com.aol.one.reporting.forecastapi.server.models.model.IFSUsageDescription;
-import com.aol.one.reporting.forecastapi.server.jpe.gw.GW;
 import com.aol.one.reporting.forecastapi.server.jpe.gw.GWException;
+import com.aol.one.reporting.forecastapi.server.jpe.gw.GWGradientInterface;
 import com.aol.one.reporting.forecastapi.server.jpe.gw.GWInterface;
+import com.aol.one.reporting.forecastapi.server.jpe.gw.GWParallelInterface;
+import com.aol.one.reporting.forecastapi.server.jpe.gw.GWOptimizer;
+import com.aol.one.reporting.forecastapi.server.jpe.gw.GWOptimizers;
+import com.aol.one.reporting.forecastapi.server.jpe.gw.GWOptimum;
 
 
 /**
@@ -37,6 +43,12 @@ import com.aol.one.reporting.forecastapi.server.jpe.gw.GWInterface;
  *    exponential -- Exponential trend adjustment.
  *    dampedadd   -- Damped additive trend adjustment.
  *    dampedmult  -- Damped multiplicative trend adjustment.
+ * optimizer=<optimizer name>
+ *    gw          -- Grid walk (default).
+ *    neldermead  -- Bounded Nelder-Mead simplex search.
+ *    brent       -- Coordinate search with Brent line searches.
+ *    pattern     -- Adaptive step pattern search.
+ *    quasinewton -- Bounded quasi-Newton search on analytic gradients.
  */
 public final class IFSModelImplExpSm extends IFSModel {
 	public static final String					ModelName = "model_expsm";
@@ -60,6 +72,13 @@ public final class IFSModelImplExpSm extends IFSModel {
 + "   exponential -- Exponential trend adjustment.\n"
 + "   dampedadd   -- Damped additive trend adjustment.\n"
 + "   dampedmult  -- Damped multiplicative trend adjustment.\n"
++ "\n"
++ "optimizer=<optimizer name>\n"
++ "   gw          -- Grid walk (default).\n"
++ "   neldermead  -- Bounded Nelder-Mead simplex search.\n"
++ "   brent       -- Coordinate search with Brent line searches.\n"
++ "   pattern     -- Adaptive step pattern search.\n"
++ "   quasinewton -- Bounded quasi-Newton search on analytic gradients.\n"
 	);
 	
 	private static enum			SeasonalType {
@@ -71,6 +90,7 @@ public final class IFSModelImplExpSm extends IFSModel {
 	
 	private SeasonalType		Seasonality = SeasonalType.None;
 	private TrendType			Trend = TrendType.None;
+	private GWOptimizer			Optimizer = GWOptimizers.getDefault();
 
 	/* (non-Javadoc)
 	 * @see com.aol.ifs.soa.common.IFSModel#execModel(double[], double[])
@@ -127,85 +147,36 @@ public final class IFSModelImplExpSm extends IFSModel {
 		// Execute the exponential smoothing variation appropriate for the
 		// trend and seasonal adjustments.
 		
-		ExpSmVariant	model = null;
+		ExpSmVariant	model = getVariant(trend, seasonality, series,
+			forecasts, cycle);
 		
-		switch (trend) {
-		case None:
-			switch (seasonality) {
-			case None:
-				model = new ExpSmNoneNone(series, forecasts);
-				break;
-			case Additive:
-				model = new ExpSmNoneAdditive(series, forecasts, cycle);
-				break;
-			case Multiplicative:
-				model = new ExpSmNoneMultiplicative(series, forecasts, cycle);
-				break;
-			}
-			break;
-		case Additive:
-			switch (seasonality) {
-			case None:
-				model = new ExpSmAdditiveNone(series, forecasts);
-				break;
-			case Additive:
-				model = new ExpSmAdditiveAdditive(series, forecasts, cycle);
-				break;
-			case Multiplicative:
-				model = new ExpSmAdditiveMultiplicative(series, forecasts, cycle);
-				break;
-			}
-			break;
-		case Multiplicative:
-			switch (seasonality) {
-			case None:
-				model = new ExpSmMultiplicativeNone(series, forecasts);
-				break;
-			case Additive:
-				model = new ExpSmMultiplicativeAdditive(series, forecasts, cycle);
-				break;
-			case Multiplicative:
-				model = new ExpSmMultiplicativeMultiplicative(series,
-					forecasts, cycle);
-				break;
-			}
-			break;
-		case DampedAdditive:
-			switch (seasonality) {
-			case None:
-				model = new ExpSmDampedAdditiveNone(series, forecasts);
-				break;
-			case Additive:
-				model = new ExpSmDampedAdditiveAdditive(series, forecasts, cycle);
-				break;
-			case Multiplicative:
-				model = new ExpSmDampedAdditiveMultiplicative(series,
-					forecasts, cycle);
-				break;
-			}
-			break;
-		case DampedMultiplicative:
-			switch (seasonality) {
-			case None:
-				model = new ExpSmDampedMultiplicativeNone(series, forecasts);
-				break;
-			case Additive:
-				model = new ExpSmDampedMultiplicativeAdditive(series,
-					forecasts, cycle);
-				break;
-			case Multiplicative:
-				model = new ExpSmDampedMultiplicativeMultiplicative(series,
-					forecasts, cycle);
-				break;
-			}
-			break;
-		}
+		String			calib_info = null;
+		String			fcst_info = null;
+		String			variant = model.getClass().getSimpleName();
+		IFSCalibration	warm_start = getWarmStart();
 		
-		String	calib_info = null;
-		String	fcst_info = null;
+		// A warm start from the same variant only needs to be refined. The
+		// initial level, slope, and season are cheap to derive so they are
+		// always derived from the series at hand.
 		
 		model.init();
-		calib_info = model.calibrate();
+		try {
+		if (warm_start != null
+		&& warm_start.isApplicable(ModelName, variant, cycle)
+		&& warm_start.getWeights() != null
+		&& warm_start.getWeights().length == model.getNumWeights())
+			calib_info = model.calibrate(Optimizer, warm_start.getWeights(),
+				getDeadline(), getRatingExecutor());
+		else
+			calib_info = model.calibrate(Optimizer, null, getDeadline(),
+				getRatingExecutor());
+		} catch (GWException ex) {
+			throw new IFSException(79, getModelName());
+		}
+		if (model.getOptWeights() != null)
+			setCalibration(new IFSCalibration(ModelName, variant, cycle,
+				model.getOptWeights(), null, model.getOptRating(),
+				model.getNumEvaluations(), model.getNumEvaluationsSaved()));
 		fcst_info = model.forecast();
 		
 		return String.format("exp::trend:%s,season:%s,calib(trend:%s,season:%s,%s),fcst(%s)",
@@ -238,6 +209,7 @@ public final class IFSModelImplExpSm extends IFSModel {
 	) throws IFSException {
 		SeasonalType	seasonality = SeasonalType.None;
 		TrendType		trend = TrendType.None;
+		GWOptimizer		optimizer = GWOptimizers.getDefault();
 		
 		if (parameters != null && parameters.size() > 0) {
 			for (IFSParameterValue parameter : parameters)
@@ -265,6 +237,11 @@ public final class IFSModelImplExpSm extends IFSModel {
 					else
 						throw new IFSException(22, getModelName(),
 							"trend", parameter.getValue());
+				} else if (parameter.getParameter().equals("optimizer")) {
+					optimizer = GWOptimizers.getOptimizer(parameter.getValue());
+					if (optimizer == null)
+						throw new IFSException(22, getModelName(),
+							"optimizer", parameter.getValue());
 				} else
 					throw new IFSException(23, getModelName(),
 						parameter.getParameter());
@@ -272,12 +249,111 @@ public final class IFSModelImplExpSm extends IFSModel {
 		
 		Seasonality = seasonality;
 		Trend = trend;
+		Optimizer = optimizer;
 	}
 
 /*******************/
 /* Private Methods */
 /*******************/
 	
+	/**
+	 * Create the exponential smoothing variant for a trend and seasonal
+	 * adjustment.
+	 * 
+	 * @param trend Trend adjustment.
+	 * @param seasonality Seasonal adjustment.
+	 * @param series Historical time series to access.
+	 * @param forecasts Where to put forecasts.
+	 * @param cycle Seasonal cycle.
+	 * 
+	 * @return Model variant.
+	 */
+	private static ExpSmVariant getVariant(
+		TrendType		trend,
+		SeasonalType	seasonality,
+		double[]		series,
+		double[]		forecasts,
+		int				cycle
+	) {
+		ExpSmVariant	model = null;
+		
+		switch (trend) {
+		case None:
+			switch (seasonality) {
+			case None:
+				model = new ExpSmNoneNone(series, forecasts);
+				break;
+			case Additive:
+				model = new ExpSmNoneAdditive(series, forecasts, cycle);
+				break;
+			case Multiplicative:
+				model = new ExpSmNoneMultiplicative(series, forecasts, cycle);
+				break;
+			}
+			break;
+		case Additive:
+			switch (seasonality) {
+			case None:
+				model = new ExpSmAdditiveNone(series, forecasts);
+				break;
+			case Additive:
+				model = new ExpSmAdditiveAdditive(series, forecasts, cycle);
+				break;
+			case Multiplicative:
+				model = new ExpSmAdditiveMultiplicative(series, forecasts, cycle);
+				break;
+			}
+			break;
+		case Multiplicative:
+			switch (seasonality) {
+			case None:
+				model = new ExpSmMultiplicativeNone(series, forecasts);
+				break;
+			case Additive:
+				model = new ExpSmMultiplicativeAdditive(series, forecasts, cycle);
+				break;
+			case Multiplicative:
+				model = new ExpSmMultiplicativeMultiplicative(series,
+					forecasts, cycle);
+				break;
+			}
+			break;
+		case DampedAdditive:
+			switch (seasonality) {
+			case None:
+				model = new ExpSmDampedAdditiveNone(series, forecasts);
+				break;
+			case Additive:
+				model = new ExpSmDampedAdditiveAdditive(series, forecasts, cycle);
+				break;
+			case Multiplicative:
+				model = new ExpSmDampedAdditiveMultiplicative(series,
+					forecasts, cycle);
+				break;
+			}
+			break;
+		case DampedMultiplicative:
+			switch (seasonality) {
+			case None:
+				model = new ExpSmDampedMultiplicativeNone(series, forecasts);
+				break;
+			case Additive:
+				model = new ExpSmDampedMultiplicativeAdditive(series,
+					forecasts, cycle);
+				break;
+			case Multiplicative:
+				model = new ExpSmDampedMultiplicativeMultiplicative(series,
+					forecasts, cycle);
+				break;
+			}
+			break;
+		}
+		model.Trend = trend;
+		model.Seasonality = seasonality;
+		
+		return model;
+	}
+	
 	/**
 	 * Return -1.0 if value < 0.0, 0.0 if value is 0.0, or 1.0 if value > 0.0.
 	 * 
@@ -303,7 +379,8 @@ public final class IFSModelImplExpSm extends IFSModel {
 /**
  * Abstract class for implementing exponential smoothing variants.
  */
-private static abstract class ExpSmVariant implements GWInterface {
+private static abstract class ExpSmVariant implements GWParallelInterface,
+	GWGradientInterface {
 	protected static final double	AlphaMin = 0.0;
 	protected static final double	AlphaMax = 1.0;
 	protected static final double	BetaMin = 0.0;
@@ -319,6 +396,17 @@ private static abstract class ExpSmVariant implements GWInterface {
 	protected final double[]		Forecasts;
 	protected final double[]		Series;
 	protected ExpSmVariant			Model;
+	protected double				Level0 = 0.0;
+	protected double				Slope0 = 0.0;
+	protected double[]				Season0 = null;
+	private TrendType				Trend;
+	private SeasonalType			Seasonality;
+	private double[]				OptWeights = null;
+	private double					OptRating = Double.NaN;
+	private int						NumEvaluations = 0;
+	private int						NumEvaluationsSaved = 0;
+	private double[]				GradSeason = null;
+	private double[]				GradSeasonDeriv = null;
 	
 	/**
 	 * Default constructor inaccessible.
@@ -347,18 +435,332 @@ private static abstract class ExpSmVariant implements GWInterface {
 	}
 	
     /**
-     * Fetch the number of coefficient significant digits.
+     * Calibrate the model. When start weights are given, the search starts
+     * from them and only refines at the finest accuracy level. The rating
+     * calls made by the search only do arithmetic; calibration info is
+     * formatted once from the optimal weights.
+     * 
+     * @param optimizer Optimizer searching for the weights.
+     * @param start_weights Weights to start from or null to start from
+     *    the middle of the weight bounds.
+     * @param deadline Time (System.currentTimeMillis()) by which calibration
+     *    must be done. 0 means there is no deadline.
+     * @param executor Executor to rate weights on in parallel or null.
      * 
      * @return String representation of calibration info.
+     * 
+     * @throws GWException if the deadline passed.
      */
-	public final String calibrate() {
+	public final String calibrate(
+		GWOptimizer	optimizer,
+		double[]	start_weights,
+		long		deadline,
+		Executor	executor
+	) throws GWException {
+		String	calib_info = "";
+		
 		try {
-		new GW(Model, false, System.out);
+		GWOptimum	optimum = optimizer.optimize(Model, start_weights,
+			(start_weights == null) ? 0 : getNumLevels()-1, deadline,
+			executor);
+		
+		OptWeights = optimum.getWeights();
+		OptRating = optimum.getRating();
+		NumEvaluations = optimum.getNumEvaluations();
+		NumEvaluationsSaved = optimum.getNumEvaluationsSaved();
+		calib_info = Model.getCalibInfo(OptRating, OptWeights);
 		} catch (GWException ex) {
+			if (deadline > 0 && System.currentTimeMillis() >= deadline)
+				throw ex;
 			ex.printStackTrace();
 		}
 		
-		return Model.getCalibInfo();
+		return calib_info;
+	}
+	
+	/**
+	 * Create a copy of the variant for rating in another thread. The copy
+	 * shares the series and derives its own initial state from it.
+	 * 
+	 * @return Initialized copy of the variant.
+	 */
+	public final GWInterface copy() {
+		ExpSmVariant	copy = getVariant(Trend, Seasonality, Series,
+			Forecasts, Cycle);
+		
+		copy.init();
+		return copy;
+	}
+	
+	/**
+	 * Rate weights and compute the rating gradient in one pass over the
+	 * series. The level, slope, and seasonal factors of the variant are
+	 * carried along with their derivatives with respect to each weight
+	 * (forward mode differentiation of the variant recursions), so the
+	 * gradient costs a few ratings rather than two ratings per weight. Each
+	 * step's partial derivatives are worked out once and then applied to the
+	 * derivatives for every weight alike. The rating is computed as by
+	 * getRating() but the variant state is left untouched. The weights are
+	 * alpha, then beta if there is a trend, then gamma if there is a
+	 * seasonal adjustment, then phi if the trend is damped.
+	 *
+	 * @param coefficients Weights to rate.
+	 * @param gradient Where to put the rating gradient.
+	 *
+	 * @return Weight rating.
+	 */
+	public final double getRatingGradient(
+		double[]	coefficients,
+		double[]	gradient
+	) {
+		int			nw = getNumWeights();
+		boolean		is_trend = (Trend != TrendType.None);
+		boolean		is_season = (Seasonality != SeasonalType.None);
+		boolean		is_damped = (Trend == TrendType.DampedAdditive
+			|| Trend == TrendType.DampedMultiplicative);
+		int			beta_idx = is_trend ? 1 : -1;
+		int			gamma_idx = is_season ? (is_trend ? 2 : 1) : -1;
+		int			phi_idx = is_damped ? nw-1 : -1;
+		double		alpha = coefficients[0];
+		double		beta = is_trend ? coefficients[beta_idx] : 0.0;
+		double		gamma = is_season ? coefficients[gamma_idx] : 0.0;
+		double		phi = is_damped ? coefficients[phi_idx] : 0.0;
+		double		level = Level0;
+		double		slope = Slope0;
+		double[]	d_level = new double[nw];
+		double[]	d_slope = new double[nw];
+		double[]	season = null;
+		double[]	d_season = null;
+		double		rmse = 0.0;
+
+		// Without a seasonal adjustment a single seasonal factor stays 0.
+
+		if (GradSeason == null) {
+			GradSeason = new double[is_season ? Cycle : 1];
+			GradSeasonDeriv = new double[GradSeason.length*nw];
+		}
+		season = GradSeason;
+		d_season = GradSeasonDeriv;
+		if (is_season)
+			System.arraycopy(Season0, 0, season, 0, Cycle);
+		for (int i = 0; i < d_season.length; i++)
+			d_season[i] = 0.0;
+		for (int k = 0; k < nw; k++)
+			gradient[k] = 0.0;
+
+		for (int i = 0; i < Series.length; i++) {
+			double		y = Series[i];
+			int			c = is_season ? i%Cycle : 0;
+			int			dc = c*nw;
+			double		s = season[c];
+			double		trend = 0.0;
+			double		fcst = 0.0;
+			double		obs = 0.0;
+			double		proj = 0.0;
+			double		damp = 0.0;
+			double		damp_slope = 0.0;
+			double		damp_phi = 0.0;
+			double		level_n = 0.0;
+			double		slope_n = slope;
+			double		season_n = s;
+
+			// Partial derivatives of the forecast (f_*), the next level
+			// (l_*), slope (b_*), and seasonal factor (s_*) with respect to
+			// the level (*_l), slope (*_b), seasonal factor (*_s), next level
+			// (*_ln), and the weight the term is named after.
+
+			double		f_l = 1.0, f_b = 0.0, f_s = 0.0;
+			double		o_s = 0.0, p_l = 1.0, p_b = 0.0, p_phi = 0.0;
+			double		b_ln = 0.0, b_l = 0.0, b_b = 1.0;
+			double		b_beta = 0.0, b_phi = 0.0;
+			double		s_ln = 0.0, s_s = 1.0, s_gamma = 0.0;
+
+			// Forecast.
+
+			switch (Trend) {
+			case None:
+				trend = level;
+				break;
+			case Additive:
+			case DampedAdditive:
+				trend = level+slope;
+				f_b = 1.0;
+				break;
+			default:
+				trend = level*slope;
+				f_l = slope;
+				f_b = level;
+				break;
+			}
+			switch (Seasonality) {
+			case None:
+				fcst = trend;
+				break;
+			case Additive:
+				fcst = trend+s;
+				f_s = 1.0;
+				break;
+			default:
+				fcst = trend*s;
+				f_l *= s;
+				f_b *= s;
+				f_s = trend;
+				break;
+			}
+			if (is_trend && IFSStatistics.isUndef(fcst)) {
+				fcst = 0.0;
+				f_l = 0.0;
+				f_b = 0.0;
+				f_s = 0.0;
+			}
+
+			double		fcst_delta = y-fcst;
+
+			rmse += fcst_delta*fcst_delta;
+
+			// Level: alpha*obs+(1-alpha)*proj where obs is the deseasonalized
+			// observation and proj the level projected by the trend.
+
+			switch (Seasonality) {
+			case None:
+				obs = y;
+				break;
+			case Additive:
+				obs = y-s;
+				o_s = -1.0;
+				break;
+			default:
+				obs = y/s;
+				o_s = -y/(s*s);
+				break;
+			}
+			switch (Trend) {
+			case None:
+				proj = level;
+				break;
+			case Additive:
+				proj = level+slope;
+				p_b = 1.0;
+				break;
+			case DampedAdditive:
+				proj = level+phi*slope;
+				p_b = phi;
+				p_phi = slope;
+				break;
+			case Multiplicative:
+				proj = level*slope;
+				p_l = slope;
+				p_b = level;
+				break;
+			default:
+				damp = signum(slope)*Math.pow(Math.abs(slope), phi);
+				if (slope != 0.0) {
+					damp_slope = phi*Math.pow(Math.abs(slope), phi-1.0);
+					damp_phi = damp*Math.log(Math.abs(slope));
+				}
+				proj = level*damp;
+				p_l = damp;
+				p_b = level*damp_slope;
+				p_phi = level*damp_phi;
+				break;
+			}
+			level_n = alpha*obs+(1.0-alpha)*proj;
+
+			// Slope.
+
+			switch (Trend) {
+			case None:
+				break;
+			case Additive:
+				slope_n = beta*(level_n-level)+(1.0-beta)*slope;
+				b_ln = beta;
+				b_l = -beta;
+				b_b = 1.0-beta;
+				b_beta = (level_n-level)-slope;
+				break;
+			case DampedAdditive:
+				slope_n = beta*(level_n-level)+(1.0-beta)*phi*slope;
+				b_ln = beta;
+				b_l = -beta;
+				b_b = (1.0-beta)*phi;
+				b_beta = (level_n-level)-phi*slope;
+				b_phi = (1.0-beta)*slope;
+				break;
+			case Multiplicative:
+				slope_n = beta*(level_n/level)+(1.0-beta)*slope;
+				b_ln = beta/level;
+				b_l = -beta*level_n/(level*level);
+				b_b = 1.0-beta;
+				b_beta = level_n/level-slope;
+				break;
+			default:
+				slope_n = beta*(level_n/level)+(1.0-beta)*damp;
+				b_ln = beta/level;
+				b_l = -beta*level_n/(level*level);
+				b_b = (1.0-beta)*damp_slope;
+				b_beta = level_n/level-damp;
+				b_phi = (1.0-beta)*damp_phi;
+				break;
+			}
+
+			// Seasonal factor.
+
+			switch (Seasonality) {
+			case None:
+				break;
+			case Additive:
+				season_n = gamma*(y-level_n)+(1.0-gamma)*s;
+				s_ln = -gamma;
+				s_s = 1.0-gamma;
+				s_gamma = (y-level_n)-s;
+				break;
+			default:
+				season_n = gamma*(y/level_n)+(1.0-gamma)*s;
+				s_ln = -gamma*y/(level_n*level_n);
+				s_s = 1.0-gamma;
+				s_gamma = y/level_n-s;
+				break;
+			}
+
+			// Chain the partial derivatives for every weight.
+
+			double		l_l = (1.0-alpha)*p_l;
+			double		l_b = (1.0-alpha)*p_b;
+			double		l_s = alpha*o_s;
+			double		l_alpha = obs-proj;
+			double		l_phi = (1.0-alpha)*p_phi;
+
+			for (int k = 0; k < nw; k++) {
+				double		dl = d_level[k];
+				double		db = d_slope[k];
+				double		ds = d_season[dc+k];
+				double		dln = l_l*dl+l_b*db+l_s*ds;
+
+				if (k == 0)
+					dln += l_alpha;
+				else if (k == phi_idx)
+					dln += l_phi;
+				gradient[k] -= 2.0*fcst_delta*(f_l*dl+f_b*db+f_s*ds);
+				d_slope[k] = b_ln*dln+b_l*dl+b_b*db;
+				if (k == beta_idx)
+					d_slope[k] += b_beta;
+				else if (k == phi_idx)
+					d_slope[k] += b_phi;
+				d_season[dc+k] = s_ln*dln+s_s*ds;
+				if (k == gamma_idx)
+					d_season[dc+k] += s_gamma;
+				d_level[k] = dln;
+			}
+			level = level_n;
+			slope = slope_n;
+			season[c] = season_n;
+		}
+		rmse = Math.sqrt(rmse/Series.length);
+		for (int k = 0; k < nw; k++)
+			gradient[k] = (rmse > 0.0)
+				? gradient[k]/(2.0*Series.length*rmse) : 0.0;
+
+		return rmse;
 	}
 	
 	/**
@@ -370,11 +772,51 @@ private static abstract class ExpSmVariant implements GWInterface {
 	public abstract String forecast();
 	
 	/**
-	 * Fetch model calibration info.
+	 * Format model calibration info.
+	 * 
+	 * @param rmse Rating of the weights.
+	 * @param weights Weights rated.
 	 * 
 	 * @return Model calibration info.
 	 */
-	protected abstract String getCalibInfo();
+	protected abstract String getCalibInfo(double rmse, double[] weights);
+	
+	/**
+	 * Fetch the optimal weights found by calibration.
+	 * 
+	 * @return Optimal weights or null if calibration did not complete.
+	 */
+	public final double[] getOptWeights() {
+		return OptWeights;
+	}
+	
+	/**
+	 * Fetch the rating of the optimal weights found by calibration.
+	 * 
+	 * @return Optimal weight rating or NaN if calibration did not complete.
+	 */
+	public final double getOptRating() {
+		return OptRating;
+	}
+	
+	/**
+	 * Fetch the number of ratings evaluated by calibration.
+	 * 
+	 * @return Number of rating evaluations.
+	 */
+	public final int getNumEvaluations() {
+		return NumEvaluations;
+	}
+	
+	/**
+	 * Fetch the number of ratings calibration looked up rather than
+	 * evaluated.
+	 * 
+	 * @return Number of rating evaluations saved.
+	 */
+	public final int getNumEvaluationsSaved() {
+		return NumEvaluationsSaved;
+	}
 	
     /**
      * Fetch the number of coefficient significant digits.
@@ -444,12 +886,8 @@ private static abstract class ExpSmVariant implements GWInterface {
  */
 private static final class ExpSmAdditiveAdditive extends ExpSmVariant {
 	double		Level = 0.0;
-	double		Level0 = 0.0;
 	double		Slope = 0.0;
-	double		Slope0 = 0.0;
 	double[]	Season = null;
-	double[]	Season0 = null;
-	String		CalibInfo = "";
 	
 	@SuppressWarnings("unused")
 	private ExpSmAdditiveAdditive() {}
@@ -484,8 +922,12 @@ private static final class ExpSmAdditiveAdditive extends ExpSmVariant {
 	}
 
 	@Override
-	public String getCalibInfo() {
-		return CalibInfo;
+	public String getCalibInfo(
+		double		rmse,
+		double[]	weights
+	) {
+		return String.format("rmse:%.3f,alpha:%.3f,beta:%.3f,gamma:%.3f",
+			rmse, weights[0], weights[1], weights[2]);
 	}
 
 	public int getNumWeights() {
@@ -519,9 +961,6 @@ private static final class ExpSmAdditiveAdditive extends ExpSmVariant {
 			Season[i%Cycle] = gamma*(Series[i]-Level)+(1.0-gamma)*Season[i%Cycle];
 		}
 		rmse = Math.sqrt(rmse/Series.length);
-
-		CalibInfo = String.format("rmse:%.3f,alpha:%.3f,beta:%.3f,gamma:%.3f",
-			rmse, alpha, beta, gamma);
 		
 		return rmse;
 	}
@@ -571,12 +1010,8 @@ private static final class ExpSmAdditiveAdditive extends ExpSmVariant {
  */
 private static final class ExpSmAdditiveMultiplicative extends ExpSmVariant {
 	double		Level = 0.0;
-	double		Level0 = 0.0;
 	double		Slope = 0.0;
-	double		Slope0 = 0.0;
 	double[]	Season = null;
-	double[]	Season0 = null;
-	String		CalibInfo = "";
 	
 	@SuppressWarnings("unused")
 	private ExpSmAdditiveMultiplicative() {}
@@ -611,8 +1046,12 @@ private static final class ExpSmAdditiveMultiplicative extends ExpSmVariant {
 	}
 
 	@Override
-	public String getCalibInfo() {
-		return CalibInfo;
+	public String getCalibInfo(
+		double		rmse,
+		double[]	weights
+	) {
+		return String.format("rmse:%.3f,alpha:%.3f,beta:%.3f,gamma:%.3f",
+			rmse, weights[0], weights[1], weights[2]);
 	}
 
 	public int getNumWeights() {
@@ -646,9 +1085,6 @@ private static final class ExpSmAdditiveMultiplicative extends ExpSmVariant {
 			Season[i%Cycle] = gamma*(Series[i]/Level)+(1.0-gamma)*Season[i%Cycle];
 		}
 		rmse = Math.sqrt(rmse/Series.length);
-
-		CalibInfo = String.format("rmse:%.3f,alpha:%.3f,beta:%.3f,gamma:%.3f",
-			rmse, alpha, beta, gamma);
 		
 		return rmse;
 	}
@@ -706,10 +1142,7 @@ private static final class ExpSmAdditiveMultiplicative extends ExpSmVariant {
  */
 private static final class ExpSmAdditiveNone extends ExpSmVariant {
 	double		Level = 0.0;
-	double		Level0 = 0.0;
 	double		Slope = 0.0;
-	double		Slope0 = 0.0;
-	String		CalibInfo = "";
 	
 	@SuppressWarnings("unused")
 	private ExpSmAdditiveNone() {}
@@ -735,8 +1168,12 @@ private static final class ExpSmAdditiveNone extends ExpSmVariant {
 	}
 
 	@Override
-	public String getCalibInfo() {
-		return CalibInfo;
+	public String getCalibInfo(
+		double		rmse,
+		double[]	weights
+	) {
+		return String.format("rmse:%.3f,alpha:%.3f,beta:%.3f",
+			rmse, weights[0], weights[1]);
 	}
 
 	public int getNumWeights() {
@@ -766,9 +1203,6 @@ private static final class ExpSmAdditiveNone extends ExpSmVariant {
 			Slope = beta*(Level-level_p)+(1.0-beta)*Slope;
 		}
 		rmse = Math.sqrt(rmse/Series.length);
-
-		CalibInfo = String.format("rmse:%.3f,alpha:%.3f,beta:%.3f",
-			rmse, alpha, beta);
 		
 		return rmse;
 	}
@@ -807,13 +1241,9 @@ private static final class ExpSmAdditiveNone extends ExpSmVariant {
  */
 private static final class ExpSmDampedAdditiveAdditive extends ExpSmVariant {
 	double		Level = 0.0;
-	double		Level0 = 0.0;
 	double		Slope = 0.0;
-	double		Slope0 = 0.0;
 	double[]	Season = null;
-	double[]	Season0 = null;
 	double		Phi = 0.0;
-	String		CalibInfo = "";
 	
 	@SuppressWarnings("unused")
 	private ExpSmDampedAdditiveAdditive() {}
@@ -851,8 +1281,12 @@ private static final class ExpSmDampedAdditiveAdditive extends ExpSmVariant {
 	}
 
 	@Override
-	public String getCalibInfo() {
-		return CalibInfo;
+	public String getCalibInfo(
+		double		rmse,
+		double[]	weights
+	) {
+		return String.format("rmse:%.3f,alpha:%.3f,beta:%.3f,gamma:%.3f,phi:%.3f",
+			rmse, weights[0], weights[1], weights[2], weights[3]);
 	}
 
 	public int getNumWeights() {
@@ -889,9 +1323,6 @@ private static final class ExpSmDampedAdditiveAdditive extends ExpSmVariant {
 		}
 		rmse = Math.sqrt(rmse/Series.length);
 		
-		CalibInfo = String.format("rmse:%.3f,alpha:%.3f,beta:%.3f,gamma:%.3f,phi:%.3f",
-			rmse, alpha, beta, gamma, Phi);
-		
 		return rmse;
 	}
 
@@ -944,13 +1375,9 @@ private static final class ExpSmDampedAdditiveAdditive extends ExpSmVariant {
  */
 private static final class ExpSmDampedAdditiveMultiplicative extends ExpSmVariant {
 	double		Level = 0.0;
-	double		Level0 = 0.0;
 	double		Slope = 0.0;
-	double		Slope0 = 0.0;
 	double[]	Season = null;
-	double[]	Season0 = null;
 	double		Phi = 0.0;
-	String		CalibInfo = "";
 	
 	@SuppressWarnings("unused")
 	private ExpSmDampedAdditiveMultiplicative() {}
@@ -988,8 +1415,12 @@ private static final class ExpSmDampedAdditiveMultiplicative extends ExpSmVarian
 	}
 
 	@Override
-	public String getCalibInfo() {
-		return CalibInfo;
+	public String getCalibInfo(
+		double		rmse,
+		double[]	weights
+	) {
+		return String.format("rmse:%.3f,alpha:%.3f,beta:%.3f,gamma:%.3f,phi:%.3f",
+			rmse, weights[0], weights[1], weights[2], weights[3]);
 	}
 
 	public int getNumWeights() {
@@ -1026,9 +1457,6 @@ private static final class ExpSmDampedAdditiveMultiplicative extends ExpSmVarian
 		}
 		rmse = Math.sqrt(rmse/Series.length);
 		
-		CalibInfo = String.format("rmse:%.3f,alpha:%.3f,beta:%.3f,gamma:%.3f,phi:%.3f",
-			rmse, alpha, beta, gamma, Phi);
-		
 		return rmse;
 	}
 
@@ -1089,11 +1517,8 @@ private static final class ExpSmDampedAdditiveMultiplicative extends ExpSmVarian
  */
 private static final class ExpSmDampedAdditiveNone extends ExpSmVariant {
 	double		Level = 0.0;
-	double		Level0 = 0.0;
 	double		Slope = 0.0;
-	double		Slope0 = 0.0;
 	double		Phi = 0.0;
-	String		CalibInfo = "";
 	
 	@SuppressWarnings("unused")
 	private ExpSmDampedAdditiveNone() {}
@@ -1123,8 +1548,12 @@ private static final class ExpSmDampedAdditiveNone extends ExpSmVariant {
 	}
 
 	@Override
-	public String getCalibInfo() {
-		return CalibInfo;
+	public String getCalibInfo(
+		double		rmse,
+		double[]	weights
+	) {
+		return String.format("rmse:%.3f,alpha:%.3f,beta:%.3f,phi:%.3f",
+			rmse, weights[0], weights[1], weights[2]);
 	}
 
 	public int getNumWeights() {
@@ -1157,9 +1586,6 @@ private static final class ExpSmDampedAdditiveNone extends ExpSmVariant {
 		}
 		rmse = Math.sqrt(rmse/Series.length);
 		
-		CalibInfo = String.format("rmse:%.3f,alpha:%.3f,beta:%.3f,phi:%.3f",
-			rmse, alpha, beta, Phi);
-		
 		return rmse;
 	}
 
@@ -1201,13 +1627,9 @@ private static final class ExpSmDampedAdditiveNone extends ExpSmVariant {
  */
 private static final class ExpSmDampedMultiplicativeAdditive extends ExpSmVariant {
 	double		Level = 0.0;
-	double		Level0 = 0.0;
 	double		Slope = 0.0;
-	double		Slope0 = 0.0;
 	double[]	Season = null;
-	double[]	Season0 = null;
 	double		Phi = 0.0;
-	String		CalibInfo = "";
 	
 	@SuppressWarnings("unused")
 	private ExpSmDampedMultiplicativeAdditive() {}
@@ -1246,8 +1668,12 @@ private static final class ExpSmDampedMultiplicativeAdditive extends ExpSmVarian
 	}
 
 	@Override
-	public String getCalibInfo() {
-		return CalibInfo;
+	public String getCalibInfo(
+		double		rmse,
+		double[]	weights
+	) {
+		return String.format("rmse:%.3f,alpha:%.3f,beta:%.3f,gamma:%.3f,phi:%.3f",
+			rmse, weights[0], weights[1], weights[2], weights[3]);
 	}
 
 	public int getNumWeights() {
@@ -1286,9 +1712,6 @@ private static final class ExpSmDampedMultiplicativeAdditive extends ExpSmVarian
 		}
 		rmse = Math.sqrt(rmse/Series.length);
 		
-		CalibInfo = String.format("rmse:%.3f,alpha:%.3f,beta:%.3f,gamma:%.3f,phi:%.3f",
-			rmse, alpha, beta, gamma, Phi);
-		
 		return rmse;
 	}
 
@@ -1341,13 +1764,9 @@ private static final class ExpSmDampedMultiplicativeAdditive extends ExpSmVarian
  */
 private static final class ExpSmDampedMultiplicativeMultiplicative extends ExpSmVariant {
 	double		Level = 0.0;
-	double		Level0 = 0.0;
 	double		Slope = 0.0;
-	double		Slope0 = 0.0;
 	double[]	Season = null;
-	double[]	Season0 = null;
 	double		Phi = 0.0;
-	String		CalibInfo = "";
 	
 	@SuppressWarnings("unused")
 	private ExpSmDampedMultiplicativeMultiplicative() {}
@@ -1386,8 +1805,12 @@ private static final class ExpSmDampedMultiplicativeMultiplicative extends ExpSm
 	}
 
 	@Override
-	public String getCalibInfo() {
-		return CalibInfo;
+	public String getCalibInfo(
+		double		rmse,
+		double[]	weights
+	) {
+		return String.format("rmse:%.3f,alpha:%.3f,beta:%.3f,gamma:%.3f,phi:%.3f",
+			rmse, weights[0], weights[1], weights[2], weights[3]);
 	}
 
 	public int getNumWeights() {
@@ -1426,9 +1849,6 @@ private static final class ExpSmDampedMultiplicativeMultiplicative extends ExpSm
 		}
 		rmse = Math.sqrt(rmse/Series.length);
 		
-		CalibInfo = String.format("rmse:%.3f,alpha:%.3f,beta:%.3f,gamma:%.3f,phi:%.3f",
-			rmse, alpha, beta, gamma, Phi);
-		
 		return rmse;
 	}
 
@@ -1489,11 +1909,8 @@ private static final class ExpSmDampedMultiplicativeMultiplicative extends ExpSm
  */
 private static final class ExpSmDampedMultiplicativeNone extends ExpSmVariant {
 	double		Level = 0.0;
-	double		Level0 = 0.0;
 	double		Slope = 0.0;
-	double		Slope0 = 0.0;
 	double		Phi = 0.0;
-	String		CalibInfo = "";
 	
 	@SuppressWarnings("unused")
 	private ExpSmDampedMultiplicativeNone() {}
@@ -1523,8 +1940,12 @@ private static final class ExpSmDampedMultiplicativeNone extends ExpSmVariant {
 	}
 
 	@Override
-	public String getCalibInfo() {
-		return CalibInfo;
+	public String getCalibInfo(
+		double		rmse,
+		double[]	weights
+	) {
+		return String.format("rmse:%.3f,alpha:%.3f,beta:%.3f,phi:%.3f",
+			rmse, weights[0], weights[1], weights[2]);
 	}
 
 	public int getNumWeights() {
@@ -1559,9 +1980,6 @@ private static final class ExpSmDampedMultiplicativeNone extends ExpSmVariant {
 		}
 		rmse = Math.sqrt(rmse/Series.length);
 		
-		CalibInfo = String.format("rmse:%.3f,alpha:%.3f,beta:%.3f,phi:%.3f",
-			rmse, alpha, beta, Phi);
-		
 		return rmse;
 	}
 
@@ -1603,12 +2021,8 @@ private static final class ExpSmDampedMultiplicativeNone extends ExpSmVariant {
  */
 private static final class ExpSmMultiplicativeAdditive extends ExpSmVariant {
 	double		Level = 0.0;
-	double		Level0 = 0.0;
 	double		Slope = 0.0;
-	double		Slope0 = 0.0;
 	double[]	Season = null;
-	double[]	Season0 = null;
-	String		CalibInfo = "";
 	
 	@SuppressWarnings("unused")
 	private ExpSmMultiplicativeAdditive() {}
@@ -1643,8 +2057,12 @@ private static final class ExpSmMultiplicativeAdditive extends ExpSmVariant {
 	}
 
 	@Override
-	public String getCalibInfo() {
-		return CalibInfo;
+	public String getCalibInfo(
+		double		rmse,
+		double[]	weights
+	) {
+		return String.format("rmse:%.3f,alpha:%.3f,beta:%.3f,gamma:%.3f",
+			rmse, weights[0], weights[1], weights[2]);
 	}
 
 	public int getNumWeights() {
@@ -1678,9 +2096,6 @@ private static final class ExpSmMultiplicativeAdditive extends ExpSmVariant {
 			Season[i%Cycle] = gamma*(Series[i]-Level)+(1.0-gamma)*Season[i%Cycle];
 		}
 		rmse = Math.sqrt(rmse/Series.length);
-
-		CalibInfo = String.format("rmse:%.3f,alpha:%.3f,beta:%.3f,gamma:%.3f",
-			rmse, alpha, beta, gamma);
 		
 		return rmse;
 	}
@@ -1732,12 +2147,8 @@ private static final class ExpSmMultiplicativeAdditive extends ExpSmVariant {
  */
 private static final class ExpSmMultiplicativeMultiplicative extends ExpSmVariant {
 	double		Level = 0.0;
-	double		Level0 = 0.0;
 	double		Slope = 0.0;
-	double		Slope0 = 0.0;
 	double[]	Season = null;
-	double[]	Season0 = null;
-	String		CalibInfo = "";
 	
 	@SuppressWarnings("unused")
 	private ExpSmMultiplicativeMultiplicative() {}
@@ -1772,8 +2183,12 @@ private static final class ExpSmMultiplicativeMultiplicative extends ExpSmVarian
 	}
 
 	@Override
-	public String getCalibInfo() {
-		return CalibInfo;
+	public String getCalibInfo(
+		double		rmse,
+		double[]	weights
+	) {
+		return String.format("rmse:%.3f,alpha:%.3f,beta:%.3f,gamma:%.3f",
+			rmse, weights[0], weights[1], weights[2]);
 	}
 
 	public int getNumWeights() {
@@ -1807,9 +2222,6 @@ private static final class ExpSmMultiplicativeMultiplicative extends ExpSmVarian
 			Season[i%Cycle] = gamma*(Series[i]/Level)+(1.0-gamma)*Season[i%Cycle];
 		}
 		rmse = Math.sqrt(rmse/Series.length);
-
-		CalibInfo = String.format("rmse:%.3f,alpha:%.3f,beta:%.3f,gamma:%.3f",
-			rmse, alpha, beta, gamma);
 		
 		return rmse;
 	}
@@ -1867,10 +2279,7 @@ private static final class ExpSmMultiplicativeMultiplicative extends ExpSmVarian
  */
 private static final class ExpSmMultiplicativeNone extends ExpSmVariant {
 	double		Level = 0.0;
-	double		Level0 = 0.0;
 	double		Slope = 0.0;
-	double		Slope0 = 0.0;
-	String		CalibInfo = "";
 	
 	@SuppressWarnings("unused")
 	private ExpSmMultiplicativeNone() {}
@@ -1896,8 +2305,12 @@ private static final class ExpSmMultiplicativeNone extends ExpSmVariant {
 	}
 
 	@Override
-	public String getCalibInfo() {
-		return CalibInfo;
+	public String getCalibInfo(
+		double		rmse,
+		double[]	weights
+	) {
+		return String.format("rmse:%.3f,alpha:%.3f,beta:%.3f",
+			rmse, weights[0], weights[1]);
 	}
 
 	public int getNumWeights() {
@@ -1927,9 +2340,6 @@ private static final class ExpSmMultiplicativeNone extends ExpSmVariant {
 			Slope = beta*(Level/level_p)+(1.0-beta)*Slope;
 		}
 		rmse = Math.sqrt(rmse/Series.length);
-
-		CalibInfo = String.format("rmse:%.3f,alpha:%.3f,beta:%.3f",
-			rmse, alpha, beta);
 		
 		return rmse;
 	}
@@ -1967,10 +2377,7 @@ private static final class ExpSmMultiplicativeNone extends ExpSmVariant {
  */
 private static final class ExpSmNoneAdditive extends ExpSmVariant {
 	double		Level = 0.0;
-	double		Level0 = 0.0;
 	double[]	Season = null;
-	double[]	Season0 = null;
-	String		CalibInfo = "";
 	
 	@SuppressWarnings("unused")
 	private ExpSmNoneAdditive() {}
@@ -2001,8 +2408,12 @@ private static final class ExpSmNoneAdditive extends ExpSmVariant {
 	}
 
 	@Override
-	public String getCalibInfo() {
-		return CalibInfo;
+	public String getCalibInfo(
+		double		rmse,
+		double[]	weights
+	) {
+		return String.format("rmse:%.3f,alpha:%.3f,gamma:%.3f",
+			rmse, weights[0], weights[1]);
 	}
 
 	public int getNumWeights() {
@@ -2029,9 +2440,6 @@ private static final class ExpSmNoneAdditive extends ExpSmVariant {
 			Season[i%Cycle] = gamma*(Series[i]-Level)+(1.0-gamma)*Season[i%Cycle];
 		}
 		rmse = Math.sqrt(rmse/Series.length);
-
-		CalibInfo = String.format("rmse:%.3f,alpha:%.3f,gamma:%.3f",
-			rmse, alpha, gamma);
 		
 		return rmse;
 	}
@@ -2074,10 +2482,7 @@ private static final class ExpSmNoneAdditive extends ExpSmVariant {
  */
 private static final class ExpSmNoneMultiplicative extends ExpSmVariant {
 	double		Level = 0.0;
-	double		Level0 = 0.0;
 	double[]	Season = null;
-	double[]	Season0 = null;
-	String		CalibInfo = "";
 	
 	@SuppressWarnings("unused")
 	private ExpSmNoneMultiplicative() {}
@@ -2094,8 +2499,12 @@ private static final class ExpSmNoneMultiplicative extends ExpSmVariant {
 	}
 
 	@Override
-	public String getCalibInfo() {
-		return CalibInfo;
+	public String getCalibInfo(
+		double		rmse,
+		double[]	weights
+	) {
+		return String.format("rmse:%.3f,alpha:%.3f,gamma:%.3f",
+			rmse, weights[0], weights[1]);
 	}
 
 	public String forecast() {
@@ -2136,9 +2545,6 @@ private static final class ExpSmNoneMultiplicative extends ExpSmVariant {
 			Season[i%Cycle] = gamma*(Series[i]/Level)+(1.0-gamma)*Season[i%Cycle];
 		}
 		rmse = Math.sqrt(rmse/Series.length);
-
-		CalibInfo = String.format("rmse:%.3f,alpha:%.3f,gamma:%.3f",
-			rmse, alpha, gamma);
 		
 		return rmse;
 	}
@@ -2187,8 +2593,6 @@ private static final class ExpSmNoneMultiplicative extends ExpSmVariant {
  */
 private static final class ExpSmNoneNone extends ExpSmVariant {
 	double		Level = 0.0;
-	double		Level0 = 0.0;
-	String		CalibInfo = "";
 	
 	@SuppressWarnings("unused")
 	private ExpSmNoneNone() {}
@@ -2211,8 +2615,12 @@ private static final class ExpSmNoneNone extends ExpSmVariant {
 	}
 
 	@Override
-	public String getCalibInfo() {
-		return CalibInfo;
+	public String getCalibInfo(
+		double		rmse,
+		double[]	weights
+	) {
+		return String.format("rmse:%.3f,alpha:%.3f",
+			rmse, weights[0]);
 	}
 
 	public int getNumWeights() {
@@ -2235,8 +2643,6 @@ private static final class ExpSmNoneNone extends ExpSmVariant {
 			Level = alpha*Series[i]+(1.0-alpha)*Level;
 		}
 		rmse = Math.sqrt(rmse/Series.length);
-
-		CalibInfo = String.format("rmse:%.3f,alpha:%.3f", rmse, alpha);
 		
 		return rmse;
 	}
@@ -12,6 +12,9 @@ import com.aol.one.reporting.forecastapi.server.models.model.IFSComputation;
 import com.aol.one.reporting.forecastapi.server.models.model.IFSException;
 import com.aol.one.reporting.forecastapi.server.models.model.IFSModel;
 import com.aol.one.reporting.forecastapi.server.models.model.IFSParameterValue;
+import com.aol.one.reporting.forecastapi.server.models.model.IFSPreprocessCache;
+import com.aol.one.reporting.forecastapi.server.models.model.IFSRegressionDesign;
+import com.aol.one.reporting.forecastapi.server.models.model.IFSRegressionGram;
 import com.aol.one.reporting.forecastapi.server.models.model.IFSStatistics;
 import com.aol.one.reporting.forecastapi.server.models.model.IFSUsageDescription;
 
@@ -175,86 +178,22 @@ public final class IFSModelImplRegress extends IFSModel {
 			return String.format("avg::mean:%f", mean);
 		}
 		
-		// Allocate and fill out training vectors. The Y component is the
-		// series values and the X component is the parameters corresponding
-		// to each Y value. We also generate the forecast parameters as part
-		// of the X component while we're at it.
+		// Fetch the training vectors. The Y component is the series values
+		// and the X component is the parameters corresponding to each Y
+		// value, followed by the forecast parameters. The parameters are
+		// columns of the design shared by the regression variants (see
+		// IFSRegressionDesign). Additive seasonal dummies are not stored
+		// since they are implied by the season of each value (see
+		// getSeasonalRegressionCoefficients()).
 		
-		int				nv = n+nf;
-		double[][]		tx = new double[nv][];
-		int				k = 0;
-		double			t = 0;
-		
-		for (int i = 0; i < nv; i++) {
-			tx[i] = new double[num_parms];
-			k = 0;
-			
-			// Add in polynomial parameters
-			
-			t = 1.0;
-			for (int j = 0; j < PolyDegree; j++) {
-				t *= i+1;
-				tx[i][k++] = t;
-			}
-			
-			// Add in seasonality parameters
-			
-			switch(Season) {
-			case Add:
-				for (int j = 0; j < (cycle-1); j++) {
-					tx[i][k+j] = 0;
-				}
-				if (i%cycle > 0) {
-					tx[i][k+(i%cycle-1)] = 1;
-				}
-				break;
-			case Const1:
-				tx[i][k++] = Math.sin(2.0*Math.PI*(double)(i+1)/(double)cycle);
-				tx[i][k++] = Math.cos(2.0*Math.PI*(double)(i+1)/(double)cycle);
-				break;
-			case Const2:
-				tx[i][k++] = Math.sin(2.0*Math.PI*(double)(i+1)/(double)cycle);
-				tx[i][k++] = Math.cos(2.0*Math.PI*(double)(i+1)/(double)cycle);
-				tx[i][k++] = Math.sin(4.0*Math.PI*(double)(i+1)/(double)cycle);
-				tx[i][k++] = Math.cos(4.0*Math.PI*(double)(i+1)/(double)cycle);
-				break;
-			case Const3:
-				tx[i][k++] = Math.sin(2.0*Math.PI*(double)(i+1)/(double)cycle);
-				tx[i][k++] = Math.cos(2.0*Math.PI*(double)(i+1)/(double)cycle);
-				tx[i][k++] = Math.sin(2.0*Math.PI*(double)(i+1)/(double)Cycle2);
-				tx[i][k++] = Math.cos(2.0*Math.PI*(double)(i+1)/(double)Cycle2);
-				break;
-			case Incrs1:
-				tx[i][k++] = Math.sin(2.0*Math.PI*(double)(i+1)/(double)cycle);
-				tx[i][k++] = Math.cos(2.0*Math.PI*(double)(i+1)/(double)cycle);
-				tx[i][k++] = (double)(i+1)*Math.sin(2.0*Math.PI*(double)(i+1)/(double)cycle);
-				tx[i][k++] = (double)(i+1)*Math.cos(2.0*Math.PI*(double)(i+1)/(double)cycle);
-				break;
-			case Incrs2:
-				tx[i][k++] = Math.sin(2.0*Math.PI*(double)(i+1)/(double)cycle);
-				tx[i][k++] = Math.cos(2.0*Math.PI*(double)(i+1)/(double)cycle);
-				tx[i][k++] = (double)(i+1)*Math.sin(2.0*Math.PI*(double)(i+1)/(double)cycle);
-				tx[i][k++] = (double)(i+1)*Math.cos(2.0*Math.PI*(double)(i+1)/(double)cycle);
-				tx[i][k++] = Math.sin(4.0*Math.PI*(double)(i+1)/(double)cycle);
-				tx[i][k++] = Math.cos(4.0*Math.PI*(double)(i+1)/(double)cycle);
-				tx[i][k++] = (double)(i+1)*Math.sin(4.0*Math.PI*(double)(i+1)/(double)cycle);
-				tx[i][k++] = (double)(i+1)*Math.cos(4.0*Math.PI*(double)(i+1)/(double)cycle);
-				break;
-			case Incrs3:
-				tx[i][k++] = Math.sin(2.0*Math.PI*(double)(i+1)/(double)cycle);
-				tx[i][k++] = Math.cos(2.0*Math.PI*(double)(i+1)/(double)cycle);
-				tx[i][k++] = (double)(i+1)*Math.sin(2.0*Math.PI*(double)(i+1)/(double)cycle);
-				tx[i][k++] = (double)(i+1)*Math.cos(2.0*Math.PI*(double)(i+1)/(double)cycle);
-				tx[i][k++] = Math.sin(2.0*Math.PI*(double)(i+1)/(double)Cycle2);
-				tx[i][k++] = Math.cos(2.0*Math.PI*(double)(i+1)/(double)Cycle2);
-				tx[i][k++] = (double)(i+1)*Math.sin(2.0*Math.PI*(double)(i+1)/(double)Cycle2);
-				tx[i][k++] = (double)(i+1)*Math.cos(2.0*Math.PI*(double)(i+1)/(double)Cycle2);
-				break;
-			case None:
-			default:
-				break;
-			}
-		}
+		int[]			cols = getColumns();
+		int				design_cycle = (Season == Seasonality.None
+							|| Season == Seasonality.Add) ? 0 : cycle;
+		int				design_cycle2 = (Season == Seasonality.Const3
+							|| Season == Seasonality.Incrs3) ? Cycle2 : 0;
+		int				nc = IFSRegressionDesign.NumColumns;
+		double[]		tx = IFSRegressionDesign.getDesign(n+nf, design_cycle,
+							design_cycle2);
 		
 		// Compute regression coefficients. If an error occurs, reflect it
 		// in calibration string. But return series mean as the forecast.
@@ -262,7 +201,10 @@ public final class IFSModelImplRegress extends IFSModel {
 		double[]		rc = null;
 		
 		try {
-		rc = getRegressionCoefficients(series, tx);
+		rc = (Season == Seasonality.Add)
+			? getSeasonalRegressionCoefficients(series, tx, cols, cycle)
+			: getRegressionCoefficients(series, cols, design_cycle,
+				design_cycle2);
 		} catch (IFSException ex) {
 			double	mean = IFSStatistics.getMean(series);
 			
@@ -274,12 +216,15 @@ public final class IFSModelImplRegress extends IFSModel {
 		
 		// Generate forecasts by multiplying coefficients by the forecast
 		// training vectors noting the first coefficient is the regression
-		// constant.
+		// constant. An additive seasonal dummy only adds its coefficient.
 		
 		for (int i = 0; i < nf; i++) {
 			forecasts[i] = rc[0];
-			for (int j = 0; j < num_parms; j++) {
-				forecasts[i] += tx[n+i][j]*rc[j+1];
+			for (int j = 0; j < cols.length; j++) {
+				forecasts[i] += tx[(n+i)*nc+cols[j]]*rc[j+1];
+			}
+			if (Season == Seasonality.Add && (n+i)%cycle > 0) {
+				forecasts[i] += rc[PolyDegree+(n+i)%cycle];
 			}
 		}
 		
@@ -384,93 +329,249 @@ public final class IFSModelImplRegress extends IFSModel {
 /*******************/
 	
 	/**
-	 * Compute regression coefficients for a set of training vectors. The
-	 * independent variable component is allowed to contain more vectors
-	 * than there are corresponding dependent variable values. This is
-	 * because it is often the case that generating forecast vectors at the
-	 * same time as calibration vectors is the most convenient.
+	 * Fetch the design columns of the model's trend and seasonality
+	 * parameters. The polynomial parameters come first followed by the
+	 * seasonality parameters. Additive seasonal dummies are not design
+	 * columns.
+	 * 
+	 * @return Design columns.
+	 */
+	private int[] getColumns() {
+		int			num_harmonic_cols = 0;
+		int			num_harmonics = 0;
+		
+		switch(Season) {
+		case Const1:
+			num_harmonic_cols = 2;
+			num_harmonics = 1;
+			break;
+		case Const2:
+		case Const3:
+			num_harmonic_cols = 2;
+			num_harmonics = 2;
+			break;
+		case Incrs1:
+			num_harmonic_cols = 4;
+			num_harmonics = 1;
+			break;
+		case Incrs2:
+		case Incrs3:
+			num_harmonic_cols = 4;
+			num_harmonics = 2;
+			break;
+		case Add:
+		case None:
+		default:
+			break;
+		}
+		
+		int[]		cols = new int[PolyDegree+num_harmonics*num_harmonic_cols];
+		int			k = 0;
+		
+		for (int j = 0; j < PolyDegree; j++) {
+			cols[k++] = j;
+		}
+		for (int h = 0; h < num_harmonics; h++) {
+			for (int j = 0; j < num_harmonic_cols; j++) {
+				cols[k++] = ((h == 0) ? IFSRegressionDesign.HarmonicColumn
+					: IFSRegressionDesign.SecondHarmonicColumn)+j;
+			}
+		}
+		
+		return cols;
+	}
+	
+	/**
+	 * Compute regression coefficients for a set of design columns. The
+	 * normal equations are taken from the Gram matrix of the design and the
+	 * series. When fitting in a competition, the Gram matrix is shared
+	 * through the preprocessing cache so that every regression variant fit
+	 * to the same series solves a sub-block of it.
 	 * 
 	 * @param y Dependent variable values. There must be at least 1.
-	 * @param x Independent variable values. There must be at least as many
-	 *    rows as there are dependent variable values (and can be more).
-	 *    The first rows correspond to the dependent variable values. And there
-	 *    must be at least one column in the independent variable rows and
-	 *    all rows must have the same number of columns.
+	 * @param cols Design columns of the independent variables. There must
+	 *    be at least one.
+	 * @param cycle Design seasonal cycle.
+	 * @param cycle2 Design cycle of the second harmonic.
 	 * 
 	 * @return The computed regression coefficients. The first value is a 
 	 *    constant while the remaining values correspond to the independent
 	 *    variables.
 	 *    
-	 * @throws IFSException if the y and x parameters do not have the proper
-	 *    dimensions or something goes wrong with the computation.
+	 * @throws IFSException if the y and cols parameters do not have the
+	 *    proper dimensions or something goes wrong with the computation.
 	 */
 	private double[] getRegressionCoefficients(
 		double[]	y,
-		double[][]	x
+		int[]		cols,
+		int			cycle,
+		int			cycle2
 	) throws IFSException {
-		if (x == null || x.length == 0) {
+		if (cols == null || cols.length == 0) {
 			throw new IFSException(28, getModelName());
 		} else if (y == null || y.length == 0) {
 			throw new IFSException(29, getModelName());
-		} else if (x.length < y.length) {
-			throw new IFSException(30, getModelName());
 		}
 		
-		// Set up multi-linear regression matrix equation Ax = b.
+		// Set up multi-linear regression matrix equation Ax = b. The Gram
+		// matrix rows of the constant and the independent variables are its
+		// augmented matrix.
 		
-		int			ny = y.length;
-		int			np = x[0].length;
-		int			ntx = ((np+1)*(np+2))/2;
-		double[]	tx = new double[ntx];
-		int			i = 0;
-		int			j = 0;
-		int			k = 0;;
-		int			l = 0;
-		int			p = np+1;
-		double[][]	m = new double[p][];
-		
-		for (i = 0; i < p; i++) {
-			m[i] = new double[p+1];
+		IFSPreprocessCache	preprocess_cache = getPreprocessCache();
+		IFSRegressionGram	gram = (preprocess_cache == null)
+			? new IFSRegressionGram(y, cycle, cycle2)
+			: preprocess_cache.getRegressionGram(y, cycle, cycle2);
+		double[][]			g = gram.getGram(cols);
+		int					p = cols.length+1;
+		double[][]			m = new double[p][];
+		
+		System.arraycopy(g, 0, m, 0, p);
+		
+		return(IFSComputation.getLinearEqnSoln(m));
+	}
+	
+	/**
+	 * Compute regression coefficients for a set of training vectors plus
+	 * additive seasonal dummies. The result is the same as that of
+	 * getRegressionCoefficients() with a 0/1 dummy column appended to the
+	 * training vectors for each season but the first. The dummy columns are
+	 * never formed though. Taking the mean of the values of each season
+	 * out of the values (and out of the training vectors) leaves a system
+	 * only as large as the training vectors, from whose solution the season
+	 * means give the constant and dummy coefficients. So the computation is
+	 * linear in the number of values even for long cycles.
+	 * 
+	 * @param y Dependent variable values. There must be at least 1.
+	 * @param x Design values stored row after row. There must be at least
+	 *    as many rows as there are dependent variable values (and can be
+	 *    more). The first rows correspond to the dependent variable values.
+	 * @param cols Design columns of the independent variables without the
+	 *    seasonal dummies, which can be none.
+	 * @param cycle Seasonal cycle. Value i belongs to season i%cycle.
+	 * 
+	 * @return The computed regression coefficients. The first value is a 
+	 *    constant, followed by the values corresponding to the independent
+	 *    variables and then those of the seasonal dummies of seasons 1
+	 *    through cycle-1.
+	 *    
+	 * @throws IFSException if the y and x parameters do not have the proper
+	 *    dimensions, a season has no values, or something goes wrong with
+	 *    the computation.
+	 */
+	private double[] getSeasonalRegressionCoefficients(
+		double[]	y,
+		double[]	x,
+		int[]		cols,
+		int			cycle
+	) throws IFSException {
+		int			nc = IFSRegressionDesign.NumColumns;
+		
+		if (x == null || cols == null) {
+			throw new IFSException(28, getModelName());
+		} else if (y == null || y.length == 0) {
+			throw new IFSException(29, getModelName());
+		} else if (x.length < y.length*nc) {
+			throw new IFSException(30, getModelName());
 		}
 		
-		tx[0] = ny;
-		for (i = 1; i <= np; i++) {
-			tx[i] = 0.0;
-			for (j = 0; j < ny; j++) {
-				tx[i] += x[j][i-1];
+		int			ny = y.length;
+		int			np = cols.length;
+		int[]		counts = new int[cycle];
+		double[]	y_means = new double[cycle];
+		double[]	x_means = new double[cycle*np];
+		double[]	rc = new double[np+cycle];
+		int			s = 0;
+		
+		// Season means. A season without values leaves its dummy column all
+		// 0, which is reported the way the full system reports it.
+		
+		for (int i = 0; i < ny; i++) {
+			s = i%cycle;
+			counts[s]++;
+			y_means[s] += y[i];
+			for (int j = 0; j < np; j++) {
+				x_means[s*np+j] += x[i*nc+cols[j]];
 			}
 		}
-		for (j = 0; j < np; j++) {
-			for (k = j; k < np; k++, i++) {
-				tx[i] = 0.0;
-				for (l = 0; l < ny; l++) {
-					tx[i] += x[l][j]*x[l][k];
+		for (s = 0; s < cycle; s++) {
+			if (counts[s] == 0) {
+				if (s == cycle-1) {
+					throw new IFSException(4);
 				}
+				throw new IFSException(3, np+s+1);
+			}
+			y_means[s] /= counts[s];
+			for (int j = 0; j < np; j++) {
+				x_means[s*np+j] /= counts[s];
 			}
 		}
-
-		m[0][p] = 0.0;
-		for (j = 0; j < ny; j++) {
-			m[0][p] += y[j];
-		}
-		for (i = 1; i < p; i++) {
-			m[i][p] = 0.0;
-			for (j = 0; j < ny; j++) {
-				m[i][p] += x[j][i-1]*y[j];
+		
+		// Solve for the training vector coefficients on the values less
+		// their season means.
+		
+		double[]	b = new double[np];
+		
+		if (np == 1) {
+			double		sxx = 0.0;
+			double		sxy = 0.0;
+			
+			for (int i = 0; i < ny; i++) {
+				double		dx = x[i*nc+cols[0]]-x_means[i%cycle];
+				
+				sxx += dx*dx;
+				sxy += dx*(y[i]-y_means[i%cycle]);
+			}
+			if (sxx == 0.0) {
+				throw new IFSException(4);
+			}
+			b[0] = sxy/sxx;
+		} else if (np > 1) {
+			double[][]	m = new double[np][];
+			double[]	dx = new double[np];
+			
+			for (int j = 0; j < np; j++) {
+				m[j] = new double[np+1];
 			}
+			for (int i = 0; i < ny; i++) {
+				double		dy = y[i]-y_means[i%cycle];
+				
+				for (int j = 0; j < np; j++) {
+					dx[j] = x[i*nc+cols[j]]-x_means[(i%cycle)*np+j];
+				}
+				for (int j = 0; j < np; j++) {
+					for (int l = j; l < np; l++) {
+						m[j][l] += dx[j]*dx[l];
+					}
+					m[j][np] += dx[j]*dy;
+				}
+			}
+			for (int j = 0; j < np; j++) {
+				for (int l = 0; l < j; l++) {
+					m[j][l] = m[l][j];
+				}
+			}
+			b = IFSComputation.getLinearEqnSoln(m);
 		}
 		
-		for (k = i = 0; i < p; i++) {
-			l = i;
-			for (j = 0; j < i; j++) {
-				m[i][j] = tx[l];
-				l += np-j;
+		// The constant is the level of the first season and the dummy
+		// coefficients the differences of the other seasons' levels to it.
+		
+		for (s = 0; s < cycle; s++) {
+			double		level = y_means[s];
+			
+			for (int j = 0; j < np; j++) {
+				level -= x_means[s*np+j]*b[j];
 			}
-			for (j = i; j < p; j++, k++) {
-				m[i][j] = tx[k];
+			if (s == 0) {
+				rc[0] = level;
+			} else {
+				rc[np+s] = level-rc[0];
 			}
 		}
+		for (int j = 0; j < np; j++) {
+			rc[j+1] = b[j];
+		}
 		
-		return(IFSComputation.getLinearEqnSoln(m));
+		return rc;
 	}
 }
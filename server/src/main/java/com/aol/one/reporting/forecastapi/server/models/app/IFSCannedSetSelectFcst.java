@@ -19,7 +19,7 @@ import com.aol.one.reporting.forecastapi.server.models.cs.IFSCannedSetSelectionC
 import com.aol.one.reporting.forecastapi.server.models.model.IFSException;
 import com.aol.one.reporting.forecastapi.server.models.model.IFSModel;
 import com.aol.one.reporting.forecastapi.server.models.model.IFSModelFactory;
-import com.aol.one.reporting.forecastapi.server.models.util.GetTimeSeries;
+import com.aol.one.reporting.forecastapi.server.models.util.TimeSeriesCorpus;
 import com.aol.one.reporting.forecastapi.server.models.util.Timer;
 
 /**
@@ -68,7 +68,7 @@ public final class IFSCannedSetSelectFcst {
 		try {
 		cs_defn = GetCannedSetDefinitions.getCannedSetDefinitions(cs_defn_file);
 		cs_cand = GetCannedSetCandidates.getCannedSetCandidates(cs_cand_file, cs_defn);
-		ts = GetTimeSeries.getTimeSeries(ts_file);
+		ts = TimeSeriesCorpus.getTimeSeries(ts_file);
 		
 		dpc_flag = Boolean.parseBoolean(dpc_flag_s);
 		dpcs = new ArrayList<Integer>();
@@ -152,7 +152,7 @@ public final class IFSCannedSetSelectFcst {
 + "Usage: IFSCannedSetSelectFcst\n"
 + "          <canned set definitions file>\n"
 + "          <candidate canned set file>\n"
-+ "          <time series file | -->\n"
++ "          <time series file | corpus file#series index | -->\n"
 + "          <declining profit center flag>\n"
 + "          <number of selection hold back values>\n"
 + "          <number of forecasts>\n"
@@ -194,8 +194,10 @@ public final class IFSCannedSetSelectFcst {
 + "time series file -- This is a file containing the time series to evaluate\n"
 + "   in determining the canned set selection. Each line in the file contains\n"
 + "   the next value in the series ordered from least recent to most recent\n"
-+ "   value. A '--' indicates reading the time series from stdin. An example\n"
-+ "   of series values is:\n"
++ "   value. A '--' indicates reading the time series from stdin. A series\n"
++ "   of a binary time series corpus written by IFSTimeSeriesCorpusMain is\n"
++ "   given as the corpus file, '#', and the series index (0 based). An\n"
++ "   example of series values is:\n"
 + "\n"
 + "   15010251\n"
 + "   14208450\n"
@@ -92,6 +92,7 @@ public final class IFSCannedSetSelectionMain {
 	    context = new IFSCannedSetSelectionContext();
 	    time_series = GetTimeSeries.getTimeSeries(settings.getFileTimeSeries());
 	    context.setSeries(time_series, settings.getValueNumHoldback());
+	    context.setNumFolds(settings.getValueNumFolds());
 	    context.setID(settings.getValueID());
 	    context.setProfitCenter(settings.getValueProfitCenter());
 	    
@@ -323,6 +324,12 @@ public final class IFSCannedSetSelectionMain {
 + "\n"
 + "   EXP-DA-ADD-AUTO;EXP-DA-NONE;EXP-DM-MULT-YEAR;EXP-NONE-ADD-AUTO;\n"
 + "   REG-NONE-CONST2-AUTO;REG-NONE-PHASE2-WEEK-YEAR\n"
++ "\n"
++ "8. num.folds -- Optional number of rolling origins to evaluate the canned\n"
++ "   sets over. Each further origin moves back by num.hold.back/num.folds\n"
++ "   values and the RMSE is pooled over all origins. Every origin needs at\n"
++ "   least num.hold.back calibration values, which limits the number of\n"
++ "   origins a time series supports. The default is 1.\n"
 + "\n"
 		);
 	}
@@ -341,6 +348,7 @@ private static final class ScenarioConfig {
 	private String			FileTimeSeries;
 	private String			ValueCannedSetCandidates;
 	private int				ValueID;
+	private int				ValueNumFolds;
 	private int				ValueNumHoldback;
 	private int				ValueProfitCenter;
     private String          ConfigFile = null;
@@ -386,6 +394,8 @@ private static final class ScenarioConfig {
         
         ValueID = getSettingInteger("id", 1, null);
         ValueNumHoldback = getSettingInteger("num.hold.back", 1, null);
+        ValueNumFolds = (Settings.getProperty("num.folds") == null)
+        	? 1 : getSettingInteger("num.folds", 1, null);
         ValueProfitCenter = getSettingInteger("profit.center", 1, null);
        
         Settings = null;
@@ -436,6 +446,15 @@ private static final class ScenarioConfig {
 		return ValueID;
 	}
 
+	/**
+	 * Fetch number of rolling origin folds.
+	 * 
+	 * @return Number of rolling origin folds.
+	 */
+	public int getValueNumFolds() {
+		return ValueNumFolds;
+	}
+
 	/**
 	 * Fetch number data points to hold back.
 	 * 
@@ -464,6 +483,7 @@ private static final class ScenarioConfig {
        + "series.file:                   " + FileTimeSeries + "\n"
        + "id:                            " + ValueID + "\n"
        + "num.hold.back:                 " + ValueNumHoldback + "\n"
+       + "num.folds:                     " + ValueNumFolds + "\n"
        + "profit.center:                 " + ValueProfitCenter + "\n"
        + "canned.set.candidates:         " + ValueCannedSetCandidates + "\n";
     }
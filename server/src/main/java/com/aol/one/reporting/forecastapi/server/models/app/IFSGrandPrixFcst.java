@@ -7,8 +7,15 @@
 package com.aol.one.reporting.forecastapi.server.models.app;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import com.aol.one.reporting.forecastapi.server.models.cs.GetCannedSetCandidates;
 import com.aol.one.reporting.forecastapi.server.models.cs.GetCannedSetDefinitions;
@@ -16,17 +23,31 @@ import com.aol.one.reporting.forecastapi.server.models.cs.IFSCannedSet;
 import com.aol.one.reporting.forecastapi.server.models.cs.IFSCannedSetSelection;
 import com.aol.one.reporting.forecastapi.server.models.cs.IFSCannedSetSelectionConstraints;
 import com.aol.one.reporting.forecastapi.server.models.cs.IFSCannedSetSelectionContext;
+import com.aol.one.reporting.forecastapi.server.models.cs.IFSCompetitionExecutor;
 import com.aol.one.reporting.forecastapi.server.models.model.IFSException;
 import com.aol.one.reporting.forecastapi.server.models.model.IFSModel;
 import com.aol.one.reporting.forecastapi.server.models.model.IFSModelFactory;
 import com.aol.one.reporting.forecastapi.server.models.util.GetTimeSeriesFiles;
+import com.aol.one.reporting.forecastapi.server.models.util.TimeSeriesCorpus;
 import com.aol.one.reporting.forecastapi.server.models.util.Timer;
 
 /**
  * Class implementing canned set selection followed by time series forecast
  * using the selected canned set for a collection of files containing time
- * series. A total timing is printed along with a summary of each time series
- * forecast.
+ * series. The series are forecast in parallel by a given number of threads,
+ * each series with a selection context of its own. Printed are the total
+ * timing, throughput, series latency percentiles, the number of times each
+ * canned set was selected, and a summary of each time series forecast.
+ * 
+ * Several numbers of threads can be given to measure scaling. The series
+ * are then forecast once per number of threads and a scaling summary is
+ * printed as well. Each run has a competition executor of its own with a
+ * pool of as many threads, and each competition runs its canned sets one
+ * at a time, so the number of threads is the only parallelism.
+ * 
+ * The series can also be read from a binary time series corpus (see
+ * {@link TimeSeriesCorpus}) in which case each series is sliced from the
+ * mapped corpus when it is forecast rather than all being read up front.
  */
 public final class IFSGrandPrixFcst {
 
@@ -34,15 +55,16 @@ public final class IFSGrandPrixFcst {
 	 * Main program for running a collection of canned set selection based
 	 * forecasts. Arguments are a file containing canned set definitions, file
 	 * containing canned set candidate list, file of time series files, number
-	 * of selection hold back values, and number of forecasts. Printed is
-	 * timing and forecast summaries.
+	 * of selection hold back values, number of forecasts, and optionally
+	 * comma separated numbers of threads. Printed is timing, throughput and
+	 * forecast summaries.
 	 * 
 	 * @param args Command arguments.
 	 */
 	public static void main(
 		String[]	args
 	) {
-		if (args.length != 5) {
+		if (args.length != 5 && args.length != 6) {
 			usage();
 			System.exit(0);
 		}
@@ -52,27 +74,29 @@ public final class IFSGrandPrixFcst {
 		String								ts_files = args[2];
 		String								num_hbv_s = args[3];
 		String								num_fcst_s = args[4];
+		String								num_threads_s
+			= (args.length == 6) ? args[5] : "1";
 		Map<String, IFSCannedSet>			cs_defn = null;
 		List<IFSCannedSet>					cs_cand = null;
 		double[][]							tss = null;
+		TimeSeriesCorpus					corpus = null;
 		IFSCannedSetSelectionConstraints	cnstrnts = null;
-		IFSCannedSetSelectionContext		cntxt = null;
 		List<Integer>						dpcs = null;
 		int									num_hbv = 0;
 		int									num_fcst = 0;
-		Timer								timer_fcst = new Timer();
-		Timer								timer_tot = new Timer();
-		IFSCannedSet						cs_select = null;
-        IFSModel							model = null;
-        double[][]							fcsts = null;
-        double[]							fcst_timings = null;
-        String[]							fcst_csids = null;
+		int[]								num_threads = null;
+		GrandPrixRun[]						runs = null;
+		GrandPrixRun						run = null;
+		GrandPrixRun						base_run = null;
         double								fcst_sum = 0.0;
 		
 		try {
 		cs_defn = GetCannedSetDefinitions.getCannedSetDefinitions(cs_defn_file);
 		cs_cand = GetCannedSetCandidates.getCannedSetCandidates(cs_cand_file, cs_defn);
-		tss = GetTimeSeriesFiles.getTimeSeriesFiles(ts_files);
+		if (TimeSeriesCorpus.isCorpus(ts_files))
+			corpus = new TimeSeriesCorpus(ts_files);
+		else
+			tss = GetTimeSeriesFiles.getTimeSeriesFiles(ts_files);
 		dpcs = new ArrayList<Integer>();
 		
 		try {
@@ -96,52 +120,74 @@ public final class IFSGrandPrixFcst {
 			throw new IFSException(String.format("Number forecast values %d "
 			+ "is not at least 1.", num_fcst));
 		}
-		fcsts = new double[tss.length][];
-		fcst_timings = new double[fcsts.length];
-		fcst_csids = new String[fcsts.length];
+		
+		num_threads = getNumThreads(num_threads_s);
 		
 		cnstrnts = new IFSCannedSetSelectionConstraints();
 		cnstrnts.setCannedSetDecline(cs_defn.get("AR-NONE-NONE"));
 		cnstrnts.setCannedSetNoneNew(cs_defn.get("AVG-NONE-28-NEW"));
 		cnstrnts.setCannedSetWeekNew(cs_defn.get("REG-NONE-ADD-AUTO-NEW"));
 	    cnstrnts.setProfitCentersDecline(dpcs);
-		
-	    cntxt = new IFSCannedSetSelectionContext();
-	    cntxt.setID(1);
-	    cntxt.setProfitCenter(1);
-	    cntxt.setCannedSetCandidates(cs_cand);
 	    
-        timer_tot.start();
-        for (int i = 0; i < fcsts.length; i++) {
-        	timer_fcst.start();
-    	    cntxt.setSeries(tss[i], num_hbv);
-        	cs_select = IFSCannedSetSelection.selectCannedSet(cnstrnts, cntxt);
-        	model = IFSModelFactory.create(cs_select.getParameterSpec().getModel());
-        	IFSModelFactory.setup(model, tss[i],
-        			cs_select.getParameterSpec().getParameterValues());
-        	model.generateForecasts(num_fcst);
-        	fcsts[i] = model.getForecasts();
-        	timer_fcst.stop();
-        	fcst_timings[i] = timer_fcst.getTimeMilliSeconds();
-        	fcst_csids[i] = cs_select.getName();
-        }
-        timer_tot.stop();
+	    runs = new GrandPrixRun[num_threads.length];
+	    for (int i = 0; i < num_threads.length; i++)
+	    	runs[i] = forecastSeries(cnstrnts, cs_cand, tss, corpus, num_hbv,
+	    		num_fcst, num_threads[i]);
+	    if (corpus != null)
+	    	corpus.close();
 	    
 		} catch (IFSException ex) {
 			System.err.format("** Error ** %s\n", ex.getMessage());
 			System.exit(1);
 		}
 		
+		run = runs[runs.length-1];
+		
         System.out.format("\n");
-	    System.out.printf("Timing Total (ms):  %.3f\n",
-	    	timer_tot.getTimeMilliSeconds());
+	    System.out.printf("Threads          :  %d\n", run.NumThreads);
+	    System.out.printf("Timing Total (ms):  %.3f\n", run.TimeTotal);
+	    System.out.printf("Series / Second  :  %.3f\n", run.getThroughput());
+	    System.out.printf("Latency (ms)     :  p50 %.3f  p90 %.3f  p99 %.3f  "
+	    	+ "max %.3f\n", run.getLatency(0.50), run.getLatency(0.90),
+	    	run.getLatency(0.99), run.getLatency(1.0));
+        System.out.printf("Selections       :\n");
+        for (Map.Entry<String, Integer> selection
+        : run.getSelectionCounts().entrySet())
+        	System.out.printf("       %-25.25s  %6d  %6.2f%%\n",
+        		selection.getKey(), selection.getValue(),
+        		100.0*selection.getValue()/run.CannedSetIDs.length);
         System.out.printf("Forecasts        :\n");
-        for (int i = 0; i < fcsts.length; i++) {
+        for (int i = 0; i < run.Forecasts.length; i++) {
         	fcst_sum = 0.0;
-        	for (int j = 0; j < fcsts[i].length; j++)
-        		fcst_sum += fcsts[i][j];
+        	for (int j = 0; j < run.Forecasts[i].length; j++)
+        		fcst_sum += run.Forecasts[i][j];
         	System.out.printf("%5d.  %-25.25s  %14d  %10.3f\n",
-        		i+1, fcst_csids[i], Math.round(fcst_sum), fcst_timings[i]);
+        		i+1, run.CannedSetIDs[i], Math.round(fcst_sum),
+        		run.Timings[i]);
+        }
+        
+        if (runs.length > 1) {
+        	
+        	// Speedup is relative to the last run with the fewest threads so
+        	// a repeated first run leaves warm up out of it.
+        	
+        	base_run = runs[0];
+        	for (GrandPrixRun scaling_run : runs)
+        		if (scaling_run.NumThreads <= base_run.NumThreads)
+        			base_run = scaling_run;
+        	
+        	System.out.printf("Scaling          :\n");
+        	System.out.printf("       %7s  %12s  %10s  %10s  %8s  %10s  %10s\n",
+        		"threads", "total ms", "series/s", "speedup", "effic", "p50 ms",
+        		"p99 ms");
+        	for (GrandPrixRun scaling_run : runs)
+        		System.out.printf("       %7d  %12.3f  %10.3f  %10.3f  %7.1f%%  "
+        			+ "%10.3f  %10.3f\n", scaling_run.NumThreads,
+        			scaling_run.TimeTotal, scaling_run.getThroughput(),
+        			base_run.TimeTotal/scaling_run.TimeTotal,
+        			100.0*base_run.TimeTotal*base_run.NumThreads
+        			/(scaling_run.TimeTotal*scaling_run.NumThreads),
+        			scaling_run.getLatency(0.50), scaling_run.getLatency(0.99));
         }
 		
 		System.exit(0);
@@ -151,6 +197,234 @@ public final class IFSGrandPrixFcst {
 /* Private Methods */
 /*******************/
 	
+	/**
+	 * Forecast a collection of series in parallel.
+	 * 
+	 * @param cnstrnts Canned set selection constraints.
+	 * @param cs_cand Candidate canned sets.
+	 * @param tss Time series or null if read from the corpus.
+	 * @param corpus Time series corpus or null if the series are given.
+	 * @param num_hbv Number of selection hold back values.
+	 * @param num_fcst Number of forecasts.
+	 * @param num_threads Number of threads.
+	 * 
+	 * @return Run forecasts and timings.
+	 * 
+	 * @throws IFSException if a series cannot be forecast.
+	 */
+	private static GrandPrixRun forecastSeries(
+		final IFSCannedSetSelectionConstraints	cnstrnts,
+		final List<IFSCannedSet>				cs_cand,
+		final double[][]						tss,
+		final TimeSeriesCorpus					corpus,
+		final int								num_hbv,
+		final int								num_fcst,
+		int										num_threads
+	) throws IFSException {
+		int								num_series = (corpus != null)
+			? corpus.getNumSeries() : tss.length;
+		final GrandPrixRun				run = new GrandPrixRun(num_threads,
+			num_series);
+		final IFSCompetitionExecutor	executor = new IFSCompetitionExecutor(
+			num_threads, num_threads, num_series, 1);
+		ExecutorService					pool
+			= Executors.newFixedThreadPool(num_threads);
+		List<Future<Void>>				futures
+			= new ArrayList<Future<Void>>(num_series);
+		Timer							timer_tot = new Timer();
+		
+		timer_tot.start();
+		try {
+		for (int i = 0; i < num_series; i++) {
+			final int	series_index = i;
+			
+			futures.add(pool.submit(new Callable<Void>() {
+				@Override
+				public Void call() throws IFSException {
+					forecastSingleSeries(cnstrnts, cs_cand, tss, corpus,
+						num_hbv, num_fcst, executor, run, series_index);
+					return null;
+				}
+			}));
+		}
+		for (Future<Void> future : futures)
+			future.get();
+		} catch (ExecutionException ex) {
+			if (ex.getCause() instanceof IFSException)
+				throw (IFSException)ex.getCause();
+			throw new IFSException(String.format("Forecast failed: %s",
+				ex.getCause()));
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new IFSException("Forecast was interrupted.");
+		} finally {
+			pool.shutdownNow();
+			executor.shutdown(0);
+		}
+		timer_tot.stop();
+		run.TimeTotal = timer_tot.getTimeMilliSeconds();
+		
+		return run;
+	}
+	
+	/**
+	 * Forecast one series of a collection recording its forecasts and
+	 * timing in the run.
+	 * 
+	 * @param cnstrnts Canned set selection constraints.
+	 * @param cs_cand Candidate canned sets.
+	 * @param tss Time series or null if read from the corpus.
+	 * @param corpus Time series corpus or null if the series are given.
+	 * @param num_hbv Number of selection hold back values.
+	 * @param num_fcst Number of forecasts.
+	 * @param executor Competition executor.
+	 * @param run Run to record in.
+	 * @param i Index of the series.
+	 * 
+	 * @throws IFSException if the series cannot be forecast.
+	 */
+	private static void forecastSingleSeries(
+		IFSCannedSetSelectionConstraints	cnstrnts,
+		List<IFSCannedSet>					cs_cand,
+		double[][]							tss,
+		TimeSeriesCorpus					corpus,
+		int									num_hbv,
+		int									num_fcst,
+		IFSCompetitionExecutor				executor,
+		GrandPrixRun						run,
+		int									i
+	) throws IFSException {
+		IFSCannedSetSelectionContext	cntxt = new IFSCannedSetSelectionContext();
+		Timer							timer_fcst = new Timer();
+		IFSCannedSet					cs_select = null;
+		IFSModel						model = null;
+		double[]						ts = null;
+		
+    	timer_fcst.start();
+    	ts = (corpus != null) ? corpus.getSeries(i) : tss[i];
+	    cntxt.setID(i+1);
+	    cntxt.setProfitCenter(1);
+	    cntxt.setCannedSetCandidates(cs_cand);
+	    cntxt.setExecutor(executor);
+	    cntxt.setSeries(ts, num_hbv);
+    	cs_select = IFSCannedSetSelection.selectCannedSet(cnstrnts, cntxt);
+    	model = IFSModelFactory.create(cs_select.getParameterSpec().getModel());
+    	IFSModelFactory.setup(model, ts,
+    			cs_select.getParameterSpec().getParameterValues());
+    	model.generateForecasts(num_fcst);
+    	timer_fcst.stop();
+    	
+    	// Each series has its own slots so the run needs no locking.
+    	
+    	run.Forecasts[i] = model.getForecasts();
+    	run.Timings[i] = timer_fcst.getTimeMilliSeconds();
+    	run.CannedSetIDs[i] = cs_select.getName();
+	}
+	
+	/**
+	 * Parse comma separated numbers of threads.
+	 * 
+	 * @param num_threads_s Numbers of threads.
+	 * 
+	 * @return Numbers of threads.
+	 * 
+	 * @throws IFSException if a number is not a positive integer.
+	 */
+	private static int[] getNumThreads(
+		String	num_threads_s
+	) throws IFSException {
+		String[]	num_threads_list = num_threads_s.split(",");
+		int[]		num_threads = new int[num_threads_list.length];
+		
+		for (int i = 0; i < num_threads.length; i++) {
+			try {
+			num_threads[i] = Integer.parseInt(num_threads_list[i].trim());
+			} catch (NumberFormatException ex) {
+				throw new IFSException(String.format("Number threads '%s' "
+				+ "is not an integer.", num_threads_list[i]));
+			}
+			if (num_threads[i] < 1) {
+				throw new IFSException(String.format("Number threads %d "
+				+ "is not at least 1.", num_threads[i]));
+			}
+		}
+		
+		return num_threads;
+	}
+	
+	/**
+	 * Forecasts and timings of one run over the series.
+	 */
+	private static final class GrandPrixRun {
+		private final int			NumThreads;
+		private final double[][]	Forecasts;
+		private final double[]		Timings;
+		private final String[]		CannedSetIDs;
+		private double				TimeTotal = 0.0;
+		
+		/**
+		 * Fully specified constructor.
+		 * 
+		 * @param num_threads Number of threads.
+		 * @param num_series Number of series.
+		 */
+		private GrandPrixRun(
+			int		num_threads,
+			int		num_series
+		) {
+			NumThreads = num_threads;
+			Forecasts = new double[num_series][];
+			Timings = new double[num_series];
+			CannedSetIDs = new String[num_series];
+		}
+		
+		/**
+		 * Fetch a series latency percentile (nearest rank).
+		 * 
+		 * @param fraction Percentile as a fraction (0.5 is the median).
+		 * 
+		 * @return Latency in milliseconds.
+		 */
+		private double getLatency(
+			double	fraction
+		) {
+			if (Timings.length == 0)
+				return 0.0;
+			
+			double[]	timings = Arrays.copyOf(Timings, Timings.length);
+			int			rank = (int)Math.ceil(fraction*timings.length);
+			
+			Arrays.sort(timings);
+			return timings[Math.max(rank, 1)-1];
+		}
+		
+		/**
+		 * Fetch the number of times each canned set was selected.
+		 * 
+		 * @return Selection counts by canned set name.
+		 */
+		private Map<String, Integer> getSelectionCounts() {
+			Map<String, Integer>	counts = new TreeMap<String, Integer>();
+			
+			for (String cs_id : CannedSetIDs) {
+				Integer	count = counts.get(cs_id);
+				
+				counts.put(cs_id, (count == null) ? 1 : count+1);
+			}
+			
+			return counts;
+		}
+		
+		/**
+		 * Fetch the throughput.
+		 * 
+		 * @return Series forecast per second.
+		 */
+		private double getThroughput() {
+			return (TimeTotal > 0.0) ? 1000.0*Forecasts.length/TimeTotal : 0.0;
+		}
+	}
+	
 	/**
 	 * Prints usage for the main program.
 	 */
@@ -159,8 +433,8 @@ public final class IFSGrandPrixFcst {
   "\n"
 + "Perform a collection of time series forecasts based on a canned set selection\n"
 + "as defined by a canned set definitions file, a candidate canned set file, a\n"
-+ "file of time series file paths, number of selection hold back values, and a\n"
-+ "number of forecasts.\n"
++ "file of time series file paths, number of selection hold back values, a\n"
++ "number of forecasts, and optionally the numbers of threads to run with.\n"
 + "\n"
 + "Usage: IFSGrandPrixFcst\n"
 + "          <canned set definitions file>\n"
@@ -168,6 +442,7 @@ public final class IFSGrandPrixFcst {
 + "          <file of time series files>\n"
 + "          <number of selection hold back values>\n"
 + "          <number of forecasts>\n"
++ "          [<numbers of threads>]\n"
 + "\n"
 + "canned set definitions file -- Path to file containing canned set\n"
 + "   definitions. Each line in the file defines a parameter and its value\n"
@@ -204,7 +479,8 @@ public final class IFSGrandPrixFcst {
 + "   REG-NONE-PHASE2-WEEK-YEAR\n"
 + "\n"
 + "file of time series files -- This is a file containing file paths to the time\n"
-+ "   series to evaluate in determining the canned set selection. Each line in\n"
++ "   series to evaluate in determining the canned set selection, or a binary\n"
++ "   time series corpus written by IFSTimeSeriesCorpusMain. Each line in\n"
 + "   the file contains the file path to a time series file. Each line in the\n"
 + "   time series file contains the next value in the series ordered from least\n"
 + "   recent to most recent value. An example of series values is:\n"
@@ -224,6 +500,12 @@ public final class IFSGrandPrixFcst {
 + "   example value for this value is 30.\n"
 + "\n"
 + "number of forecasts -- Number of forecasts to produce.\n"
++ "\n"
++ "numbers of threads -- Comma separated numbers of threads to forecast the\n"
++ "   series with in parallel, for example 1,2,4,8. The series are forecast\n"
++ "   once per number of threads and a scaling summary is printed. The\n"
++ "   default is 1. The first run also warms up the JVM so repeat the first\n"
++ "   number (1,1,2,4) to leave warm up out of the scaling summary.\n"
 + "\n"
 		);
 	}
@@ -0,0 +1,324 @@
+/********************************************************************************
+ * Copyright 2018, Oath Inc.
+ * Licensed under the terms of the Apache Version 2.0 license.
+ * See LICENSE file in project root directory for terms.
+ ********************************************************************************/
+
+package com.aol.one.reporting.forecastapi.server.models.app;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.aol.one.reporting.forecastapi.server.jpe.gw.GWGridWalk;
+import com.aol.one.reporting.forecastapi.server.jpe.gw.GWOptimizers;
+import com.aol.one.reporting.forecastapi.server.models.alg.IFSModelImplARIMA;
+import com.aol.one.reporting.forecastapi.server.models.alg.IFSModelImplExpSm;
+import com.aol.one.reporting.forecastapi.server.models.model.IFSCalibration;
+import com.aol.one.reporting.forecastapi.server.models.model.IFSException;
+import com.aol.one.reporting.forecastapi.server.models.model.IFSModel;
+import com.aol.one.reporting.forecastapi.server.models.model.IFSModelFactory;
+import com.aol.one.reporting.forecastapi.server.models.model.IFSParameterValue;
+import com.aol.one.reporting.forecastapi.server.models.util.GetTimeSeriesFiles;
+import com.aol.one.reporting.forecastapi.server.models.util.TimeSeriesCorpus;
+import com.aol.one.reporting.forecastapi.server.models.util.Timer;
+
+/**
+ * Class implementing main program for comparing the weight optimizers (see
+ * {@link GWOptimizers}) on a collection of time series. Every exponential
+ * smoothing variant and a set of ARIMA specifications are calibrated on each
+ * series once per optimizer. Printed per optimizer are the number of rating
+ * evaluations (and of those saved by looking up weights rated before) and
+ * timing, and how the final ratings compare to those of the grid walk.
+ */
+public final class IFSOptimizerComparisonMain {
+	private static final String[]	ExpSmTrends = {
+		"none", "linear", "exponential", "dampedadd", "dampedmult"
+	};
+	private static final String[]	ExpSmSeasonalities = {
+		"none", "add", "mult"
+	};
+	private static final String[]	ArimaSpecs = {
+		"(0,1,1)", "(1,0,0)", "(2,0,2)", "(3,0,3)", "(0,1,1)(0,1,1)s",
+		"(2,1,0)(1,0,0)s", "(1,1,1)(1,1,1)s", "(3,0,3)(1,0,1)s"
+	};
+	private static final double		RatingTolerance = 1.0e-9;
+
+	/**
+	 * Main program for comparing weight optimizers. Arguments are a file of
+	 * time series files (or a corpus), the cycle specification, and
+	 * optionally comma separated optimizer names. Printed is a comparison
+	 * summary per optimizer.
+	 *
+	 * @param args Command arguments.
+	 */
+	public static void main(
+		String[]	args
+	) {
+		if (args.length != 2 && args.length != 3) {
+			usage();
+			System.exit(0);
+		}
+
+		String							ts_files = args[0];
+		String							cycle = args[1];
+		List<String>					optimizers = new ArrayList<String>();
+		List<List<IFSParameterValue>>	specs = getModelSpecs(cycle);
+		double[][]						tss = null;
+		TimeSeriesCorpus				corpus = null;
+		int								num_series = 0;
+		OptimizerRun[]					runs = null;
+
+		optimizers.add(GWGridWalk.Name);
+		if (args.length == 3) {
+			for (String name : args[2].split(","))
+				if (GWOptimizers.getOptimizer(name.trim()) == null) {
+					System.err.format("** Error ** Unknown optimizer '%s'.\n",
+						name.trim());
+					System.exit(1);
+				} else if (!optimizers.contains(name.trim()))
+					optimizers.add(name.trim());
+		} else {
+			for (String name : GWOptimizers.getNames())
+				if (!optimizers.contains(name))
+					optimizers.add(name);
+		}
+
+		try {
+		if (TimeSeriesCorpus.isCorpus(ts_files)) {
+			corpus = new TimeSeriesCorpus(ts_files);
+			num_series = corpus.getNumSeries();
+		} else {
+			tss = GetTimeSeriesFiles.getTimeSeriesFiles(ts_files);
+			num_series = tss.length;
+		}
+
+		runs = new OptimizerRun[optimizers.size()];
+		for (int k = 0; k < runs.length; k++)
+			runs[k] = new OptimizerRun(optimizers.get(k),
+				num_series*specs.size());
+		for (int i = 0; i < num_series; i++) {
+			double[]	ts = (corpus != null) ? corpus.getSeries(i) : tss[i];
+
+			for (int j = 0; j < specs.size(); j++)
+				for (OptimizerRun run : runs)
+					run.calibrate(ts, specs.get(j), i*specs.size()+j);
+		}
+		if (corpus != null)
+			corpus.close();
+		} catch (IFSException ex) {
+			System.err.format("** Error ** %s\n", ex.getMessage());
+			System.exit(1);
+		}
+
+		printSummary(runs, num_series, specs.size());
+
+		System.exit(0);
+	}
+
+/*******************/
+/* Private Methods */
+/*******************/
+
+	/**
+	 * Build the model parameters of every model calibrated per series.
+	 *
+	 * @param cycle Cycle specification.
+	 *
+	 * @return Model parameters. The first parameter is the model name.
+	 */
+	private static List<List<IFSParameterValue>> getModelSpecs(
+		String		cycle
+	) {
+		List<List<IFSParameterValue>>	specs
+			= new ArrayList<List<IFSParameterValue>>();
+
+		for (String trend : ExpSmTrends)
+			for (String seasonality : ExpSmSeasonalities) {
+				List<IFSParameterValue>	spec
+					= new ArrayList<IFSParameterValue>();
+
+				spec.add(new IFSParameterValue("model",
+					IFSModelImplExpSm.ModelName));
+				spec.add(new IFSParameterValue("cycle", cycle));
+				spec.add(new IFSParameterValue("trend_type", trend));
+				spec.add(new IFSParameterValue("seasonality_type",
+					seasonality));
+				specs.add(spec);
+			}
+		for (String arima_spec : ArimaSpecs) {
+			List<IFSParameterValue>	spec = new ArrayList<IFSParameterValue>();
+
+			spec.add(new IFSParameterValue("model",
+				IFSModelImplARIMA.ModelName));
+			spec.add(new IFSParameterValue("cycle", cycle));
+			spec.add(new IFSParameterValue("arima", arima_spec));
+			specs.add(spec);
+		}
+
+		return specs;
+	}
+
+	/**
+	 * Print the comparison summary.
+	 *
+	 * @param runs Optimizer runs, the grid walk first.
+	 * @param num_series Number of series.
+	 * @param num_models Number of models per series.
+	 */
+	private static void printSummary(
+		OptimizerRun[]	runs,
+		int				num_series,
+		int				num_models
+	) {
+		OptimizerRun	base_run = runs[0];
+
+        System.out.format("\n");
+	    System.out.printf("Series          :  %d\n", num_series);
+	    System.out.printf("Models / Series :  %d\n", num_models);
+        System.out.format("\n");
+        System.out.format("Optimizer    Calibrations  Evaluations  "
+        	+ "Evals/Calib    Saved  Better  Equal  Worse  Mean Rel Diff  "
+        	+ "Time (ms)\n");
+		for (OptimizerRun run : runs) {
+			int			num_calibs = 0;
+			long		num_evals = 0;
+			long		num_saved = 0;
+			int			num_better = 0;
+			int			num_equal = 0;
+			int			num_worse = 0;
+			double		rel_diff_sum = 0.0;
+
+			for (int i = 0; i < run.Ratings.length; i++) {
+				double		rating = run.Ratings[i];
+				double		base_rating = base_run.Ratings[i];
+
+				if (Double.isNaN(rating) || Double.isNaN(base_rating))
+					continue;
+				num_calibs++;
+				num_evals += run.Evaluations[i];
+				num_saved += run.EvaluationsSaved[i];
+
+				double		scale = Math.max(Math.abs(base_rating),
+					Double.MIN_NORMAL);
+				double		rel_diff = (rating-base_rating)/scale;
+
+				if (rel_diff < -RatingTolerance)
+					num_better++;
+				else if (rel_diff > RatingTolerance)
+					num_worse++;
+				else
+					num_equal++;
+				rel_diff_sum += rel_diff;
+			}
+			System.out.format("%-11s  %12d  %11d  %11.1f  %7d  %6d  %5d  %5d  "
+				+ "%13.6f  %9.1f\n", run.Name, num_calibs, num_evals,
+				(num_calibs == 0) ? 0.0 : (double)num_evals/num_calibs,
+				num_saved, num_better, num_equal, num_worse,
+				(num_calibs == 0) ? 0.0 : rel_diff_sum/num_calibs,
+				run.TimeMilliSeconds);
+		}
+        System.out.format("\n");
+	}
+
+	/**
+	 * Prints usage for the main program.
+	 */
+	private static void usage() {
+		System.out.print(
+  "\n"
++ "Compare the weight optimizers on a collection of time series. Every\n"
++ "exponential smoothing variant and a set of ARIMA specifications are\n"
++ "calibrated on each series with each optimizer. Printed per optimizer are\n"
++ "the number of calibrations and rating evaluations, the number of ratings\n"
++ "looked up instead of evaluated again, how many final ratings are better,\n"
++ "equal, or worse than the grid walk's, the mean relative rating difference\n"
++ "to the grid walk (negative is better), and the time spent.\n"
++ "\n"
++ "Usage: IFSOptimizerComparisonMain\n"
++ "          <file of time series files>\n"
++ "          <cycle>\n"
++ "          [<optimizers>]\n"
++ "\n"
++ "file of time series files -- This is a file containing file paths to the\n"
++ "   time series to calibrate on, or a time series corpus written by\n"
++ "   IFSTimeSeriesCorpusMain.\n"
++ "\n"
++ "cycle -- Seasonal cycle specification. -1 detects the cycle per series.\n"
++ "\n"
++ "optimizers -- Comma separated optimizer names. The grid walk (gw) is always\n"
++ "   included as the baseline. The default is all optimizers:\n"
++ "   " + GWOptimizers.getNames() + "\n"
++ "\n"
+		);
+	}
+
+/*******************/
+/* Private Classes */
+/*******************/
+
+/**
+ * Calibrations by one optimizer. Each calibration has its own slot indexed
+ * by series and model.
+ */
+private static final class OptimizerRun {
+	public final String			Name;
+	public final double[]		Ratings;
+	public final int[]			Evaluations;
+	public final int[]			EvaluationsSaved;
+	public double				TimeMilliSeconds = 0.0;
+
+	/**
+	 * Fully specified constructor.
+	 *
+	 * @param name Optimizer name.
+	 * @param num_calibrations Number of calibrations.
+	 */
+	public OptimizerRun(
+		String		name,
+		int			num_calibrations
+	) {
+		Name = name;
+		Ratings = new double[num_calibrations];
+		Evaluations = new int[num_calibrations];
+		EvaluationsSaved = new int[num_calibrations];
+	}
+
+	/**
+	 * Calibrate a model on a series with this optimizer. Models that publish
+	 * no calibration record a rating that is not a number.
+	 *
+	 * @param ts Time series.
+	 * @param spec Model parameters, the model name first.
+	 * @param idx Calibration slot.
+	 *
+	 * @throws IFSException if the model cannot be calibrated.
+	 */
+	public void calibrate(
+		double[]				ts,
+		List<IFSParameterValue>	spec,
+		int						idx
+	) throws IFSException {
+		List<IFSParameterValue>	parameters
+			= new ArrayList<IFSParameterValue>(spec.subList(1, spec.size()));
+		Timer					timer = new Timer();
+		IFSModel				model = IFSModelFactory.create(
+			spec.get(0).getValue());
+		IFSCalibration			calibration = null;
+
+		parameters.add(new IFSParameterValue("optimizer", Name));
+		timer.start();
+		IFSModelFactory.setup(model, ts, parameters);
+		model.generateForecasts(1);
+		timer.stop();
+		TimeMilliSeconds += timer.getTimeMilliSeconds();
+
+		calibration = model.getCalibration();
+		Ratings[idx] = (calibration == null)
+			? Double.NaN : calibration.getRating();
+		Evaluations[idx] = (calibration == null)
+			? 0 : calibration.getNumEvaluations();
+		EvaluationsSaved[idx] = (calibration == null)
+			? 0 : calibration.getNumEvaluationsSaved();
+	}
+}
+}
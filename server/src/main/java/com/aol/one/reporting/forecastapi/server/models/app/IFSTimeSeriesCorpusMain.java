@@ -0,0 +1,88 @@
+/********************************************************************************
+ * Copyright 2018, Oath Inc.
+ * Licensed under the terms of the Apache Version 2.0 license.
+ * See LICENSE file in project root directory for terms.
+ ********************************************************************************/
+
+package com.aol.one.reporting.forecastapi.server.models.app;
+
+import com.aol.one.reporting.forecastapi.server.models.model.IFSException;
+import com.aol.one.reporting.forecastapi.server.models.util.TimeSeriesCorpus;
+import com.aol.one.reporting.forecastapi.server.models.util.Timer;
+
+/**
+ * Class implementing main program for converting a file of time series files
+ * to a binary time series corpus (see {@link TimeSeriesCorpus}) which the
+ * batch programs read in place of the time series files.
+ */
+public final class IFSTimeSeriesCorpusMain {
+
+	/**
+	 * Main program for converting time series files to a corpus. Arguments
+	 * are a file of time series files and the corpus file to write. Printed
+	 * is the number of series converted and timing.
+	 *
+	 * @param args Command arguments.
+	 */
+	public static void main(
+		String[]	args
+	) {
+		if (args.length != 2) {
+			usage();
+			System.exit(0);
+		}
+
+		String		ts_files = args[0];
+		String		corpus_file = args[1];
+		Timer		timer = new Timer();
+		int			num_series = 0;
+
+		try {
+		timer.start();
+		num_series = TimeSeriesCorpus.writeCorpus(ts_files, corpus_file);
+		timer.stop();
+		} catch (IFSException ex) {
+			System.err.format("** Error ** %s\n", ex.getMessage());
+			System.exit(1);
+		}
+
+        System.out.format("\n");
+	    System.out.printf("Series Converted:  %d\n", num_series);
+	    System.out.printf("Timing (ms)     :  %.3f\n",
+	    	timer.getTimeMilliSeconds());
+
+		System.exit(0);
+	}
+
+/*******************/
+/* Private Methods */
+/*******************/
+
+	/**
+	 * Prints usage for the main program.
+	 */
+	private static void usage() {
+		System.out.print(
+  "\n"
++ "Convert a file of time series file paths to a binary time series corpus.\n"
++ "The batch programs (IFSGrandPrixFcst, IFSCannedSetSelectFcst) accept a\n"
++ "corpus in place of time series files and map it into memory instead of\n"
++ "parsing a text file per series.\n"
++ "\n"
++ "Usage: IFSTimeSeriesCorpusMain\n"
++ "          <file of time series files>\n"
++ "          <corpus file>\n"
++ "\n"
++ "file of time series files -- This is a file containing file paths to the\n"
++ "   time series to convert. Each line in the file contains the file path to\n"
++ "   a time series file. Each line in the time series file contains the next\n"
++ "   value in the series ordered from least recent to most recent value.\n"
++ "\n"
++ "corpus file -- Path of the corpus file to write. The series are stored in\n"
++ "   the order in which their file paths are listed. A corpus is a 16 byte\n"
++ "   header, an index of series offsets, and the series values as contiguous\n"
++ "   little endian doubles.\n"
++ "\n"
+		);
+	}
+}
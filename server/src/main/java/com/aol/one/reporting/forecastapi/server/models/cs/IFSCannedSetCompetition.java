@@ -6,10 +6,14 @@
 
 package com.aol.one.reporting.forecastapi.server.models.cs;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
-import java.util.concurrent.ForkJoinPool;
-import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
 
+import com.aol.one.reporting.forecastapi.server.models.model.IFSCalibration;
 import com.aol.one.reporting.forecastapi.server.models.model.IFSException;
 import com.aol.one.reporting.forecastapi.server.models.model.IFSMetrics;
 import com.aol.one.reporting.forecastapi.server.models.model.IFSModel;
@@ -19,9 +23,49 @@ import com.aol.one.reporting.forecastapi.server.models.model.IFSModelFactory;
  * Class implementing canned set selection. Given a canned set context
  * and a canned set list, the canned set that produces the canned set
  * closest to the actual value holdback is selected.
+ *
+ * When the context is raced, the canned sets publish the best hold back RMSE
+ * found so far and a canned set evaluated over several folds skips its
+ * remaining folds as soon as the RMSE pooled over the folds fit so far
+ * exceeds it. Such a canned set cannot win (ties are never cut short) so
+ * the selection is identical to a full competition. A canned set evaluated
+ * over a single fold is always fit and scored in full.
+ *
+ * Competitions run on a shared competition executor which limits how many
+ * canned sets of a competition execute in parallel. Unless an executor is
+ * set, a default executor without admission or parallelism limits is used.
+ * A context can name its own executor instead of the shared one.
+ * If a competition cache is set, competition results are cached and repeated
+ * competitions are answered from the cache.
+ *
+ * If the context has more than one rolling origin fold, a canned set is
+ * scored by its RMSE pooled over all folds. The folds are fit forward in
+ * time: the fold with the earliest origin is fit from scratch and each
+ * later fold is warm started from the calibration of the fold before it,
+ * so no fold is seeded with points beyond its own origin. Fold 0 (the
+ * default split) is fit last and its calibration is the one returned for
+ * warm starting the final forecast.
+ *
+ * If the context has a deadline, the competition is anytime. Canned sets
+ * not yet started when the deadline passes are skipped. Running canned sets
+ * calibrated by a search stop at their next search iteration while the
+ * others finish. The best canned set evaluated wins. Such partial results
+ * are not cached.
+ *
+ * Canned sets are scheduled by estimated cost (see
+ * {@link IFSCompetitionCostModel}) so the most expensive ones start first
+ * and are spread over the pool. The selection does not depend on the
+ * schedule.
+ *
+ * If the context ensemble size is more than one, the result also ranks the
+ * best canned sets up to the ensemble size. Racing is then off since the
+ * runners up need their full RMSE.
  */
 public final class IFSCannedSetCompetition {
-	private static ForkJoinPool		ParallelPool = null;
+	private static IFSCompetitionCache		Cache = null;
+	private static IFSCompetitionExecutor	Executor = null;
+	private static final IFSCompetitionCostModel	CostModel
+		= new IFSCompetitionCostModel();
 	
 	/**
 	 * Run a competition over a list of canned sets and select the one with
@@ -40,142 +84,270 @@ public final class IFSCannedSetCompetition {
 	public static IFSCannedSet competeCannedSets(
 		IFSCannedSetSelectionContext	context,
 		List<IFSCannedSet>				canned_set_list
+	) throws IFSException {
+		return getCompetitionResult(context, canned_set_list).getCannedSet();
+	}
+	
+	/**
+	 * Run a competition over a list of canned sets and return the result
+	 * for the one with the smallest RMSE for the context hold back period.
+	 * The result includes the winner's calibrated model state which can be
+	 * used to warm start the final forecast.
+	 * 
+	 * @param context Canned set selection context.
+	 * @param canned_set_list List of canned sets.
+	 * 
+	 * @return Winning canned set result. Its ensemble holds the results of
+	 *    the best canned sets up to the context ensemble size.
+	 * 
+	 * @throws IFSException thrown if a forecast error occurs, there are
+	 *    no canned sets in the list, or no canned set was evaluated before
+	 *    the context deadline.
+	 */
+	public static IFSCannedSetResult getCompetitionResult(
+		IFSCannedSetSelectionContext	context,
+		List<IFSCannedSet>				canned_set_list
 	) throws IFSException {
 		if (canned_set_list == null || canned_set_list.isEmpty())
 			throw new IFSException(69, context.getID());
 		
-		if (ParallelPool == null)
-			ParallelPool = new ForkJoinPool();
+		IFSCompetitionCache			cache = getCache();
+		IFSCompetitionCache.Key		key = null;
+		IFSCannedSetResult			result = null;
+		
+		if (cache != null) {
+			key = IFSCompetitionCache.getKey(context, canned_set_list);
+			result = cache.get(key);
+			if (result != null)
+				return result;
+		}
+		
+		IFSCompetitionExecutor		executor = getExecutor(context);
+		double[]					costs = new double[canned_set_list.size()];
+		IFSCannedSetResult[]		results
+			= new IFSCannedSetResult[canned_set_list.size()];
+		IFSCannedSetResult			best = null;
+		int							num_evaluated = 0;
+		
+		executor.invoke(context.getID(),
+			new ParallelCompeteCannedSets(context, canned_set_list,
+			getCostModel().getSchedule(canned_set_list,
+			context.getSeriesCalibration().length(), costs), costs, results,
+			new AtomicLong(Double.doubleToLongBits(Double.POSITIVE_INFINITY)),
+			executor.getMaxParallelism()));
 		
-		return ParallelPool.invoke(
-			new ParallelCompeteCannedSets(context, canned_set_list)).getCannedSet();
+		// Select the least RMSE among the evaluated canned sets in list
+		// order. The later canned set wins a tie.
+		
+		for (IFSCannedSetResult canned_set_result : results)
+			if (canned_set_result.getNumEvaluated() > 0) {
+				best = (best == null) ? canned_set_result
+					: IFSCannedSetResult.min(canned_set_result, best);
+				num_evaluated++;
+			}
+		if (best == null)
+			throw new IFSException(80, context.getID());
+		result = new IFSCannedSetResult(best.getCannedSet(), best.getRMSE(),
+			best.getCalibration(), num_evaluated,
+			getEnsemble(context, results, best));
+		if (cache != null && num_evaluated == canned_set_list.size())
+			cache.put(key, result);
+		
+		return result;
 	}
-
-/*******************/
-/* Private Classes */
-/*******************/
-
-/**
- * This class contains competition results and provides min and max methods
- * for comparing results.
- */
-private static final class CannedSetResult {
-	private final IFSCannedSet	CannedSet;
-	private final double		RMSE;
 	
 	/**
-	 * Fully specified constructor.
+	 * Fetch the competition cache.
 	 * 
-	 * @param canned_set Resulting canned set.
-	 * @param rmse Resulting root mean squared error.
+	 * @return Competition cache or null if results are not cached.
 	 */
-	public CannedSetResult(
-		IFSCannedSet	canned_set,
-		double			rmse
-	) {
-		CannedSet = canned_set;
-		RMSE = rmse;
+	public static synchronized IFSCompetitionCache getCache() {
+		return Cache;
 	}
 	
 	/**
-	 * Default constructor inaccessible.
+	 * Fetch the cost model competitions are scheduled by.
+	 * 
+	 * @return Competition cost model.
 	 */
-	@SuppressWarnings("unused")
-	private CannedSetResult() {
-		CannedSet = null;
-		RMSE = 0.0;
+	public static IFSCompetitionCostModel getCostModel() {
+		return CostModel;
 	}
 	
 	/**
-	 * Fetch canned set.
+	 * Fetch the competition executor creating the default one if none has
+	 * been set.
 	 * 
-	 * @return Canned set.
+	 * @return Competition executor.
 	 */
-	public IFSCannedSet getCannedSet() {
-		return CannedSet;
+	public static synchronized IFSCompetitionExecutor getExecutor() {
+		if (Executor == null) {
+			int		num_processors = Runtime.getRuntime().availableProcessors();
+			
+			Executor = new IFSCompetitionExecutor(num_processors,
+				Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE);
+		}
+		
+		return Executor;
 	}
 	
 	/**
-	 * Fetch RMSE (root mean squared error).
+	 * Fetch the competition executor of a context.
+	 * 
+	 * @param context Canned set selection context.
 	 * 
-	 * @return RMSE.
+	 * @return The context executor or the shared one if the context does
+	 *    not name one.
 	 */
-	public double getRMSE() {
-		return RMSE;
+	public static IFSCompetitionExecutor getExecutor(
+		IFSCannedSetSelectionContext	context
+	) {
+		return (context.getExecutor() != null) ? context.getExecutor()
+			: getExecutor();
 	}
 	
 	/**
-	 * Compare the RMSEs of two canned set results and return the canned
-	 * set result with the greater RMSE. If the results are equal, the first
-	 * canned set is returned.
+	 * Set the competition cache.
 	 * 
-	 * @param first First canned set result.
-	 * @param second Second canned set result.
+	 * @param cache Competition cache. Null disables caching.
+	 */
+	public static synchronized void setCache(
+		IFSCompetitionCache	cache
+	) {
+		Cache = cache;
+	}
+	
+	/**
+	 * Set the competition executor. The previous executor is not shut down.
 	 * 
-	 * @return Canned set with the greater RMSE.
+	 * @param executor Competition executor. Null reverts to the default
+	 *    executor.
 	 */
-	@SuppressWarnings("unused")
-	public static CannedSetResult max(
-		CannedSetResult	first,
-		CannedSetResult	second
+	public static synchronized void setExecutor(
+		IFSCompetitionExecutor	executor
 	) {
-		if (first.getRMSE() >= second.getRMSE())
-			return first;
-		else
-			return second;
+		Executor = executor;
 	}
+
+/*******************/
+/* Private Methods */
+/*******************/
 	
 	/**
-	 * Compare the RMSEs of two canned set results and return the canned
-	 * set result with the least RMSE. If the results are equal, the first
-	 * canned set is returned.
+	 * Rank the best evaluated canned sets up to the context ensemble size.
 	 * 
-	 * @param first First canned set result.
-	 * @param second Second canned set result.
+	 * @param context Canned set selection context.
+	 * @param results Canned set results (in list order).
+	 * @param best Winning canned set result.
 	 * 
-	 * @return Canned set with the least RMSE.
+	 * @return Ensemble results starting with the winner by increasing RMSE.
+	 *    Null if the ensemble size is one.
 	 */
-	public static CannedSetResult min(
-		CannedSetResult	first,
-		CannedSetResult	second
+	private static List<IFSCannedSetResult> getEnsemble(
+		IFSCannedSetSelectionContext	context,
+		IFSCannedSetResult[]			results,
+		IFSCannedSetResult				best
 	) {
-		if (first.getRMSE() <= second.getRMSE())
-			return first;
-		else
-			return second;
+		if (context.getEnsembleSize() <= 1)
+			return null;
+		
+		List<IFSCannedSetResult>	runners_up
+			= new ArrayList<IFSCannedSetResult>();
+		List<IFSCannedSetResult>	ensemble
+			= new ArrayList<IFSCannedSetResult>();
+		
+		for (IFSCannedSetResult canned_set_result : results)
+			if (canned_set_result != best
+			&& canned_set_result.getNumEvaluated() > 0
+			&& !Double.isNaN(canned_set_result.getRMSE())
+			&& !Double.isInfinite(canned_set_result.getRMSE()))
+				runners_up.add(canned_set_result);
+		Collections.sort(runners_up, new Comparator<IFSCannedSetResult>() {
+			public int compare(IFSCannedSetResult first,
+			IFSCannedSetResult second) {
+				return Double.compare(first.getRMSE(), second.getRMSE());
+			}
+		});
+		ensemble.add(best);
+		for (IFSCannedSetResult canned_set_result : runners_up) {
+			if (ensemble.size() >= context.getEnsembleSize())
+				break;
+			ensemble.add(canned_set_result);
+		}
+		
+		return ensemble;
 	}
-}
+	
+	/**
+	 * Is the competition raced? Only a competition for the winner alone is.
+	 * 
+	 * @param context Canned set selection context.
+	 * 
+	 * @return True if canned sets known to lose can skip their remaining
+	 *    folds.
+	 */
+	private static boolean isRaced(
+		IFSCannedSetSelectionContext	context
+	) {
+		return context.isRacing() && context.getEnsembleSize() == 1;
+	}
+
+/*******************/
+/* Private Classes */
+/*******************/
 
 /**
- * Run a parallel competition over a list of canned sets and select the one
- * with the smallest RMSE for the context hold back period. Note that a list
- * of one canned set still has the hold back forecast executed as a form
- * of validation.
- * 
- * 
- * @return Selected canned set.
- * 
- * @throws IFSException thrown if a forecast error occurs or there are
- *    no canned sets in the list.
+ * Run a parallel competition over part of a list of canned sets. Each canned
+ * set forecasts the context hold back period and its result is stored at
+ * its list index. Note that a single canned set still has the hold back
+ * forecast executed as a form of validation.
+ *
+ * The canned sets are given in order of decreasing estimated cost and are
+ * split into two parts of about equal total estimated cost. The most
+ * expensive canned sets therefore start first and end up on different
+ * threads. When run sequentially, the cheaper part runs first.
  */
-private static final class ParallelCompeteCannedSets
-	extends RecursiveTask<CannedSetResult> {
+private static final class ParallelCompeteCannedSets extends RecursiveAction {
 	private static final long					serialVersionUID = 1L;
 	private final IFSCannedSetSelectionContext	Context;
 	private final List<IFSCannedSet>			CannedSetList;
+	private final Integer[]						Schedule;
+	private final double[]						Costs;
+	private final IFSCannedSetResult[]			Results;
+	private final AtomicLong					BestRMSE;
+	private final int							Parallelism;
 	
 	/**
 	 * Fully specified constructor.
 	 * 
 	 * @param context Canned set selection context.
 	 * @param canned_set_list List of canned sets.
+	 * @param schedule Indices of the canned sets to run by decreasing
+	 *    estimated cost.
+	 * @param costs Estimated cost of each canned set (in list order).
+	 * @param results Where to put the result of each canned set (in list
+	 *    order).
+	 * @param best_rmse Best hold back RMSE found so far (double bits) shared
+	 *    by all tasks of the competition.
+	 * @param parallelism Maximum number of canned sets to execute in
+	 *    parallel.
 	 */
 	public ParallelCompeteCannedSets(
 		IFSCannedSetSelectionContext	context,
-		List<IFSCannedSet>				canned_set_list
+		List<IFSCannedSet>				canned_set_list,
+		Integer[]						schedule,
+		double[]						costs,
+		IFSCannedSetResult[]			results,
+		AtomicLong						best_rmse,
+		int								parallelism
 	) {
 		Context = context;
 		CannedSetList = canned_set_list;
+		Schedule = schedule;
+		Costs = costs;
+		Results = results;
+		BestRMSE = best_rmse;
+		Parallelism = parallelism;
 	}
 	
 	/**
@@ -185,75 +357,215 @@ private static final class ParallelCompeteCannedSets
 	private ParallelCompeteCannedSets() {
 		Context = null;
 		CannedSetList = null;
+		Schedule = null;
+		Costs = null;
+		Results = null;
+		BestRMSE = null;
+		Parallelism = 1;
 	}
 	
 	/**
 	 * Run canned set competition.
-	 * 
-	 * @return Canned set that minimized the RMSE.
 	 */
 	@Override
-	protected CannedSetResult compute() {
-		if (CannedSetList.size() <= 1)
+	protected void compute() {
+		if (Schedule.length <= 1) {
+			IFSCannedSet	canned_set = CannedSetList.get(Schedule[0]);
+			long			start = System.nanoTime();
+			
 			try {
-			return execCannedSet(Context, CannedSetList.get(0));
+			Results[Schedule[0]] = execCannedSet(Context, canned_set,
+				BestRMSE);
+			if (Results[Schedule[0]].getNumEvaluated() > 0)
+				getCostModel().record(canned_set,
+					Context.getSeriesCalibration().length(),
+					(System.nanoTime()-start)/Context.getNumFolds());
 			}
 			catch (IFSException ex) {
 				throw new RuntimeException(ex.getMessage());
 			}
+			return;
+		}
+		
+		// Deal the canned sets by decreasing cost to the part with the
+		// least total cost so far.
+		
+		List<Integer>	part01 = new ArrayList<Integer>();
+		List<Integer>	part02 = new ArrayList<Integer>();
+		double			cost01 = 0.0;
+		double			cost02 = 0.0;
+		
+		for (Integer index : Schedule)
+			if (cost01 <= cost02) {
+				part01.add(index);
+				cost01 += Costs[index];
+			} else {
+				part02.add(index);
+				cost02 += Costs[index];
+			}
 		
-		int		half_index = CannedSetList.size()/2;
+		// The parallelism is split between the parts. Once there is no
+		// parallelism left to split, both parts execute in this task.
 			
 		ParallelCompeteCannedSets	ccs01
-			= new ParallelCompeteCannedSets(Context,
-			CannedSetList.subList(0, half_index));
+			= new ParallelCompeteCannedSets(Context, CannedSetList,
+			part01.toArray(new Integer[part01.size()]), Costs, Results,
+			BestRMSE, Parallelism/2);
 		
-		ccs01.fork();
+		if (Parallelism > 1)
+			ccs01.fork();
 			
 		ParallelCompeteCannedSets	ccs02
-			= new ParallelCompeteCannedSets(Context,
-			CannedSetList.subList(half_index, CannedSetList.size()));
-				
-		return CannedSetResult.min(ccs02.compute(), ccs01.join());
+			= new ParallelCompeteCannedSets(Context, CannedSetList,
+			part02.toArray(new Integer[part02.size()]), Costs, Results,
+			BestRMSE, Parallelism-Parallelism/2);
+		
+		ccs02.compute();
+		if (Parallelism > 1)
+			ccs01.join();
+		else
+			ccs01.compute();
 	}
 	
 	/**
 	 * Forecast a context using the designed canned set into the context
-	 * hold back period and compute the resulting RMSE.
+	 * hold back period and compute the resulting RMSE. With more than one
+	 * fold, the RMSE is pooled over the hold back periods of all folds.
 	 * 
 	 * @param context Canned set selection context.
 	 * @param canned_set Canned set to execute.
+	 * @param best_rmse Best hold back RMSE found so far (double bits).
 	 * 
-	 * @return Canned set result.
+	 * @return Canned set result. In a raced competition the RMSE is infinite
+	 *    if the canned set was known to lose before all folds were fit. If
+	 *    the context deadline passed before the canned set was evaluated,
+	 *    the RMSE is infinite and no canned set was evaluated.
 	 * 
 	 * @throws IFSException Thrown if there is an error in executing the
 	 *    canned set.
 	 */
-	private static CannedSetResult execCannedSet(
+	private static IFSCannedSetResult execCannedSet(
 		IFSCannedSetSelectionContext	context,
-		IFSCannedSet					canned_set
+		IFSCannedSet					canned_set,
+		AtomicLong						best_rmse
 	) throws IFSException {
         IFSModel	model = null;
-        double[]	forecasts = null;
 		double		rmse = Double.POSITIVE_INFINITY;
+		int			num_folds = context.getNumFolds();
+        
+		if (context.isDeadlinePassed())
+			return new IFSCannedSetResult(canned_set, rmse, null, 0);
         
 		try {
-        model = IFSModelFactory.create(canned_set.getParameterSpec().getModel());
-        IFSModelFactory.setup(model, context.getSeriesCalibration(),
-        	canned_set.getParameterSpec().getParameterValues());
-        model.generateForecasts(context.getNumHoldback());
-        forecasts = model.getForecasts();
-        rmse = IFSMetrics.getRMSE(context.getSeriesHoldback(), forecasts);
+		double		sq_rmse = 0.0;
+		double		fold_rmse = 0.0;
+		
+		for (int fold = num_folds-1; fold >= 0; fold--) {
+			if (fold < num_folds-1) {
+				if (context.isDeadlinePassed())
+					return new IFSCannedSetResult(canned_set,
+						Double.POSITIVE_INFINITY, null, 0);
+				if (isRaced(context) && Math.sqrt(sq_rmse/num_folds)
+				> Double.longBitsToDouble(best_rmse.get()))
+					return new IFSCannedSetResult(canned_set,
+						Double.POSITIVE_INFINITY, null);
+			}
+			model = execFold(context, canned_set, fold,
+				(model == null) ? null : model.getCalibration());
+			fold_rmse = IFSMetrics.getRMSE(context.getSeriesHoldbackView(fold),
+				model.getForecasts());
+			sq_rmse += fold_rmse*fold_rmse;
+		}
+		rmse = (num_folds > 1) ? Math.sqrt(sq_rmse/num_folds) : fold_rmse;
+		if (isRaced(context))
+			publishRMSE(best_rmse, rmse);
 // 		System.out.printf("Canned Set: %s RMSE: %f\n", canned_set.getName(), rmse);
 		}
 		catch (IFSException ex) {
+			if (isDeadlineException(ex))
+				return new IFSCannedSetResult(canned_set,
+					Double.POSITIVE_INFINITY, null, 0);
+			throw new IFSException("Canned set id '"
+			+ canned_set.getName()
+			+ "' encountered the following error: "
+			+ ex.getMessage());
+		}
+		catch (RuntimeException ex) {
 			throw new IFSException("Canned set id '"
 			+ canned_set.getName()
 			+ "' encountered the following error: "
 			+ ex.getMessage());
 		}
 
-		return new CannedSetResult(canned_set, rmse);
+		return new IFSCannedSetResult(canned_set, rmse,
+			model.getCalibration());
+	}
+	
+	/**
+	 * Forecast the hold back period of a fold using the designated canned
+	 * set.
+	 * 
+	 * @param context Canned set selection context.
+	 * @param canned_set Canned set to execute.
+	 * @param fold Fold index.
+	 * @param warm_start Calibration to warm start from. Can be null.
+	 * 
+	 * @return Model holding the fold hold back forecasts.
+	 * 
+	 * @throws IFSException Thrown if there is an error in executing the
+	 *    canned set.
+	 */
+	private static IFSModel execFold(
+		IFSCannedSetSelectionContext	context,
+		IFSCannedSet					canned_set,
+		int								fold,
+		IFSCalibration					warm_start
+	) throws IFSException {
+        IFSModel	model = IFSModelFactory.create(
+        	canned_set.getParameterSpec().getModel());
+        
+        IFSModelFactory.setup(model, context.getSeriesCalibration(fold),
+        	canned_set.getParameterSpec().getParameterValues());
+        model.setPreprocessCache(context.getPreprocessCache());
+        model.setDeadline(context.getDeadline());
+        model.setWarmStart(warm_start);
+        model.generateForecasts(context.getNumHoldback());
+        
+        return model;
+	}
+	
+	/**
+	 * Was forecast generation stopped since the deadline passed?
+	 * 
+	 * @param ex Forecast generation exception.
+	 * 
+	 * @return True if the exception signals a passed deadline.
+	 */
+	private static boolean isDeadlineException(
+		IFSException	ex
+	) {
+		return "IFS079".equals(ex.getCode());
+	}
+	
+	/**
+	 * Publish a hold back RMSE if it is the best one found so far.
+	 * Undefined RMSEs are never published.
+	 * 
+	 * @param best_rmse Best hold back RMSE found so far (double bits).
+	 * @param rmse Hold back RMSE to publish.
+	 */
+	private static void publishRMSE(
+		AtomicLong	best_rmse,
+		double		rmse
+	) {
+		if (Double.isNaN(rmse) || Double.isInfinite(rmse))
+			return;
+		
+		long	best_bits = best_rmse.get();
+		
+		while (rmse < Double.longBitsToDouble(best_bits)
+		&& !best_rmse.compareAndSet(best_bits, Double.doubleToLongBits(rmse)))
+			best_bits = best_rmse.get();
 	}
 }
 }
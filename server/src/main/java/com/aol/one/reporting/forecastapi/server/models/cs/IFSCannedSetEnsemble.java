@@ -0,0 +1,279 @@
+/********************************************************************************
+ * Copyright 2018, Oath Inc.
+ * Licensed under the terms of the Apache Version 2.0 license.
+ * See LICENSE file in project root directory for terms.
+ ********************************************************************************/
+
+package com.aol.one.reporting.forecastapi.server.models.cs;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+import com.aol.one.reporting.forecastapi.server.models.model.IFSException;
+import com.aol.one.reporting.forecastapi.server.models.model.IFSModel;
+import com.aol.one.reporting.forecastapi.server.models.model.IFSModelFactory;
+import com.aol.one.reporting.forecastapi.server.models.model.IFSPreprocessCache;
+
+/**
+ * Class implementing ensemble forecasts. The ensemble of a competition
+ * result (see {@link IFSCannedSetResult#getEnsemble()}) is fit on the full
+ * series and the forecasts of its members are averaged weighted by their
+ * inverse hold back RMSE. Members with a zero RMSE share all the weight and
+ * members without forecasts are left out. Each member fit is warm started
+ * from its competition calibration. Members fit on the context series share
+ * its preprocessing cache, so the seasonal cycle detected during selection
+ * is reused.
+ *
+ * An ensemble of more than one member is fit in parallel on the context's
+ * competition executor observing its competition parallelism limit. An
+ * ensemble of one member is fit in the calling thread and yields the
+ * member's forecasts. For a long series its calibration rates weights in
+ * parallel on the competition executor if the executor is quiet at the
+ * time.
+ */
+public final class IFSCannedSetEnsemble {
+	private static final int	ParallelRatingMinLength = 1000;
+
+	/**
+	 * Forecast a series using the ensemble of a competition result.
+	 *
+	 * @param context Context the competition ran for.
+	 * @param result Competition result.
+	 * @param series Series to forecast.
+	 * @param num_forecasts Number of forecasts to generate.
+	 *
+	 * @return Ensemble forecasts.
+	 *
+	 * @throws IFSException Thrown if a member fit fails or the executor
+	 *    does not admit the ensemble.
+	 */
+	public static double[] getForecasts(
+		IFSCannedSetSelectionContext	context,
+		IFSCannedSetResult				result,
+		double[]						series,
+		int								num_forecasts
+	) throws IFSException {
+		List<IFSCannedSetResult>	members = result.getEnsemble();
+		double[][]					forecasts = new double[members.size()][];
+		IFSPreprocessCache			preprocess_cache = null;
+
+		// Fit on the context series itself if it is the same series so the
+		// preprocessing cache entries keyed by it apply.
+
+		if (Arrays.equals(series, context.getSeries())) {
+			series = context.getSeries();
+			preprocess_cache = context.getPreprocessCache();
+		}
+
+		IFSCompetitionExecutor		executor
+			= IFSCannedSetCompetition.getExecutor(context);
+
+		// Handing ratings to other threads only pays off when a rating
+		// takes long enough to cover the hand off.
+
+		if (members.size() == 1)
+			return fitMember(members.get(0), series, preprocess_cache,
+				(series.length >= ParallelRatingMinLength)
+				? executor.getIdleExecutor() : null, num_forecasts);
+
+		int							num_tasks = Math.min(members.size(),
+			executor.getMaxParallelism());
+		List<FitMembers>			tasks = new ArrayList<FitMembers>();
+
+		for (int i = 0; i < num_tasks; i++)
+			tasks.add(new FitMembers(members, i, num_tasks, series,
+				preprocess_cache, num_forecasts, forecasts));
+		try {
+		executor.invoke(context.getID(), new FitEnsemble(tasks));
+		}
+		catch (RuntimeException ex) {
+			throw new IFSException(ex.getMessage());
+		}
+
+		return combine(members, forecasts, num_forecasts);
+	}
+
+/*******************/
+/* Private Methods */
+/*******************/
+
+	/**
+	 * Average member forecasts weighted by inverse hold back RMSE.
+	 *
+	 * @param members Ensemble members.
+	 * @param forecasts Member forecasts (in member order).
+	 * @param num_forecasts Number of forecasts.
+	 *
+	 * @return Weighted average forecasts. Null if no member has forecasts.
+	 */
+	private static double[] combine(
+		List<IFSCannedSetResult>	members,
+		double[][]					forecasts,
+		int							num_forecasts
+	) {
+		double[]	weights = new double[members.size()];
+		double[]	combined = new double[num_forecasts];
+		double		total_weight = 0.0;
+		boolean		exact = false;
+
+		for (int i = 0; i < weights.length; i++)
+			if (forecasts[i] != null && members.get(i).getRMSE() == 0.0)
+				exact = true;
+		for (int i = 0; i < weights.length; i++) {
+			double		rmse = members.get(i).getRMSE();
+
+			if (forecasts[i] == null)
+				weights[i] = 0.0;
+			else if (exact)
+				weights[i] = (rmse == 0.0) ? 1.0 : 0.0;
+			else
+				weights[i] = 1.0/rmse;
+			total_weight += weights[i];
+		}
+		if (total_weight == 0.0)
+			return null;
+		for (int i = 0; i < weights.length; i++)
+			if (weights[i] > 0.0)
+				for (int j = 0; j < num_forecasts; j++)
+					combined[j] += weights[i]/total_weight*forecasts[i][j];
+
+		return combined;
+	}
+
+	/**
+	 * Fit an ensemble member on a series and forecast it.
+	 *
+	 * @param member Ensemble member.
+	 * @param series Series to forecast.
+	 * @param preprocess_cache Preprocessing cache for the series. Can be
+	 *    null.
+	 * @param rating_executor Executor to rate calibration weights on in
+	 *    parallel. Can be null.
+	 * @param num_forecasts Number of forecasts to generate.
+	 *
+	 * @return Member forecasts.
+	 *
+	 * @throws IFSException Thrown if the fit fails.
+	 */
+	private static double[] fitMember(
+		IFSCannedSetResult	member,
+		double[]			series,
+		IFSPreprocessCache	preprocess_cache,
+		Executor			rating_executor,
+		int					num_forecasts
+	) throws IFSException {
+		IFSCannedSet	canned_set = member.getCannedSet();
+		IFSModel		model = IFSModelFactory.create(
+			canned_set.getParameterSpec().getModel());
+
+		IFSModelFactory.setup(model, series,
+			canned_set.getParameterSpec().getParameterValues());
+		model.setPreprocessCache(preprocess_cache);
+		model.setWarmStart(member.getCalibration());
+		model.setRatingExecutor(rating_executor);
+		model.generateForecasts(num_forecasts);
+
+		return model.getForecasts();
+	}
+
+/*******************/
+/* Private Classes */
+/*******************/
+
+/**
+ * Fit all member tasks of an ensemble in parallel.
+ */
+private static final class FitEnsemble extends RecursiveAction {
+	private static final long			serialVersionUID = 1L;
+	private final List<FitMembers>		Tasks;
+
+	/**
+	 * Fully specified constructor.
+	 *
+	 * @param tasks Member tasks.
+	 */
+	public FitEnsemble(
+		List<FitMembers>	tasks
+	) {
+		Tasks = tasks;
+	}
+
+	/**
+	 * Fit the members.
+	 */
+	@Override
+	protected void compute() {
+		ForkJoinTask.invokeAll(Tasks);
+	}
+}
+
+/**
+ * Fit every n-th member of an ensemble starting with a given one.
+ */
+private static final class FitMembers extends RecursiveAction {
+	private static final long					serialVersionUID = 1L;
+	private final List<IFSCannedSetResult>		Members;
+	private final int							First;
+	private final int							Step;
+	private final double[]						Series;
+	private final IFSPreprocessCache			PreprocessCache;
+	private final int							NumForecasts;
+	private final double[][]					Forecasts;
+
+	/**
+	 * Fully specified constructor.
+	 *
+	 * @param members Ensemble members.
+	 * @param first Index of the first member to fit.
+	 * @param step Member index step.
+	 * @param series Series to forecast.
+	 * @param preprocess_cache Preprocessing cache for the series. Can be
+	 *    null.
+	 * @param num_forecasts Number of forecasts to generate.
+	 * @param forecasts Where to put the forecasts of each member (in
+	 *    member order).
+	 */
+	public FitMembers(
+		List<IFSCannedSetResult>	members,
+		int							first,
+		int							step,
+		double[]					series,
+		IFSPreprocessCache			preprocess_cache,
+		int							num_forecasts,
+		double[][]					forecasts
+	) {
+		Members = members;
+		First = first;
+		Step = step;
+		Series = series;
+		PreprocessCache = preprocess_cache;
+		NumForecasts = num_forecasts;
+		Forecasts = forecasts;
+	}
+
+	/**
+	 * Fit the members.
+	 */
+	@Override
+	protected void compute() {
+		for (int i = First; i < Members.size(); i += Step) {
+			IFSCannedSetResult	member = Members.get(i);
+
+			try {
+			Forecasts[i] = fitMember(member, Series, PreprocessCache, null,
+				NumForecasts);
+			}
+			catch (IFSException ex) {
+				throw new RuntimeException("Canned set id '"
+				+ member.getCannedSet().getName()
+				+ "' encountered the following error: "
+				+ ex.getMessage());
+			}
+		}
+	}
+}
+}
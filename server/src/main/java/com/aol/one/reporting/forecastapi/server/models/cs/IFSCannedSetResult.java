@@ -0,0 +1,189 @@
+/********************************************************************************
+ * Copyright 2018, Oath Inc.
+ * Licensed under the terms of the Apache Version 2.0 license.
+ * See LICENSE file in project root directory for terms.
+ ********************************************************************************/
+
+package com.aol.one.reporting.forecastapi.server.models.cs;
+
+import java.util.Collections;
+import java.util.List;
+
+import com.aol.one.reporting.forecastapi.server.models.model.IFSCalibration;
+
+/**
+ * This class contains competition results and provides min and max methods
+ * for comparing results. Besides the canned set and its hold back RMSE, a
+ * result carries the calibrated model state (if any) so the final forecast
+ * with the canned set can be warm started from it. A competition result also
+ * carries the number of canned sets that were evaluated, which is less than
+ * the number competing if the competition deadline passed, and the ranked
+ * results of the best canned sets making up the ensemble.
+ */
+public final class IFSCannedSetResult {
+	private final IFSCannedSet		CannedSet;
+	private final double			RMSE;
+	private final IFSCalibration	Calibration;
+	private final int				NumEvaluated;
+	private final List<IFSCannedSetResult>	Ensemble;
+	
+	/**
+	 * Constructor for the result of a single evaluated canned set.
+	 * 
+	 * @param canned_set Resulting canned set.
+	 * @param rmse Resulting root mean squared error.
+	 * @param calibration Calibrated model state. Can be null.
+	 */
+	public IFSCannedSetResult(
+		IFSCannedSet	canned_set,
+		double			rmse,
+		IFSCalibration	calibration
+	) {
+		this(canned_set, rmse, calibration, 1);
+	}
+	
+	/**
+	 * Constructor for a result without an ensemble.
+	 * 
+	 * @param canned_set Resulting canned set.
+	 * @param rmse Resulting root mean squared error.
+	 * @param calibration Calibrated model state. Can be null.
+	 * @param num_evaluated Number of canned sets evaluated to arrive at the
+	 *    result.
+	 */
+	public IFSCannedSetResult(
+		IFSCannedSet	canned_set,
+		double			rmse,
+		IFSCalibration	calibration,
+		int				num_evaluated
+	) {
+		this(canned_set, rmse, calibration, num_evaluated, null);
+	}
+	
+	/**
+	 * Fully specified constructor.
+	 * 
+	 * @param canned_set Resulting canned set.
+	 * @param rmse Resulting root mean squared error.
+	 * @param calibration Calibrated model state. Can be null.
+	 * @param num_evaluated Number of canned sets evaluated to arrive at the
+	 *    result.
+	 * @param ensemble Ranked results of the best canned sets starting with
+	 *    the winner. Null if the ensemble consists of this result only.
+	 */
+	public IFSCannedSetResult(
+		IFSCannedSet				canned_set,
+		double						rmse,
+		IFSCalibration				calibration,
+		int							num_evaluated,
+		List<IFSCannedSetResult>	ensemble
+	) {
+		CannedSet = canned_set;
+		RMSE = rmse;
+		Calibration = calibration;
+		NumEvaluated = num_evaluated;
+		Ensemble = (ensemble == null) ? null
+			: Collections.unmodifiableList(ensemble);
+	}
+	
+	/**
+	 * Default constructor inaccessible.
+	 */
+	@SuppressWarnings("unused")
+	private IFSCannedSetResult() {
+		CannedSet = null;
+		RMSE = 0.0;
+		Calibration = null;
+		NumEvaluated = 0;
+		Ensemble = null;
+	}
+	
+	/**
+	 * Fetch calibrated model state.
+	 * 
+	 * @return Calibrated model state or null if the model did not
+	 *    publish one.
+	 */
+	public IFSCalibration getCalibration() {
+		return Calibration;
+	}
+	
+	/**
+	 * Fetch canned set.
+	 * 
+	 * @return Canned set.
+	 */
+	public IFSCannedSet getCannedSet() {
+		return CannedSet;
+	}
+	
+	/**
+	 * Fetch the ranked results of the best canned sets.
+	 * 
+	 * @return Ensemble results by increasing RMSE. The first one is the
+	 *    winner.
+	 */
+	public List<IFSCannedSetResult> getEnsemble() {
+		if (Ensemble == null)
+			return Collections.singletonList(this);
+		return Ensemble;
+	}
+	
+	/**
+	 * Fetch the number of canned sets evaluated to arrive at the result.
+	 * 
+	 * @return Number of evaluated canned sets.
+	 */
+	public int getNumEvaluated() {
+		return NumEvaluated;
+	}
+	
+	/**
+	 * Fetch RMSE (root mean squared error).
+	 * 
+	 * @return RMSE.
+	 */
+	public double getRMSE() {
+		return RMSE;
+	}
+	
+	/**
+	 * Compare the RMSEs of two canned set results and return the canned
+	 * set result with the greater RMSE. If the results are equal, the first
+	 * canned set is returned.
+	 * 
+	 * @param first First canned set result.
+	 * @param second Second canned set result.
+	 * 
+	 * @return Canned set with the greater RMSE.
+	 */
+	public static IFSCannedSetResult max(
+		IFSCannedSetResult	first,
+		IFSCannedSetResult	second
+	) {
+		if (first.getRMSE() >= second.getRMSE())
+			return first;
+		else
+			return second;
+	}
+	
+	/**
+	 * Compare the RMSEs of two canned set results and return the canned
+	 * set result with the least RMSE. If the results are equal, the first
+	 * canned set is returned.
+	 * 
+	 * @param first First canned set result.
+	 * @param second Second canned set result.
+	 * 
+	 * @return Canned set with the least RMSE.
+	 */
+	public static IFSCannedSetResult min(
+		IFSCannedSetResult	first,
+		IFSCannedSetResult	second
+	) {
+		if (first.getRMSE() <= second.getRMSE())
+			return first;
+		else
+			return second;
+	}
+}
@@ -9,14 +9,12 @@ package com.aol.one.reporting.forecastapi.server.models.cs;
 import java.util.ArrayList;
 import java.util.List;
 
-import com.aol.one.reporting.forecastapi.server.models.model.IFSDetectSeasonalCycle;
 import com.aol.one.reporting.forecastapi.server.models.model.IFSException;
-import com.aol.one.reporting.forecastapi.server.models.model.IFSSpikeFilter;
-import com.aol.one.reporting.forecastapi.server.models.model.IFSStatistics;
 
 /**
  * Class implementing canned set selection. Given canned set constraints
- * and context, the appropriate canned set is selected.
+ * and context, the appropriate canned set is selected. The seasonality
+ * detected in the process stays with the context for reuse by the models.
  */
 public final class IFSCannedSetSelection {
 
@@ -34,6 +32,25 @@ public final class IFSCannedSetSelection {
 	public static IFSCannedSet selectCannedSet(
 		IFSCannedSetSelectionConstraints	constraints,
 		IFSCannedSetSelectionContext		context
+	) throws IFSException {
+		return getSelectionResult(constraints, context).getCannedSet();
+	}
+
+	/**
+	 * Given constraints and context, select a canned set and return its
+	 * competition result including the calibrated model state.
+	 * 
+	 * @param constraints Canned set selection constraints.
+	 * @param context Canned set selection context.
+	 * 
+	 * @return Selected canned set result.
+	 * 
+	 * @throws IFSException thrown if constraints or context are improperly
+	 *    specified.
+	 */
+	public static IFSCannedSetResult getSelectionResult(
+		IFSCannedSetSelectionConstraints	constraints,
+		IFSCannedSetSelectionContext		context
 	) throws IFSException {
 		if (constraints == null)
 			throw new IFSException(64);
@@ -48,17 +65,15 @@ public final class IFSCannedSetSelection {
 		} else if (constraints.getProfitCentersDecline().contains(context.getProfitCenter())) {
 			canned_set_list.add(constraints.getCannedSetDecline());
 		} else if (context.getSeries().length > constraints.getNumPointsYearLB()
-		&& round(IFSStatistics.getACF(context.getSeriesLast(constraints.getNumPointsYearLB()),
-			true, constraints.getLagYear(), constraints.getLagYear())[0])
-			>= constraints.getACFYearLB()) {
+		&& round(context.getSeriesLastACF(constraints.getNumPointsYearLB(),
+			constraints.getLagYear())) >= constraints.getACFYearLB()) {
 			for (IFSCannedSet canned_set : context.getCannedSetCandidates())
 				if (canned_set.getName().toLowerCase().indexOf("-year") >= 0)
 					canned_set_list.add(canned_set);
 			if (canned_set_list.isEmpty())
 				throw new IFSException(66, context.getID());
-		} else if (IFSDetectSeasonalCycle.getSeasonalCycle(
-			IFSSpikeFilter.getSpikeFilteredSeries(context.getSeries(),
-			constraints.getSpikeFilterWindow())) > 1) {
+		} else if (context.getSeasonalCycle(
+			constraints.getSpikeFilterWindow()) > 1) {
 			for (IFSCannedSet canned_set : context.getCannedSetCandidates())
 				if (canned_set.getName().toLowerCase().endsWith("-auto"))
 					canned_set_list.add(canned_set);
@@ -73,7 +88,8 @@ public final class IFSCannedSetSelection {
 				throw new IFSException(68, context.getID());
 		}
 		
-		return IFSCannedSetCompetition.competeCannedSets(context, canned_set_list);
+		return IFSCannedSetCompetition.getCompetitionResult(context,
+			canned_set_list);
 	}
 
 /*******************/
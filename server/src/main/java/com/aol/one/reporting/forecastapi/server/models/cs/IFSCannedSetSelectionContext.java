@@ -11,33 +11,77 @@ import java.util.SortedSet;
 import java.util.TreeSet;
 
 import com.aol.one.reporting.forecastapi.server.models.model.IFSException;
+import com.aol.one.reporting.forecastapi.server.models.model.IFSPreprocessCache;
+import com.aol.one.reporting.forecastapi.server.models.model.IFSSeriesView;
+import com.aol.one.reporting.forecastapi.server.models.model.IFSStatistics;
 
 /**
  * This class implements a canned set selection context. The context defines
  * the candidate canned sets, the series data, the competition hold back size,
  * a context id, and any nominal values that should be considered in making
- * the canned set selection.
+ * the canned set selection. The context also carries a preprocessing cache
+ * shared by the canned sets competing on its calibration series and whether
+ * the competition is raced.
+ *
+ * The seasonality detected on the series during selection is carried by the
+ * context. The detected cycle is kept in the preprocessing cache so models
+ * fit on the context series with the same spike filter and an automatic
+ * cycle reuse it instead of detecting it again.
+ *
+ * A context can name the competition executor its competition runs on so
+ * batch work can be kept off the executor serving interactive requests.
+ *
+ * The context keeps one copy of the series. The calibration series, the hold
+ * back series and the series end points of every fold are views of it (see
+ * {@link IFSSeriesView}) rather than copies. Models are set up directly on
+ * the calibration views and the preprocessing cache keys on them, so a
+ * calibration series is only turned into an array of its own once per
+ * spike filter setting.
  */
 public final class IFSCannedSetSelectionContext {
+	private Double					ACFLast;
+	private int						ACFLastLag;
+	private int						ACFLastNumPoints;
 	private SortedSet<IFSCannedSet>	CannedSetCandidates;
+	private long					Deadline;
+	private int						EnsembleSize;
+	private IFSCompetitionExecutor	Executor;
+	private IFSSeriesView[]			FoldCalibration;
+	private IFSSeriesView[]			FoldHoldback;
 	private int						ID;
+	private int						NumFolds;
 	private Integer					NumHoldback;
+	private IFSPreprocessCache		PreprocessCache;
 	private Integer					ProfitCenter;
+	private boolean					Racing;
 	private double[]				Series;
-	private double[]				SeriesCalibration;
+	private IFSSeriesView			SeriesCalibration;
 	private double[]				SeriesHoldback;
+	private IFSSeriesView			SeriesView;
 	
 	/**
 	 * Default constructor.
 	 */
 	public IFSCannedSetSelectionContext() {
+		ACFLast = null;
+		ACFLastLag = 0;
+		ACFLastNumPoints = 0;
 		CannedSetCandidates = new TreeSet<IFSCannedSet>();
+		Deadline = 0;
+		EnsembleSize = 1;
+		Executor = null;
+		FoldCalibration = null;
+		FoldHoldback = null;
 		ID = 0;
+		NumFolds = 1;
 		NumHoldback = null;
+		PreprocessCache = new IFSPreprocessCache();
 		ProfitCenter = null;
+		Racing = false;
 		Series = null;
 		SeriesCalibration = null;
 		SeriesHoldback = null;
+		SeriesView = null;
 	}
 	
 	/**
@@ -54,6 +98,34 @@ public final class IFSCannedSetSelectionContext {
 		return CannedSetCandidates;
 	}
 	
+	/**
+	 * Fetch the competition deadline.
+	 * 
+	 * @return Deadline (System.currentTimeMillis()) or 0 if there is none.
+	 */
+	public long getDeadline() {
+		return Deadline;
+	}
+	
+	/**
+	 * Fetch the ensemble size.
+	 * 
+	 * @return Number of best canned sets the competition ranks.
+	 */
+	public int getEnsembleSize() {
+		return EnsembleSize;
+	}
+	
+	/**
+	 * Fetch the competition executor.
+	 * 
+	 * @return Competition executor or null to use the shared one (see
+	 *    {@link IFSCannedSetCompetition#getExecutor()}).
+	 */
+	public IFSCompetitionExecutor getExecutor() {
+		return Executor;
+	}
+	
 	/**
 	 * Fetch context id.
 	 * 
@@ -63,6 +135,42 @@ public final class IFSCannedSetSelectionContext {
 		return ID;
 	}
 	
+	/**
+	 * Fetch the maximum number of rolling origin folds a series supports.
+	 * Every fold needs at least as many calibration points as hold back
+	 * points. The series length and hold back size are adjusted the same
+	 * way as when the series is set.
+	 * 
+	 * @param series_length Number of series points.
+	 * @param num_holdback Hold back size to use.
+	 * 
+	 * @return Maximum number of folds (at least 1).
+	 */
+	public static int getMaxNumFolds(
+		int			series_length,
+		int			num_holdback
+	) {
+		int			length = Math.max(2, series_length);
+		int			holdback = Math.max(1, Math.min(num_holdback, length/2));
+		int			num_folds = 1;
+		
+		while (num_folds < length
+		&& length-holdback-num_folds*Math.max(1, holdback/(num_folds+1))
+		>= holdback)
+			num_folds++;
+		
+		return num_folds;
+	}
+	
+	/**
+	 * Fetch the number of rolling origin folds.
+	 * 
+	 * @return Number of folds (at least 1).
+	 */
+	public int getNumFolds() {
+		return NumFolds;
+	}
+	
 	/**
 	 * Fetch the hold back size.
 	 * 
@@ -77,6 +185,16 @@ public final class IFSCannedSetSelectionContext {
 		return NumHoldback;
 	}
 	
+	/**
+	 * Fetch the preprocessing cache for the current series. A new cache is
+	 * started each time the series is set.
+	 * 
+	 * @return The preprocessing cache.
+	 */
+	public IFSPreprocessCache getPreprocessCache() {
+		return PreprocessCache;
+	}
+	
 	/**
 	 * Fetch the profit center.
 	 * 
@@ -106,20 +224,37 @@ public final class IFSCannedSetSelectionContext {
 	}
 	
 	/**
-	 * Fetch the calibration series.
+	 * Fetch a view of the calibration series.
 	 * 
-	 * @return The calibration series.
+	 * @return The calibration series view.
 	 * 
 	 * @throws IFSException Thrown if a series has not been previously
 	 *    specified.
 	 */
-	public double[] getSeriesCalibration() throws IFSException {
+	public IFSSeriesView getSeriesCalibration() throws IFSException {
 		if (SeriesCalibration != null)
 			return SeriesCalibration;
 		getSeries();
 		return null;
 	}
 	
+	/**
+	 * Fetch a view of the calibration series of a rolling origin fold.
+	 * 
+	 * @param fold Fold index. Fold 0 is the default calibration series.
+	 * 
+	 * @return The fold calibration series view.
+	 * 
+	 * @throws IFSException Thrown if a series has not been previously
+	 *    specified.
+	 */
+	public IFSSeriesView getSeriesCalibration(
+		int		fold
+	) throws IFSException {
+		getSeries();
+		return FoldCalibration[fold];
+	}
+	
 	/**
 	 * Fetch the hold back series.
 	 * 
@@ -136,7 +271,93 @@ public final class IFSCannedSetSelectionContext {
 	}
 	
 	/**
-	 * Fetch the specified number of points off the end of the series.
+	 * Fetch a view of the hold back series of a rolling origin fold.
+	 * 
+	 * @param fold Fold index. Fold 0 is the default hold back series.
+	 * 
+	 * @return The fold hold back series view.
+	 * 
+	 * @throws IFSException Thrown if a series has not been previously
+	 *    specified.
+	 */
+	public IFSSeriesView getSeriesHoldbackView(
+		int		fold
+	) throws IFSException {
+		getSeries();
+		return FoldHoldback[fold];
+	}
+	
+	/**
+	 * Has the competition deadline passed?
+	 * 
+	 * @return True if there is a deadline and it has passed.
+	 */
+	public boolean isDeadlinePassed() {
+		return Deadline > 0 && System.currentTimeMillis() >= Deadline;
+	}
+	
+	/**
+	 * Is the competition raced? In a racing competition canned sets skip
+	 * their remaining folds as soon as they are known to lose to the best
+	 * canned set found so far. The selection is the same either way.
+	 * 
+	 * @return True if the competition is raced.
+	 */
+	public boolean isRacing() {
+		return Racing;
+	}
+	
+	/**
+	 * Fetch the seasonal cycle detected on the spike filtered series. The
+	 * spike filtered series and the cycle come from the preprocessing cache.
+	 * 
+	 * @param clipping_window Spike filter clipping window.
+	 * 
+	 * @return Detected seasonal cycle. 1 if there is none.
+	 * 
+	 * @throws IFSException Thrown if a series has not been previously
+	 *    specified or the clipping window is invalid.
+	 */
+	public int getSeasonalCycle(
+		int		clipping_window
+	) throws IFSException {
+		double[]	series = PreprocessCache.getSpikeFilteredSeries(getSeries(),
+			Integer.toString(clipping_window));
+		
+		return PreprocessCache.getCycle(series, "-1");
+	}
+	
+	/**
+	 * Fetch the auto-correlation at a lag of the specified number of points
+	 * off the end of the series. The value is remembered until the series
+	 * changes.
+	 * 
+	 * @param num_points Number of points to take off the series end.
+	 * @param lag Auto-correlation lag.
+	 * 
+	 * @return Auto-correlation of the end points at the lag.
+	 * 
+	 * @throws IFSException Thrown if a series has not been previously
+	 *    specified.
+	 */
+	public double getSeriesLastACF(
+		int		num_points,
+		int		lag
+	) throws IFSException {
+		if (ACFLast == null || ACFLastNumPoints != num_points
+		|| ACFLastLag != lag) {
+			ACFLast = IFSStatistics.getACF(getSeriesLastView(num_points), true,
+				lag, lag)[0];
+			ACFLastLag = lag;
+			ACFLastNumPoints = num_points;
+		}
+		
+		return ACFLast;
+	}
+	
+	/**
+	 * Fetch a copy of the specified number of points off the end of the
+	 * series.
 	 * 
 	 * @param num_points Number of points to take off the series end.
 	 * 
@@ -149,18 +370,31 @@ public final class IFSCannedSetSelectionContext {
 	public double[] getSeriesLast(
 		int		num_points
 	) throws IFSException {
-		double[]	series = getSeries();
-		double[]	last_points = null;
-		int			last_idx = 0;
+		IFSSeriesView	last_points = getSeriesLastView(num_points);
 		
-		if (series.length < num_points)
+		return (last_points == null) ? null : last_points.toArray();
+	}
+	
+	/**
+	 * Fetch a view of the specified number of points off the end of the
+	 * series.
+	 * 
+	 * @param num_points Number of points to take off the series end.
+	 * 
+	 * @return The specified number of end points or null if the series
+	 *    does not have the requested number of points.
+	 * 
+	 * @throws IFSException Thrown if a series has not been previously
+	 *    specified.
+	 */
+	public IFSSeriesView getSeriesLastView(
+		int		num_points
+	) throws IFSException {
+		getSeries();
+		if (Series.length < num_points)
 			return null;
 		
-		last_idx = series.length-num_points;
-		last_points = new double[num_points];
-		System.arraycopy(Series, last_idx, last_points, 0, num_points);
-
-		return last_points;
+		return SeriesView.slice(Series.length-num_points, num_points);
 	}
 	
 	/**
@@ -181,6 +415,47 @@ public final class IFSCannedSetSelectionContext {
 			CannedSetCandidates.add(canned_set);
 	}
 	
+	/**
+	 * Set the competition deadline. Canned sets not evaluated by the deadline
+	 * are stopped and do not take part in the selection.
+	 * 
+	 * @param deadline Deadline (System.currentTimeMillis()) or 0 (the
+	 *    default) for no deadline.
+	 */
+	public void setDeadline(
+		long		deadline
+	) {
+		Deadline = deadline;
+	}
+	
+	/**
+	 * Set the ensemble size.
+	 * 
+	 * @param ensemble_size Number of best canned sets the competition ranks.
+	 *    1 (the default) only determines the winner.
+	 * 
+	 * @throws IFSException Thrown if the ensemble size is less than one.
+	 */
+	public void setEnsembleSize(
+		int			ensemble_size
+	) throws IFSException {
+		if (ensemble_size < 1)
+			throw new IFSException(81, ID);
+		EnsembleSize = ensemble_size;
+	}
+	
+	/**
+	 * Set the competition executor.
+	 * 
+	 * @param executor Competition executor. Null (the default) uses the
+	 *    shared one.
+	 */
+	public void setExecutor(
+		IFSCompetitionExecutor	executor
+	) {
+		Executor = executor;
+	}
+	
 	/**
 	 * Set context id.
 	 * 
@@ -192,6 +467,31 @@ public final class IFSCannedSetSelectionContext {
 		ID = id;
 	}
 	
+	/**
+	 * Set the number of rolling origin folds to evaluate canned sets over.
+	 * 
+	 * @param num_folds Number of folds. 1 (the default) evaluates the single
+	 *    default calibration/hold back split.
+	 * 
+	 * @throws IFSException Thrown if the number of folds is less than one
+	 *    or more than the series supports (see {@link getMaxNumFolds}).
+	 */
+	public void setNumFolds(
+		int			num_folds
+	) throws IFSException {
+		if (num_folds < 1)
+			throw new IFSException(78, ID);
+		if (Series != null) {
+			int		max_num_folds = getMaxNumFolds(Series.length, NumHoldback);
+			
+			if (num_folds > max_num_folds)
+				throw new IFSException(82, ID, num_folds, max_num_folds);
+		}
+		NumFolds = num_folds;
+		if (Series != null)
+			setFolds();
+	}
+	
 	/**
 	 * Set the profit center to use in selecting a candidate canned set.
 	 * 
@@ -207,6 +507,17 @@ public final class IFSCannedSetSelectionContext {
 		ProfitCenter = profit_center;
 	}
 	
+	/**
+	 * Set whether the competition is raced.
+	 * 
+	 * @param racing True to race the competition.
+	 */
+	public void setRacing(
+		boolean		racing
+	) {
+		Racing = racing;
+	}
+	
 	/**
 	 * Set the series to use in selecting a candidate canned set. If a single
 	 * point is provided the point is duplicated to make at least 2 points.
@@ -217,8 +528,9 @@ public final class IFSCannedSetSelectionContext {
 	 * @param series Time series to use.
 	 * @param num_holdback Hold back size to use.
 	 * 
-	 * @throws IFSException Thrown if series is null or less than 1 point or
-	 *    if hold back size is less than one.
+	 * @throws IFSException Thrown if series is null or less than 1 point,
+	 *    if hold back size is less than one, or if the series does not
+	 *    support the number of folds already set.
 	 */
 	public void setSeries(
 		double[]	series,
@@ -247,10 +559,46 @@ public final class IFSCannedSetSelectionContext {
 		int			num_calibration = 0;
 		
 		num_calibration = Series.length-NumHoldback;
-		SeriesCalibration = new double[num_calibration];
-		System.arraycopy(Series, 0, SeriesCalibration, 0, num_calibration);
+		SeriesView = new IFSSeriesView(Series);
+		SeriesCalibration = SeriesView.slice(0, num_calibration);
+		SeriesHoldback = SeriesView.slice(num_calibration, NumHoldback)
+			.toArray();
+		
+		ACFLast = null;
+		
+		int			max_num_folds = getMaxNumFolds(Series.length, NumHoldback);
+		
+		if (NumFolds > max_num_folds)
+			throw new IFSException(82, ID, NumFolds, max_num_folds);
+		setFolds();
+	}
+
+/*******************/
+/* Private Methods */
+/*******************/
+	
+	/**
+	 * Split the series into the rolling origin folds and start a new
+	 * preprocessing cache for them. The fold calibration and hold back
+	 * series are views of the series. Since views of the same range are
+	 * equal, canned sets sharing preprocessing on a fold share cache
+	 * entries.
+	 */
+	private void setFolds() {
+		int			fold_step = Math.max(1, NumHoldback/NumFolds);
+		int			num_folds = NumFolds;
+		
+		FoldCalibration = new IFSSeriesView[num_folds];
+		FoldHoldback = new IFSSeriesView[num_folds];
+		for (int fold = 0; fold < num_folds; fold++) {
+			int		num_calibration = SeriesCalibration.length()
+								-fold*fold_step;
+			
+			FoldCalibration[fold] = SeriesView.slice(0, num_calibration);
+			FoldHoldback[fold] = SeriesView.slice(num_calibration,
+				NumHoldback);
+		}
 		
-		SeriesHoldback = new double[NumHoldback];
-		System.arraycopy(Series, num_calibration, SeriesHoldback, 0, NumHoldback);
+		PreprocessCache = new IFSPreprocessCache();
 	}
 }
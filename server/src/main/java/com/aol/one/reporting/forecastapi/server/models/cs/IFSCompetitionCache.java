@@ -0,0 +1,331 @@
+/********************************************************************************
+ * Copyright 2018, Oath Inc.
+ * Licensed under the terms of the Apache Version 2.0 license.
+ * See LICENSE file in project root directory for terms.
+ ********************************************************************************/
+
+package com.aol.one.reporting.forecastapi.server.models.cs;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.aol.one.reporting.forecastapi.server.models.model.IFSException;
+import com.aol.one.reporting.forecastapi.server.models.model.IFSParameterValue;
+
+/**
+ * Class implementing a size and time to live bounded cache of competition
+ * results. Competitions are identified by a fingerprint of the context
+ * series, the hold back size, the number of folds, the ensemble size, and
+ * the ordered candidate canned sets including their parameter values (so
+ * spike filter overrides and canned set definition changes lead to different
+ * entries). The series fingerprint consists of two independent 64 bit hashes
+ * and the series length.
+ *
+ * When the cache is full, the least recently used entry is evicted. Expired
+ * entries are evicted when they are looked up.
+ */
+public final class IFSCompetitionCache {
+	private final Map<Key, Entry>	Entries;
+	private final int				MaxEntries;
+	private final long				TimeToLive;
+	private final AtomicLong		NumEvictions = new AtomicLong(0);
+	private final AtomicLong		NumHits = new AtomicLong(0);
+	private final AtomicLong		NumMisses = new AtomicLong(0);
+
+	/**
+	 * Fully specified constructor.
+	 *
+	 * @param max_entries Maximum number of cached results. Must be at
+	 *    least 1.
+	 * @param time_to_live Result time to live in milliseconds. Must be at
+	 *    least 1.
+	 *
+	 * @throws IllegalArgumentException if a bound is out of range.
+	 */
+	public IFSCompetitionCache(
+		int		max_entries,
+		long	time_to_live
+	) {
+		if (max_entries < 1 || time_to_live < 1)
+			throw new IllegalArgumentException("Competition cache bounds are "
+			+ "out of range.");
+
+		MaxEntries = max_entries;
+		TimeToLive = time_to_live;
+		Entries = new LinkedHashMap<Key, Entry>(16, 0.75f, true) {
+			private static final long	serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(
+				Map.Entry<Key, IFSCompetitionCache.Entry>	eldest
+			) {
+				if (size() <= MaxEntries)
+					return false;
+				NumEvictions.incrementAndGet();
+				return true;
+			}
+		};
+	}
+
+	/**
+	 * Remove all cached results.
+	 */
+	public synchronized void clear() {
+		Entries.clear();
+	}
+
+	/**
+	 * Fetch a cached competition result.
+	 *
+	 * @param key Competition key.
+	 *
+	 * @return Cached result or null if there is none or it expired.
+	 */
+	synchronized IFSCannedSetResult get(
+		Key		key
+	) {
+		Entry	entry = Entries.get(key);
+
+		if (entry != null && entry.Expiration <= System.currentTimeMillis()) {
+			Entries.remove(key);
+			NumEvictions.incrementAndGet();
+			entry = null;
+		}
+		if (entry == null) {
+			NumMisses.incrementAndGet();
+			return null;
+		}
+		NumHits.incrementAndGet();
+		return entry.Result;
+	}
+
+	/**
+	 * Build the key identifying a competition.
+	 *
+	 * @param context Canned set selection context.
+	 * @param canned_set_list List of competing canned sets.
+	 *
+	 * @return Competition key.
+	 *
+	 * @throws IFSException if the context series or hold back have not been
+	 *    specified.
+	 */
+	static Key getKey(
+		IFSCannedSetSelectionContext	context,
+		List<IFSCannedSet>				canned_set_list
+	) throws IFSException {
+		double[]		series = context.getSeries();
+		long			hash01 = 0xcbf29ce484222325L;
+		long			hash02 = 0x9e3779b97f4a7c15L;
+		StringBuilder	candidates = new StringBuilder();
+
+		for (int i = 0; i < series.length; i++) {
+			long	bits = Double.doubleToLongBits(series[i]);
+
+			hash01 = (hash01^bits)*0x100000001b3L;
+			hash02 = mix(hash02+bits);
+		}
+
+		for (IFSCannedSet canned_set : canned_set_list) {
+			candidates.append(canned_set.getName()).append('|')
+				.append(canned_set.getParameterSpec().getModel());
+			if (canned_set.getParameterSpec().getParameterValues() != null)
+				for (IFSParameterValue parameter
+				: canned_set.getParameterSpec().getParameterValues())
+					candidates.append('|').append(parameter.getParameter())
+						.append('=').append(parameter.getValue());
+			candidates.append(';');
+		}
+
+		return new Key(hash01, hash02, series.length, context.getNumHoldback(),
+			context.getNumFolds(), context.getEnsembleSize(),
+			candidates.toString());
+	}
+
+	/**
+	 * Fetch the number of evicted results.
+	 *
+	 * @return Number of results evicted for size or age.
+	 */
+	public long getNumEvictions() {
+		return NumEvictions.get();
+	}
+
+	/**
+	 * Fetch the number of cache hits.
+	 *
+	 * @return Number of cache hits.
+	 */
+	public long getNumHits() {
+		return NumHits.get();
+	}
+
+	/**
+	 * Fetch the number of cache misses.
+	 *
+	 * @return Number of cache misses.
+	 */
+	public long getNumMisses() {
+		return NumMisses.get();
+	}
+
+	/**
+	 * Fetch the number of cached results.
+	 *
+	 * @return Number of cached results (including expired ones not yet
+	 *    evicted).
+	 */
+	public synchronized int getSize() {
+		return Entries.size();
+	}
+
+	/**
+	 * Cache a competition result.
+	 *
+	 * @param key Competition key.
+	 * @param result Competition result.
+	 */
+	synchronized void put(
+		Key					key,
+		IFSCannedSetResult	result
+	) {
+		Entries.put(key, new Entry(result,
+			System.currentTimeMillis()+TimeToLive));
+	}
+
+	/**
+	 * Evict all expired results.
+	 */
+	public synchronized void purge() {
+		long				now = System.currentTimeMillis();
+		Iterator<Entry>		entries = Entries.values().iterator();
+
+		while (entries.hasNext())
+			if (entries.next().Expiration <= now) {
+				entries.remove();
+				NumEvictions.incrementAndGet();
+			}
+	}
+
+/*******************/
+/* Private Methods */
+/*******************/
+
+	/**
+	 * Scramble the bits of a hash value (SplitMix64 finalizer).
+	 *
+	 * @param value Value to scramble.
+	 *
+	 * @return Scrambled value.
+	 */
+	private static long mix(
+		long	value
+	) {
+		value = (value^(value >>> 30))*0xbf58476d1ce4e5b9L;
+		value = (value^(value >>> 27))*0x94d049bb133111ebL;
+		return value^(value >>> 31);
+	}
+
+/*******************/
+/* Private Classes */
+/*******************/
+
+/**
+ * Cached competition result and its expiration time.
+ */
+private static final class Entry {
+	private final IFSCannedSetResult	Result;
+	private final long					Expiration;
+
+	/**
+	 * Fully specified constructor.
+	 *
+	 * @param result Competition result.
+	 * @param expiration Expiration time in milliseconds since the epoch.
+	 */
+	public Entry(
+		IFSCannedSetResult	result,
+		long				expiration
+	) {
+		Result = result;
+		Expiration = expiration;
+	}
+}
+
+/**
+ * Competition key.
+ */
+static final class Key {
+	private final long		Hash01;
+	private final long		Hash02;
+	private final int		NumPoints;
+	private final int		NumHoldback;
+	private final int		NumFolds;
+	private final int		EnsembleSize;
+	private final String	Candidates;
+
+	/**
+	 * Fully specified constructor.
+	 *
+	 * @param hash01 First series hash.
+	 * @param hash02 Second series hash.
+	 * @param num_points Series length.
+	 * @param num_holdback Hold back size.
+	 * @param num_folds Number of rolling origin folds.
+	 * @param ensemble_size Number of best canned sets ranked.
+	 * @param candidates Ordered candidate canned set definitions.
+	 */
+	public Key(
+		long	hash01,
+		long	hash02,
+		int		num_points,
+		int		num_holdback,
+		int		num_folds,
+		int		ensemble_size,
+		String	candidates
+	) {
+		Hash01 = hash01;
+		Hash02 = hash02;
+		NumPoints = num_points;
+		NumHoldback = num_holdback;
+		NumFolds = num_folds;
+		EnsembleSize = ensemble_size;
+		Candidates = candidates;
+	}
+
+	@Override
+	public boolean equals(
+		Object	obj
+	) {
+		if (this == obj)
+			return true;
+		if (!(obj instanceof Key))
+			return false;
+
+		Key		that = (Key)obj;
+
+		return Hash01 == that.Hash01
+			&& Hash02 == that.Hash02
+			&& NumPoints == that.NumPoints
+			&& NumHoldback == that.NumHoldback
+			&& NumFolds == that.NumFolds
+			&& EnsembleSize == that.EnsembleSize
+			&& Candidates.equals(that.Candidates);
+	}
+
+	@Override
+	public int hashCode() {
+		int		hash = (int)(Hash01^(Hash01 >>> 32));
+
+		hash = 31*hash+NumPoints;
+		hash = 31*hash+NumHoldback;
+		hash = 31*hash+NumFolds;
+		hash = 31*hash+EnsembleSize;
+		hash = 31*hash+Candidates.hashCode();
+		return hash;
+	}
+}
+}
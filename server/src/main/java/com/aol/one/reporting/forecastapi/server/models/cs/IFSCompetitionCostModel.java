@@ -0,0 +1,274 @@
+/********************************************************************************
+ * Copyright 2018, Oath Inc.
+ * Licensed under the terms of the Apache Version 2.0 license.
+ * See LICENSE file in project root directory for terms.
+ ********************************************************************************/
+
+package com.aol.one.reporting.forecastapi.server.models.cs;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.aol.one.reporting.forecastapi.server.models.model.IFSParameterValue;
+
+/**
+ * Class implementing the cost model competitions are scheduled by. The cost
+ * of executing a canned set is first estimated statically from its model
+ * type, seasonal cycle, number of calibrated weights, and the series length.
+ * The static estimate is then scaled by the ratio of measured execution time
+ * to static estimate observed for the canned set so far (or for all canned
+ * sets if the canned set has not been measured yet). Ratios are exponentially
+ * weighted moving averages so estimates follow the current load.
+ *
+ * The cost model is thread safe.
+ */
+public final class IFSCompetitionCostModel {
+	private static final double		Smoothing = 0.2;
+
+	private final ConcurrentMap<String, AtomicLong>	Ratios
+		= new ConcurrentHashMap<String, AtomicLong>();
+	private final AtomicLong		GlobalRatio
+		= new AtomicLong(Double.doubleToLongBits(Double.NaN));
+	private final AtomicLong		NumMeasurements = new AtomicLong(0);
+
+	/**
+	 * Estimate the cost of executing a canned set on a series.
+	 *
+	 * @param canned_set Canned set to estimate.
+	 * @param num_points Series length.
+	 *
+	 * @return Estimated cost. Only the relative size of estimates matters.
+	 */
+	public double getCost(
+		IFSCannedSet	canned_set,
+		int				num_points
+	) {
+		double		cost = getStaticCost(canned_set, num_points);
+		AtomicLong	ratio = Ratios.get(canned_set.getName());
+		double		scale = Double.longBitsToDouble((ratio == null)
+			? GlobalRatio.get() : ratio.get());
+
+		return Double.isNaN(scale) ? cost : cost*scale;
+	}
+
+	/**
+	 * Fetch the number of execution times measured.
+	 *
+	 * @return Number of measurements.
+	 */
+	public long getNumMeasurements() {
+		return NumMeasurements.get();
+	}
+
+	/**
+	 * Order canned sets by decreasing estimated cost. Canned sets of equal
+	 * cost keep their list order.
+	 *
+	 * @param canned_set_list Canned sets to order.
+	 * @param num_points Series length.
+	 * @param costs Where to put the estimated cost of each canned set (in
+	 *    list order). Must be as long as the list.
+	 *
+	 * @return Canned set list indices by decreasing estimated cost.
+	 */
+	public Integer[] getSchedule(
+		List<IFSCannedSet>	canned_set_list,
+		int					num_points,
+		final double[]		costs
+	) {
+		Integer[]	schedule = new Integer[canned_set_list.size()];
+
+		for (int i = 0; i < schedule.length; i++) {
+			costs[i] = getCost(canned_set_list.get(i), num_points);
+			schedule[i] = i;
+		}
+		Arrays.sort(schedule, new Comparator<Integer>() {
+			public int compare(Integer first, Integer second) {
+				return Double.compare(costs[second], costs[first]);
+			}
+		});
+
+		return schedule;
+	}
+
+	/**
+	 * Record the measured time of executing a canned set on a series.
+	 *
+	 * @param canned_set Executed canned set.
+	 * @param num_points Series length.
+	 * @param time_ns Execution time in nanoseconds.
+	 */
+	public void record(
+		IFSCannedSet	canned_set,
+		int				num_points,
+		long			time_ns
+	) {
+		double		ratio = time_ns/getStaticCost(canned_set, num_points);
+		AtomicLong	canned_set_ratio = Ratios.get(canned_set.getName());
+
+		if (canned_set_ratio == null) {
+			canned_set_ratio = new AtomicLong(Double.doubleToLongBits(
+				Double.NaN));
+			AtomicLong	previous = Ratios.putIfAbsent(canned_set.getName(),
+				canned_set_ratio);
+			if (previous != null)
+				canned_set_ratio = previous;
+		}
+		smooth(canned_set_ratio, ratio);
+		smooth(GlobalRatio, ratio);
+		NumMeasurements.incrementAndGet();
+	}
+
+/*******************/
+/* Private Methods */
+/*******************/
+
+	/**
+	 * Statically estimate the cost of executing a canned set. Models
+	 * calibrated by the grid walk pay for a number of series passes
+	 * proportional to their weights, ARIMA also for an ExpSm backcast, and
+	 * additive seasonal regressions for a dense solve in the cycle length.
+	 *
+	 * @param canned_set Canned set to estimate.
+	 * @param num_points Series length.
+	 *
+	 * @return Static cost estimate.
+	 */
+	private static double getStaticCost(
+		IFSCannedSet	canned_set,
+		int				num_points
+	) {
+		String		model = canned_set.getParameterSpec().getModel();
+		String		arima = null;
+		String		seasonality = "none";
+		String		trend = "none";
+		int			cycle = 0;
+		int			ndays_back = 0;
+		double		points = Math.max(1, num_points);
+
+		if (canned_set.getParameterSpec().getParameterValues() != null)
+			for (IFSParameterValue parameter
+			: canned_set.getParameterSpec().getParameterValues()) {
+				String	name = parameter.getParameter();
+
+				if (name.equals("arima"))
+					arima = parameter.getValue();
+				else if (name.equals("cycle"))
+					cycle = parseInt(parameter.getValue(), 0);
+				else if (name.equals("ndays_back"))
+					ndays_back = parseInt(parameter.getValue(), 0);
+				else if (name.equals("seasonality_type"))
+					seasonality = parameter.getValue();
+				else if (name.equals("trend_type"))
+					trend = parameter.getValue();
+			}
+
+		// An auto-detected cycle is typically weekly.
+
+		if (cycle < 0)
+			cycle = 7;
+		if (ndays_back > 0)
+			points = Math.min(points, ndays_back);
+
+		if (model == null)
+			return points;
+		else if (model.equals("model_expsm")) {
+			int		num_weights = 1;
+
+			if (trend.startsWith("damped"))
+				num_weights += 2;
+			else if (!trend.equals("none"))
+				num_weights += 1;
+			if (!seasonality.equals("none") && cycle > 1)
+				num_weights += 1;
+			return 100.0*num_weights*points;
+		} else if (model.equals("model_arima")) {
+			int		num_weights = getNumArimaWeights(arima);
+
+			return 150.0*num_weights*points+300.0*points;
+		} else if (model.equals("model_regress")) {
+			double	num_columns = 2.0;
+
+			if (seasonality.equals("add") && cycle > 1)
+				num_columns += cycle;
+			return 10.0*points+num_columns*num_columns*(points+num_columns)
+				/100.0;
+		} else if (model.equals("model_ar"))
+			return 20.0*points;
+		else
+			return points;
+	}
+
+	/**
+	 * Count the calibrated coefficients of an ARIMA specification of the
+	 * form (p,d,q) or (p,d,q)(P,D,Q)s.
+	 *
+	 * @param spec ARIMA specification.
+	 *
+	 * @return Number of AR and MA coefficients (at least 1).
+	 */
+	private static int getNumArimaWeights(
+		String	spec
+	) {
+		if (spec == null)
+			return 1;
+
+		String[]	orders = spec.replaceAll("[^0-9,]+", ",").split(",");
+		int			num_weights = 0;
+		int			position = 0;
+
+		for (String order : orders) {
+			if (order.isEmpty())
+				continue;
+			if (position%3 != 1)
+				num_weights += parseInt(order, 0);
+			position++;
+		}
+
+		return Math.max(1, num_weights);
+	}
+
+	/**
+	 * Parse an integer falling back to a default value.
+	 *
+	 * @param value Value to parse.
+	 * @param default_value Value to use if the value is not an integer.
+	 *
+	 * @return Parsed value.
+	 */
+	private static int parseInt(
+		String	value,
+		int		default_value
+	) {
+		try {
+		return Integer.parseInt(value.trim());
+		} catch (NumberFormatException ex) {
+			return default_value;
+		}
+	}
+
+	/**
+	 * Fold a measured ratio into a moving average.
+	 *
+	 * @param average Moving average (double bits). NaN if there is none yet.
+	 * @param ratio Measured ratio.
+	 */
+	private static void smooth(
+		AtomicLong	average,
+		double		ratio
+	) {
+		long		bits = 0;
+		double		value = 0.0;
+
+		do {
+			bits = average.get();
+			value = Double.longBitsToDouble(bits);
+			value = Double.isNaN(value)
+				? ratio : value+Smoothing*(ratio-value);
+		} while (!average.compareAndSet(bits, Double.doubleToLongBits(value)));
+	}
+}
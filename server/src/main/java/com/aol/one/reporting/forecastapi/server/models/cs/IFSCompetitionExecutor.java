@@ -0,0 +1,186 @@
+/********************************************************************************
+ * Copyright 2018, Oath Inc.
+ * Licensed under the terms of the Apache Version 2.0 license.
+ * See LICENSE file in project root directory for terms.
+ ********************************************************************************/
+
+package com.aol.one.reporting.forecastapi.server.models.cs;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.aol.one.reporting.forecastapi.server.models.model.IFSException;
+
+/**
+ * Class implementing the executor canned set competitions run on. The
+ * executor owns a fork join pool of a fixed size and admits a bounded number
+ * of competitions to it at a time. Competitions beyond that wait in a
+ * bounded queue and are rejected once the queue is full. Whether a
+ * competition gets a place among the running and queued ones is decided by
+ * a single non-blocking acquire, so concurrent submissions cannot overfill
+ * the queue. Each competition is also limited in how many of its canned
+ * sets it executes in parallel so a single competition cannot take over
+ * the pool.
+ */
+public final class IFSCompetitionExecutor {
+	private final Semaphore		Admission;
+	private final Semaphore		Places;
+	private final int			MaxParallelism;
+	private final ForkJoinPool	Pool;
+	private final AtomicLong	NumRejected = new AtomicLong(0);
+
+	/**
+	 * Fully specified constructor.
+	 *
+	 * @param pool_size Number of pool threads. Must be at least 1.
+	 * @param max_active Maximum number of competitions running at a time.
+	 *    Must be at least 1.
+	 * @param queue_size Maximum number of competitions waiting to run. Must
+	 *    be at least 0.
+	 * @param max_parallelism Maximum number of canned sets a competition
+	 *    executes in parallel. Must be at least 1.
+	 *
+	 * @throws IllegalArgumentException if a size is out of range.
+	 */
+	public IFSCompetitionExecutor(
+		int		pool_size,
+		int		max_active,
+		int		queue_size,
+		int		max_parallelism
+	) {
+		if (pool_size < 1 || max_active < 1 || queue_size < 0
+		|| max_parallelism < 1)
+			throw new IllegalArgumentException("Competition executor sizes "
+			+ "are out of range.");
+
+		Admission = new Semaphore(max_active, true);
+		Places = new Semaphore((int)Math.min((long)max_active+queue_size,
+			Integer.MAX_VALUE));
+		MaxParallelism = max_parallelism;
+		Pool = new ForkJoinPool(pool_size);
+	}
+
+	/**
+	 * Fetch the pool to rate calibration weights on in parallel (see
+	 * IFSModel#setRatingExecutor) if the pool is quiet, i.e. no
+	 * competition is waiting and less than half the pool threads are
+	 * active. Ratings are small tasks, so they are only worth handing to
+	 * threads that would otherwise be idle.
+	 *
+	 * @return Pool or null if it is busy.
+	 */
+	public Executor getIdleExecutor() {
+		if (getNumQueued() > 0
+		|| 2*Pool.getActiveThreadCount() >= Pool.getParallelism())
+			return null;
+
+		return Pool;
+	}
+
+	/**
+	 * Fetch the maximum number of canned sets a competition executes in
+	 * parallel.
+	 *
+	 * @return Maximum competition parallelism.
+	 */
+	public int getMaxParallelism() {
+		return MaxParallelism;
+	}
+
+	/**
+	 * Fetch the number of pool threads executing canned sets.
+	 *
+	 * @return Number of active pool threads.
+	 */
+	public int getNumActive() {
+		return Pool.getActiveThreadCount();
+	}
+
+	/**
+	 * Fetch the number of competitions waiting to be admitted plus the
+	 * number of tasks queued in the pool.
+	 *
+	 * @return Number of queued competitions and tasks.
+	 */
+	public long getNumQueued() {
+		return Admission.getQueueLength()+Pool.getQueuedSubmissionCount()
+			+Pool.getQueuedTaskCount();
+	}
+
+	/**
+	 * Fetch the number of competitions rejected since the queue was full.
+	 *
+	 * @return Number of rejected competitions.
+	 */
+	public long getNumRejected() {
+		return NumRejected.get();
+	}
+
+	/**
+	 * Fetch the number of tasks stolen between pool threads.
+	 *
+	 * @return Pool steal count.
+	 */
+	public long getNumSteals() {
+		return Pool.getStealCount();
+	}
+
+	/**
+	 * Run a competition task on the pool waiting for it to be admitted
+	 * first.
+	 *
+	 * @param context_id Id of the competing context.
+	 * @param task Competition task.
+	 *
+	 * @return Task result.
+	 *
+	 * @throws IFSException if the queue is full or the wait is interrupted.
+	 */
+	public <T> T invoke(
+		int				context_id,
+		ForkJoinTask<T>	task
+	) throws IFSException {
+		if (!Places.tryAcquire()) {
+			NumRejected.incrementAndGet();
+			throw new IFSException(76, context_id);
+		}
+
+		try {
+		Admission.acquire();
+		} catch (InterruptedException ex) {
+			Places.release();
+			Thread.currentThread().interrupt();
+			throw new IFSException(77, context_id);
+		}
+
+		try {
+		return Pool.invoke(task);
+		} finally {
+			Admission.release();
+			Places.release();
+		}
+	}
+
+	/**
+	 * Shut down the executor waiting up to the given time for running
+	 * competitions to finish.
+	 *
+	 * @param timeout_ms Time to wait in milliseconds.
+	 */
+	public void shutdown(
+		long	timeout_ms
+	) {
+		Pool.shutdown();
+		try {
+		if (!Pool.awaitTermination(timeout_ms, TimeUnit.MILLISECONDS))
+			Pool.shutdownNow();
+		} catch (InterruptedException ex) {
+			Pool.shutdownNow();
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,60 @@
+/********************************************************************************
+ * Copyright 2018, Oath Inc.
+ * Licensed under the terms of the Apache Version 2.0 license.
+ * See LICENSE file in project root directory for terms.
+ ********************************************************************************/
+
+package com.aol.one.reporting.forecastapi.server.models.model;
+
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Class for backcasting a series, that is forecasting the values preceding
+ * its first value. Backcasts serve as initial values for models whose
+ * recursions reach back before the series start (e.g. ARIMA).
+ */
+public final class IFSBackcast {
+
+	/**
+	 * Backcast a series. The reversed series is forecast with multiplicative
+	 * seasonal exponential smoothing.
+	 *
+	 * @param series Time series to backcast.
+	 * @param cycle Seasonal cycle.
+	 * @param num_backcasts Number of backcasts to produce.
+	 * @param deadline Deadline (System.currentTimeMillis()) for calibrating
+	 *    the backcast model or 0 for no deadline.
+	 *
+	 * @return Backcasts. The first backcast is for the value immediately
+	 *    preceding the series. Fewer backcasts are a prefix of more.
+	 *
+	 * @throws IFSException if the backcast model fails. Also thrown (code
+	 *    IFS079) if the deadline passed.
+	 */
+	public static double[] getBackcasts(
+		double[]	series,
+		int			cycle,
+		int			num_backcasts,
+		long		deadline
+	) throws IFSException {
+		double[]				rev_series = new double[series.length];
+
+		for (int i = 0; i < series.length; i++)
+			rev_series[i] = series[series.length-i-1];
+
+		List<IFSParameterValue>	parameters = new LinkedList<IFSParameterValue>();
+		IFSModel				model = null;
+
+		parameters.add(new IFSParameterValue("cycle", Integer.toString(cycle)));
+		parameters.add(new IFSParameterValue("ndays_back", "0"));
+		parameters.add(new IFSParameterValue("seasonality_type", "mult"));
+		parameters.add(new IFSParameterValue("spike_filter", "0"));
+
+		model = IFSModelFactory.create("model_expsm");
+		IFSModelFactory.setup(model, rev_series, parameters);
+		model.setDeadline(deadline);
+		model.generateForecasts(num_backcasts);
+		return model.getForecasts();
+	}
+}
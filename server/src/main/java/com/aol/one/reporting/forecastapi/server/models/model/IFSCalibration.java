@@ -0,0 +1,174 @@
+/********************************************************************************
+ * Copyright 2018, Oath Inc.
+ * Licensed under the terms of the Apache Version 2.0 license.
+ * See LICENSE file in project root directory for terms.
+ ********************************************************************************/
+
+package com.aol.one.reporting.forecastapi.server.models.model;
+
+/**
+ * Calibrated model state. Models calibrated by a search (e.g. the grid walk)
+ * publish the optimal weights along with any initial values they derived so
+ * another instance of the same model can be seeded with them. This is used to
+ * warm start the final full series fit from the state found during the canned
+ * set competition.
+ *
+ * A calibration only applies to a model with the same model name, variant,
+ * and seasonal cycle. Models silently ignore calibrations that do not apply.
+ */
+public final class IFSCalibration {
+	private final String	ModelName;
+	private final String	Variant;
+	private final int		Cycle;
+	private final double[]	Weights;
+	private final double[]	InitialValues;
+	private final double	Rating;
+	private final int		NumEvaluations;
+	private final int		NumEvaluationsSaved;
+
+	/**
+	 * Constructor for a calibration without search statistics.
+	 *
+	 * @param model_name Name of the calibrated model.
+	 * @param variant Model variant that was calibrated.
+	 * @param cycle Seasonal cycle used in calibration.
+	 * @param weights Optimal weights. Can be null.
+	 * @param initial_values Derived initial values. Can be null.
+	 */
+	public IFSCalibration(
+		String		model_name,
+		String		variant,
+		int			cycle,
+		double[]	weights,
+		double[]	initial_values
+	) {
+		this(model_name, variant, cycle, weights, initial_values, Double.NaN,
+			0, 0);
+	}
+
+	/**
+	 * Fully specified constructor.
+	 *
+	 * @param model_name Name of the calibrated model.
+	 * @param variant Model variant that was calibrated.
+	 * @param cycle Seasonal cycle used in calibration.
+	 * @param weights Optimal weights. Can be null.
+	 * @param initial_values Derived initial values. Can be null.
+	 * @param rating Rating of the optimal weights.
+	 * @param num_evaluations Number of ratings evaluated by the search.
+	 * @param num_evaluations_saved Number of ratings the search looked up
+	 *    rather than evaluated.
+	 */
+	public IFSCalibration(
+		String		model_name,
+		String		variant,
+		int			cycle,
+		double[]	weights,
+		double[]	initial_values,
+		double		rating,
+		int			num_evaluations,
+		int			num_evaluations_saved
+	) {
+		ModelName = model_name;
+		Variant = variant;
+		Cycle = cycle;
+		Weights = weights;
+		InitialValues = initial_values;
+		Rating = rating;
+		NumEvaluations = num_evaluations;
+		NumEvaluationsSaved = num_evaluations_saved;
+	}
+
+	/**
+	 * Does this calibration apply to a model variant?
+	 *
+	 * @param model_name Model name.
+	 * @param variant Model variant.
+	 * @param cycle Seasonal cycle.
+	 *
+	 * @return True if the calibration was produced by the same model variant
+	 *    with the same seasonal cycle.
+	 */
+	public boolean isApplicable(
+		String		model_name,
+		String		variant,
+		int			cycle
+	) {
+		return ModelName != null && ModelName.equals(model_name)
+			&& Variant != null && Variant.equals(variant)
+			&& Cycle == cycle;
+	}
+
+	/**
+	 * Fetch seasonal cycle.
+	 *
+	 * @return Seasonal cycle used in calibration.
+	 */
+	public int getCycle() {
+		return Cycle;
+	}
+
+	/**
+	 * Fetch initial values.
+	 *
+	 * @return Derived initial values or null if there are none.
+	 */
+	public double[] getInitialValues() {
+		return InitialValues;
+	}
+
+	/**
+	 * Fetch model name.
+	 *
+	 * @return Name of the calibrated model.
+	 */
+	public String getModelName() {
+		return ModelName;
+	}
+
+	/**
+	 * Fetch the number of ratings evaluated by the search.
+	 *
+	 * @return Number of rating evaluations or 0 if not known.
+	 */
+	public int getNumEvaluations() {
+		return NumEvaluations;
+	}
+
+	/**
+	 * Fetch the number of ratings the search looked up rather than
+	 * evaluated.
+	 *
+	 * @return Number of rating evaluations saved or 0 if not known.
+	 */
+	public int getNumEvaluationsSaved() {
+		return NumEvaluationsSaved;
+	}
+
+	/**
+	 * Fetch the rating of the optimal weights.
+	 *
+	 * @return Optimal weight rating or NaN if not known.
+	 */
+	public double getRating() {
+		return Rating;
+	}
+
+	/**
+	 * Fetch model variant.
+	 *
+	 * @return Model variant that was calibrated.
+	 */
+	public String getVariant() {
+		return Variant;
+	}
+
+	/**
+	 * Fetch optimal weights.
+	 *
+	 * @return Optimal weights or null if there are none.
+	 */
+	public double[] getWeights() {
+		return Weights;
+	}
+}
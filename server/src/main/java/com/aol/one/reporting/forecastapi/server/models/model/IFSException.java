@@ -193,6 +193,20 @@ public final class IFSException extends Exception {
 		 74, "%s expects the number of actuals to be at least 2.");
 		Messages.put(
 		 75, "%s %s parameter only accepts values of 0, 1, or greater than 1.");
+		Messages.put(
+		 76, "Context id %d was rejected since the competition queue is full.");
+		Messages.put(
+		 77, "Context id %d was interrupted waiting for the competition queue.");
+		Messages.put(
+		 78, "Context id %d encountered attempt to set number of folds to less than one.");
+		Messages.put(
+		 79, "%s was stopped since its deadline passed.");
+		Messages.put(
+		 80, "Context id %d had no canned set evaluated before the competition deadline.");
+		Messages.put(
+		 81, "Context id %d encountered attempt to set ensemble size to less than one.");
+		Messages.put(
+		 82, "Context id %d encountered attempt to set number of folds to %d but the series supports at most %d.");
 	}
 	
     /**
@@ -211,20 +211,42 @@ public final class IFSMetrics {
 		double[]	actuals,
 		double[] 	forecasts
 	) throws IFSException {
-		if (actuals == null || actuals.length == 0) {
+		return getRMSE((actuals == null) ? null : new IFSSeriesView(actuals),
+			forecasts);
+	}
+	
+	/**
+	 * Compute the root mean squared error (RMSE) of forecasts versus a view
+	 * of the actuals. The actuals are not copied.
+	 * 
+	 * @param actuals Actual series of values.
+	 * @param forecasts Forecasts for the series.
+	 * 
+	 * @return Root mean squared error.
+	 * 
+	 * @throws IFSException if insufficient data provided or data lengths
+	 *    do not match.
+	 */
+	public static double getRMSE(
+		IFSSeriesView	actuals,
+		double[] 		forecasts
+	) throws IFSException {
+		if (actuals == null || actuals.length() == 0) {
 			throw new IFSException(6, "RMSE");
 		} else if (forecasts == null || forecasts.length == 0) {
 			throw new IFSException(7, "RMSE");
-		} else if (actuals.length != forecasts.length) {
+		} else if (actuals.length() != forecasts.length) {
 			throw new IFSException(8, "RMSE");
 		}
 		
 		double		sq_resid = 0.0;
 		
-		for (int i = 0; i < actuals.length; i++) {
-			sq_resid += (actuals[i]-forecasts[i])*(actuals[i]-forecasts[i]);
+		for (int i = 0; i < forecasts.length; i++) {
+			double	resid = actuals.get(i)-forecasts[i];
+			
+			sq_resid += resid*resid;
 		}
-		sq_resid /= (double)actuals.length;
+		sq_resid /= (double)forecasts.length;
 		return(Math.sqrt(sq_resid));
 	}
 	
@@ -8,6 +8,7 @@ package com.aol.one.reporting.forecastapi.server.models.model;
 
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.Executor;
 
 import com.aol.one.reporting.forecastapi.server.models.model.IFSTransformType.Types;
 
@@ -37,9 +38,14 @@ import com.aol.one.reporting.forecastapi.server.models.model.IFSTransformType.Ty
  * - transform_type
  */
 public abstract class IFSModel {
-	private double[]			Series = null;
+	private IFSSeriesView		Series = null;
 	private double[]			Forecasts = null;
 	private String				CalibInfo = "";
+	private IFSPreprocessCache	PreprocessCache = null;
+	private IFSCalibration		Calibration = null;
+	private IFSCalibration		WarmStart = null;
+	private long				Deadline = 0;
+	private Executor			RatingExecutor = null;
 	IFSParameterValue			Cycle = null;
 	IFSParameterValue			NDaysBack = null;
 	IFSParameterValue			SpikeFilter = null;
@@ -80,14 +86,14 @@ public abstract class IFSModel {
 	 * 
 	 * @throws IFSException Thrown if number of forecasts is less than 1 or
 	 *    series has not been set or some unforeseen event occurs in generating
-	 *    the forecasts.
+	 *    the forecasts. Also thrown (code IFS079) if the deadline passed.
 	 */
 	public final String generateForecasts(
 		int		num_forecasts
 	) throws IFSException {
 		if (num_forecasts < 1)
 			throw new IFSException(9, getModelName());
-		else if (Series == null || Series.length < 1)
+		else if (Series == null || Series.length() < 1)
 			throw new IFSException(10, getModelName());
 		
 		// Check to see if forecasts have been previously generated.
@@ -95,43 +101,88 @@ public abstract class IFSModel {
 		if (Forecasts != null)
 			return CalibInfo;
 		
-		double[]	series = Series;
+		double[]	series = null;
 		Types		transform = Types.None;
 		int			cycle = 0;
 		
-		// Clip any spikes first.
+		// Clip any spikes first. This is where a series view is turned into
+		// an array of its own, so the filter reads the viewed values directly.
 		
 		if (SpikeFilter != null)
-			series = IFSSpikeFilter.getSpikeFilteredSeries(series,
-				SpikeFilter.getValue());
+			series = (PreprocessCache == null)
+				? IFSSpikeFilter.getSpikeFilteredSeries(Series,
+					SpikeFilter.getValue())
+				: PreprocessCache.getSpikeFilteredSeries(Series,
+					SpikeFilter.getValue());
+		else
+			series = Series.getArray();
 		
 		// Determine seasonal cycle.
 		
 		if (Cycle != null)
-			cycle = IFSCycle.getCycle(series, Cycle.getValue());
+			cycle = (PreprocessCache == null)
+				? IFSCycle.getCycle(series, Cycle.getValue())
+				: PreprocessCache.getCycle(series, Cycle.getValue());
 		
 		// Re-shape the time series.
 		
 		if (NDaysBack != null)
-			series = IFSNDaysBack.getNDaysBackSeries(series,
-				NDaysBack.getValue());
+			series = (PreprocessCache == null)
+				? IFSNDaysBack.getNDaysBackSeries(series, NDaysBack.getValue())
+				: PreprocessCache.getNDaysBackSeries(series,
+					NDaysBack.getValue());
 		
 		// Perform any transformation.
 		
 		if (TransformType != null) {
 			transform = IFSTransformType.getTransformType(
 				TransformType.getValue());
-			series = IFSTransformType.getTransformedValues(series, transform);
+			series = (PreprocessCache == null)
+				? IFSTransformType.getTransformedValues(series, transform)
+				: PreprocessCache.getTransformedValues(series, transform);
 		}
 			
+		if (isDeadlinePassed())
+			throw new IFSException(79, getModelName());
+			
 		double[]	forecasts = new double[num_forecasts];
 		
+		Calibration = null;
 		CalibInfo = execModel(series, forecasts, cycle);
 		Forecasts = IFSTransformType.getUntransformedValues(forecasts, transform);
 		
 		return CalibInfo;
 	}
 
+	/**
+	 * Fetch the calibrated model state from the last forecast generation.
+	 * Only models calibrated by a search publish their state.
+	 * 
+	 * @return Calibrated model state or null if there is none.
+	 */
+	public final IFSCalibration getCalibration() {
+		return(Calibration);
+	}
+
+	/**
+	 * Fetch the time by which forecasts must be generated.
+	 * 
+	 * @return Deadline (System.currentTimeMillis()) or 0 if there is none.
+	 */
+	public final long getDeadline() {
+		return(Deadline);
+	}
+
+	/**
+	 * Fetch the executor calibration may rate weights on in parallel.
+	 * 
+	 * @return Rating executor or null if weights are rated in the calling
+	 *    thread.
+	 */
+	public final Executor getRatingExecutor() {
+		return(RatingExecutor);
+	}
+
 	/**
 	 * Fetch the forecasts that were generated. If there aren't any, an
 	 * exception is thrown.
@@ -164,13 +215,42 @@ public abstract class IFSModel {
 		return(Parameters);
 	}
 
+	/**
+	 * Fetch the preprocessing cache consulted when generating forecasts.
+	 * 
+	 * @return Preprocessing cache or null if none is used.
+	 */
+	public final IFSPreprocessCache getPreprocessCache() {
+		return(PreprocessCache);
+	}
+
 	/**
 	 * Fetch the time series used as the basis for forecasts.
 	 * 
 	 * @return Time series data. Can be null if series data has not been set.
+	 *    A series set as a view of part of an array is copied.
 	 */
 	public final double[] getSeries() {
-		return(Series);
+		return((Series == null) ? null : Series.getArray());
+	}
+
+	/**
+	 * Fetch the calibrated model state to warm start calibration from.
+	 * 
+	 * @return Calibrated model state or null if calibration starts cold.
+	 */
+	protected final IFSCalibration getWarmStart() {
+		return(WarmStart);
+	}
+
+	/**
+	 * Has the deadline passed? Models calibrated by a search check this to
+	 * stop calibrating cooperatively.
+	 * 
+	 * @return True if there is a deadline and it has passed.
+	 */
+	protected final boolean isDeadlinePassed() {
+		return(Deadline > 0 && System.currentTimeMillis() >= Deadline);
 	}
 
 	/**
@@ -191,7 +271,33 @@ public abstract class IFSModel {
 	protected abstract void injectParameters(
 		List<IFSParameterValue>	parameters
 	) throws IFSException;
-	
+
+	/**
+	 * Publish the calibrated model state. Models calibrated by a search call
+	 * this from execModel so the state can warm start another instance.
+	 *
+	 * @param calibration Calibrated model state.
+	 */
+	protected final void setCalibration(
+		IFSCalibration	calibration
+	) {
+		Calibration = calibration;
+	}
+
+	/**
+	 * Set the time by which forecasts must be generated. Forecast generation
+	 * is abandoned with an exception (code IFS079) once the deadline has
+	 * passed. Models calibrated by a search stop calibrating when it passes.
+	 * 
+	 * @param deadline Deadline (System.currentTimeMillis()) or 0 (the
+	 *    default) for no deadline.
+	 */
+	public final void setDeadline(
+		long		deadline
+	) {
+		Deadline = deadline;
+	}
+
 	/**
 	 * Set model parameters. Generally a null value is allowed since it is
 	 * expected models will have a robust set of default values allowing
@@ -256,6 +362,51 @@ public abstract class IFSModel {
 		Forecasts = null;
 	}
 	
+	/**
+	 * Set the preprocessing cache to consult when applying the common
+	 * parameters. Models sharing a cache share the preprocessed series which
+	 * are therefore treated as read-only. Setting null (the default) computes
+	 * the preprocessing for this model only.
+	 * 
+	 * @param preprocess_cache Preprocessing cache or null.
+	 */
+	public final void setPreprocessCache(
+		IFSPreprocessCache	preprocess_cache
+	) {
+		PreprocessCache = preprocess_cache;
+		Forecasts = null;
+	}
+	
+	/**
+	 * Set the executor calibration may rate weights on in parallel. Only
+	 * models calibrated by the grid walk use it (see GW), and only pays off
+	 * when the executor has idle threads and the series is long. Forecasts
+	 * are the same with or without it. Setting null (the default) rates
+	 * weights in the calling thread.
+	 * 
+	 * @param rating_executor Rating executor or null.
+	 */
+	public final void setRatingExecutor(
+		Executor	rating_executor
+	) {
+		RatingExecutor = rating_executor;
+	}
+	
+	/**
+	 * Set the calibrated model state to warm start calibration from. This is
+	 * typically the calibration of the same model on a holdback of the
+	 * series. Models ignore a warm start that does not apply to them.
+	 * Setting null (the default) starts calibration cold.
+	 * 
+	 * @param warm_start Calibrated model state or null.
+	 */
+	public final void setWarmStart(
+		IFSCalibration	warm_start
+	) {
+		WarmStart = warm_start;
+		Forecasts = null;
+	}
+	
 	/**
 	 * Set the time series history which is used as the forecast basis. The
 	 * default transformation is none.
@@ -270,6 +421,24 @@ public abstract class IFSModel {
 		if (series == null || series.length < 1)
 			throw new IFSException(12, getModelName());
 			
+		setSeries(new IFSSeriesView(series));
+	}
+	
+	/**
+	 * Set the time series history from a series view. The viewed values are
+	 * not copied until forecasts are generated, and then only once per
+	 * preprocessing cache (see {@link IFSPreprocessCache}).
+	 * 
+	 * @param series Time series view.
+	 * 
+	 * @throws IFSException Thrown if the series is null or empty.
+	 */
+	public final void setSeries(
+		IFSSeriesView	series
+	) throws IFSException {
+		if (series == null || series.length() < 1)
+			throw new IFSException(12, getModelName());
+			
 		Series = series;
 		Forecasts = null;
 	}
@@ -105,6 +105,25 @@ public final class IFSModelFactory {
 		model.setParameters(parameters);
 	}
 	
+	/**
+	 * Setup a forecast model based on a time series view and the model
+	 * parameters. The viewed values are not copied.
+	 * 
+	 * @see #setup(IFSModel, double[], List)
+	 */
+	public static void setup(
+		IFSModel				model,
+		IFSSeriesView			series,
+		List<IFSParameterValue>	parameters
+	) throws IFSException {
+		if (model == null) {
+			throw new IFSException(16);
+		}
+
+		model.setSeries(series);
+		model.setParameters(parameters);
+	}
+	
 	/**
 	 * Fetch usage information for all the supported models.
 	 * 
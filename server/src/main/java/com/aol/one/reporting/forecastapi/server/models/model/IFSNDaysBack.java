@@ -32,7 +32,10 @@ public final class IFSNDaysBack {
 	 * @param series Time series to reshape.
 	 * @param spec Reshaping specification. See above for possible values.
 	 * 
-	 * @return Reshaped time series.
+	 * @return Reshaped time series. The series itself, not a copy, is
+	 *    returned if it is not reshaped, so the result must be treated as
+	 *    read-only like the series (the preprocessing cache hands it to
+	 *    every model sharing the step).
 	 * 
 	 * @throws IFSException for invalid specifications or unexpected series
 	 *    values.
@@ -124,7 +127,12 @@ public final class IFSNDaysBack {
 				nv = 2;
 		}
 	
-		// Allocate and copy into new series shape.
+		// Allocate and copy into new series shape. A series keeping all of
+		// its values is handed back as is like the other preprocessing steps
+		// do when they leave the series unchanged.
+		
+		if (nv == series.length)
+			return(series);
 		
 		double[]	new_series = new double[nv];
 		
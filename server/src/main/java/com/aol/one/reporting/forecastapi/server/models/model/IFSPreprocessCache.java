@@ -0,0 +1,294 @@
+/********************************************************************************
+ * Copyright 2018, Oath Inc.
+ * Licensed under the terms of the Apache Version 2.0 license.
+ * See LICENSE file in project root directory for terms.
+ ********************************************************************************/
+
+package com.aol.one.reporting.forecastapi.server.models.model;
+
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+import com.aol.one.reporting.forecastapi.server.models.model.IFSTransformType.Types;
+
+/**
+ * Class implementing a request scoped cache of the common parameter
+ * preprocessing chain (spike_filter, cycle, ndays_back, transform_type).
+ * Models competing on the same series typically share the same preprocessing
+ * parameters, so each distinct preprocessing step is computed once and the
+ * result is shared by all models consulting the cache. Series backcasts
+ * (ARIMA initial values) are cached the same way since every ARIMA variant
+ * fit to a series backcasts it with the same model, and so are the Gram
+ * matrices the regression variants take their normal equations from.
+ *
+ * Each step is keyed by the identity of its input series and the step
+ * specification. Spike filtering is keyed by a series view (see
+ * {@link IFSSeriesView}), which is equal to another view of the same range of
+ * the same array, so models fit to slices of a series share the filtered
+ * series without the slices being copied. Since a step hands back the same
+ * array object for the same inputs, chained steps resolve to the same cache
+ * entries as long as the originating series is the same array object or
+ * range of it. Cached series are shared read-only and must not be modified
+ * by the models.
+ *
+ * The cache is thread safe. When several threads request the same entry
+ * concurrently, only one of them computes it and the others wait for the
+ * result.
+ */
+public final class IFSPreprocessCache {
+	private static enum		Step {
+		SpikeFilter, Cycle, NDaysBack, Transform, Backcast, RegressionGram
+	};
+
+	private final ConcurrentMap<StepKey, FutureTask<Object>>	Entries
+		= new ConcurrentHashMap<StepKey, FutureTask<Object>>();
+
+	/**
+	 * Fetch series backcasts. Backcasts are computed once per series and
+	 * cycle for enough values to cover two cycles of initial values (the
+	 * most any ARIMA variant uses). Since fewer backcasts are a prefix of
+	 * more, each request is served a copy of the leading backcasts. A
+	 * backcast stopped by its deadline is not cached.
+	 *
+	 * @see IFSBackcast#getBackcasts(double[], int, int, long)
+	 */
+	public double[] getBackcasts(
+		final double[]	series,
+		final int		cycle,
+		int				num_backcasts,
+		final long		deadline
+	) throws IFSException {
+		final int	num_shared = Math.max(num_backcasts, 2*cycle+4);
+		double[]	backcasts = (double[])get(Step.Backcast, series,
+			Integer.toString(cycle), new Callable<Object>() {
+			public Object call() throws IFSException {
+				return IFSBackcast.getBackcasts(series, cycle, num_shared,
+					deadline);
+			}
+		});
+
+		if (backcasts.length < num_backcasts)
+			return IFSBackcast.getBackcasts(series, cycle, num_backcasts,
+				deadline);
+		return Arrays.copyOf(backcasts, num_backcasts);
+	}
+
+	/**
+	 * Fetch seasonal cycle.
+	 *
+	 * @see IFSCycle#getCycle(double[], String)
+	 */
+	public int getCycle(
+		final double[]	series,
+		final String	spec
+	) throws IFSException {
+		return (Integer)get(Step.Cycle, series, spec, new Callable<Object>() {
+			public Object call() throws IFSException {
+				return IFSCycle.getCycle(series, spec);
+			}
+		});
+	}
+
+	/**
+	 * Fetch ndays_back filtered series.
+	 *
+	 * @see IFSNDaysBack#getNDaysBackSeries(double[], String)
+	 */
+	public double[] getNDaysBackSeries(
+		final double[]	series,
+		final String	spec
+	) throws IFSException {
+		return (double[])get(Step.NDaysBack, series, spec, new Callable<Object>() {
+			public Object call() throws IFSException {
+				return IFSNDaysBack.getNDaysBackSeries(series, spec);
+			}
+		});
+	}
+
+	/**
+	 * Fetch number of cached entries.
+	 *
+	 * @return Number of cached preprocessing results.
+	 */
+	public int getNumEntries() {
+		return Entries.size();
+	}
+
+	/**
+	 * Fetch the Gram matrix of a regression design family and a series.
+	 *
+	 * @see IFSRegressionGram#IFSRegressionGram(double[], int, int)
+	 */
+	public IFSRegressionGram getRegressionGram(
+		final double[]	series,
+		final int		cycle,
+		final int		cycle2
+	) throws IFSException {
+		return (IFSRegressionGram)get(Step.RegressionGram, series,
+			String.format("%d,%d", cycle, cycle2), new Callable<Object>() {
+			public Object call() {
+				return new IFSRegressionGram(series, cycle, cycle2);
+			}
+		});
+	}
+
+	/**
+	 * Fetch spike filtered series.
+	 *
+	 * @see IFSSpikeFilter#getSpikeFilteredSeries(double[], String)
+	 */
+	public double[] getSpikeFilteredSeries(
+		double[]		series,
+		String			clipping_window
+	) throws IFSException {
+		return getSpikeFilteredSeries((series == null) ? null
+			: new IFSSeriesView(series), clipping_window);
+	}
+
+	/**
+	 * Fetch spike filtered series of a series view.
+	 *
+	 * @see IFSSpikeFilter#getSpikeFilteredSeries(IFSSeriesView, String)
+	 */
+	public double[] getSpikeFilteredSeries(
+		final IFSSeriesView	series,
+		final String		clipping_window
+	) throws IFSException {
+		return (double[])get(Step.SpikeFilter, series, clipping_window,
+			new Callable<Object>() {
+			public Object call() throws IFSException {
+				return IFSSpikeFilter.getSpikeFilteredSeries(series,
+					clipping_window);
+			}
+		});
+	}
+
+	/**
+	 * Fetch transformed series.
+	 *
+	 * @see IFSTransformType#getTransformedValues(double[], Types)
+	 */
+	public double[] getTransformedValues(
+		final double[]	values,
+		final Types		type
+	) throws IFSException {
+		return (double[])get(Step.Transform, values, type.toString(),
+			new Callable<Object>() {
+			public Object call() {
+				return IFSTransformType.getTransformedValues(values, type);
+			}
+		});
+	}
+
+/*******************/
+/* Private Methods */
+/*******************/
+
+	/**
+	 * Fetch a cached preprocessing result computing it first if it is not
+	 * yet cached.
+	 *
+	 * @param step Preprocessing step.
+	 * @param series Step input series (array or series view).
+	 * @param spec Step specification.
+	 * @param computation Computes the result if it is not cached.
+	 *
+	 * @return Preprocessing result.
+	 *
+	 * @throws IFSException if the computation fails. Failed computations are
+	 *    not cached.
+	 */
+	private Object get(
+		Step				step,
+		Object				series,
+		String				spec,
+		Callable<Object>	computation
+	) throws IFSException {
+		StepKey				key = new StepKey(step, series, spec);
+		FutureTask<Object>	entry = Entries.get(key);
+
+		if (entry == null) {
+			FutureTask<Object>	new_entry = new FutureTask<Object>(computation);
+
+			entry = Entries.putIfAbsent(key, new_entry);
+			if (entry == null) {
+				entry = new_entry;
+				entry.run();
+			}
+		}
+
+		try {
+		return entry.get();
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new IFSException("Preprocessing was interrupted.");
+		} catch (ExecutionException ex) {
+			Entries.remove(key, entry);
+			if (ex.getCause() instanceof IFSException)
+				throw (IFSException)ex.getCause();
+			throw new IFSException("Preprocessing encountered an unexpected "
+			+ "error. " + ex.getCause());
+		}
+	}
+
+/*******************/
+/* Private Classes */
+/*******************/
+
+/**
+ * Preprocessing step key. An input series array is compared by identity and
+ * an input series view by the range of the array it views.
+ */
+private static final class StepKey {
+	private final Step		StepType;
+	private final Object	Series;
+	private final String	Spec;
+
+	/**
+	 * Fully specified constructor.
+	 *
+	 * @param step Preprocessing step.
+	 * @param series Step input series (array or series view).
+	 * @param spec Step specification.
+	 */
+	public StepKey(
+		Step		step,
+		Object		series,
+		String		spec
+	) {
+		StepType = step;
+		Series = series;
+		Spec = spec;
+	}
+
+	@Override
+	public boolean equals(
+		Object	obj
+	) {
+		if (this == obj)
+			return true;
+		if (!(obj instanceof StepKey))
+			return false;
+
+		StepKey	that = (StepKey)obj;
+
+		return StepType == that.StepType
+			&& (Series == null ? that.Series == null
+				: Series.equals(that.Series))
+			&& (Spec == null ? that.Spec == null : Spec.equals(that.Spec));
+	}
+
+	@Override
+	public int hashCode() {
+		int		hash = StepType.hashCode();
+
+		hash = 31*hash+(Series == null ? 0 : Series.hashCode());
+		hash = 31*hash+(Spec == null ? 0 : Spec.hashCode());
+		return hash;
+	}
+}
+}
@@ -0,0 +1,163 @@
+/********************************************************************************
+ * Copyright 2018, Oath Inc.
+ * Licensed under the terms of the Apache Version 2.0 license.
+ * See LICENSE file in project root directory for terms.
+ ********************************************************************************/
+
+package com.aol.one.reporting.forecastapi.server.models.model;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Class implementing the design (training vectors) shared by a family of
+ * regression models. The regression model variants differ only in which
+ * polynomial trend and seasonal harmonic columns they regress on, so for a
+ * given seasonal cycle they all take their columns from the same design:
+ *
+ *    t, t^2, t^3,
+ *    sin(2*pi*t/cycle), cos(2*pi*t/cycle),
+ *    t*sin(2*pi*t/cycle), t*cos(2*pi*t/cycle),
+ *    and the same four columns of a second harmonic, which is that of
+ *    cycle2 if there is one and the 2cd harmonic of cycle otherwise.
+ *
+ * Row i of the design is for t = i+1. Designs do not depend on the series
+ * and are cached across fits.
+ *
+ * @see IFSRegressionGram
+ */
+public final class IFSRegressionDesign {
+	public static final int					NumPolyColumns = 3;
+	public static final int					HarmonicColumn = 3;
+	public static final int					SecondHarmonicColumn = 7;
+	public static final int					NumColumns = 11;
+
+	private static final int				MaxCachedDesigns = 32;
+	private static final int				DesignRowBlock = 128;
+	private static final int				RecurrenceLength = 256;
+	private static final Map<String, double[]>	Designs
+		= new LinkedHashMap<String, double[]>(2*MaxCachedDesigns, 0.75f, true) {
+		private static final long	serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(
+			Map.Entry<String, double[]>	eldest
+		) {
+			return size() > MaxCachedDesigns;
+		}
+	};
+
+	/**
+	 * Fetch a family design. Since row i of a design does not depend on the
+	 * number of rows, a cached design with at least as many rows serves as
+	 * well. Designs are built with the number of rows rounded up to a
+	 * multiple of DesignRowBlock so that fits of slightly different lengths
+	 * (e.g. holdback and final fits) share them. Only the MaxCachedDesigns
+	 * most recently used designs are kept.
+	 *
+	 * @param num_rows Number of design rows needed.
+	 * @param cycle Seasonal cycle. If it is not greater than 1 the harmonic
+	 *    columns are all 0.
+	 * @param cycle2 Cycle of the second harmonic. 0 for the 2cd harmonic of
+	 *    the seasonal cycle.
+	 *
+	 * @return Design values stored row after row, NumColumns per row. The
+	 *    design is shared and must not be modified.
+	 */
+	public static double[] getDesign(
+		int			num_rows,
+		int			cycle,
+		int			cycle2
+	) {
+		String		key = String.format("cycle:%d,cycle2:%d", cycle, cycle2);
+		double[]	x = null;
+
+		synchronized (Designs) {
+			x = Designs.get(key);
+		}
+		if (x != null && x.length >= num_rows*NumColumns)
+			return x;
+
+		// Build the design. The polynomial columns come first followed by
+		// the harmonic columns.
+
+		int			nr = ((num_rows+DesignRowBlock-1)/DesignRowBlock)
+						*DesignRowBlock;
+		double		t = 0;
+
+		x = new double[nr*NumColumns];
+		for (int i = 0; i < nr; i++) {
+			t = 1.0;
+			for (int j = 0; j < NumPolyColumns; j++) {
+				t *= i+1;
+				x[i*NumColumns+j] = t;
+			}
+		}
+		if (cycle > 1) {
+			fillHarmonic(x, nr, HarmonicColumn, cycle, 1);
+			if (cycle2 > 1)
+				fillHarmonic(x, nr, SecondHarmonicColumn, cycle2, 1);
+			else
+				fillHarmonic(x, nr, SecondHarmonicColumn, cycle, 2);
+		}
+
+		synchronized (Designs) {
+			double[]	cached = Designs.get(key);
+
+			if (cached == null || cached.length < x.length)
+				Designs.put(key, x);
+		}
+
+		return x;
+	}
+
+/*******************/
+/* Private Methods */
+/*******************/
+
+	/**
+	 * Fill out the columns of a harmonic of a seasonal cycle in a design,
+	 * sine and cosine followed by them multiplied by t. Rather than calling
+	 * the trigonometric functions per row, the sine and cosine are advanced
+	 * by the angle addition formulas, restarting from exact values every
+	 * RecurrenceLength rows so rounding errors cannot accumulate.
+	 *
+	 * @param x Design values stored row after row.
+	 * @param num_rows Number of design rows.
+	 * @param col First column to fill out.
+	 * @param cycle Seasonal cycle.
+	 * @param harmonic Harmonic of the cycle.
+	 */
+	private static void fillHarmonic(
+		double[]	x,
+		int			num_rows,
+		int			col,
+		int			cycle,
+		int			harmonic
+	) {
+		double		w = 2.0*Math.PI*(double)harmonic/(double)cycle;
+		double		sin_w = Math.sin(w);
+		double		cos_w = Math.cos(w);
+		double		sin_t = 0.0;
+		double		cos_t = 0.0;
+
+		for (int i = 0; i < num_rows; i++) {
+			int			row = i*NumColumns+col;
+			double		t = (double)(i+1);
+
+			if (i%RecurrenceLength == 0) {
+				sin_t = Math.sin(w*t);
+				cos_t = Math.cos(w*t);
+			}
+			x[row] = sin_t;
+			x[row+1] = cos_t;
+			x[row+2] = t*sin_t;
+			x[row+3] = t*cos_t;
+
+			double		sin_next = sin_t*cos_w+cos_t*sin_w;
+
+			cos_t = cos_t*cos_w-sin_t*sin_w;
+			sin_t = sin_next;
+		}
+	}
+}
@@ -0,0 +1,155 @@
+/********************************************************************************
+ * Copyright 2018, Oath Inc.
+ * Licensed under the terms of the Apache Version 2.0 license.
+ * See LICENSE file in project root directory for terms.
+ ********************************************************************************/
+
+package com.aol.one.reporting.forecastapi.server.models.model;
+
+/**
+ * Class implementing the Gram matrix of a regression design family (see
+ * {@link IFSRegressionDesign}) and a series, i.e. the cross products over the
+ * series values of a constant 1 column, the design columns, and the series.
+ * The normal equations of every regression variant fit to the series are a
+ * sub-block of it. Cross products are computed the first time a design
+ * column is asked for, in one pass over the series for all new columns, so
+ * fitting several variants costs about as much as fitting the one with the
+ * most columns. The sums are accumulated row by row.
+ *
+ * The Gram matrix is thread safe.
+ */
+public final class IFSRegressionGram {
+	private final double[]		Series;
+	private final int			Cycle;
+	private final int			Cycle2;
+	private final double[][]	Gram;
+	private final boolean[]		IsComputed;
+
+	/**
+	 * Fully specified constructor. No design column is computed yet.
+	 *
+	 * @param series Series values. It is kept and must not be modified.
+	 * @param cycle Design seasonal cycle.
+	 * @param cycle2 Design cycle of the second harmonic.
+	 */
+	public IFSRegressionGram(
+		double[]	series,
+		int			cycle,
+		int			cycle2
+	) {
+		int			ng = IFSRegressionDesign.NumColumns+2;
+
+		Series = series;
+		Cycle = cycle;
+		Cycle2 = cycle2;
+		Gram = new double[ng][];
+		IsComputed = new boolean[IFSRegressionDesign.NumColumns];
+		for (int j = 0; j < ng; j++)
+			Gram[j] = new double[ng];
+
+		Gram[0][0] = series.length;
+		for (int i = 0; i < series.length; i++)
+			Gram[0][ng-1] += series[i];
+		Gram[ng-1][0] = Gram[0][ng-1];
+	}
+
+	/**
+	 * Fetch the Gram matrix of design columns and the series.
+	 *
+	 * @param columns Design columns.
+	 *
+	 * @return Symmetric Gram matrix, 2 more than the number of columns
+	 *    square. Index 0 is the constant 1 column, indices 1 through the
+	 *    number of columns the design columns, and the last index the
+	 *    series. The series cross product with itself is not computed.
+	 */
+	public synchronized double[][] getGram(
+		int[]		columns
+	) {
+		int			nc = IFSRegressionDesign.NumColumns;
+		int			ng = columns.length+2;
+		int[]		idx = new int[ng];
+		double[][]	g = new double[ng][];
+
+		addColumns(columns);
+		idx[0] = 0;
+		for (int j = 0; j < columns.length; j++)
+			idx[j+1] = columns[j]+1;
+		idx[ng-1] = nc+1;
+		for (int j = 0; j < ng; j++) {
+			g[j] = new double[ng];
+			for (int k = 0; k < ng; k++)
+				g[j][k] = Gram[idx[j]][idx[k]];
+		}
+
+		return g;
+	}
+
+/*******************/
+/* Private Methods */
+/*******************/
+
+	/**
+	 * Compute the cross products of design columns not computed yet with
+	 * the constant, the computed and new design columns, and the series.
+	 *
+	 * @param columns Design columns.
+	 */
+	private void addColumns(
+		int[]		columns
+	) {
+		int			nc = IFSRegressionDesign.NumColumns;
+		int			iy = nc+1;
+		boolean[]	is_new = new boolean[nc];
+		int[]		new_cols = new int[nc];
+		int[]		old_cols = new int[nc];
+		int			num_new = 0;
+		int			num_old = 0;
+
+		for (int j = 0; j < columns.length; j++)
+			if (!IsComputed[columns[j]] && !is_new[columns[j]]) {
+				is_new[columns[j]] = true;
+				new_cols[num_new++] = columns[j];
+			}
+		if (num_new == 0)
+			return;
+		for (int j = 0; j < nc; j++)
+			if (IsComputed[j])
+				old_cols[num_old++] = j;
+
+		double[]	x = IFSRegressionDesign.getDesign(Series.length, Cycle,
+			Cycle2);
+
+		for (int i = 0; i < Series.length; i++) {
+			int			row = i*nc;
+			double		y = Series[i];
+
+			for (int j = 0; j < num_new; j++) {
+				int			a = new_cols[j];
+				double		xa = x[row+a];
+				double[]	ga = Gram[a+1];
+
+				ga[0] += xa;
+				ga[iy] += xa*y;
+				for (int k = 0; k < num_old; k++)
+					ga[old_cols[k]+1] += xa*x[row+old_cols[k]];
+				for (int k = j; k < num_new; k++)
+					ga[new_cols[k]+1] += xa*x[row+new_cols[k]];
+			}
+		}
+
+		// Mirror the new cross products.
+
+		for (int j = 0; j < num_new; j++) {
+			int			a = new_cols[j]+1;
+
+			Gram[0][a] = Gram[a][0];
+			Gram[iy][a] = Gram[a][iy];
+			for (int k = 0; k < num_old; k++)
+				Gram[old_cols[k]+1][a] = Gram[a][old_cols[k]+1];
+			for (int k = j; k < num_new; k++)
+				Gram[new_cols[k]+1][a] = Gram[a][new_cols[k]+1];
+			IsComputed[new_cols[j]] = true;
+		}
+	}
+}
@@ -0,0 +1,163 @@
+/********************************************************************************
+ * Copyright 2018, Oath Inc.
+ * Licensed under the terms of the Apache Version 2.0 license.
+ * See LICENSE file in project root directory for terms.
+ ********************************************************************************/
+
+package com.aol.one.reporting.forecastapi.server.models.model;
+
+/**
+ * Class implementing a read-only view of a time series. A view is a range of
+ * a backing array, so slicing a series does not copy its values. Views share
+ * the backing array which must therefore not be modified while views of it
+ * are in use. Two views are equal if they view the same range of the same
+ * backing array, which lets the preprocessing cache key on views the way it
+ * keys on arrays.
+ */
+public final class IFSSeriesView {
+	private final double[]	Values;
+	private final int		Offset;
+	private final int		Length;
+
+	/**
+	 * View of a whole array.
+	 *
+	 * @param values Backing array.
+	 */
+	public IFSSeriesView(
+		double[]	values
+	) {
+		this(values, 0, values.length);
+	}
+
+	/**
+	 * View of a range of an array.
+	 *
+	 * @param values Backing array.
+	 * @param offset Index of the first value in the backing array.
+	 * @param length Number of values.
+	 *
+	 * @throws IndexOutOfBoundsException if the range is not in the array.
+	 */
+	public IFSSeriesView(
+		double[]	values,
+		int			offset,
+		int			length
+	) {
+		if (offset < 0 || length < 0 || offset > values.length-length)
+			throw new IndexOutOfBoundsException(String.format("View %d+%d "
+			+ "is out of the range of %d values.", offset, length,
+			values.length));
+		Values = values;
+		Offset = offset;
+		Length = length;
+	}
+
+	@Override
+	public boolean equals(
+		Object	obj
+	) {
+		if (this == obj)
+			return true;
+		if (!(obj instanceof IFSSeriesView))
+			return false;
+
+		IFSSeriesView	that = (IFSSeriesView)obj;
+
+		return Values == that.Values && Offset == that.Offset
+			&& Length == that.Length;
+	}
+
+	/**
+	 * Fetch a value.
+	 *
+	 * @param i Index in the view.
+	 *
+	 * @return Value.
+	 */
+	public double get(
+		int		i
+	) {
+		return Values[Offset+i];
+	}
+
+	/**
+	 * Fetch the values as an array. The backing array itself is returned if
+	 * the view covers all of it. Otherwise the values are copied.
+	 *
+	 * @return Values. Must not be modified.
+	 */
+	public double[] getArray() {
+		if (Offset == 0 && Length == Values.length)
+			return Values;
+		return toArray();
+	}
+
+	@Override
+	public int hashCode() {
+		int		hash = System.identityHashCode(Values);
+
+		hash = 31*hash+Offset;
+		hash = 31*hash+Length;
+		return hash;
+	}
+
+	/**
+	 * Fetch the number of values.
+	 *
+	 * @return Number of values.
+	 */
+	public int length() {
+		return Length;
+	}
+
+	/**
+	 * Slice the view without copying.
+	 *
+	 * @param offset Index of the first value in this view.
+	 * @param length Number of values.
+	 *
+	 * @return View of the values.
+	 *
+	 * @throws IndexOutOfBoundsException if the range is not in this view.
+	 */
+	public IFSSeriesView slice(
+		int		offset,
+		int		length
+	) {
+		if (offset < 0 || length < 0 || offset > Length-length)
+			throw new IndexOutOfBoundsException(String.format("Slice %d+%d "
+			+ "is out of the range of %d values.", offset, length, Length));
+		return new IFSSeriesView(Values, Offset+offset, length);
+	}
+
+	/**
+	 * Copy the values into a new array.
+	 *
+	 * @return Values.
+	 */
+	public double[] toArray() {
+		double[]	values = new double[Length];
+
+		System.arraycopy(Values, Offset, values, 0, Length);
+		return values;
+	}
+
+	/**
+	 * Fetch the backing array. Index 0 of the view is at the view offset.
+	 *
+	 * @return Backing array. Must not be modified.
+	 */
+	double[] getValues() {
+		return Values;
+	}
+
+	/**
+	 * Fetch the index of the first value in the backing array.
+	 *
+	 * @return View offset.
+	 */
+	int getOffset() {
+		return Offset;
+	}
+}
@@ -27,16 +27,8 @@ public final class IFSSpikeFilter {
 		double[]	series,
 		String		clipping_window
 	) throws IFSException {
-		int			i_clipping_window = 0;
-		
-		try {
-		i_clipping_window = Integer.parseInt(clipping_window);
-		}
-		catch (NumberFormatException ex) {
-			throw new IFSException(40);
-		}
-		
-		return(getSpikeFilteredSeries(series, i_clipping_window));
+		return(getSpikeFilteredSeries(series,
+			parseClippingWindow(clipping_window)));
 	}
 
 	/**
@@ -57,18 +49,62 @@ public final class IFSSpikeFilter {
 		double[]	series,
 		int			clipping_window
 	) throws IFSException {
-		if (series == null
-		|| series.length < MinClippingWindow
-		|| clipping_window == Disable)
+		if (series == null)
 			return(series);
 		
+		return(getSpikeFilteredSeries(new IFSSeriesView(series),
+			clipping_window));
+	}
+	
+	/**
+	 * Fetch spike filtered series of a series view with a string
+	 * clipping_window parameter.
+	 * 
+	 * @see getSpikeFilteredSeries(IFSSeriesView series, int clipping_window).
+	 */
+	public static double[] getSpikeFilteredSeries(
+		IFSSeriesView	series,
+		String			clipping_window
+	) throws IFSException {
+		return(getSpikeFilteredSeries(series,
+			parseClippingWindow(clipping_window)));
+	}
+
+	/**
+	 * Fetch spike filtered series of a series view with an integer
+	 * clipping_window parameter. The viewed values are read from the backing
+	 * array without copying them first, so only the filtered series is
+	 * allocated.
+	 * 
+	 * @param series Time series view to filter.
+	 * @param clipping_window Size of clipping window. A value of 0 disables
+	 *    the filter. Otherwise clipping window is expected to be in the range
+	 *    3 to 30 inclusive.
+	 *    
+	 * @return Viewed values (see {@link IFSSeriesView#getArray()}) or
+	 *    filtered series depending on clipping_window value.
+	 *    
+	 * @throws IFSException Thrown for invalid clipping window specifications
+	 *    or an unexpected error occurred.
+	 */
+	public static double[] getSpikeFilteredSeries(
+		IFSSeriesView	series,
+		int				clipping_window
+	) throws IFSException {
+		if (series == null)
+			return(null);
+		if (series.length() < MinClippingWindow
+		|| clipping_window == Disable)
+			return(series.getArray());
+		
 		if (clipping_window != Disable
 		&& !(MinClippingWindow <= clipping_window 
 				&& clipping_window <= MaxClippingWindow))
 			throw new IFSException(41);
 		
 		double[]		filtered_series
-			= SpikeSmooth.smoothSpike(series, clipping_window);
+			= SpikeSmooth.smoothSpike(series.getValues(), series.getOffset(),
+				series.length(), clipping_window);
 		if (filtered_series == null)
 			throw new IFSException(42);
 		
@@ -89,4 +125,28 @@ public final class IFSSpikeFilter {
 + "             window size. The minimum size is 3 and the maximum is 30.\n"
 		);
 	}
+	
+/*******************/
+/* Private Methods */
+/*******************/
+	
+	/**
+	 * Parse a string clipping_window parameter.
+	 * 
+	 * @param clipping_window Clipping window parameter value.
+	 * 
+	 * @return Clipping window.
+	 * 
+	 * @throws IFSException Thrown if the value is not an integer.
+	 */
+	private static int parseClippingWindow(
+		String		clipping_window
+	) throws IFSException {
+		try {
+		return Integer.parseInt(clipping_window);
+		}
+		catch (NumberFormatException ex) {
+			throw new IFSException(40);
+		}
+	}
 }
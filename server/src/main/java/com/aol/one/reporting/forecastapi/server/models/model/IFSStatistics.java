@@ -37,7 +37,31 @@ public final class IFSStatistics {
 		int			beg_lag,
 		int			end_lag
 	) throws IFSException {
-		if (ts == null || ts.length < 1) {
+		return getACF((ts == null) ? null : new IFSSeriesView(ts), demean,
+			beg_lag, end_lag);
+	}
+	
+	/**
+	 * Compute ACF for designated lag range of a series view. The viewed
+	 * values are not copied.
+	 * 
+	 * @param ts Time series view to evaluate.
+	 * @param demean If the value is true, the covariances are about the sample
+	 *    mean. If the value is false, they are not.
+	 * @param beg_lag Beginning lag.
+	 * @param end_lag Ending lag.
+	 * 
+	 * @return Auto-correlation coefficients for the specified lag range.
+	 * 
+	 * @throws IFSException if no values are specified.
+	 */
+	public static double[] getACF(
+		IFSSeriesView	ts,
+		boolean			demean,
+		int				beg_lag,
+		int				end_lag
+	) throws IFSException {
+		if (ts == null || ts.length() < 1) {
 			throw new IFSException(43);
 		}
 		
@@ -46,8 +70,8 @@ public final class IFSStatistics {
 		double		mean = (demean) ? getMean(ts) : 0.0;
 		double		sum0 = 0.0;
 		
-		for (double value : ts) {
-			sum0 += (value-mean)*(value-mean);
+		for (int i = 0; i < ts.length(); i++) {
+			sum0 += (ts.get(i)-mean)*(ts.get(i)-mean);
 		}
         if (IFSStatistics.isZero(sum0)) {
         	for (int i = 0; i < coefficients.length; i++) {
@@ -56,8 +80,8 @@ public final class IFSStatistics {
         } else
         	for (int i = beg_lag; i <= end_lag; i++) {
         		double	sum = 0.0;
-        		for (int j = 0; j < ts.length-i; j++) {
-        			sum += (ts[j]-mean)*(ts[j+i]-mean);
+        		for (int j = 0; j < ts.length()-i; j++) {
+        			sum += (ts.get(j)-mean)*(ts.get(j+i)-mean);
         		}
         		coefficients[i-beg_lag] = sum / sum0;
         	}
@@ -146,13 +170,26 @@ public final class IFSStatistics {
 	 */
 	public static double getMean(
 		double[]	series
+	) {
+	    return getMean(new IFSSeriesView(series));
+	}
+
+	/**
+	 * Compute the sample mean of a series view.
+	 * 
+	 * @param series Values for which to compute the mean.
+	 * 
+	 * @return Sample mean.
+	 */
+	public static double getMean(
+		IFSSeriesView	series
 	) {
 	    double		mean = 0.0;
 	        	
-	    for (double value : series) {
-	    	mean += value;
+	    for (int i = 0; i < series.length(); i++) {
+	    	mean += series.get(i);
 	    }
-	    mean /= series.length;
+	    mean /= series.length();
 	    return mean;
 	}
 
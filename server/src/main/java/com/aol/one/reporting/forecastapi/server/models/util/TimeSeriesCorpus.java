@@ -0,0 +1,459 @@
+/********************************************************************************
+ * Copyright 2018, Oath Inc.
+ * Licensed under the terms of the Apache Version 2.0 license.
+ * See LICENSE file in project root directory for terms.
+ ********************************************************************************/
+
+package com.aol.one.reporting.forecastapi.server.models.util;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.aol.one.reporting.forecastapi.server.models.model.IFSException;
+
+
+/**
+ * Class implementing a binary time series corpus. A corpus holds a
+ * collection of time series in one file so batch tools need not parse a
+ * text file per series. The corpus is read through memory mapping so a
+ * series is sliced from the file without loading the corpus onto the heap.
+ *
+ * All values are little endian. The file starts with a 16 byte header (the
+ * magic number 0x43534649 ("IFSC"), the format version, the number of
+ * series N, and a reserved int), followed by an index of N+1 longs holding
+ * the value offset of each series and the total number of values, followed
+ * by the series values as contiguous doubles from least recent to most
+ * recent value per series.
+ */
+public final class TimeSeriesCorpus implements Closeable {
+	private static final int	MAGIC = 0x43534649;
+	private static final int	VERSION = 1;
+	private static final int	HEADER_SIZE = 16;
+	private static final long	SEGMENT_SIZE = 1L << 30;
+
+	private final String			Path;
+	private final RandomAccessFile	CorpusFile;
+	private final int				NumSeries;
+	private final ByteBuffer		Index;
+	private final long				DataStart;
+	private final ByteBuffer[]		Segments;
+
+	/**
+	 * Open a corpus mapping it into memory.
+	 *
+	 * @param path Corpus file path.
+	 *
+	 * @throws IFSException Thrown if the file cannot be read or is not a
+	 *    corpus.
+	 */
+	public TimeSeriesCorpus(
+		String	path
+	) throws IFSException {
+		Path = path;
+		try {
+		CorpusFile = new RandomAccessFile(path, "r");
+		} catch (FileNotFoundException ex) {
+			throw new IFSException("File read error occurred. "
+			+ ex.getMessage());
+		}
+
+		try {
+		FileChannel	channel = CorpusFile.getChannel();
+		long		file_size = channel.size();
+		ByteBuffer	header = map(channel, 0, Math.min(HEADER_SIZE, file_size));
+
+		if (header.limit() < HEADER_SIZE || header.getInt(0) != MAGIC)
+			throw new IFSException(String.format("File '%s' is not a time "
+			+ "series corpus.", path));
+		if (header.getInt(4) != VERSION)
+			throw new IFSException(String.format("Time series corpus '%s' "
+			+ "version %d is not supported.", path, header.getInt(4)));
+		NumSeries = header.getInt(8);
+		DataStart = HEADER_SIZE+8L*(NumSeries+1L);
+		if (NumSeries < 0 || DataStart > file_size)
+			throw new IFSException(String.format("Time series corpus '%s' "
+			+ "index is truncated.", path));
+
+		Index = map(channel, HEADER_SIZE, DataStart-HEADER_SIZE);
+		if (DataStart+8*getOffset(NumSeries) > file_size)
+			throw new IFSException(String.format("Time series corpus '%s' "
+			+ "values are truncated.", path));
+
+		// Map the values in segments since a single mapping is limited to
+		// 2GB. A series crossing a segment boundary is copied instead of
+		// sliced.
+
+		long	data_size = file_size-DataStart;
+
+		Segments = new ByteBuffer[(int)((data_size+SEGMENT_SIZE-1)
+			/SEGMENT_SIZE)];
+		for (int i = 0; i < Segments.length; i++)
+			Segments[i] = map(channel, DataStart+i*SEGMENT_SIZE,
+				Math.min(SEGMENT_SIZE, data_size-i*SEGMENT_SIZE));
+		} catch (IOException ex) {
+			close();
+			throw new IFSException("Unexpected error occurred in reading "
+			+ "time series corpus. " + ex.getMessage());
+		} catch (IFSException ex) {
+			close();
+			throw ex;
+		}
+	}
+
+	/**
+	 * Release the corpus file. Series buffers already fetched stay valid.
+	 */
+	@Override
+	public void close() {
+		try {
+		CorpusFile.close();
+		} catch (IOException ex) {
+			// Nothing left to release.
+		}
+	}
+
+	/**
+	 * Fetch the number of series in the corpus.
+	 *
+	 * @return Number of series.
+	 */
+	public int getNumSeries() {
+		return NumSeries;
+	}
+
+	/**
+	 * Fetch the corpus file path.
+	 *
+	 * @return Corpus file path.
+	 */
+	public String getPath() {
+		return Path;
+	}
+
+	/**
+	 * Fetch a series as a newly allocated array.
+	 *
+	 * @param series_index Series index (0 based).
+	 *
+	 * @return Series values.
+	 *
+	 * @throws IFSException Thrown if the index is out of range.
+	 */
+	public double[] getSeries(
+		int		series_index
+	) throws IFSException {
+		DoubleBuffer	buffer = getSeriesBuffer(series_index);
+		double[]		series = new double[buffer.remaining()];
+
+		buffer.get(series);
+		return series;
+	}
+
+	/**
+	 * Fetch a read only buffer over a series. The buffer is a slice of the
+	 * mapped corpus so no values are copied (unless the series crosses a
+	 * mapping segment boundary).
+	 *
+	 * @param series_index Series index (0 based).
+	 *
+	 * @return Series values buffer.
+	 *
+	 * @throws IFSException Thrown if the index is out of range.
+	 */
+	public DoubleBuffer getSeriesBuffer(
+		int		series_index
+	) throws IFSException {
+		if (series_index < 0 || series_index >= NumSeries)
+			throw new IFSException(String.format("Series index %d is not "
+			+ "in the range 0 to %d of time series corpus '%s'.",
+			series_index, NumSeries-1, Path));
+
+		long	start = 8*getOffset(series_index);
+		long	end = 8*getOffset(series_index+1);
+		int		segment = (int)(start/SEGMENT_SIZE);
+
+		if (end < start)
+			throw new IFSException(String.format("Time series corpus '%s' "
+			+ "index is corrupt at series %d.", Path, series_index));
+		if (end == start)
+			return DoubleBuffer.allocate(0).asReadOnlyBuffer();
+		if ((end-1)/SEGMENT_SIZE == segment)
+			return slice(Segments[segment], start-segment*SEGMENT_SIZE,
+				end-start).asDoubleBuffer();
+
+		ByteBuffer	copy = ByteBuffer.allocate((int)(end-start))
+			.order(ByteOrder.LITTLE_ENDIAN);
+
+		for (long position = start; position < end; ) {
+			long	segment_end = Math.min(end,
+				(position/SEGMENT_SIZE+1)*SEGMENT_SIZE);
+
+			copy.put(slice(Segments[(int)(position/SEGMENT_SIZE)],
+				position%SEGMENT_SIZE, segment_end-position));
+			position = segment_end;
+		}
+		copy.flip();
+		return copy.asReadOnlyBuffer().order(ByteOrder.LITTLE_ENDIAN)
+			.asDoubleBuffer();
+	}
+
+	/**
+	 * Fetch the number of values of a series without reading it.
+	 *
+	 * @param series_index Series index (0 based).
+	 *
+	 * @return Series length.
+	 *
+	 * @throws IFSException Thrown if the index is out of range.
+	 */
+	public int getSeriesLength(
+		int		series_index
+	) throws IFSException {
+		if (series_index < 0 || series_index >= NumSeries)
+			throw new IFSException(String.format("Series index %d is not "
+			+ "in the range 0 to %d of time series corpus '%s'.",
+			series_index, NumSeries-1, Path));
+
+		return (int)(getOffset(series_index+1)-getOffset(series_index));
+	}
+
+	/**
+	 * Fetch a time series from a corpus given as the corpus file path
+	 * followed by '#' and the series index (0 based). Any other input is
+	 * read as a time series file or standard input (see
+	 * {@link GetTimeSeries}).
+	 *
+	 * @param input Corpus series, file path, or "--" for standard input.
+	 *
+	 * @return A vector containing the time series.
+	 *
+	 * @throws IFSException Thrown if an error is encountered reading the
+	 *    values.
+	 */
+	public static double[] getTimeSeries(
+		String	input
+	) throws IFSException {
+		int		separator = input.lastIndexOf('#');
+		int		series_index = 0;
+
+		if (separator < 0 || !isCorpus(input.substring(0, separator)))
+			return GetTimeSeries.getTimeSeries(input);
+
+		try {
+		series_index = Integer.parseInt(input.substring(separator+1));
+		} catch (NumberFormatException ex) {
+			throw new IFSException(String.format("Series index '%s' is not "
+			+ "an integer.", input.substring(separator+1)));
+		}
+
+		try (TimeSeriesCorpus corpus = new TimeSeriesCorpus(
+			input.substring(0, separator))) {
+		return corpus.getSeries(series_index);
+		}
+	}
+
+	/**
+	 * Check whether a file is a time series corpus by its magic number.
+	 *
+	 * @param path File path.
+	 *
+	 * @return True if the file starts with the corpus magic number.
+	 */
+	public static boolean isCorpus(
+		String	path
+	) {
+		if (path == null || path.equals("--"))
+			return false;
+
+		try (RandomAccessFile file = new RandomAccessFile(path, "r")) {
+		return file.length() >= HEADER_SIZE
+			&& Integer.reverseBytes(file.readInt()) == MAGIC;
+		} catch (IOException ex) {
+			return false;
+		} catch (SecurityException ex) {
+			return false;
+		}
+	}
+
+	/**
+	 * Convert a file of time series files (see {@link GetTimeSeriesFiles})
+	 * to a corpus. Series are read one at a time so the collection need not
+	 * fit on the heap.
+	 *
+	 * @param ts_files File containing time series file paths.
+	 * @param corpus_file Corpus file path to write.
+	 *
+	 * @return Number of series written.
+	 *
+	 * @throws IFSException Thrown if a series cannot be read or the corpus
+	 *    cannot be written.
+	 */
+	public static int writeCorpus(
+		String	ts_files,
+		String	corpus_file
+	) throws IFSException {
+		List<String>	ts_file_list = getTimeSeriesFileList(ts_files);
+		int				num_series = ts_file_list.size();
+		ByteBuffer		index = ByteBuffer.allocate(8*(num_series+1))
+			.order(ByteOrder.LITTLE_ENDIAN);
+		ByteBuffer		buffer = ByteBuffer.allocate(1 << 16)
+			.order(ByteOrder.LITTLE_ENDIAN);
+		long			num_values = 0;
+
+		try (RandomAccessFile file = new RandomAccessFile(corpus_file, "rw")) {
+		FileChannel	channel = file.getChannel();
+
+		channel.truncate(0);
+		channel.position(HEADER_SIZE+index.capacity());
+		for (String ts_file : ts_file_list) {
+			double[]	ts = GetTimeSeries.getTimeSeries(ts_file);
+
+			index.putLong(num_values);
+			for (double value : ts) {
+				if (!buffer.hasRemaining())
+					write(channel, buffer);
+				buffer.putDouble(value);
+			}
+			num_values += ts.length;
+		}
+		write(channel, buffer);
+		index.putLong(num_values);
+
+		// The header and index go last so a partly written corpus is not
+		// mistaken for a complete one.
+
+		ByteBuffer	header = ByteBuffer.allocate(HEADER_SIZE)
+			.order(ByteOrder.LITTLE_ENDIAN);
+
+		header.putInt(MAGIC).putInt(VERSION).putInt(num_series).putInt(0);
+		channel.position(HEADER_SIZE);
+		write(channel, index);
+		channel.position(0);
+		write(channel, header);
+		} catch (IOException ex) {
+			throw new IFSException("Unexpected error occurred in writing "
+			+ "time series corpus. " + ex.getMessage());
+		}
+
+		return num_series;
+	}
+
+/*******************/
+/* Private Methods */
+/*******************/
+
+	/**
+	 * Fetch the value offset of a series from the index.
+	 *
+	 * @param series_index Series index (0 based). The number of series
+	 *    fetches the total number of values.
+	 *
+	 * @return Value offset.
+	 */
+	private long getOffset(
+		int		series_index
+	) {
+		return Index.getLong(8*series_index);
+	}
+
+	/**
+	 * Read the time series file paths of a file of time series files.
+	 *
+	 * @param ts_files File containing time series file paths.
+	 *
+	 * @return Time series file paths.
+	 *
+	 * @throws IFSException Thrown if the file cannot be read.
+	 */
+	private static List<String> getTimeSeriesFileList(
+		String	ts_files
+	) throws IFSException {
+		List<String>	ts_file_list = new ArrayList<String>();
+		String			line = null;
+
+		try (BufferedReader fin = new BufferedReader(new InputStreamReader(
+			new FileInputStream(ts_files)))) {
+		while ((line = fin.readLine()) != null)
+			if (!line.trim().isEmpty())
+				ts_file_list.add(line.trim());
+		} catch (FileNotFoundException ex) {
+			throw new IFSException("File read error occurred. "
+			+ ex.getMessage());
+		} catch (IOException ex) {
+			throw new IFSException("Unexpected error occurred in reading "
+			+ "time series. " + ex.getMessage());
+		}
+
+		return ts_file_list;
+	}
+
+	/**
+	 * Map part of a file read only with little endian order.
+	 *
+	 * @param channel File channel.
+	 * @param position Start of the mapping.
+	 * @param size Size of the mapping (at most 2GB).
+	 *
+	 * @return Mapped buffer.
+	 *
+	 * @throws IOException Thrown if the mapping fails.
+	 */
+	private static ByteBuffer map(
+		FileChannel	channel,
+		long		position,
+		long		size
+	) throws IOException {
+		return channel.map(FileChannel.MapMode.READ_ONLY, position, size)
+			.order(ByteOrder.LITTLE_ENDIAN);
+	}
+
+	/**
+	 * Slice part of a buffer without copying.
+	 *
+	 * @param buffer Buffer to slice.
+	 * @param position Start of the slice.
+	 * @param size Size of the slice.
+	 *
+	 * @return Little endian slice.
+	 */
+	private static ByteBuffer slice(
+		ByteBuffer	buffer,
+		long		position,
+		long		size
+	) {
+		ByteBuffer	slice = buffer.duplicate();
+
+		slice.limit((int)(position+size));
+		slice.position((int)position);
+		return slice.slice().order(ByteOrder.LITTLE_ENDIAN);
+	}
+
+	/**
+	 * Write out the values put into a buffer and clear it.
+	 *
+	 * @param channel File channel.
+	 * @param buffer Buffer to write.
+	 *
+	 * @throws IOException Thrown if the write fails.
+	 */
+	private static void write(
+		FileChannel	channel,
+		ByteBuffer	buffer
+	) throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining())
+			channel.write(buffer);
+		buffer.clear();
+	}
+}
@@ -0,0 +1,69 @@
+/********************************************************************************
+ * Copyright 2018, Oath Inc.
+ * Licensed under the terms of the Apache Version 2.0 license.
+ * See LICENSE file in project root directory for terms.
+ ********************************************************************************/
+package com.aol.one.reporting.forecastapi.server.resource;
+
+import com.aol.one.reporting.forecastapi.server.model.response.BulkForecastResponse;
+import com.aol.one.reporting.forecastapi.server.service.BulkForecastService;
+import com.codahale.metrics.annotation.ExceptionMetered;
+import com.codahale.metrics.annotation.Timed;
+import com.wordnik.swagger.annotations.Api;
+import com.wordnik.swagger.annotations.ApiOperation;
+import com.wordnik.swagger.annotations.ApiResponse;
+import com.wordnik.swagger.annotations.ApiResponses;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.validation.constraints.NotNull;
+import javax.ws.rs.Consumes;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+@Path("/forecast/bulk")
+@Produces(BulkForecastService.NDJSON)
+@Consumes(BulkForecastService.NDJSON)
+@Api(
+        value = "Bulk Forecast",
+        description = "Produce forecasts for a newline delimited stream of forecast requests",
+        position = 6
+)
+public class BulkForecastResource {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BulkForecastResource.class);
+
+    /**
+     * Generate forecasts for a stream of time-series
+     *
+     * @return streamed forecast responses
+     */
+    @POST
+    @Timed
+    @ExceptionMetered
+    @ApiOperation(value = "Bulk Forecast",
+            notes = "Produce forecasts given newline delimited forecast requests (one per line, as for /forecast). "
+                    + "Newline delimited responses are streamed back as each forecast completes and carry the index of "
+                    + "their request line.",
+            response = BulkForecastResponse.class)
+    @ApiResponses({
+            @ApiResponse(code = 200, message = "Bulk forecast started"),
+            @ApiResponse(code = 500, message = "Internal server error due to reading or writing the stream")})
+
+    public Response generateForecasts(@NotNull final InputStream requests) {
+        LOG.debug("Get forecasts for a stream of time series");
+        StreamingOutput responses = new StreamingOutput() {
+            @Override
+            public void write(OutputStream output) throws IOException {
+                BulkForecastService.forecast(requests, output);
+            }
+        };
+        return Response.ok(responses).build();
+    }
+}
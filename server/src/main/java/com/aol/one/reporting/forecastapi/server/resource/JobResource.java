@@ -0,0 +1,177 @@
+/********************************************************************************
+ * Copyright 2018, Oath Inc.
+ * Licensed under the terms of the Apache Version 2.0 license.
+ * See LICENSE file in project root directory for terms.
+ ********************************************************************************/
+package com.aol.one.reporting.forecastapi.server.resource;
+
+import com.aol.one.reporting.forecastapi.server.model.request.JobRequest;
+import com.aol.one.reporting.forecastapi.server.model.response.BulkForecastResponse;
+import com.aol.one.reporting.forecastapi.server.model.response.JobResponse;
+import com.aol.one.reporting.forecastapi.server.service.BatchJobService;
+import com.aol.one.reporting.forecastapi.server.service.BulkForecastService;
+import com.codahale.metrics.annotation.ExceptionMetered;
+import com.codahale.metrics.annotation.Timed;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.wordnik.swagger.annotations.Api;
+import com.wordnik.swagger.annotations.ApiOperation;
+import com.wordnik.swagger.annotations.ApiResponse;
+import com.wordnik.swagger.annotations.ApiResponses;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotNull;
+import javax.ws.rs.Consumes;
+import javax.ws.rs.GET;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.UriInfo;
+import java.io.File;
+import java.io.InputStream;
+import java.net.URI;
+
+@Path("/jobs")
+@Produces(MediaType.APPLICATION_JSON)
+@Api(
+        value = "Batch Forecast Jobs",
+        description = "Submit batch forecast jobs and poll their progress and results",
+        position = 7
+)
+public class JobResource {
+
+    private static final Logger LOG = LoggerFactory.getLogger(JobResource.class);
+
+    private static final ObjectWriter WRITER = new ObjectMapper().writer().withDefaultPrettyPrinter();
+
+    @Context
+    private UriInfo uriInfo;
+
+    /**
+     * Submit a job for an uploaded series file
+     *
+     * @return job status
+     */
+    @POST
+    @Consumes(BulkForecastService.NDJSON)
+    @Timed
+    @ExceptionMetered
+    @ApiOperation(value = "Submit Batch Forecast Job",
+            notes = "Submit a job forecasting newline delimited forecast requests (one per line, as for /forecast) "
+                    + "sent as the request body",
+            response = JobResponse.class)
+    @ApiResponses({
+            @ApiResponse(code = 202, message = "Job submitted"),
+            @ApiResponse(code = 500, message = "Internal server error due to encoding the data"),
+            @ApiResponse(code = 412, message = "Pre condition failed due to the job not being stored")})
+
+    public Response submitJob(@NotNull final InputStream series) {
+        try {
+            return submitted(BatchJobService.submit(series));
+        } catch (Exception e) {
+            LOG.error("Failed to submit job. Error : " + e.getMessage(), e);
+            return Response.status(Response.Status.PRECONDITION_FAILED).entity(e.getMessage()).type("text/plain")
+                    .build();
+        }
+    }
+
+    /**
+     * Submit a job for a local series file
+     *
+     * @return job status
+     */
+    @POST
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Timed
+    @ExceptionMetered
+    @ApiOperation(value = "Submit Batch Forecast Job For A Local File",
+            notes = "Submit a job forecasting the newline delimited forecast requests of a file in the server's jobs input directory",
+            response = JobResponse.class)
+    @ApiResponses({
+            @ApiResponse(code = 202, message = "Job submitted"),
+            @ApiResponse(code = 500, message = "Internal server error due to encoding the data"),
+            @ApiResponse(code = 412, message = "Pre condition failed due to the file not being readable or not being in the input directory")})
+
+    public Response submitJob(@Valid @NotNull final JobRequest jobRequest) {
+        try {
+            return submitted(BatchJobService.submit(jobRequest.getPath()));
+        } catch (Exception e) {
+            LOG.error("Failed to submit job. Error : " + e.getMessage(), e);
+            return Response.status(Response.Status.PRECONDITION_FAILED).entity(e.getMessage()).type("text/plain")
+                    .build();
+        }
+    }
+
+    /**
+     * Fetch job status
+     *
+     * @return job status
+     */
+    @GET
+    @Path("/{id}")
+    @Timed
+    @ExceptionMetered
+    @ApiOperation(value = "Batch Forecast Job Status",
+            notes = "Report the state, progress, throughput and results link of a job",
+            response = JobResponse.class)
+    @ApiResponses({
+            @ApiResponse(code = 200, message = "Job found"),
+            @ApiResponse(code = 404, message = "Job not found"),
+            @ApiResponse(code = 500, message = "Internal server error due to encoding the data")})
+
+    public Response getJob(@PathParam("id") String id) {
+        JobResponse job = BatchJobService.getJob(id);
+        if (job == null) {
+            return Response.status(Response.Status.NOT_FOUND).build();
+        }
+        try {
+            return Response.ok().entity(WRITER.writeValueAsString(withResultsLink(job))).build();
+        } catch (JsonProcessingException e) {
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * Download job results
+     *
+     * @return results file
+     */
+    @GET
+    @Path("/{id}/results")
+    @Produces(BulkForecastService.NDJSON)
+    @Timed
+    @ExceptionMetered
+    @ApiOperation(value = "Batch Forecast Job Results",
+            notes = "Download the results of a job, one line per series in series order. While the job runs the "
+                    + "results so far are returned.",
+            response = BulkForecastResponse.class)
+    @ApiResponses({
+            @ApiResponse(code = 200, message = "Results found"),
+            @ApiResponse(code = 404, message = "Job or results not found")})
+
+    public Response getResults(@PathParam("id") String id) {
+        File results = BatchJobService.getResults(id);
+        if (results == null) {
+            return Response.status(Response.Status.NOT_FOUND).build();
+        }
+        return Response.ok(results).build();
+    }
+
+    private Response submitted(JobResponse job) throws JsonProcessingException {
+        URI location = uriInfo.getBaseUriBuilder().path("jobs").path(job.getId()).build();
+        return Response.status(Response.Status.ACCEPTED).location(location)
+                .entity(WRITER.writeValueAsString(withResultsLink(job))).type(MediaType.APPLICATION_JSON).build();
+    }
+
+    private JobResponse withResultsLink(JobResponse job) {
+        job.setResults(uriInfo.getBaseUriBuilder().path("jobs").path(job.getId()).path("results").build().toString());
+        return job;
+    }
+}
@@ -45,6 +45,8 @@ public class SimpleForecastResource {
 
     private static final Logger LOG = LoggerFactory.getLogger(SimpleForecastResource.class);
 
+    private static final ObjectWriter WRITER = new ObjectMapper().writer().withDefaultPrettyPrinter();
+
     @Context
     private HttpHeaders headers;
     @Context
@@ -73,14 +75,12 @@ public class SimpleForecastResource {
     public Response generateForecast(
             @Valid @NotNull final ImpressionForecastRequest forecastRequest) {
         long start = System.currentTimeMillis();
-        ObjectWriter ow = new ObjectMapper().writer().withDefaultPrettyPrinter();
-
         ForecastResponse response = null;
         LOG.debug("Get a forecast for a given time series");
         String json = null;
         try {
             response = ForecastService.impressionForecast(forecastRequest, start);
-            json = ow.writeValueAsString(response);
+            json = WRITER.writeValueAsString(response);
 
             if (headers.getRequestHeaders().get(HttpHeaders.ACCEPT).contains(MediaType.APPLICATION_JSON)) {
                 if (response != null) {
@@ -0,0 +1,607 @@
+/********************************************************************************
+ * Copyright 2018, Oath Inc.
+ * Licensed under the terms of the Apache Version 2.0 license.
+ * See LICENSE file in project root directory for terms.
+ ********************************************************************************/
+
+package com.aol.one.reporting.forecastapi.server.service;
+
+import com.aol.one.reporting.forecastapi.server.app.IfsConfig;
+import com.aol.one.reporting.forecastapi.server.model.response.BulkForecastResponse;
+import com.aol.one.reporting.forecastapi.server.model.response.JobResponse;
+import com.aol.one.reporting.forecastapi.server.models.cs.IFSCompetitionExecutor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Asynchronous batch forecast jobs. A job is a file of newline delimited impression forecast requests, either uploaded
+ * with the job or named by its path in the configured input directory. Jobs run one at a time and the series of a job
+ * are forecast concurrently on a batch competition executor of its own, so batch work never competes with interactive
+ * requests for the shared competition executor.
+ * <p>
+ * Each job has a directory under the jobs directory holding its state, its uploaded series (if any) and its results.
+ * Results are appended in series order, one {@link BulkForecastResponse} line per series, so the complete lines of the
+ * results file are the job checkpoint. When the service starts, unfinished jobs resume after their last complete
+ * result line.
+ */
+public final class BatchJobService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BatchJobService.class);
+
+    private static final String DIRECTORY_PROPERTY_NAME = "ifs.jobs.dir";
+    private static final String INPUT_DIRECTORY_PROPERTY_NAME = "ifs.jobs.input.dir";
+    private static final String POOL_SIZE_PROPERTY_NAME = "ifs.jobs.pool.size";
+    private static final String MAX_IN_FLIGHT_PROPERTY_NAME = "ifs.jobs.max.inflight";
+
+    private static final String STATE_FILE_NAME = "job.properties";
+    private static final String INPUT_FILE_NAME = "input.ndjson";
+    private static final String RESULTS_FILE_NAME = "results.ndjson";
+    private static final String ID_PATTERN = "[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}";
+
+    public enum State {
+        QUEUED, RUNNING, DONE, FAILED
+    }
+
+    private static final ConcurrentMap<String, Job> JOBS = new ConcurrentHashMap<>();
+
+    private static File directory = null;
+    private static File inputDirectory = null;
+    private static IFSCompetitionExecutor competitionExecutor = null;
+    private static ExecutorService forecastExecutor = null;
+    private static ExecutorService jobExecutor = null;
+    private static int maxInFlight = 1;
+    private static volatile boolean stopping = false;
+
+    private BatchJobService() {
+    }
+
+    /**
+     * Start the service and resume the unfinished jobs found in the jobs directory.
+     *
+     * @throws IOException if the jobs directory cannot be created
+     */
+    public static synchronized void start() throws IOException {
+        if (jobExecutor != null) {
+            return;
+        }
+
+        int processors = Runtime.getRuntime().availableProcessors();
+        int poolSize = IfsConfig.getIntProperty(POOL_SIZE_PROPERTY_NAME, Math.max(1, processors / 2), 1);
+        String path = IfsConfig.config().getProperty(DIRECTORY_PROPERTY_NAME);
+
+        if (path == null || path.trim().isEmpty()) {
+            path = new File(System.getProperty("java.io.tmpdir"), "ifs-jobs").getPath();
+        }
+        directory = new File(path.trim());
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create jobs directory : " + directory);
+        }
+
+        String inputPath = IfsConfig.config().getProperty(INPUT_DIRECTORY_PROPERTY_NAME);
+
+        inputDirectory = null;
+        if (inputPath != null && !inputPath.trim().isEmpty()) {
+            File input = new File(inputPath.trim()).getCanonicalFile();
+            if (input.isDirectory()) {
+                inputDirectory = input;
+            } else {
+                LOG.error("Batch jobs input directory : " + input + " is not a directory, local series files are disabled");
+            }
+        }
+
+        maxInFlight = IfsConfig.getIntProperty(MAX_IN_FLIGHT_PROPERTY_NAME, 4 * poolSize, 1);
+        stopping = false;
+
+        // Each series competes with a parallelism of one. Batch throughput comes from forecasting many series at
+        // once rather than from splitting a competition.
+
+        competitionExecutor = new IFSCompetitionExecutor(poolSize, poolSize, maxInFlight, 1);
+        forecastExecutor = Executors.newFixedThreadPool(poolSize, threadFactory("ifs-job-forecast-"));
+        jobExecutor = Executors.newSingleThreadExecutor(threadFactory("ifs-job-"));
+        LOG.debug("Batch jobs directory : " + directory + " input directory : " + inputDirectory
+                + " pool size : " + poolSize + " max in flight : " + maxInFlight);
+
+        List<Job> unfinished = new ArrayList<>();
+        File[] jobDirectories = directory.listFiles();
+
+        if (jobDirectories != null) {
+            for (File jobDirectory : jobDirectories) {
+                if (!jobDirectory.getName().matches(ID_PATTERN) || !new File(jobDirectory, STATE_FILE_NAME).isFile()) {
+                    continue;
+                }
+                try {
+                    Job job = Job.load(jobDirectory);
+                    JOBS.put(job.id, job);
+                    if (job.state == State.QUEUED || job.state == State.RUNNING) {
+                        unfinished.add(job);
+                    }
+                } catch (IOException e) {
+                    LOG.error("Failed to load job " + jobDirectory.getName(), e);
+                }
+            }
+        }
+        Collections.sort(unfinished, new Comparator<Job>() {
+            @Override
+            public int compare(Job first, Job second) {
+                return Long.compare(first.submitted, second.submitted);
+            }
+        });
+        for (Job job : unfinished) {
+            LOG.info("Resuming job " + job.id);
+            jobExecutor.execute(job);
+        }
+    }
+
+    /**
+     * Stop the service. Running jobs stop after their current result line and resume when the service starts again.
+     *
+     * @param timeout milliseconds to wait for the executors to stop
+     */
+    public static synchronized void shutdown(long timeout) {
+        if (jobExecutor == null) {
+            return;
+        }
+        stopping = true;
+        jobExecutor.shutdownNow();
+        forecastExecutor.shutdownNow();
+        try {
+            jobExecutor.awaitTermination(timeout, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        competitionExecutor.shutdown(timeout);
+        jobExecutor = null;
+        forecastExecutor = null;
+        competitionExecutor = null;
+        JOBS.clear();
+    }
+
+    /**
+     * Submit a job for an uploaded series file.
+     *
+     * @param series newline delimited impression forecast requests
+     * @return job status
+     * @throws IOException if the service is not started or the series cannot be stored
+     */
+    public static JobResponse submit(InputStream series) throws IOException {
+        File jobDirectory = createJobDirectory();
+        File input = new File(jobDirectory, INPUT_FILE_NAME);
+
+        Files.copy(series, input.toPath());
+        return submit(jobDirectory, input);
+    }
+
+    /**
+     * Submit a job for a series file in the input directory.
+     *
+     * @param path path of a file of newline delimited impression forecast requests relative to the input directory
+     * @return job status
+     * @throws IOException if the service is not started, there is no input directory, the path leads outside the
+     *                     input directory or the file cannot be read
+     */
+    public static JobResponse submit(String path) throws IOException {
+        File input = resolveInput(path);
+
+        if (!input.isFile() || !input.canRead()) {
+            throw new IOException("Cannot read series file : " + path);
+        }
+        return submit(createJobDirectory(), input);
+    }
+
+    /**
+     * Fetch the status of a job.
+     *
+     * @param id job id
+     * @return job status or null if there is no such job
+     */
+    public static JobResponse getJob(String id) {
+        Job job = (id == null) ? null : JOBS.get(id);
+        return (job == null) ? null : job.getStatus();
+    }
+
+    /**
+     * Fetch the results file of a job. The file grows while the job runs.
+     *
+     * @param id job id
+     * @return results file or null if there is no such job or it has no results yet
+     */
+    public static File getResults(String id) {
+        Job job = (id == null) ? null : JOBS.get(id);
+        if (job == null) {
+            return null;
+        }
+
+        File results = new File(job.directory, RESULTS_FILE_NAME);
+        return results.isFile() ? results : null;
+    }
+
+    /**
+     * Resolve a series file path against the input directory. The resolved path is canonical, so neither ".."
+     * segments nor symbolic links lead outside the input directory.
+     *
+     * @param path path relative to the input directory
+     * @return canonical series file
+     * @throws IOException if there is no input directory or the path leads outside it
+     */
+    private static synchronized File resolveInput(String path) throws IOException {
+        if (inputDirectory == null) {
+            throw new IOException("Batch jobs for local series files are not enabled");
+        }
+
+        File input = new File(inputDirectory, path).getCanonicalFile();
+        if (input.equals(inputDirectory) || !input.toPath().startsWith(inputDirectory.toPath())) {
+            throw new IOException("Series file is not in the input directory : " + path);
+        }
+        return input;
+    }
+
+    /**
+     * Create the directory of a new job.
+     *
+     * @return job directory
+     * @throws IOException if the service is not started or the directory cannot be created
+     */
+    private static synchronized File createJobDirectory() throws IOException {
+        if (jobExecutor == null) {
+            throw new IOException("Batch jobs are not available");
+        }
+
+        File jobDirectory = new File(directory, UUID.randomUUID().toString());
+        if (!jobDirectory.mkdir()) {
+            throw new IOException("Cannot create job directory : " + jobDirectory);
+        }
+        return jobDirectory;
+    }
+
+    /**
+     * Queue a new job.
+     *
+     * @param jobDirectory job directory
+     * @param input series file
+     * @return job status
+     * @throws IOException if the job state cannot be stored or the service stopped
+     */
+    private static synchronized JobResponse submit(File jobDirectory, File input) throws IOException {
+        if (jobExecutor == null) {
+            throw new IOException("Batch jobs are not available");
+        }
+
+        Job job = new Job(jobDirectory, input, System.currentTimeMillis());
+        job.save();
+        JOBS.put(job.id, job);
+        jobExecutor.execute(job);
+        LOG.debug("Submitted job " + job.id + " for " + input);
+        return job.getStatus();
+    }
+
+    /**
+     * Wait until the canned set definitions have been loaded so series are not failed for lack of them, which
+     * matters for jobs resumed while the application starts.
+     *
+     * @throws InterruptedException if the service is stopping
+     */
+    private static void awaitCannedSets() throws InterruptedException {
+        while (IfsConfig.getCache().getMap() == null) {
+            Thread.sleep(1000);
+        }
+    }
+
+    /**
+     * Create a thread factory for daemon threads.
+     *
+     * @param prefix thread name prefix
+     * @return thread factory
+     */
+    private static ThreadFactory threadFactory(final String prefix) {
+        final AtomicInteger threadNumber = new AtomicInteger(0);
+        return new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, prefix + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        };
+    }
+
+    /**
+     * Batch forecast job.
+     */
+    private static final class Job implements Runnable {
+        private final String id;
+        private final File directory;
+        private final File input;
+        private final long submitted;
+        private final AtomicLong processed = new AtomicLong(0);
+        private volatile State state = State.QUEUED;
+        private volatile Long total = null;
+        private volatile String error = null;
+        private volatile long runStart = 0;
+        private volatile long runStartProcessed = 0;
+
+        private Job(File directory, File input, long submitted) {
+            this.id = directory.getName();
+            this.directory = directory;
+            this.input = input;
+            this.submitted = submitted;
+        }
+
+        /**
+         * Load a job from its directory.
+         *
+         * @param directory job directory
+         * @return job
+         * @throws IOException if the job state cannot be read
+         */
+        private static Job load(File directory) throws IOException {
+            Properties properties = new Properties();
+            try (InputStream in = new FileInputStream(new File(directory, STATE_FILE_NAME))) {
+                properties.load(in);
+            }
+
+            try {
+                Job job = new Job(directory, new File(properties.getProperty("input")),
+                        Long.parseLong(properties.getProperty("submitted")));
+                job.state = State.valueOf(properties.getProperty("state"));
+                job.error = properties.getProperty("error");
+                if (properties.getProperty("total") != null) {
+                    job.total = Long.parseLong(properties.getProperty("total"));
+                }
+                if (job.state == State.DONE) {
+                    job.processed.set(job.total != null ? job.total : 0);
+                }
+                return job;
+            } catch (RuntimeException e) {
+                throw new IOException("Invalid job state : " + e.getMessage());
+            }
+        }
+
+        /**
+         * Store the job state replacing the previous one atomically.
+         *
+         * @throws IOException if the state cannot be written
+         */
+        private synchronized void save() throws IOException {
+            Properties properties = new Properties();
+            properties.setProperty("input", input.getPath());
+            properties.setProperty("submitted", Long.toString(submitted));
+            properties.setProperty("state", state.name());
+            if (total != null) {
+                properties.setProperty("total", Long.toString(total));
+            }
+            if (error != null) {
+                properties.setProperty("error", error);
+            }
+
+            File temporary = new File(directory, STATE_FILE_NAME + ".tmp");
+            try (OutputStream out = new FileOutputStream(temporary)) {
+                properties.store(out, "batch forecast job " + id);
+            }
+            Files.move(temporary.toPath(), new File(directory, STATE_FILE_NAME).toPath(),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+
+        private JobResponse getStatus() {
+            JobResponse status = new JobResponse();
+            long elapsed = System.currentTimeMillis() - runStart;
+
+            status.setId(id);
+            status.setState(state.name());
+            status.setSubmitted(submitted);
+            status.setProcessed(processed.get());
+            status.setTotal(total);
+            status.setError(error);
+            if (runStart > 0 && elapsed > 0) {
+                status.setThroughput(1000.0 * (processed.get() - runStartProcessed) / elapsed);
+            }
+            return status;
+        }
+
+        @Override
+        public void run() {
+            if (stopping) {
+                return;
+            }
+
+            try {
+                awaitCannedSets();
+                state = State.RUNNING;
+                save();
+                if (total == null) {
+                    total = countSeries(input);
+                    save();
+                }
+
+                File results = new File(directory, RESULTS_FILE_NAME);
+                long checkpoint = recoverResults(results);
+
+                processed.set(checkpoint);
+                runStartProcessed = checkpoint;
+                runStart = System.currentTimeMillis();
+                if (!forecast(results, checkpoint)) {
+                    return;
+                }
+
+                state = State.DONE;
+                save();
+                LOG.debug("Job " + id + " done");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                if (stopping) {
+                    return;
+                }
+                LOG.error("Job " + id + " failed", e);
+                state = State.FAILED;
+                error = e.getMessage() != null ? e.getMessage() : e.toString();
+                try {
+                    save();
+                } catch (IOException se) {
+                    LOG.error("Failed to store state of job " + id, se);
+                }
+            }
+        }
+
+        /**
+         * Forecast the series after the checkpoint appending the results in series order.
+         *
+         * @param results results file
+         * @param checkpoint number of series with results
+         * @return true if all series were forecast, false if the service is stopping
+         * @throws IOException if the series cannot be read or the results cannot be written
+         * @throws InterruptedException if the service is stopping
+         */
+        private boolean forecast(File results, long checkpoint) throws IOException, InterruptedException {
+            Deque<Future<BulkForecastResponse>> window = new ArrayDeque<>();
+
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(new FileInputStream(input), StandardCharsets.UTF_8));
+                 OutputStream out = new FileOutputStream(results, true)) {
+                long index = 0;
+                String line;
+
+                while ((line = reader.readLine()) != null) {
+                    if (line.trim().isEmpty()) {
+                        continue;
+                    }
+
+                    final long lineIndex = index++;
+                    final String requestLine = line;
+
+                    if (lineIndex < checkpoint) {
+                        continue;
+                    }
+                    if (stopping) {
+                        return false;
+                    }
+                    window.add(forecastExecutor.submit(new Callable<BulkForecastResponse>() {
+                        @Override
+                        public BulkForecastResponse call() {
+                            return BulkForecastService.forecast(lineIndex, requestLine, competitionExecutor);
+                        }
+                    }));
+                    if (window.size() >= maxInFlight) {
+                        writeResult(window, out);
+                    }
+                }
+                while (!window.isEmpty()) {
+                    if (stopping) {
+                        return false;
+                    }
+                    writeResult(window, out);
+                }
+            } finally {
+                for (Future<BulkForecastResponse> pending : window) {
+                    pending.cancel(true);
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Wait for the oldest series in flight and append its result.
+         *
+         * @param window series in flight, oldest first
+         * @param out results stream
+         * @throws IOException if the result cannot be written
+         * @throws InterruptedException if the service is stopping
+         */
+        private void writeResult(Deque<Future<BulkForecastResponse>> window, OutputStream out)
+                throws IOException, InterruptedException {
+            try {
+                out.write(BulkForecastService.encode(window.peek().get()));
+            } catch (ExecutionException e) {
+                throw new IOException("Forecast failed : " + e.getCause());
+            }
+            window.poll();
+            processed.incrementAndGet();
+        }
+
+        /**
+         * Count the series of a series file.
+         *
+         * @param input series file
+         * @return number of non-empty lines
+         * @throws IOException if the file cannot be read
+         */
+        private static long countSeries(File input) throws IOException {
+            long count = 0;
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(new FileInputStream(input), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (!line.trim().isEmpty()) {
+                        count++;
+                    }
+                }
+            }
+            return count;
+        }
+
+        /**
+         * Drop a partially written last line from a results file and count its complete lines.
+         *
+         * @param results results file
+         * @return number of complete result lines
+         * @throws IOException if the file cannot be read or truncated
+         */
+        private static long recoverResults(File results) throws IOException {
+            if (!results.isFile()) {
+                return 0;
+            }
+
+            long count = 0;
+            long end = 0;
+            long position = 0;
+            try (InputStream in = new BufferedInputStream(new FileInputStream(results))) {
+                int b;
+                while ((b = in.read()) != -1) {
+                    position++;
+                    if (b == '\n') {
+                        count++;
+                        end = position;
+                    }
+                }
+            }
+            if (end < position) {
+                try (RandomAccessFile file = new RandomAccessFile(results, "rw")) {
+                    file.setLength(end);
+                }
+            }
+            return count;
+        }
+    }
+}
@@ -0,0 +1,239 @@
+/********************************************************************************
+ * Copyright 2018, Oath Inc.
+ * Licensed under the terms of the Apache Version 2.0 license.
+ * See LICENSE file in project root directory for terms.
+ ********************************************************************************/
+
+package com.aol.one.reporting.forecastapi.server.service;
+
+import com.aol.one.reporting.forecastapi.server.app.IfsConfig;
+import com.aol.one.reporting.forecastapi.server.model.request.ImpressionForecastRequest;
+import com.aol.one.reporting.forecastapi.server.model.response.BulkForecastResponse;
+import com.aol.one.reporting.forecastapi.server.models.cs.IFSCompetitionExecutor;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Bulk forecasting of newline delimited JSON (NDJSON) streams. Each non-empty line of the request stream is an
+ * impression forecast request and each line of the response stream is the {@link BulkForecastResponse} of one request
+ * line, written as soon as the request completes. Responses are therefore in completion order and carry the index of
+ * their request line.
+ * <p>
+ * Request lines are handed to a shared pool of bulk threads whose competitions run on the competition executor. The
+ * number of request lines in flight per stream is bounded, so reading the request stream stops until a request
+ * completes once the bound is reached. This bounds the memory a stream holds however long it is.
+ */
+public final class BulkForecastService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BulkForecastService.class);
+
+    public static final String NDJSON = "application/x-ndjson";
+
+    private static final String THREADS_PROPERTY_NAME = "ifs.bulk.threads";
+    private static final String MAX_IN_FLIGHT_PROPERTY_NAME = "ifs.bulk.max.inflight";
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final ObjectReader REQUEST_READER = MAPPER.readerFor(ImpressionForecastRequest.class);
+    private static final ObjectWriter RESPONSE_WRITER = MAPPER.writerFor(BulkForecastResponse.class);
+
+    private static ExecutorService executor = null;
+
+    private BulkForecastService() {
+    }
+
+    /**
+     * Forecast every request line of an NDJSON stream writing the response lines to an NDJSON stream. Returns once
+     * all response lines have been written.
+     *
+     * @param input request stream
+     * @param output response stream
+     * @throws IOException if the request stream cannot be read or the response stream cannot be written
+     */
+    public static void forecast(InputStream input, final OutputStream output) throws IOException {
+        ExecutorService bulkExecutor = getExecutor();
+        final int maxInFlight = IfsConfig.getIntProperty(MAX_IN_FLIGHT_PROPERTY_NAME,
+                4 * Runtime.getRuntime().availableProcessors(), 1);
+        final Semaphore inFlight = new Semaphore(maxInFlight);
+        final AtomicReference<IOException> writeError = new AtomicReference<>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        long index = 0;
+        String line;
+
+        try {
+            try {
+                while (writeError.get() == null && (line = reader.readLine()) != null) {
+                    if (line.trim().isEmpty()) {
+                        continue;
+                    }
+
+                    final long lineIndex = index++;
+                    final String requestLine = line;
+
+                    inFlight.acquire();
+                    try {
+                        bulkExecutor.execute(new Runnable() {
+                            @Override
+                            public void run() {
+                                try {
+                                    write(output, forecast(lineIndex, requestLine, null), writeError);
+                                } finally {
+                                    inFlight.release();
+                                }
+                            }
+                        });
+                    } catch (RejectedExecutionException e) {
+                        inFlight.release();
+                        throw new IOException("Bulk forecast executor is shut down");
+                    }
+                }
+            } finally {
+                // Wait for the requests in flight so nothing writes to the response stream after returning.
+                inFlight.acquire(maxInFlight);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Bulk forecast was interrupted");
+        }
+
+        if (writeError.get() != null) {
+            throw writeError.get();
+        }
+        LOG.debug("Bulk forecast of " + index + " requests done");
+    }
+
+    /**
+     * Fetch the shared bulk executor creating it if there is none.
+     *
+     * @return bulk executor
+     */
+    public static synchronized ExecutorService getExecutor() {
+        if (executor == null) {
+            int threads = IfsConfig.getIntProperty(THREADS_PROPERTY_NAME,
+                    Runtime.getRuntime().availableProcessors(), 1);
+            final AtomicInteger threadNumber = new AtomicInteger(0);
+
+            executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "ifs-bulk-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+            LOG.debug("Bulk forecast threads : " + threads);
+        }
+        return executor;
+    }
+
+    /**
+     * Shut down the shared bulk executor waiting up to the given time for running requests to finish.
+     *
+     * @param timeout milliseconds to wait
+     */
+    public static synchronized void shutdown(long timeout) {
+        if (executor == null) {
+            return;
+        }
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(timeout, TimeUnit.MILLISECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        executor = null;
+    }
+
+    /**
+     * Forecast one request line. A request line that cannot be parsed is reported by its index alone since parser
+     * messages quote the line.
+     *
+     * @param index index of the request line
+     * @param line request line
+     * @param competitionExecutor competition executor or null to use the shared one
+     * @return response holding the forecast or the error
+     */
+    static BulkForecastResponse forecast(long index, String line, IFSCompetitionExecutor competitionExecutor) {
+        long start = System.currentTimeMillis();
+        ImpressionForecastRequest request;
+        try {
+            request = REQUEST_READER.readValue(line);
+        } catch (IOException e) {
+            LOG.debug("Failed to parse bulk forecast request " + index);
+            return new BulkForecastResponse(index, null, "Invalid request at line " + index);
+        }
+        try {
+            return new BulkForecastResponse(index, ForecastService.impressionForecast(request, start, competitionExecutor), null);
+        } catch (Exception e) {
+            LOG.debug("Failed to generate bulk forecast " + index + ". Error : " + e.getMessage());
+            return new BulkForecastResponse(index, null, e.getMessage() != null ? e.getMessage() : e.toString());
+        }
+    }
+
+    /**
+     * Encode a response as a response line.
+     *
+     * @param response response to encode
+     * @return response line including the line end
+     */
+    static byte[] encode(BulkForecastResponse response) {
+        byte[] json;
+        try {
+            json = RESPONSE_WRITER.writeValueAsBytes(response);
+        } catch (JsonProcessingException e) {
+            LOG.error("Failed to encode bulk forecast " + response.getIndex(), e);
+            json = ("{\"index\":" + response.getIndex() + ",\"response\":null,\"error\":\"Failed to encode forecast\"}")
+                    .getBytes(StandardCharsets.UTF_8);
+        }
+
+        byte[] line = Arrays.copyOf(json, json.length + 1);
+        line[json.length] = '\n';
+        return line;
+    }
+
+    /**
+     * Write a response line unless writing already failed.
+     *
+     * @param output response stream
+     * @param response response to write
+     * @param writeError first write error
+     */
+    private static void write(OutputStream output, BulkForecastResponse response,
+                              AtomicReference<IOException> writeError) {
+        byte[] line = encode(response);
+
+        synchronized (output) {
+            if (writeError.get() != null) {
+                return;
+            }
+            try {
+                output.write(line);
+                output.flush();
+            } catch (IOException e) {
+                writeError.compareAndSet(null, e);
+            }
+        }
+    }
+}
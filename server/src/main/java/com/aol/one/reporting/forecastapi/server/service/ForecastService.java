@@ -16,11 +16,12 @@ import com.aol.one.reporting.forecastapi.server.model.response.CollectionRespons
 import com.aol.one.reporting.forecastapi.server.model.response.ForecastResponse;
 import com.aol.one.reporting.forecastapi.server.models.cs.IFSCannedSet;
 import com.aol.one.reporting.forecastapi.server.models.cs.IFSCannedSetCompetition;
+import com.aol.one.reporting.forecastapi.server.models.cs.IFSCannedSetEnsemble;
+import com.aol.one.reporting.forecastapi.server.models.cs.IFSCannedSetResult;
 import com.aol.one.reporting.forecastapi.server.models.cs.IFSCannedSetSelection;
 import com.aol.one.reporting.forecastapi.server.models.cs.IFSCannedSetSelectionConstraints;
 import com.aol.one.reporting.forecastapi.server.models.cs.IFSCannedSetSelectionContext;
-import com.aol.one.reporting.forecastapi.server.models.model.IFSModel;
-import com.aol.one.reporting.forecastapi.server.models.model.IFSModelFactory;
+import com.aol.one.reporting.forecastapi.server.models.cs.IFSCompetitionExecutor;
 import com.aol.one.reporting.forecastapi.server.models.model.IFSParameterValue;
 import com.aol.one.reporting.forecastapi.server.util.ForecastUtil;
 import com.aol.one.reporting.forecastapi.server.util.RequestValidation;
@@ -57,6 +58,8 @@ public final class ForecastService {
 
     public static final int HOLD_BACK_DAYS = 30;
 
+    private static final String DEADLINE_PROPERTY_NAME = "ifs.competition.deadline";
+
 
     private ForecastService() {
     }
@@ -65,6 +68,7 @@ public final class ForecastService {
         Integer sfw = RequestValidation.spikeFilter(easyForecastRequest.getSpikeFilterWindow());
         easyForecastRequest.setSpikeFilterWindow(sfw);
         RequestValidation.numberForecasts(easyForecastRequest.getNumberForecasts());
+        RequestValidation.ensembleSize(easyForecastRequest.getEnsembleSize());
         RequestValidation.timeSeries(easyForecastRequest.getTimeSeries());
 
         IfsCache cache = IfsConfig.getCache();
@@ -92,12 +96,14 @@ public final class ForecastService {
         context.setID(1);
         context.setProfitCenter(1);
         context.setCannedSetCandidates(ifsCannedSetList);
+        context.setEnsembleSize(easyForecastRequest.getEnsembleSize());
+        context.setRacing(true);
+        context.setDeadline(competitionDeadline(null, start));
 
-        IFSCannedSet selectedCannedSet = IFSCannedSetSelection.selectCannedSet(constraints, context);
-        IFSModel model = IFSModelFactory.create(selectedCannedSet.getParameterSpec().getModel());
-        IFSModelFactory.setup(model, easyForecastRequest.getTimeSeries(), selectedCannedSet.getParameterSpec().getParameterValues());
-        model.generateForecasts(easyForecastRequest.getNumberForecasts());
-        double[] forecast = model.getForecasts();
+        IFSCannedSetResult selectedResult = IFSCannedSetSelection.getSelectionResult(constraints, context);
+        IFSCannedSet selectedCannedSet = selectedResult.getCannedSet();
+        double[] forecast = IFSCannedSetEnsemble.getForecasts(context, selectedResult,
+                easyForecastRequest.getTimeSeries(), easyForecastRequest.getNumberForecasts());
 
         if (easyForecastRequest.getMassageForecast() && forecast != null) {
             ForecastUtil.messageForecast(forecast);
@@ -106,6 +112,8 @@ public final class ForecastService {
         ForecastResponse response = new ForecastResponse();
         response.setForecast(forecast);
         response.setSelectedCannedSet(selectedCannedSet.getName());
+        response.setCandidatesEvaluated(selectedResult.getNumEvaluated());
+        response.setEnsembleCannedSets(ensembleCannedSets(selectedResult));
         long end = System.currentTimeMillis();
         long time = (end - start);
         response.setTime(time);
@@ -116,6 +124,7 @@ public final class ForecastService {
         Integer sfw = RequestValidation.spikeFilter(request.getSpikeFilterWindow());
         request.setSpikeFilterWindow(sfw);
         RequestValidation.numberForecasts(request.getNumberForecasts());
+        RequestValidation.ensembleSize(request.getEnsembleSize());
         RequestValidation.timeSeries(request.getTimeSeries());
 
 
@@ -148,12 +157,14 @@ public final class ForecastService {
         context.setID(1);
         context.setProfitCenter(1);
         context.setCannedSetCandidates(cannedSets);
+        context.setEnsembleSize(request.getEnsembleSize());
+        context.setRacing(true);
+        context.setDeadline(competitionDeadline(null, start));
 
-        IFSCannedSet selectedCannedSet = IFSCannedSetSelection.selectCannedSet(constraints, context);
-        IFSModel model = IFSModelFactory.create(selectedCannedSet.getParameterSpec().getModel());
-        IFSModelFactory.setup(model, request.getTimeSeries(), selectedCannedSet.getParameterSpec().getParameterValues());
-        model.generateForecasts(request.getNumberForecasts());
-        double[] forecast = model.getForecasts();
+        IFSCannedSetResult selectedResult = IFSCannedSetSelection.getSelectionResult(constraints, context);
+        IFSCannedSet selectedCannedSet = selectedResult.getCannedSet();
+        double[] forecast = IFSCannedSetEnsemble.getForecasts(context, selectedResult,
+                request.getTimeSeries(), request.getNumberForecasts());
 
         if (request.getMassageForecast() && forecast != null) {
             ForecastUtil.messageForecast(forecast);
@@ -162,6 +173,8 @@ public final class ForecastService {
         ForecastResponse response = new ForecastResponse();
         response.setForecast(forecast);
         response.setSelectedCannedSet(selectedCannedSet.getName());
+        response.setCandidatesEvaluated(selectedResult.getNumEvaluated());
+        response.setEnsembleCannedSets(ensembleCannedSets(selectedResult));
         long end = System.currentTimeMillis();
         long time = (end - start);
         response.setTime(time);
@@ -228,10 +241,28 @@ public final class ForecastService {
     }
 
     public static ForecastResponse impressionForecast(ImpressionForecastRequest request, long start) throws Exception {
+        return impressionForecast(request, start, null);
+    }
+
+    /**
+     * Produce an impression forecast running the competition on the given executor.
+     *
+     * @param request impression forecast request
+     * @param start request start time
+     * @param executor competition executor or null to use the shared one
+     * @return forecast response
+     * @throws Exception if the request is invalid or the forecast fails
+     */
+    public static ForecastResponse impressionForecast(ImpressionForecastRequest request, long start,
+                                                      IFSCompetitionExecutor executor) throws Exception {
         Integer sfw = RequestValidation.spikeFilter(request.getSpikeFilterWindow());
         request.setSpikeFilterWindow(sfw);
         RequestValidation.numberForecasts(request.getNumberForecasts());
+        RequestValidation.ensembleSize(request.getEnsembleSize());
+        RequestValidation.timeLimit(request.getTimeLimit());
         RequestValidation.timeSeries(request.getTimeSeries());
+        RequestValidation.numberFolds(request.getNumberFolds(), request.getTimeSeries(),
+                request.getNumberHoldBack());
 
         if (request.getCannedSets() == null || request.getCannedSets().length == 0) {
             request.setCannedSets(DEFAULT_CANNED_SET);
@@ -259,17 +290,21 @@ public final class ForecastService {
 
         IFSCannedSetSelectionContext context = new IFSCannedSetSelectionContext();
         context.setSeries(request.getTimeSeries(), request.getNumberHoldBack());
+        context.setNumFolds(request.getNumberFolds());
         context.setID(1);
         context.setProfitCenter(1);
         context.setCannedSetCandidates(ifsCannedSetList);
+        context.setEnsembleSize(request.getEnsembleSize());
+        context.setRacing(true);
+        context.setDeadline(competitionDeadline(request.getTimeLimit(), start));
+        context.setExecutor(executor);
 
 
-        IFSCannedSet selectedCannedSet = IFSCannedSetCompetition.competeCannedSets(context, ifsCannedSetList);
+        IFSCannedSetResult selectedResult = IFSCannedSetCompetition.getCompetitionResult(context, ifsCannedSetList);
+        IFSCannedSet selectedCannedSet = selectedResult.getCannedSet();
 
-        IFSModel model = IFSModelFactory.create(selectedCannedSet.getParameterSpec().getModel());
-        IFSModelFactory.setup(model, request.getTimeSeries(), selectedCannedSet.getParameterSpec().getParameterValues());
-        model.generateForecasts(request.getNumberForecasts());
-        double[] forecast = model.getForecasts();
+        double[] forecast = IFSCannedSetEnsemble.getForecasts(context, selectedResult,
+                request.getTimeSeries(), request.getNumberForecasts());
 
         if (request.getMassageForecast() && forecast != null) {
             ForecastUtil.messageForecast(forecast);
@@ -278,10 +313,40 @@ public final class ForecastService {
         ForecastResponse response = new ForecastResponse();
         response.setForecast(forecast);
         response.setSelectedCannedSet(selectedCannedSet.getName());
+        response.setCandidatesEvaluated(selectedResult.getNumEvaluated());
+        response.setEnsembleCannedSets(ensembleCannedSets(selectedResult));
         long end = System.currentTimeMillis();
         long time = (end - start);
         response.setTime(time);
         return response;
     }
 
+    /**
+     * Fetch the names of the canned sets whose forecasts were averaged.
+     *
+     * @param result competition result
+     * @return canned set names, best first
+     */
+    private static String[] ensembleCannedSets(IFSCannedSetResult result) {
+        List<IFSCannedSetResult> members = result.getEnsemble();
+        String[] names = new String[members.size()];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = members.get(i).getCannedSet().getName();
+        }
+        return names;
+    }
+
+    /**
+     * Compute the competition deadline of a request. A time limit given in the request takes precedence over the
+     * server default.
+     *
+     * @param timeLimit milliseconds the competition may take or null to use the server default
+     * @param start request start time
+     * @return deadline or 0 if the competition has no time limit
+     */
+    private static long competitionDeadline(Integer timeLimit, long start) {
+        int limit = (timeLimit != null) ? timeLimit : IfsConfig.getIntProperty(DEADLINE_PROPERTY_NAME, 0, 0);
+        return (limit > 0) ? start + limit : 0;
+    }
+
 }
@@ -8,6 +8,7 @@ package com.aol.one.reporting.forecastapi.server.util;
 
 import com.aol.one.reporting.forecastapi.server.app.IfsCache;
 import com.aol.one.reporting.forecastapi.server.models.cs.IFSCannedSet;
+import com.aol.one.reporting.forecastapi.server.models.cs.IFSCannedSetSelectionContext;
 import com.aol.one.reporting.forecastapi.server.models.model.IFSException;
 import com.aol.one.reporting.forecastapi.server.models.model.IFSParameterValue;
 import org.slf4j.Logger;
@@ -39,6 +40,33 @@ public final class RequestValidation {
         }
     }
 
+    public static void numberFolds(int numberFolds, double[] timeSeries, int numberHoldBack) throws Exception {
+        if (numberFolds < 1) {
+            LOG.error("Invalid number of folds : " + numberFolds + " in request");
+            throw new Exception("Invalid number of folds : " + numberFolds + " in request");
+        }
+        int maxNumberFolds = IFSCannedSetSelectionContext.getMaxNumFolds(timeSeries.length, numberHoldBack);
+        if (numberFolds > maxNumberFolds) {
+            LOG.error("Invalid number of folds : " + numberFolds + " in request, the time series supports at most "
+                    + maxNumberFolds);
+            throw new Exception("Invalid number of folds : " + numberFolds
+                    + " in request, the time series supports at most " + maxNumberFolds);
+        }
+    }
+
+    public static void ensembleSize(int ensembleSize) throws Exception {
+        if (ensembleSize < 1) {
+            LOG.error("Invalid ensemble size : " + ensembleSize + " in request");
+            throw new Exception("Invalid ensemble size : " + ensembleSize + " in request");
+        }
+    }
+
+    public static void timeLimit(Integer timeLimit) throws Exception {
+        if (timeLimit != null && timeLimit < 0) {
+            LOG.error("Invalid time limit : " + timeLimit + " in request");
+            throw new Exception("Invalid time limit : " + timeLimit + " in request");
+        }
+    }
 
     public static void timeSeries(double[] timeSeries) throws Exception {
         if (timeSeries == null || timeSeries.length < 1) {